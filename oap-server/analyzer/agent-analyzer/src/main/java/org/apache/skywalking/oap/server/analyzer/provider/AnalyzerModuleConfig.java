@@ -23,12 +23,14 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.skywalking.oap.meter.analyzer.dsl.counter.CounterWindow;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.CacheReadLatencyThresholdsAndWatcher;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.CacheWriteLatencyThresholdsAndWatcher;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.DBLatencyThresholdsAndWatcher;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.TraceSamplingPolicyWatcher;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.UninstrumentedGatewaysConfig;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.strategy.SegmentStatusStrategy;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.sampling.TraceTailSampler;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.library.module.ModuleConfig;
 
@@ -113,6 +115,26 @@ public class AnalyzerModuleConfig extends ModuleConfig {
     @Setter
     private String meterAnalyzerActiveFiles = Const.EMPTY_STRING;
 
+    /**
+     * The counter samples kept for `rate`, `increase` and `irate` of MAL expressions are evicted after the series is
+     * not seen for this period. Unit ms.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private long malCounterWindowIdleTimeout = CounterWindow.DEFAULT_IDLE_TIMEOUT;
+
+    /**
+     * The max number of series kept for `rate`, `increase` and `irate` of MAL expressions, the least recently seen
+     * series are evicted beyond it.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private int malCounterWindowMaxSeries = CounterWindow.DEFAULT_MAX_SERIES;
+
     /**
      * Sample the trace segment if the segment has span(s) tagged as error status, and ignore the sampleRate
      * configuration.
@@ -130,6 +152,70 @@ public class AnalyzerModuleConfig extends ModuleConfig {
     @Getter
     private String segmentStatusAnalysisStrategy = FROM_SPAN_STATUS.name();
 
+    /**
+     * Decide whether to save a trace after all of its segments are received, rather than sampling every segment. The
+     * sampling policy settings file and {@link #forceSampleErrorSegment} are ignored when activated.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private boolean traceTailSampling = false;
+    /**
+     * How long the segments of a trace are buffered before the tail sampling decision. Unit, millisecond.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private long traceTailSamplingDecisionWindow = 10_000;
+    /**
+     * The trace is saved if any span is slower than this threshold. Non-positive value disables it. Unit, millisecond.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private int traceTailSamplingSlowSpanThreshold = 3000;
+    /**
+     * The max number of traces saved per root service per minute, besides the traces in error status or having slow
+     * spans.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private int traceTailSamplingServiceQuota = 100;
+    /**
+     * The max approximate size of segments buffered by the tail sampling in every OAP node. Unit, byte.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private long traceTailSamplingMaxBufferedBytes = 64 * 1024 * 1024;
+    /**
+     * What to do when the tail sampling buffer is full, `DROP` the incoming segment or `DECIDE_OLDEST` traces ahead
+     * of their decision windows.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private String traceTailSamplingOverflowPolicy = TraceTailSampler.OverflowPolicy.DECIDE_OLDEST.name();
+    /**
+     * The number of shards the tail sampling buffer is split into by the trace ID. Every shard has its own lock and an
+     * equal part of {@link #traceTailSamplingMaxBufferedBytes}.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private int traceTailSamplingShards = 16;
+    @Setter
+    @Getter
+    private TraceTailSampler traceTailSampler;
+
     private List<Integer> virtualPeers;
 
     /**
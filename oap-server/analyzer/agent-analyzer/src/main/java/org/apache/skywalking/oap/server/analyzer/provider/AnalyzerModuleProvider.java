@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.analyzer.provider;
 
 import java.util.List;
 import lombok.Getter;
+import org.apache.skywalking.oap.meter.analyzer.dsl.counter.CounterWindow;
 import org.apache.skywalking.oap.server.analyzer.module.AnalyzerModule;
 import org.apache.skywalking.oap.server.analyzer.provider.meter.config.MeterConfig;
 import org.apache.skywalking.oap.server.analyzer.provider.meter.config.MeterConfigs;
@@ -38,6 +39,7 @@ import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.RPCAnalysisListener;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentAnalysisListener;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.VirtualServiceAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.sampling.TraceTailSampler;
 import org.apache.skywalking.oap.server.configuration.api.ConfigurationModule;
 import org.apache.skywalking.oap.server.configuration.api.DynamicConfigurationService;
 import org.apache.skywalking.oap.server.core.CoreModule;
@@ -48,6 +50,8 @@ import org.apache.skywalking.oap.server.library.module.ModuleProvider;
 import org.apache.skywalking.oap.server.library.module.ModuleStartException;
 import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedException;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 public class AnalyzerModuleProvider extends ModuleProvider {
     @Getter
@@ -62,6 +66,7 @@ public class AnalyzerModuleProvider extends ModuleProvider {
     private SegmentParserServiceImpl segmentParserService;
     @Getter
     private TraceSamplingPolicyWatcher traceSamplingPolicyWatcher;
+    private TraceTailSampler traceTailSampler;
 
     private List<MeterConfig> meterConfigs;
     @Getter
@@ -105,6 +110,10 @@ public class AnalyzerModuleProvider extends ModuleProvider {
         moduleConfig.setTraceSamplingPolicyWatcher(traceSamplingPolicyWatcher);
         moduleConfig.setCacheReadLatencyThresholdsAndWatcher(cacheReadLatencyThresholdsAndWatcher);
         moduleConfig.setCacheWriteLatencyThresholdsAndWatcher(cacheWriteLatencyThresholdsAndWatcher);
+        if (moduleConfig.isTraceTailSampling()) {
+            traceTailSampler = new TraceTailSampler(moduleConfig);
+            moduleConfig.setTraceTailSampler(traceTailSampler);
+        }
 
         segmentParserService = new SegmentParserServiceImpl(getManager(), moduleConfig);
         this.registerServiceImplementation(ISegmentParserService.class, segmentParserService);
@@ -133,6 +142,27 @@ public class AnalyzerModuleProvider extends ModuleProvider {
         dynamicConfigurationService.registerConfigChangeWatcher(cacheReadLatencyThresholdsAndWatcher);
         dynamicConfigurationService.registerConfigChangeWatcher(cacheWriteLatencyThresholdsAndWatcher);
 
+        if (traceTailSampler != null) {
+            traceTailSampler.start(getManager());
+        }
+
+        final MetricsCreator metricsCreator = getManager().find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        CounterWindow.INSTANCE.configure(
+            moduleConfig.getMalCounterWindowIdleTimeout(),
+            moduleConfig.getMalCounterWindowMaxSeries(),
+            metricsCreator.createCounter(
+                "mal_counter_window_evicted_series_count",
+                "The number of series evicted from the counter window of MAL rate, increase and irate.",
+                new MetricsTag.Keys("reason"), new MetricsTag.Values("idle")
+            ),
+            metricsCreator.createCounter(
+                "mal_counter_window_evicted_series_count",
+                "The number of series evicted from the counter window of MAL rate, increase and irate.",
+                new MetricsTag.Keys("reason"), new MetricsTag.Values("overflow")
+            )
+        );
         segmentParserService.setListenerManager(listenerManager());
 
         processService.start(meterConfigs);
@@ -26,4 +26,13 @@ import org.apache.skywalking.oap.server.library.module.Service;
  */
 public interface ISegmentParserService extends Service {
     void send(SegmentObject segment);
+
+    /**
+     * @param segmentBinary the serialized segment which the segment object is parsed from. It is saved as the segment
+     *                      data directly, rather than encoding the segment object again.
+     * @since 10.1.0
+     */
+    default void send(SegmentObject segment, byte[] segmentBinary) {
+        send(segment);
+    }
 }
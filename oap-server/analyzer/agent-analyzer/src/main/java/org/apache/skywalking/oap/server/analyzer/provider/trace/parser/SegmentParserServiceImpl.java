@@ -33,10 +33,22 @@ public class SegmentParserServiceImpl implements ISegmentParserService {
     private final AnalyzerModuleConfig config;
     @Setter
     private SegmentParserListenerManager listenerManager;
+    /**
+     * Every receiver thread keeps its own analyzer, the listeners are reused for the segments received by the thread.
+     */
+    private final ThreadLocal<TraceAnalyzer> traceAnalyzers = ThreadLocal.withInitial(this::createTraceAnalyzer);
 
     @Override
     public void send(SegmentObject segment) {
-        final TraceAnalyzer traceAnalyzer = new TraceAnalyzer(moduleManager, listenerManager, config);
-        traceAnalyzer.doAnalysis(segment);
+        traceAnalyzers.get().doAnalysis(segment);
+    }
+
+    @Override
+    public void send(SegmentObject segment, byte[] segmentBinary) {
+        traceAnalyzers.get().doAnalysis(segment, segmentBinary);
+    }
+
+    private TraceAnalyzer createTraceAnalyzer() {
+        return new TraceAnalyzer(moduleManager, listenerManager, config);
     }
 }
@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +28,7 @@ import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
 import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
 import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.AnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.AnalysisListenerFactory;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.EntryAnalysisListener;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.ExitAnalysisListener;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.FirstAnalysisListener;
@@ -34,6 +36,10 @@ import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentListener;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 
+/**
+ * TraceAnalyzer notifies the listeners of the spans in the segment. It is not thread safe, the listeners are reused to
+ * analyse the following segments after reset, see {@link AnalysisListener#reset()}.
+ */
 @Slf4j
 @RequiredArgsConstructor
 public class TraceAnalyzer {
@@ -43,13 +49,28 @@ public class TraceAnalyzer {
     private List<AnalysisListener> analysisListeners = new ArrayList<>();
 
     public void doAnalysis(SegmentObject segmentObject) {
+        doAnalysis(segmentObject, null);
+    }
+
+    /**
+     * @param segmentBinary the serialized segment which the segment object is parsed from, null if not available.
+     */
+    public void doAnalysis(SegmentObject segmentObject, byte[] segmentBinary) {
         if (segmentObject.getSpansList().size() == 0) {
             return;
         }
 
         createSpanListeners();
 
-        notifySegmentListener(segmentObject);
+        try {
+            analyse(segmentObject, segmentBinary);
+        } finally {
+            resetSpanListeners();
+        }
+    }
+
+    private void analyse(SegmentObject segmentObject, byte[] segmentBinary) {
+        notifySegmentListener(segmentObject, segmentBinary);
 
         segmentObject.getSpansList().forEach(spanObject -> {
             if (spanObject.getSpanId() == 0) {
@@ -107,18 +128,38 @@ public class TraceAnalyzer {
         });
     }
 
-    private void notifySegmentListener(SegmentObject segmentObject) {
+    private void notifySegmentListener(SegmentObject segmentObject, byte[] segmentBinary) {
         analysisListeners.forEach(listener -> {
             if (listener.containsPoint(AnalysisListener.Point.Segment)) {
-                ((SegmentListener) listener).parseSegment(segmentObject);
+                ((SegmentListener) listener).parseSegment(segmentObject, segmentBinary);
             }
         });
     }
 
     private void createSpanListeners() {
-        listenerManager.getSpanListenerFactories()
-                       .forEach(
-                           spanListenerFactory -> analysisListeners.add(
-                               spanListenerFactory.create(moduleManager, config)));
+        final List<AnalysisListenerFactory> factories = listenerManager.getSpanListenerFactories();
+        if (analysisListeners.size() == factories.size()) {
+            // Created and reset after the last segment.
+            return;
+        }
+        analysisListeners.clear();
+        factories.forEach(
+            spanListenerFactory -> analysisListeners.add(
+                spanListenerFactory.create(moduleManager, config)));
+    }
+
+    private void resetSpanListeners() {
+        final List<AnalysisListenerFactory> factories = listenerManager.getSpanListenerFactories();
+        if (analysisListeners.size() != factories.size()) {
+            analysisListeners.clear();
+            return;
+        }
+        final Iterator<AnalysisListenerFactory> factoryIterator = factories.iterator();
+        for (int i = 0; i < analysisListeners.size(); i++) {
+            final AnalysisListenerFactory factory = factoryIterator.next();
+            if (!analysisListeners.get(i).reset()) {
+                analysisListeners.set(i, factory.create(moduleManager, config));
+            }
+        }
     }
 }
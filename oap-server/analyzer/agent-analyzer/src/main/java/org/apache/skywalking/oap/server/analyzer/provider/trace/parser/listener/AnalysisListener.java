@@ -33,6 +33,17 @@ public interface AnalysisListener {
      */
     boolean containsPoint(Point point);
 
+    /**
+     * Clear the state of the analysed segment after {@link #build()}, so this listener could be reused to analyse the
+     * next segment in the same thread.
+     *
+     * @return false if the listener doesn't support reusing, then a new one is created for every segment.
+     * @since 10.1.0
+     */
+    default boolean reset() {
+        return false;
+    }
+
     /**
      * Analysis point when the analysis core traverses the segment
      */
@@ -29,6 +29,7 @@ import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.strategy.SegmentStatusAnalyzer;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.strategy.SegmentStatusStrategy;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.sampling.TraceTailSampler;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
@@ -53,8 +54,12 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
     private final NamingControl namingControl;
     private final SearchableTracesTagsWatcher searchableTagKeys;
     private final SegmentStatusAnalyzer segmentStatusAnalyzer;
+    /**
+     * Not null if the tail sampling is activated, which takes over the sampling of the whole trace.
+     */
+    private final TraceTailSampler tailSampler;
 
-    private final Segment segment = new Segment();
+    private Segment segment = new Segment();
     private SAMPLE_STATUS sampleStatus = SAMPLE_STATUS.UNKNOWN;
     private String serviceName = Const.EMPTY_STRING;
     private String serviceId = Const.EMPTY_STRING;
@@ -63,7 +68,12 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
     private long startTimestamp;
     private long endTimestamp;
     private int duration;
+    private int maxSpanLatency;
     private boolean isError;
+    /**
+     * The binary received from the agent, saved as the segment data to avoid encoding the segment again.
+     */
+    private byte[] segmentBinary;
 
     @Override
     public boolean containsPoint(Point point) {
@@ -96,7 +106,7 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         segment.setStartTime(startTimestamp);
         segment.setTimeBucket(timeBucket);
         segment.setIsError(BooleanUtils.booleanToValue(isError));
-        segment.setDataBinary(segmentObject.toByteArray());
+        segment.setDataBinary(segmentBinary != null ? segmentBinary : segmentObject.toByteArray());
 
         endpointName = namingControl.formatEndpointName(serviceName, span.getOperationName());
         endpointId = IDManager.EndpointID.buildId(
@@ -120,6 +130,12 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         );
     }
 
+    @Override
+    public void parseSegment(SegmentObject segmentObject, byte[] segmentBinary) {
+        this.segmentBinary = segmentBinary;
+        parseSegment(segmentObject);
+    }
+
     @Override
     public void parseSegment(SegmentObject segmentObject) {
         segment.setTraceId(segmentObject.getTraceId());
@@ -130,13 +146,19 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
             if (span.getEndTime() > endTimestamp) {
                 endTimestamp = span.getEndTime();
             }
+            final long spanLatency = span.getEndTime() - span.getStartTime();
+            if (spanLatency > maxSpanLatency) {
+                maxSpanLatency = spanLatency > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) spanLatency;
+            }
             isError = isError || segmentStatusAnalyzer.isError(span);
             appendSearchableTags(span);
         });
         final long accurateDuration = endTimestamp - startTimestamp;
         duration = accurateDuration > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) accurateDuration;
 
-        if (sampleStatus.equals(SAMPLE_STATUS.UNKNOWN) || sampleStatus.equals(SAMPLE_STATUS.IGNORE)) {
+        if (tailSampler != null) {
+            sampleStatus = SAMPLE_STATUS.SAMPLED;
+        } else if (sampleStatus.equals(SAMPLE_STATUS.UNKNOWN) || sampleStatus.equals(SAMPLE_STATUS.IGNORE)) {
             if (sampler.shouldSample(segmentObject, duration)) {
                 sampleStatus = SAMPLE_STATUS.SAMPLED;
             } else if (isError && forceSampleErrorSegment) {
@@ -179,11 +201,38 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
 
         segment.setEndpointId(endpointId);
 
+        if (tailSampler != null) {
+            tailSampler.offer(segment, maxSpanLatency);
+            return;
+        }
         sourceReceiver.receive(segment);
-        addAutocompleteTags();
+        addAutocompleteTags(sourceReceiver, segment);
+    }
+
+    /**
+     * The segment source has been forwarded to the receiver, create a new one rather than clearing it.
+     */
+    @Override
+    public boolean reset() {
+        segment = new Segment();
+        sampleStatus = SAMPLE_STATUS.UNKNOWN;
+        serviceName = Const.EMPTY_STRING;
+        serviceId = Const.EMPTY_STRING;
+        endpointId = Const.EMPTY_STRING;
+        endpointName = Const.EMPTY_STRING;
+        startTimestamp = 0;
+        endTimestamp = 0;
+        duration = 0;
+        maxSpanLatency = 0;
+        isError = false;
+        segmentBinary = null;
+        return true;
     }
 
-    private void addAutocompleteTags() {
+    /**
+     * Send the tags of the segment to the receiver as the trace tag autocomplete sources.
+     */
+    public static void addAutocompleteTags(SourceReceiver sourceReceiver, Segment segment) {
         segment.getTags().forEach(tag -> {
             TagAutocomplete tagAutocomplete = new TagAutocomplete();
             tagAutocomplete.setTagKey(tag.getKey());
@@ -205,6 +254,7 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         private final NamingControl namingControl;
         private final SearchableTracesTagsWatcher searchTagKeys;
         private final SegmentStatusAnalyzer segmentStatusAnalyzer;
+        private final TraceTailSampler tailSampler;
 
         public Factory(ModuleManager moduleManager, AnalyzerModuleConfig config) {
             this.sourceReceiver = moduleManager.find(CoreModule.NAME).provider().getService(SourceReceiver.class);
@@ -219,6 +269,7 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
                                               .getService(NamingControl.class);
             this.segmentStatusAnalyzer = SegmentStatusStrategy.findByName(config.getSegmentStatusAnalysisStrategy())
                                                               .getExceptionAnalyzer();
+            this.tailSampler = config.getTraceTailSampler();
         }
 
         @Override
@@ -229,7 +280,8 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
                 forceSampleErrorSegment,
                 namingControl,
                 searchTagKeys,
-                segmentStatusAnalyzer
+                segmentStatusAnalyzer,
+                tailSampler
             );
         }
     }
@@ -25,4 +25,13 @@ import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
  */
 public interface SegmentListener extends AnalysisListener {
     void parseSegment(SegmentObject segmentObject);
+
+    /**
+     * @param segmentBinary the serialized segment which the segment object is parsed from, or null if the segment
+     *                      isn't received in the protobuf binary format.
+     * @since 10.1.0
+     */
+    default void parseSegment(SegmentObject segmentObject, byte[] segmentBinary) {
+        parseSegment(segmentObject);
+    }
 }
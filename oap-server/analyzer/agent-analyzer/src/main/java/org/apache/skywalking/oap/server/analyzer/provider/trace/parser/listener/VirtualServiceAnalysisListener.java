@@ -48,6 +48,12 @@ public class VirtualServiceAnalysisListener implements ExitAnalysisListener, Loc
         virtualServiceProcessors.forEach(p -> p.emitTo(sourceReceiver::receive));
     }
 
+    @Override
+    public boolean reset() {
+        virtualServiceProcessors.forEach(VirtualServiceProcessor::reset);
+        return true;
+    }
+
     @Override
     public boolean containsPoint(Point point) {
         return point == Point.Local || point == Point.Exit || point == Point.Entry;
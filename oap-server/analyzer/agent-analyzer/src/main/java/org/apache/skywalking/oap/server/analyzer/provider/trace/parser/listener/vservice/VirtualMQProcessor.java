@@ -144,6 +144,11 @@ public class VirtualMQProcessor implements VirtualServiceProcessor {
         sourceList.forEach(consumer);
     }
 
+    @Override
+    public void reset() {
+        sourceList.clear();
+    }
+
     private static class MQTags {
         private String topic;
         private String queue;
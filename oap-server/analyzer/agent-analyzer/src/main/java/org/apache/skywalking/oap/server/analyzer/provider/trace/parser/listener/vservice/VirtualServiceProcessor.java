@@ -38,5 +38,10 @@ public interface VirtualServiceProcessor {
      * Emit collected metadata , metrics data to consumer
      */
     void emitTo(Consumer<Source> consumer);
+
+    /**
+     * Clear the collected data after emitted, to process the next segment.
+     */
+    void reset();
 }
 
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.sampling;
+
+import com.google.protobuf.ByteString;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.analysis.manual.searchtag.Tag;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.source.Segment;
+
+/**
+ * TailSamplingSegment carries an analyzed segment to the OAP node buffering its trace. The remote hash code is the
+ * trace ID, so all segments of the same trace reach the same node.
+ */
+public class TailSamplingSegment extends StreamData {
+    private static final int FIXED_STRINGS = 5;
+
+    @Getter
+    private Segment segment;
+    /**
+     * The max latency of all spans in the segment. Unit, millisecond.
+     */
+    @Getter
+    @Setter
+    private int maxSpanLatency;
+
+    public TailSamplingSegment() {
+        this.segment = new Segment();
+    }
+
+    public TailSamplingSegment(Segment segment, int maxSpanLatency) {
+        this.segment = segment;
+        this.maxSpanLatency = maxSpanLatency;
+    }
+
+    /**
+     * @return the approximate heap size of the buffered segment.
+     */
+    public long estimatedSize() {
+        long size = 128L + (segment.getDataBinary() == null ? 0 : segment.getDataBinary().length);
+        size += 2L * (length(segment.getTraceId()) + length(segment.getSegmentId()) + length(segment.getServiceId())
+            + length(segment.getServiceInstanceId()) + length(segment.getEndpointId()));
+        for (final Tag tag : segment.getTags()) {
+            size += 32L + 2L * (length(tag.getKey()) + length(tag.getValue()));
+        }
+        return size;
+    }
+
+    @Override
+    public int remoteHashCode() {
+        return segment.getTraceId().hashCode();
+    }
+
+    @Override
+    public RemoteData.Builder serialize() {
+        final RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
+        remoteBuilder.addDataStrings(segment.getTraceId());
+        remoteBuilder.addDataStrings(segment.getSegmentId());
+        remoteBuilder.addDataStrings(segment.getServiceId());
+        remoteBuilder.addDataStrings(segment.getServiceInstanceId());
+        remoteBuilder.addDataStrings(nullToEmpty(segment.getEndpointId()));
+        for (final Tag tag : segment.getTags()) {
+            remoteBuilder.addDataStrings(tag.getKey());
+            remoteBuilder.addDataStrings(tag.getValue());
+        }
+
+        remoteBuilder.addDataLongs(segment.getStartTime());
+        remoteBuilder.addDataLongs(segment.getTimeBucket());
+
+        remoteBuilder.addDataIntegers(segment.getLatency());
+        remoteBuilder.addDataIntegers(segment.getIsError());
+        remoteBuilder.addDataIntegers(maxSpanLatency);
+
+        remoteBuilder.setDataBinary(ByteString.copyFrom(segment.getDataBinary()));
+        return remoteBuilder;
+    }
+
+    @Override
+    public void deserialize(final RemoteData remoteData) {
+        segment.setTraceId(remoteData.getDataStrings(0));
+        segment.setSegmentId(remoteData.getDataStrings(1));
+        segment.setServiceId(remoteData.getDataStrings(2));
+        segment.setServiceInstanceId(remoteData.getDataStrings(3));
+        segment.setEndpointId(remoteData.getDataStrings(4));
+        for (int i = FIXED_STRINGS; i + 1 < remoteData.getDataStringsCount(); i += 2) {
+            segment.getTags().add(new Tag(remoteData.getDataStrings(i), remoteData.getDataStrings(i + 1)));
+        }
+
+        segment.setStartTime(remoteData.getDataLongs(0));
+        segment.setTimeBucket(remoteData.getDataLongs(1));
+
+        segment.setLatency(remoteData.getDataIntegers(0));
+        segment.setIsError(remoteData.getDataIntegers(1));
+        maxSpanLatency = remoteData.getDataIntegers(2);
+
+        segment.setDataBinary(remoteData.getDataBinary().toByteArray());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.sampling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentAnalysisListener;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.remote.RemoteSenderService;
+import org.apache.skywalking.oap.server.core.remote.selector.Selector;
+import org.apache.skywalking.oap.server.core.source.Segment;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
+import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * TraceTailSampler decides whether to save a trace after its segments have been received, rather than sampling every
+ * segment separately.
+ * <p>
+ * Segments are routed to the OAP node owning the trace ID through the {@link Selector#HashCode} selector, and buffered
+ * per trace until the decision window of the trace ends. The trace is saved if any segment is in error status, any span
+ * is slower than the threshold, or the quota of the root service in the current minute is not used up.
+ * <p>
+ * The buffer is bounded by {@link AnalyzerModuleConfig#getTraceTailSamplingMaxBufferedBytes()}. Once it is full, the
+ * incoming segment is dropped ({@link OverflowPolicy#DROP}), or the oldest traces are decided ahead of their windows
+ * ({@link OverflowPolicy#DECIDE_OLDEST}). Segments arriving after the decision of their trace follow that decision.
+ * <p>
+ * The buffered traces, the decisions and the buffer budget are split into {@link
+ * AnalyzerModuleConfig#getTraceTailSamplingShards()} shards by the trace ID, each guarded by its own lock, so the
+ * segments of different traces are buffered and decided concurrently. Only the service quota is shared by all shards.
+ * <p>
+ * When the OAP node shuts down, the buffered traces are kept regardless of their decision windows, as the rest of their
+ * segments could not be waited for.
+ */
+@Slf4j
+public class TraceTailSampler {
+    public static final String REMOTE_WORKER_NAME = "TraceTailSamplingWorker";
+    /**
+     * The max number of decided trace IDs kept for the late segments.
+     */
+    private static final int MAX_DECISIONS = 100_000;
+
+    private final long decisionWindow;
+    private final int slowSpanThreshold;
+    private final int serviceQuota;
+    private final OverflowPolicy overflowPolicy;
+    private final Shard[] shards;
+
+    /**
+     * Guarded by itself, as it is shared by all shards.
+     */
+    private final Map<String, Integer> serviceQuotaUsage = new HashMap<>();
+    private long quotaMinute;
+
+    private RemoteSenderService remoteSender;
+    private SourceReceiver sourceReceiver;
+    private ScheduledExecutorService scheduler;
+
+    private GaugeMetrics bufferedBytesGauge;
+    private GaugeMetrics bufferedTracesGauge;
+    private HistogramMetrics decisionLatency;
+    private CounterMetrics keptTraces;
+    private CounterMetrics droppedTraces;
+    private CounterMetrics overflowSegments;
+
+    public TraceTailSampler(AnalyzerModuleConfig config) {
+        this.decisionWindow = config.getTraceTailSamplingDecisionWindow();
+        this.slowSpanThreshold = config.getTraceTailSamplingSlowSpanThreshold();
+        this.serviceQuota = config.getTraceTailSamplingServiceQuota();
+        this.overflowPolicy = OverflowPolicy.valueOf(config.getTraceTailSamplingOverflowPolicy().toUpperCase());
+        final int shardCount = Math.max(1, config.getTraceTailSamplingShards());
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(
+                config.getTraceTailSamplingMaxBufferedBytes() / shardCount, Math.max(1, MAX_DECISIONS / shardCount));
+        }
+    }
+
+    /**
+     * Register the remote worker receiving segments from other OAP nodes, and start the decision timer, which is stopped
+     * along with the JVM.
+     */
+    public void start(ModuleManager moduleManager) {
+        init(moduleManager);
+        final long period = Math.max(100, decisionWindow / 10);
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("TraceTailSampling"));
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                decideExpired(System.currentTimeMillis());
+            } catch (Throwable t) {
+                log.error("Failed to decide the buffered traces.", t);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "TraceTailSamplingShutdown"));
+    }
+
+    void init(ModuleManager moduleManager) {
+        remoteSender = moduleManager.find(CoreModule.NAME).provider().getService(RemoteSenderService.class);
+        sourceReceiver = moduleManager.find(CoreModule.NAME).provider().getService(SourceReceiver.class);
+        moduleManager.find(CoreModule.NAME)
+                     .provider()
+                     .getService(IWorkerInstanceSetter.class)
+                     .put(REMOTE_WORKER_NAME, new ReceiveWorker(moduleManager, this), TailSamplingSegment.class);
+
+        final MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
+                                                           .provider()
+                                                           .getService(MetricsCreator.class);
+        bufferedBytesGauge = metricsCreator.createGauge(
+            "trace_tail_sampling_buffered_bytes", "The approximate size of segments buffered by the tail sampling.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        bufferedTracesGauge = metricsCreator.createGauge(
+            "trace_tail_sampling_buffered_traces", "The number of traces buffered by the tail sampling.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        final double window = decisionWindow / 1000d;
+        decisionLatency = metricsCreator.createHistogramMetric(
+            "trace_tail_sampling_decision_latency",
+            "The latency from the first segment of the trace received to the sampling decision.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE,
+            window / 4, window / 2, window, window * 1.5, window * 2, window * 4
+        );
+        keptTraces = metricsCreator.createCounter(
+            "trace_tail_sampling_trace_count", "The number of traces decided by the tail sampling.",
+            new MetricsTag.Keys("decision"), new MetricsTag.Values("keep")
+        );
+        droppedTraces = metricsCreator.createCounter(
+            "trace_tail_sampling_trace_count", "The number of traces decided by the tail sampling.",
+            new MetricsTag.Keys("decision"), new MetricsTag.Values("drop")
+        );
+        overflowSegments = metricsCreator.createCounter(
+            "trace_tail_sampling_overflow_segment_count",
+            "The number of segments dropped due to the tail sampling buffer is full.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+    }
+
+    /**
+     * Stop the decision timer, then keep all the buffered traces rather than discarding them.
+     */
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        keepAll(System.currentTimeMillis());
+    }
+
+    /**
+     * Send the analyzed segment to the OAP node buffering its trace.
+     *
+     * @param maxSpanLatency the max latency of all spans in the segment.
+     */
+    public void offer(Segment segment, int maxSpanLatency) {
+        remoteSender.send(REMOTE_WORKER_NAME, new TailSamplingSegment(segment, maxSpanLatency), Selector.HashCode);
+    }
+
+    void receive(TailSamplingSegment data, long now) {
+        final List<Segment> forwarding = new ArrayList<>();
+        final Shard shard = shardOf(data.getSegment().getTraceId());
+        synchronized (shard) {
+            shard.buffer(data, now, forwarding);
+        }
+        forwarding.forEach(this::forward);
+    }
+
+    void decideExpired(long now) {
+        final List<Segment> forwarding = new ArrayList<>();
+        for (final Shard shard : shards) {
+            synchronized (shard) {
+                shard.decideExpired(now, forwarding);
+            }
+            forwarding.forEach(this::forward);
+            forwarding.clear();
+        }
+    }
+
+    void keepAll(long now) {
+        final List<Segment> forwarding = new ArrayList<>();
+        for (final Shard shard : shards) {
+            synchronized (shard) {
+                shard.keepAll(now, forwarding);
+            }
+            forwarding.forEach(this::forward);
+            forwarding.clear();
+        }
+    }
+
+    /**
+     * The OAP node of the trace is picked by the trace ID hash modulo the node count, so the shard is picked by the
+     * high bits of the mixed hash instead, otherwise the traces of a node would only fall into some of the shards.
+     */
+    private Shard shardOf(String traceId) {
+        final long mixed = (traceId.hashCode() * 0x9E3779B9L) & 0xFFFFFFFFL;
+        return shards[(int) ((mixed * shards.length) >>> 32)];
+    }
+
+    private boolean isNotable(int isError, int maxSpanLatency) {
+        return BooleanUtils.valueToBoolean(isError) || (slowSpanThreshold > 0 && maxSpanLatency >= slowSpanThreshold);
+    }
+
+    private boolean acquireQuota(String serviceId, long now) {
+        synchronized (serviceQuotaUsage) {
+            final long minute = TimeUnit.MILLISECONDS.toMinutes(now);
+            if (minute != quotaMinute) {
+                serviceQuotaUsage.clear();
+                quotaMinute = minute;
+            }
+            final int used = serviceQuotaUsage.getOrDefault(serviceId, 0);
+            if (used >= serviceQuota) {
+                return false;
+            }
+            serviceQuotaUsage.put(serviceId, used + 1);
+            return true;
+        }
+    }
+
+    private void forward(Segment segment) {
+        sourceReceiver.receive(segment);
+        SegmentAnalysisListener.addAutocompleteTags(sourceReceiver, segment);
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Drop the incoming segment.
+         */
+        DROP,
+        /**
+         * Decide the oldest buffered traces ahead of their decision windows, until the incoming segment fits.
+         */
+        DECIDE_OLDEST
+    }
+
+    /**
+     * The traces of some trace IDs, with their own part of the buffer budget. All methods are called with the shard
+     * locked.
+     */
+    private class Shard {
+        private final long maxBufferedBytes;
+        /**
+         * Buffered traces in the order of the first segment arrival.
+         */
+        private final LinkedHashMap<String, BufferedTrace> traces = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Boolean> decisions;
+        private long bufferedBytes;
+
+        private Shard(long maxBufferedBytes, int maxDecisions) {
+            this.maxBufferedBytes = maxBufferedBytes;
+            this.decisions = new LinkedHashMap<String, Boolean>() {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+                    return size() > maxDecisions;
+                }
+            };
+        }
+
+        private void buffer(TailSamplingSegment data, long now, List<Segment> forwarding) {
+            final Segment segment = data.getSegment();
+            final Boolean decision = decisions.get(segment.getTraceId());
+            if (decision != null) {
+                if (decision || isNotable(segment.getIsError(), data.getMaxSpanLatency())) {
+                    forwarding.add(segment);
+                }
+                return;
+            }
+
+            final long size = data.estimatedSize();
+            if (bufferedBytes + size > maxBufferedBytes) {
+                if (overflowPolicy == OverflowPolicy.DECIDE_OLDEST) {
+                    final Iterator<BufferedTrace> iterator = traces.values().iterator();
+                    while (bufferedBytes + size > maxBufferedBytes && iterator.hasNext()) {
+                        final BufferedTrace oldest = iterator.next();
+                        iterator.remove();
+                        decide(oldest, now, false, forwarding);
+                    }
+                    if (decisions.containsKey(segment.getTraceId())) {
+                        buffer(data, now, forwarding);
+                        return;
+                    }
+                }
+                if (bufferedBytes + size > maxBufferedBytes) {
+                    overflowSegments.inc();
+                    return;
+                }
+            }
+
+            traces.computeIfAbsent(segment.getTraceId(), traceId -> {
+                bufferedTracesGauge.inc();
+                return new BufferedTrace(traceId, now);
+            }).add(data, size);
+            bufferedBytes += size;
+            bufferedBytesGauge.inc(size);
+        }
+
+        private void decideExpired(long now, List<Segment> forwarding) {
+            final Iterator<BufferedTrace> iterator = traces.values().iterator();
+            while (iterator.hasNext()) {
+                final BufferedTrace trace = iterator.next();
+                if (trace.firstArrival + decisionWindow > now) {
+                    break;
+                }
+                iterator.remove();
+                decide(trace, now, false, forwarding);
+            }
+        }
+
+        private void keepAll(long now, List<Segment> forwarding) {
+            for (final BufferedTrace trace : traces.values()) {
+                decide(trace, now, true, forwarding);
+            }
+            traces.clear();
+        }
+
+        /**
+         * @param force keep the trace without checking the sampling rules.
+         */
+        private void decide(BufferedTrace trace, long now, boolean force, List<Segment> forwarding) {
+            bufferedBytes -= trace.bytes;
+            bufferedBytesGauge.dec(trace.bytes);
+            bufferedTracesGauge.dec();
+            final boolean keep = force
+                || isNotable(trace.isError, trace.maxSpanLatency)
+                || acquireQuota(trace.rootServiceId, now);
+            decisions.put(trace.traceId, keep);
+            decisionLatency.observe((now - trace.firstArrival) / 1000d);
+            if (keep) {
+                keptTraces.inc();
+                forwarding.addAll(trace.segments);
+            } else {
+                droppedTraces.inc();
+                if (log.isDebugEnabled()) {
+                    log.debug("trace dropped by the tail sampling, trace id: {}", trace.traceId);
+                }
+            }
+        }
+    }
+
+    private static class BufferedTrace {
+        private final String traceId;
+        private final long firstArrival;
+        private final List<Segment> segments = new ArrayList<>(4);
+        private long bytes;
+        private int isError;
+        private int maxSpanLatency;
+        private String rootServiceId;
+        private long rootStartTime = Long.MAX_VALUE;
+
+        private BufferedTrace(String traceId, long firstArrival) {
+            this.traceId = traceId;
+            this.firstArrival = firstArrival;
+        }
+
+        private void add(TailSamplingSegment data, long size) {
+            final Segment segment = data.getSegment();
+            segments.add(segment);
+            bytes += size;
+            isError = Math.max(isError, segment.getIsError());
+            maxSpanLatency = Math.max(maxSpanLatency, data.getMaxSpanLatency());
+            if (segment.getStartTime() < rootStartTime) {
+                rootStartTime = segment.getStartTime();
+                rootServiceId = segment.getServiceId();
+            }
+        }
+    }
+
+    private static class ReceiveWorker extends AbstractWorker<TailSamplingSegment> {
+        private final TraceTailSampler sampler;
+
+        private ReceiveWorker(ModuleDefineHolder moduleDefineHolder, TraceTailSampler sampler) {
+            super(moduleDefineHolder);
+            this.sampler = sampler;
+        }
+
+        @Override
+        public void in(TailSamplingSegment segment) {
+            sampler.receive(segment, System.currentTimeMillis());
+        }
+    }
+}
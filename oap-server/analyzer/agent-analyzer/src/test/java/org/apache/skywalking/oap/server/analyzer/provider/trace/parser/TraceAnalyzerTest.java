@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
+import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentListener;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TraceAnalyzerTest {
+
+    @Test
+    public void reuseListenersAfterReset() {
+        final AtomicInteger reusableCreated = new AtomicInteger();
+        final AtomicInteger disposableCreated = new AtomicInteger();
+        final List<String> reusableBuilt = new ArrayList<>();
+        final List<String> disposableBuilt = new ArrayList<>();
+
+        final SegmentParserListenerManager listenerManager = new SegmentParserListenerManager();
+        listenerManager.add((moduleManager, config) -> {
+            reusableCreated.incrementAndGet();
+            return new RecordingListener(reusableBuilt, true);
+        });
+        listenerManager.add((moduleManager, config) -> {
+            disposableCreated.incrementAndGet();
+            return new RecordingListener(disposableBuilt, false);
+        });
+
+        final TraceAnalyzer analyzer = new TraceAnalyzer(null, listenerManager, new AnalyzerModuleConfig());
+        for (int i = 0; i < 3; i++) {
+            analyzer.doAnalysis(segment("segment-" + i));
+        }
+
+        assertEquals(1, reusableCreated.get());
+        // A new one is created after every segment, as the listener can't be reset.
+        assertEquals(4, disposableCreated.get());
+        assertEquals(List.of("segment-0", "segment-1", "segment-2"), reusableBuilt);
+        assertEquals(List.of("segment-0", "segment-1", "segment-2"), disposableBuilt);
+    }
+
+    private static SegmentObject segment(String id) {
+        return SegmentObject.newBuilder()
+                            .setTraceSegmentId(id)
+                            .addSpans(SpanObject.newBuilder().setSpanId(0).setSpanType(SpanType.Entry))
+                            .build();
+    }
+
+    private static class RecordingListener implements SegmentListener {
+        private final List<String> built;
+        private final boolean reusable;
+        private final List<String> parsed = new ArrayList<>();
+
+        private RecordingListener(final List<String> built, final boolean reusable) {
+            this.built = built;
+            this.reusable = reusable;
+        }
+
+        @Override
+        public void parseSegment(final SegmentObject segmentObject) {
+            parsed.add(segmentObject.getTraceSegmentId());
+        }
+
+        @Override
+        public void build() {
+            built.add(String.join(",", parsed));
+        }
+
+        @Override
+        public boolean containsPoint(final Point point) {
+            return Point.Segment.equals(point);
+        }
+
+        @Override
+        public boolean reset() {
+            if (reusable) {
+                parsed.clear();
+            }
+            return reusable;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.sampling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.manual.searchtag.Tag;
+import org.apache.skywalking.oap.server.core.remote.RemoteSenderService;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.source.Segment;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TraceTailSamplerTest {
+    private static final long WINDOW = 10_000;
+
+    private ModuleManager moduleManager;
+    private AnalyzerModuleConfig config;
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void setup() {
+        final SourceReceiver sourceReceiver = mock(SourceReceiver.class);
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0) instanceof Segment) {
+                received.add(((Segment) invocation.getArgument(0)).getSegmentId());
+            }
+            return null;
+        }).when(sourceReceiver).receive(any());
+
+        final ModuleServiceHolder serviceHolder = mock(ModuleServiceHolder.class);
+        when(serviceHolder.getService(SourceReceiver.class)).thenReturn(sourceReceiver);
+        when(serviceHolder.getService(RemoteSenderService.class)).thenReturn(mock(RemoteSenderService.class));
+        when(serviceHolder.getService(IWorkerInstanceSetter.class)).thenReturn(mock(IWorkerInstanceSetter.class));
+        when(serviceHolder.getService(MetricsCreator.class)).thenReturn(new MetricsCreatorNoop());
+        final ModuleProviderHolder providerHolder = mock(ModuleProviderHolder.class);
+        when(providerHolder.provider()).thenReturn(serviceHolder);
+        moduleManager = mock(ModuleManager.class);
+        when(moduleManager.find(anyString())).thenReturn(providerHolder);
+
+        config = new AnalyzerModuleConfig();
+        config.setTraceTailSamplingDecisionWindow(WINDOW);
+        config.setTraceTailSamplingSlowSpanThreshold(1000);
+        config.setTraceTailSamplingServiceQuota(1);
+        // A single shard keeps the order of all traces.
+        config.setTraceTailSamplingShards(1);
+    }
+
+    @Test
+    public void decideWholeTraceAfterWindow() {
+        final TraceTailSampler sampler = sampler();
+        sampler.receive(segment("trace-1", "segment-1", "service-a", 100, false, 10), 0);
+        sampler.receive(segment("trace-2", "segment-2", "service-a", 100, false, 10), 0);
+        sampler.receive(segment("trace-3", "segment-3", "service-a", 100, false, 10), 0);
+        sampler.receive(segment("trace-2", "segment-4", "service-b", 200, true, 10), 1000);
+        sampler.receive(segment("trace-3", "segment-5", "service-b", 200, false, 2000), 1000);
+
+        sampler.decideExpired(WINDOW - 1);
+        assertEquals(List.of(), received);
+
+        sampler.decideExpired(WINDOW);
+        // trace-1 takes the quota of service-a, trace-2 is in error status, and trace-3 has a slow span.
+        assertEquals(List.of("segment-1", "segment-2", "segment-4", "segment-3", "segment-5"), received);
+    }
+
+    @Test
+    public void dropTraceOverServiceQuota() {
+        final TraceTailSampler sampler = sampler();
+        sampler.receive(segment("trace-1", "segment-1", "service-a", 100, false, 10), 0);
+        sampler.receive(segment("trace-2", "segment-2", "service-a", 100, false, 10), 0);
+        // The root service of trace-3 is service-b, as the segment of service-b starts earlier.
+        sampler.receive(segment("trace-3", "segment-3", "service-a", 200, false, 10), 0);
+        sampler.receive(segment("trace-3", "segment-4", "service-b", 100, false, 10), 0);
+        sampler.decideExpired(WINDOW);
+
+        assertEquals(List.of("segment-1", "segment-3", "segment-4"), received);
+    }
+
+    @Test
+    public void lateSegmentFollowsDecision() {
+        final TraceTailSampler sampler = sampler();
+        sampler.receive(segment("trace-1", "segment-1", "service-a", 100, false, 10), 0);
+        sampler.receive(segment("trace-2", "segment-2", "service-a", 100, false, 10), 0);
+        sampler.decideExpired(WINDOW);
+
+        sampler.receive(segment("trace-1", "segment-3", "service-b", 200, false, 10), WINDOW + 1);
+        sampler.receive(segment("trace-2", "segment-4", "service-b", 200, false, 10), WINDOW + 1);
+        sampler.receive(segment("trace-2", "segment-5", "service-b", 200, true, 10), WINDOW + 1);
+
+        assertEquals(List.of("segment-1", "segment-3", "segment-5"), received);
+    }
+
+    @Test
+    public void decideOldestWhenBufferIsFull() {
+        final TailSamplingSegment first = segment("trace-1", "segment-1", "service-a", 100, true, 10);
+        config.setTraceTailSamplingMaxBufferedBytes(first.estimatedSize() * 2);
+        final TraceTailSampler sampler = sampler();
+        sampler.receive(first, 0);
+        sampler.receive(segment("trace-2", "segment-2", "service-a", 100, true, 10), 0);
+        sampler.receive(segment("trace-3", "segment-3", "service-a", 100, true, 10), 0);
+        assertEquals(List.of("segment-1"), received);
+
+        sampler.decideExpired(WINDOW);
+        assertEquals(List.of("segment-1", "segment-2", "segment-3"), received);
+    }
+
+    @Test
+    public void dropIncomingSegmentWhenBufferIsFull() {
+        final TailSamplingSegment first = segment("trace-1", "segment-1", "service-a", 100, true, 10);
+        config.setTraceTailSamplingMaxBufferedBytes(first.estimatedSize() * 2);
+        config.setTraceTailSamplingOverflowPolicy("drop");
+        final TraceTailSampler sampler = sampler();
+        sampler.receive(first, 0);
+        sampler.receive(segment("trace-2", "segment-2", "service-a", 100, true, 10), 0);
+        sampler.receive(segment("trace-3", "segment-3", "service-a", 100, true, 10), 0);
+        assertEquals(List.of(), received);
+
+        sampler.decideExpired(WINDOW);
+        assertEquals(List.of("segment-1", "segment-2"), received);
+    }
+
+    @Test
+    public void keepBufferedTracesOnShutdown() {
+        config.setTraceTailSamplingShards(2);
+        final TraceTailSampler sampler = sampler();
+        sampler.receive(segment("trace-1", "segment-1", "service-a", 100, false, 10), 0);
+        sampler.receive(segment("trace-2", "segment-2", "service-a", 100, false, 10), 0);
+        sampler.receive(segment("trace-3", "segment-3", "service-a", 100, false, 10), 0);
+        assertEquals(List.of(), received);
+
+        sampler.shutdown();
+        // The traces over the quota of service-a are kept too, as their windows could not end.
+        assertEquals(Set.of("segment-1", "segment-2", "segment-3"), new HashSet<>(received));
+        sampler.decideExpired(WINDOW);
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    public void bufferShardsConcurrently() throws Exception {
+        config.setTraceTailSamplingShards(4);
+        final TraceTailSampler sampler = sampler();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final int offset = thread * 1000;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int i = offset; i < offset + 1000; i++) {
+                        sampler.receive(segment("trace-" + i, "segment-" + i, "service-a", 100, true, 10), 0);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(List.of(), received);
+
+        sampler.decideExpired(WINDOW);
+        assertEquals(4000, received.size());
+        final Set<String> segments = new HashSet<>(received);
+        assertEquals(4000, segments.size());
+    }
+
+    @Test
+    public void serializeSegment() {
+        final TailSamplingSegment origin = segment("trace-1", "segment-1", "service-a", 100, true, 1500);
+        origin.getSegment().getTags().add(new Tag("http.method", "GET"));
+        final RemoteData remoteData = origin.serialize().build();
+
+        final TailSamplingSegment copy = new TailSamplingSegment();
+        copy.deserialize(remoteData);
+        assertEquals(origin.remoteHashCode(), copy.remoteHashCode());
+        assertEquals(origin.getSegment().toString(), copy.getSegment().toString());
+        assertArrayEquals(origin.getSegment().getDataBinary(), copy.getSegment().getDataBinary());
+        assertEquals(1500, copy.getMaxSpanLatency());
+    }
+
+    private TraceTailSampler sampler() {
+        final TraceTailSampler sampler = new TraceTailSampler(config);
+        sampler.init(moduleManager);
+        return sampler;
+    }
+
+    private static TailSamplingSegment segment(String traceId, String segmentId, String serviceId, long startTime,
+                                               boolean isError, int maxSpanLatency) {
+        final Segment segment = new Segment();
+        segment.setTraceId(traceId);
+        segment.setSegmentId(segmentId);
+        segment.setServiceId(serviceId);
+        segment.setServiceInstanceId(serviceId + "-instance");
+        segment.setEndpointId(serviceId + "-endpoint");
+        segment.setStartTime(startTime);
+        segment.setTimeBucket(202410171200L);
+        segment.setLatency(maxSpanLatency);
+        segment.setIsError(BooleanUtils.booleanToValue(isError));
+        segment.setDataBinary(new byte[] {1, 2, 3});
+        return new TailSamplingSegment(segment, maxSpanLatency);
+    }
+}
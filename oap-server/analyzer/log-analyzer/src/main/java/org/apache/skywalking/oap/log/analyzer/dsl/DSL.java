@@ -88,9 +88,12 @@ public class DSL {
         icz.addImport("ProcessRegistry", ProcessRegistry.class.getName());
         cc.addCompilationCustomizers(icz);
 
+        final ParsedPathCollector parsedPaths = new ParsedPathCollector();
+        cc.addCompilationCustomizers(parsedPaths);
+
         final GroovyShell sh = new GroovyShell(cc);
         final DelegatingScript script = (DelegatingScript) sh.parse(dsl);
-        final FilterSpec filterSpec = new FilterSpec(moduleManager, config);
+        final FilterSpec filterSpec = new FilterSpec(moduleManager, config, parsedPaths.projection());
         script.setDelegate(filterSpec);
 
         return new DSL(script, filterSpec);
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.log.analyzer.dsl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.JsonFieldProjection;
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.DeclarationExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.codehaus.groovy.syntax.Types;
+
+/**
+ * Collects the constant {@code parsed.*} paths that a LAL script reads, such as {@code parsed?.response?.code} or
+ * {@code parsed['client_process'].process_id}, so that the JSON parser only materializes these fields. Once
+ * {@code parsed} is used in any other way (passed as a whole, indexed by a dynamic key, shadowed by a local variable,
+ * etc.), the collector gives up and the whole body is parsed, as before.
+ */
+class ParsedPathCollector extends CompilationCustomizer {
+    /**
+     * Properties that are resolved by {@link Binding.Parsed} itself rather than the parsed map.
+     */
+    private static final Set<String> PARSED_PROPERTIES = new HashSet<>(
+        Arrays.asList("matcher", "map", "log", "extraLog", "class", "metaClass")
+    );
+
+    private final Set<List<String>> paths = new LinkedHashSet<>();
+
+    private boolean projectable = true;
+
+    ParsedPathCollector() {
+        super(CompilePhase.CONVERSION);
+    }
+
+    @Override
+    public void call(final SourceUnit source,
+                     final GeneratorContext context,
+                     final ClassNode classNode) {
+        new ClassCodeVisitorSupport() {
+            @Override
+            protected SourceUnit getSourceUnit() {
+                return source;
+            }
+
+            @Override
+            public void visitPropertyExpression(final PropertyExpression expression) {
+                if (!collect(expression)) {
+                    super.visitPropertyExpression(expression);
+                }
+            }
+
+            @Override
+            public void visitBinaryExpression(final BinaryExpression expression) {
+                if (!collect(expression)) {
+                    super.visitBinaryExpression(expression);
+                }
+            }
+
+            @Override
+            public void visitVariableExpression(final VariableExpression expression) {
+                // Reaching "parsed" here means it's not the root of a constant path.
+                if (Binding.KEY_PARSED.equals(expression.getName())) {
+                    projectable = false;
+                }
+            }
+
+            @Override
+            public void visitDeclarationExpression(final DeclarationExpression expression) {
+                if (!expression.isMultipleAssignmentDeclaration()
+                    && Binding.KEY_PARSED.equals(expression.getVariableExpression().getName())) {
+                    projectable = false;
+                }
+                super.visitDeclarationExpression(expression);
+            }
+
+            @Override
+            public void visitClosureExpression(final ClosureExpression expression) {
+                if (expression.getParameters() != null) {
+                    for (final Parameter parameter : expression.getParameters()) {
+                        if (Binding.KEY_PARSED.equals(parameter.getName())) {
+                            projectable = false;
+                        }
+                    }
+                }
+                super.visitClosureExpression(expression);
+            }
+        }.visitClass(classNode);
+    }
+
+    /**
+     * @return the projection of the collected paths, or {@code null} if the whole JSON body should be parsed.
+     */
+    JsonFieldProjection projection() {
+        if (!projectable || paths.isEmpty()) {
+            return null;
+        }
+        return JsonFieldProjection.of(paths);
+    }
+
+    private boolean collect(final Expression expression) {
+        final List<String> path = path(expression);
+        if (path == null) {
+            return false;
+        }
+        if (path.isEmpty() || PARSED_PROPERTIES.contains(path.get(0))) {
+            projectable = false;
+        }
+        paths.add(path);
+        return true;
+    }
+
+    /**
+     * @return the field names from {@code parsed} to the expression, or {@code null} if the expression is not a
+     * constant path rooted at {@code parsed}.
+     */
+    private static List<String> path(final Expression expression) {
+        if (expression instanceof VariableExpression) {
+            final String name = ((VariableExpression) expression).getName();
+            return Binding.KEY_PARSED.equals(name) ? new ArrayList<>() : null;
+        }
+        final Expression object;
+        final Expression field;
+        if (expression instanceof PropertyExpression) {
+            final PropertyExpression property = (PropertyExpression) expression;
+            if (property.isSpreadSafe()) {
+                return null;
+            }
+            object = property.getObjectExpression();
+            field = property.getProperty();
+        } else if (expression instanceof BinaryExpression
+            && ((BinaryExpression) expression).getOperation().getType() == Types.LEFT_SQUARE_BRACKET) {
+            object = ((BinaryExpression) expression).getLeftExpression();
+            field = ((BinaryExpression) expression).getRightExpression();
+        } else {
+            return null;
+        }
+        if (!(field instanceof ConstantExpression) || !(((ConstantExpression) field).getValue() instanceof String)) {
+            return null;
+        }
+        final List<String> path = path(object);
+        if (path != null) {
+            path.add((String) ((ConstantExpression) field).getValue());
+        }
+        return path;
+    }
+}
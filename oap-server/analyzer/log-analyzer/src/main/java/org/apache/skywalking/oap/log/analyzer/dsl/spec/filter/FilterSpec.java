@@ -18,7 +18,6 @@
 
 package org.apache.skywalking.oap.log.analyzer.dsl.spec.filter;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.protobuf.Message;
 import com.google.protobuf.TextFormat;
 import groovy.lang.Closure;
@@ -33,6 +32,7 @@ import org.apache.skywalking.apm.network.logging.v3.LogData;
 import org.apache.skywalking.oap.log.analyzer.dsl.Binding;
 import org.apache.skywalking.oap.log.analyzer.dsl.spec.AbstractSpec;
 import org.apache.skywalking.oap.log.analyzer.dsl.spec.extractor.ExtractorSpec;
+import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.JsonFieldProjection;
 import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.JsonParserSpec;
 import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.TextParserSpec;
 import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.YamlParserSpec;
@@ -63,14 +63,18 @@ public class FilterSpec extends AbstractSpec {
 
     private final SinkSpec sink;
 
-    private final TypeReference<Map<String, Object>> parsedType;
-
     public FilterSpec(final ModuleManager moduleManager,
                       final LogAnalyzerModuleConfig moduleConfig) throws ModuleStartException {
-        super(moduleManager, moduleConfig);
+        this(moduleManager, moduleConfig, null);
+    }
 
-        parsedType = new TypeReference<Map<String, Object>>() {
-        };
+    /**
+     * @param jsonProjection the fields of the JSON body that the script reads, {@code null} to parse all of them.
+     */
+    public FilterSpec(final ModuleManager moduleManager,
+                      final LogAnalyzerModuleConfig moduleConfig,
+                      final JsonFieldProjection jsonProjection) throws ModuleStartException {
+        super(moduleManager, moduleConfig);
 
         sinkListenerFactories = Arrays.asList(
             new RecordSinkListener.Factory(moduleManager(), moduleConfig()),
@@ -78,7 +82,7 @@ public class FilterSpec extends AbstractSpec {
         );
 
         textParser = new TextParserSpec(moduleManager(), moduleConfig());
-        jsonParser = new JsonParserSpec(moduleManager(), moduleConfig());
+        jsonParser = new JsonParserSpec(moduleManager(), moduleConfig(), jsonProjection);
         yamlParser = new YamlParserSpec(moduleManager(), moduleConfig());
 
         extractor = new ExtractorSpec(moduleManager(), moduleConfig());
@@ -106,9 +110,7 @@ public class FilterSpec extends AbstractSpec {
         final LogData.Builder logData = BINDING.get().log();
         try {
 
-            final Map<String, Object> parsed = jsonParser.create().readValue(
-                logData.getBody().getJson().getJson(), parsedType
-            );
+            final Map<String, Object> parsed = jsonParser.parse(logData.getBody().getJson().getJson());
 
             BINDING.get().parsed(parsed);
         } catch (final Exception e) {
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.log.analyzer.dsl.spec.parser;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The set of {@code parsed.*} paths a LAL script reads, organised as a tree of field names. When a script only reads
+ * a few fields of a large JSON body, {@link #read(ObjectMapper, String)} streams through the body and materializes
+ * only those fields, skipping the nested objects and arrays that no path reaches.
+ *
+ * <p>A node either keeps its whole value (the path ends there, e.g. {@code parsed.labels} is iterated or printed), or
+ * lists the child fields to descend into. Values are materialized with the same mapper as a full parse, so the
+ * projected map is a sub-map of what {@code mapper.readValue(json, Map)} would return.</p>
+ */
+public final class JsonFieldProjection {
+    private final Map<String, JsonFieldProjection> fields = new HashMap<>();
+
+    private boolean whole;
+
+    private JsonFieldProjection() {
+    }
+
+    /**
+     * @param paths the field paths, each one is a list of field names starting from the root object, an empty path
+     *              means the whole object is needed.
+     * @return the projection of the paths, or {@code null} if the whole object is needed.
+     */
+    public static JsonFieldProjection of(final Collection<List<String>> paths) {
+        final JsonFieldProjection root = new JsonFieldProjection();
+        for (final List<String> path : paths) {
+            root.add(path);
+        }
+        return root.whole ? null : root;
+    }
+
+    private void add(final List<String> path) {
+        JsonFieldProjection node = this;
+        for (final String field : path) {
+            if (node.whole) {
+                return;
+            }
+            node = node.fields.computeIfAbsent(field, k -> new JsonFieldProjection());
+        }
+        node.whole = true;
+        node.fields.clear();
+    }
+
+    /**
+     * Parse the JSON object and keep only the fields of this projection.
+     *
+     * @return the projected fields, or {@code null} if the JSON is the literal {@code null}, the same as a full parse.
+     * @throws IOException if the JSON is malformed or is not an object.
+     */
+    public Map<String, Object> read(final ObjectMapper mapper, final String json) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            final JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object but was " + token);
+            }
+            return readObject(mapper, parser);
+        }
+    }
+
+    private Map<String, Object> readObject(final ObjectMapper mapper,
+                                           final JsonParser parser) throws IOException {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            final JsonFieldProjection child = fields.get(name);
+            if (child == null) {
+                parser.skipChildren();
+            } else if (child.whole || token != JsonToken.START_OBJECT) {
+                result.put(name, readValue(mapper, parser, token));
+            } else {
+                result.put(name, child.readObject(mapper, parser));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scalars are read from the parser directly, the same types as the untyped deserialization of the default mapper,
+     * to save the deserialization context per value.
+     */
+    private static Object readValue(final ObjectMapper mapper,
+                                    final JsonParser parser,
+                                    final JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                return mapper.readValue(parser, Object.class);
+        }
+    }
+}
@@ -18,16 +18,34 @@
 
 package org.apache.skywalking.oap.log.analyzer.dsl.spec.parser;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Map;
 import org.apache.skywalking.oap.log.analyzer.provider.LogAnalyzerModuleConfig;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 
 public class JsonParserSpec extends AbstractParserSpec {
+    private static final TypeReference<Map<String, Object>> PARSED_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
     private final ObjectMapper mapper;
 
+    /**
+     * The fields the script reads from {@code parsed}, {@code null} if all fields should be parsed.
+     */
+    private final JsonFieldProjection projection;
+
     public JsonParserSpec(final ModuleManager moduleManager,
                           final LogAnalyzerModuleConfig moduleConfig) {
+        this(moduleManager, moduleConfig, null);
+    }
+
+    public JsonParserSpec(final ModuleManager moduleManager,
+                          final LogAnalyzerModuleConfig moduleConfig,
+                          final JsonFieldProjection projection) {
         super(moduleManager, moduleConfig);
+        this.projection = projection;
 
         // We just create a mapper instance in advance for now (for the sake of performance),
         // when we want to provide some extra options, we'll move this into method "create" then.
@@ -37,4 +55,11 @@ public class JsonParserSpec extends AbstractParserSpec {
     public ObjectMapper create() {
         return mapper;
     }
+
+    public Map<String, Object> parse(final String json) throws IOException {
+        if (projection == null) {
+            return mapper.readValue(json, PARSED_TYPE);
+        }
+        return projection.read(mapper, json);
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.log.analyzer.dsl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import groovy.lang.GroovyShell;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.JsonFieldProjection;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ParsedPathCollectorTest {
+    private static final String JSON = "{" +
+        "\"response\":{\"responseCode\":{\"value\":200},\"headers\":{\"a\":[1,2,3]}}," +
+        "\"client_process\":{\"process_id\":\"p1\",\"local\":true}," +
+        "\"latency\":12.5," +
+        "\"labels\":{\"k1\":\"v1\",\"k2\":[{\"x\":null}]}," +
+        "\"body\":[{\"huge\":{\"nested\":[1,2,{\"deeper\":\"value\"}]}}]," +
+        "\"message\":\"hello\"" +
+        "}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testProjectConstantPaths() throws IOException {
+        final JsonFieldProjection projection = collect(
+            "filter {\n" +
+                "  json {}\n" +
+                "  if (parsed?.response?.responseCode?.value as Integer < 400) { abort {} }\n" +
+                "  extractor {\n" +
+                "    tag 'pid': parsed['client_process'].process_id\n" +
+                "    tag 'latency': \"${parsed.latency}\"\n" +
+                "    tag 'labels': parsed.labels.toString()\n" +
+                "    tag 'missing': parsed.missing?.field\n" +
+                "  }\n" +
+                "}"
+        );
+        assertNotNull(projection);
+
+        final Map<String, Object> full = mapper.readValue(JSON, new TypeReference<Map<String, Object>>() {
+        });
+        final Map<String, Object> projected = projection.read(mapper, JSON);
+
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("response", Collections.singletonMap(
+            "responseCode", ((Map<?, ?>) full.get("response")).get("responseCode")));
+        expected.put("client_process", Collections.singletonMap("process_id", "p1"));
+        expected.put("latency", 12.5);
+        expected.put("labels", full.get("labels"));
+        assertEquals(expected, projected);
+    }
+
+    @Test
+    public void testFallbackToFullParsing() {
+        assertNull(collect("filter { json {} }"));
+        assertNull(collect("filter { json {}\n extractor { tag 'all': parsed.toString() } }"));
+        assertNull(collect("filter { json {}\n def key = 'a'\n extractor { tag 'a': parsed[key] } }"));
+        assertNull(collect("filter { json {}\n extractor { tag 'a': parsed.map.a } }"));
+        assertNull(collect("filter { json {}\n [a: 1].each { parsed -> tag 'a': parsed.a } }"));
+    }
+
+    @Test
+    public void testMalformedJson() throws IOException {
+        final JsonFieldProjection projection = JsonFieldProjection.of(
+            Collections.singletonList(Arrays.asList("response", "responseCode")));
+        assertNotNull(projection);
+
+        assertNull(projection.read(mapper, "null"));
+        assertEquals(
+            Collections.singletonMap("response", Collections.emptyMap()),
+            projection.read(mapper, "{\"response\":{},\"other\":1}")
+        );
+        assertThrows(IOException.class, () -> projection.read(mapper, "[]"));
+        assertThrows(IOException.class, () -> projection.read(mapper, ""));
+        assertThrows(IOException.class, () -> projection.read(mapper, "{\"body\":{\"a\":[1,2}}"));
+    }
+
+    private static JsonFieldProjection collect(final String script) {
+        final ParsedPathCollector collector = new ParsedPathCollector();
+        final CompilerConfiguration cc = new CompilerConfiguration();
+        cc.addCompilationCustomizers(collector);
+        new GroovyShell(cc).parse(script);
+        return collector.projection();
+    }
+}
@@ -29,6 +29,7 @@ import java.util.Objects;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -95,6 +96,10 @@ public class Analyzer {
         return analyzer;
     }
 
+    /**
+     * The names of the sample families the expression reads.
+     */
+    @Getter
     private List<String> samples;
 
     private final String metricName;
@@ -111,6 +116,14 @@ public class Analyzer {
 
     private int[] percentiles;
 
+    /**
+     * @return true if the expression is compiled to a Java class rather than run as a Groovy script.
+     * @since 10.1.0
+     */
+    public boolean isCompiled() {
+        return expression.isCompiled();
+    }
+
     /**
      * analyse intends to parse expression with input samples to meter-system metrics.
      *
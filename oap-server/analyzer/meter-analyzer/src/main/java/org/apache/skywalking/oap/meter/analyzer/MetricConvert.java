@@ -22,7 +22,11 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import io.vavr.control.Try;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.StringJoiner;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -51,6 +55,12 @@ public class MetricConvert {
 
     private final List<Analyzer> analyzers;
 
+    /**
+     * The indexes of the {@link #analyzers} that read each sample family, so that only the analyzers with any input
+     * are run.
+     */
+    private final Map<String, int[]> analyzerIndexes;
+
     public MetricConvert(MetricRuleConfig rule, MeterSystem service) {
         Preconditions.checkState(!Strings.isNullOrEmpty(rule.getMetricPrefix()));
         // init expression script
@@ -65,6 +75,37 @@ public class MetricConvert {
                 service
             )
         ).collect(toList());
+        this.analyzerIndexes = indexAnalyzers(analyzers);
+        if (DSL.defaultEngine() == DSL.Engine.COMPILED) {
+            final long compiled = analyzers.stream().filter(a -> a != null && a.isCompiled()).count();
+            log.info(
+                "{} of {} MAL expressions of {} are compiled, the others run as Groovy scripts",
+                compiled, analyzers.size(), rule.getMetricPrefix()
+            );
+        }
+    }
+
+    private static Map<String, int[]> indexAnalyzers(final List<Analyzer> analyzers) {
+        final Map<String, BitSet> indexes = new HashMap<>();
+        for (int i = 0; i < analyzers.size(); i++) {
+            final Analyzer analyzer = analyzers.get(i);
+            if (analyzer == null || analyzer.getSamples() == null) {
+                continue;
+            }
+            for (final String sample : analyzer.getSamples()) {
+                indexes.computeIfAbsent(sample, k -> new BitSet()).set(i);
+            }
+        }
+        final Map<String, int[]> result = new HashMap<>();
+        indexes.forEach((sample, bits) -> result.put(sample, bits.stream().toArray()));
+        return ImmutableMap.copyOf(result);
+    }
+
+    /**
+     * @return the names of the sample families that any rule of this converter reads.
+     */
+    public Set<String> samples() {
+        return analyzerIndexes.keySet();
     }
 
     Analyzer buildAnalyzer(final String metricsName,
@@ -104,7 +145,17 @@ public class MetricConvert {
         if (sampleFamilies.size() < 1) {
             return;
         }
-        for (Analyzer each : analyzers) {
+        final BitSet inputs = new BitSet(analyzers.size());
+        for (final String sample : sampleFamilies.keySet()) {
+            final int[] indexes = analyzerIndexes.get(sample);
+            if (indexes != null) {
+                for (final int index : indexes) {
+                    inputs.set(index);
+                }
+            }
+        }
+        for (int i = inputs.nextSetBit(0); i >= 0; i = inputs.nextSetBit(i + 1)) {
+            final Analyzer each = analyzers.get(i);
             try {
                 each.analyse(sampleFamilies);
             } catch (Throwable t) {
@@ -24,12 +24,16 @@ import groovy.lang.GroovyShell;
 import groovy.util.DelegatingScript;
 import java.lang.reflect.Array;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+import org.apache.skywalking.oap.meter.analyzer.dsl.compiled.MALClassGenerator;
+import org.apache.skywalking.oap.meter.analyzer.dsl.compiled.MALExpression;
 import org.apache.skywalking.oap.meter.analyzer.dsl.registry.ProcessRegistry;
 import org.apache.skywalking.oap.meter.analyzer.dsl.tagOpt.K8sRetagType;
 import org.apache.skywalking.oap.server.core.analysis.Layer;
 import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.codehaus.groovy.ast.stmt.DoWhileStatement;
 import org.codehaus.groovy.ast.stmt.ForStatement;
 import org.codehaus.groovy.ast.stmt.Statement;
@@ -42,6 +46,18 @@ import org.codehaus.groovy.control.customizers.SecureASTCustomizer;
  * DSL combines methods to parse groovy based DSL expression.
  */
 public final class DSL {
+    /**
+     * The engine running the expressions, set by the system environment variable `SW_MAL_ENGINE`.
+     */
+    private static final Engine DEFAULT_ENGINE = Engine.of(System.getenv("SW_MAL_ENGINE"));
+
+    /**
+     * @return the engine set by `SW_MAL_ENGINE`.
+     * @since 10.1.0
+     */
+    public static Engine defaultEngine() {
+        return DEFAULT_ENGINE;
+    }
 
     /**
      * Parse string literal to Expression object, which can be reused.
@@ -51,6 +67,29 @@ public final class DSL {
      * @return Expression object could be executed.
      */
     public static Expression parse(final String metricName, final String expression) {
+        return parse(metricName, expression, DEFAULT_ENGINE);
+    }
+
+    /**
+     * Parse string literal to Expression object run by the given engine.
+     *
+     * @since 10.1.0
+     */
+    public static Expression parse(final String metricName, final String expression, final Engine engine) {
+        final CompilerConfiguration cc = compilerConfiguration();
+        if (engine == Engine.COMPILED) {
+            final MALExpression compiled = MALClassGenerator.generate(metricName, expression, cc);
+            if (compiled != null) {
+                return new Expression(metricName, expression, compiled);
+            }
+        }
+
+        GroovyShell sh = new GroovyShell(new Binding(), cc);
+        DelegatingScript script = (DelegatingScript) sh.parse(expression);
+        return new Expression(metricName, expression, script);
+    }
+
+    static CompilerConfiguration compilerConfiguration() {
         CompilerConfiguration cc = new CompilerConfiguration();
         cc.setScriptBaseClass(DelegatingScript.class.getName());
         ImportCustomizer icz = new ImportCustomizer();
@@ -80,9 +119,22 @@ public final class DSL {
                          .add(ProcessRegistry.class)
                 .build());
         cc.addCompilationCustomizers(secureASTCustomizer);
+        return cc;
+    }
 
-        GroovyShell sh = new GroovyShell(new Binding(), cc);
-        DelegatingScript script = (DelegatingScript) sh.parse(expression);
-        return new Expression(metricName, expression, script);
+    public enum Engine {
+        /**
+         * Run the expressions as Groovy scripts.
+         */
+        GROOVY,
+        /**
+         * Compile the expressions to Java classes by {@link MALClassGenerator}, the closures included. Expressions
+         * that can't be compiled, such as the ones including GStrings, still run as Groovy scripts.
+         */
+        COMPILED;
+
+        static Engine of(String name) {
+            return StringUtil.isEmpty(name) ? GROOVY : valueOf(name.toUpperCase(Locale.ENGLISH));
+        }
     }
 }
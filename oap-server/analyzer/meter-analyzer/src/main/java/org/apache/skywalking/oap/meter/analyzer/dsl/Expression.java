@@ -24,9 +24,12 @@ import groovy.lang.GroovyObjectSupport;
 import groovy.util.DelegatingScript;
 import java.time.Instant;
 import java.util.Map;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.meter.analyzer.dsl.compiled.MALClassGenerator;
+import org.apache.skywalking.oap.meter.analyzer.dsl.compiled.MALExpression;
 
 /**
  * Expression is a reusable monadic container type which represents a DSL expression.
@@ -42,13 +45,39 @@ public class Expression {
 
     private final DelegatingScript expression;
 
+    private final MALExpression compiledExpression;
+
+    private final Function<String, SampleFamily> sampleFamilyLookup;
+
     public Expression(final String metricName, final String literal, final DelegatingScript expression) {
         this.metricName = metricName;
         this.literal = literal;
         this.expression = expression;
+        this.compiledExpression = null;
+        this.sampleFamilyLookup = null;
         this.empower();
     }
 
+    /**
+     * @param compiledExpression the expression compiled to a Java class, see {@link MALClassGenerator}.
+     * @since 10.1.0
+     */
+    public Expression(final String metricName, final String literal, final MALExpression compiledExpression) {
+        this.metricName = metricName;
+        this.literal = literal;
+        this.expression = null;
+        this.compiledExpression = compiledExpression;
+        this.sampleFamilyLookup = sampleName -> findSampleFamily(metricName, literal, sampleName);
+    }
+
+    /**
+     * @return true if the expression is compiled to a Java class by {@link MALClassGenerator}.
+     * @since 10.1.0
+     */
+    public boolean isCompiled() {
+        return compiledExpression != null;
+    }
+
     /**
      * Parse the expression statically.
      *
@@ -78,7 +107,8 @@ public class Expression {
     public Result run(final Map<String, SampleFamily> sampleFamilies) {
         PROPERTY_REPOSITORY.set(sampleFamilies);
         try {
-            SampleFamily sf = (SampleFamily) expression.run();
+            SampleFamily sf = compiledExpression != null ?
+                compiledExpression.run(sampleFamilyLookup) : (SampleFamily) expression.run();
             if (sf == SampleFamily.EMPTY) {
                 if (!ExpressionParsingContext.get().isPresent()) {
                     if (log.isDebugEnabled()) {
@@ -103,13 +133,34 @@ public class Expression {
 
     private void extendNumber(Class clazz) {
         ExpandoMetaClass expando = new ExpandoMetaClass(clazz, true, false);
-        expando.registerInstanceMethod("plus", new NumberClosure(this, (n, s) -> s.plus(n)));
-        expando.registerInstanceMethod("minus", new NumberClosure(this, (n, s) -> s.minus(n).negative()));
-        expando.registerInstanceMethod("multiply", new NumberClosure(this, (n, s) -> s.multiply(n)));
-        expando.registerInstanceMethod("div", new NumberClosure(this, (n, s) -> s.newValue(v -> n.doubleValue() / v)));
+        expando.registerInstanceMethod("plus", new NumberClosure(this, NumberClosure::plus));
+        expando.registerInstanceMethod("minus", new NumberClosure(this, NumberClosure::minus));
+        expando.registerInstanceMethod("multiply", new NumberClosure(this, NumberClosure::multiply));
+        expando.registerInstanceMethod("div", new NumberClosure(this, NumberClosure::div));
         expando.initialize();
     }
 
+    private static SampleFamily findSampleFamily(String metricName, String literal, String sampleName) {
+        ExpressionParsingContext.get().ifPresent(ctx -> {
+            if (!ctx.samples.contains(sampleName)) {
+                ctx.samples.add(sampleName);
+            }
+        });
+        Map<String, SampleFamily> sampleFamilies = PROPERTY_REPOSITORY.get();
+        if (sampleFamilies == null) {
+            return SampleFamily.EMPTY;
+        }
+        if (sampleFamilies.containsKey(sampleName)) {
+            SampleFamily sampleFamily = sampleFamilies.get(sampleName);
+            sampleFamily.context.setMetricName(metricName);
+            return sampleFamily;
+        }
+        if (ExpressionParsingContext.get().isEmpty()) {
+            log.warn("{} referred by \"{}\" doesn't exist in {}", sampleName, literal, sampleFamilies.keySet());
+        }
+        return SampleFamily.EMPTY;
+    }
+
     @RequiredArgsConstructor
     @SuppressWarnings("unused") // used in MAL expressions
     private static class ExpressionDelegate extends GroovyObjectSupport {
@@ -124,24 +175,7 @@ public class Expression {
         private final String literal;
 
         public SampleFamily propertyMissing(String sampleName) {
-            ExpressionParsingContext.get().ifPresent(ctx -> {
-                if (!ctx.samples.contains(sampleName)) {
-                    ctx.samples.add(sampleName);
-                }
-            });
-            Map<String, SampleFamily> sampleFamilies = PROPERTY_REPOSITORY.get();
-            if (sampleFamilies == null) {
-                return SampleFamily.EMPTY;
-            }
-            if (sampleFamilies.containsKey(sampleName)) {
-                SampleFamily sampleFamily = sampleFamilies.get(sampleName);
-                sampleFamily.context.setMetricName(this.metricName);
-                return sampleFamily;
-            }
-            if (ExpressionParsingContext.get().isEmpty()) {
-                log.warn("{} referred by \"{}\" doesn't exist in {}", sampleName, literal, sampleFamilies.keySet());
-            }
-            return SampleFamily.EMPTY;
+            return findSampleFamily(metricName, literal, sampleName);
         }
 
         public Number time() {
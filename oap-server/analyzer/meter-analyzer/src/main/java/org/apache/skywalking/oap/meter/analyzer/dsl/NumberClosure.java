@@ -54,5 +54,33 @@ public class NumberClosure extends Closure<SampleFamily> {
     public Class[] getParameterTypes() {
         return new Class[] { SampleFamily.class};
     }
+
+    /**
+     * {@code number + sampleFamily}
+     */
+    public static SampleFamily plus(Number number, SampleFamily sampleFamily) {
+        return sampleFamily.plus(number);
+    }
+
+    /**
+     * {@code number - sampleFamily}
+     */
+    public static SampleFamily minus(Number number, SampleFamily sampleFamily) {
+        return sampleFamily.minus(number).negative();
+    }
+
+    /**
+     * {@code number * sampleFamily}
+     */
+    public static SampleFamily multiply(Number number, SampleFamily sampleFamily) {
+        return sampleFamily.multiply(number);
+    }
+
+    /**
+     * {@code number / sampleFamily}
+     */
+    public static SampleFamily div(Number number, SampleFamily sampleFamily) {
+        return sampleFamily.newValue(v -> number.doubleValue() / v);
+    }
 }
 
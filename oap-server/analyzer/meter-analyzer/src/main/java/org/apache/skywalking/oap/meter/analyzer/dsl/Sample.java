@@ -19,8 +19,6 @@
 package org.apache.skywalking.oap.meter.analyzer.dsl;
 
 import com.google.common.collect.ImmutableMap;
-import io.vavr.Function2;
-import io.vavr.Tuple2;
 import java.time.Duration;
 import java.util.function.Function;
 import lombok.Builder;
@@ -46,15 +44,13 @@ public class Sample {
         return toBuilder().value(transform.apply(value)).build();
     }
 
-    Sample increase(String range, String metricName, Function2<Double, Long, Double> transform) {
-        Tuple2<Long, Double> i = CounterWindow.INSTANCE.increase(metricName, labels, value, Duration.parse(range).toMillis(), timestamp);
-        double nv = transform.apply(i._2, i._1);
+    Sample increase(String range, String metricName, CounterWindow.LowerBoundFunction transform) {
+        double nv = CounterWindow.INSTANCE.increase(metricName, labels, value, Duration.parse(range).toMillis(), timestamp, transform);
         return newValue(ignored -> nv);
     }
 
-    Sample increase(String metricName, Function2<Double, Long, Double> transform) {
-        Tuple2<Long, Double> i = CounterWindow.INSTANCE.pop(metricName, labels, value, timestamp);
-        double nv = transform.apply(i._2, i._1);
+    Sample increase(String metricName, CounterWindow.LowerBoundFunction transform) {
+        double nv = CounterWindow.INSTANCE.pop(metricName, labels, value, timestamp, transform);
         return newValue(ignored -> nv);
     }
 }
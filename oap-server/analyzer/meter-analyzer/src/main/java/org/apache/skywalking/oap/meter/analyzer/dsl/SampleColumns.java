@@ -0,0 +1,379 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * SampleColumns is the columnar view of the samples of a {@link SampleFamily}. The label values are dictionary-encoded
+ * into int ids per label key, the values and timestamps are held in primitive arrays, so grouping and matching samples
+ * hash int tuples rather than building and comparing label maps for every sample.
+ */
+final class SampleColumns {
+    /**
+     * The id of an absent label.
+     */
+    static final int ABSENT = -1;
+
+    private final Sample[] samples;
+    /**
+     * Label keys of the family, in the order they are seen first.
+     */
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, Integer> keyIndex = new HashMap<>();
+    /**
+     * Per label key, the label values indexed by their ids, and the reverse dictionary.
+     */
+    private final List<List<String>> dictionaries = new ArrayList<>();
+    private final List<Map<String, Integer>> valueIds = new ArrayList<>();
+    /**
+     * The label value ids, {@code columns.get(key)[sample]}, {@link #ABSENT} when the sample doesn't have the label.
+     */
+    private final List<int[]> columns = new ArrayList<>();
+    final double[] values;
+    final long[] timestamps;
+    /**
+     * Index of the full label sets, lazily built when the family is the right operand of a binary operation.
+     */
+    private TupleIndex labelSets;
+
+    SampleColumns(final Sample[] samples) {
+        this.samples = samples;
+        this.values = new double[samples.length];
+        this.timestamps = new long[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            final Sample sample = samples[i];
+            values[i] = sample.value;
+            timestamps[i] = sample.timestamp;
+            if (sample.labels == null) {
+                continue;
+            }
+            for (final Map.Entry<String, String> label : sample.labels.entrySet()) {
+                final int k = keyIndex.computeIfAbsent(label.getKey(), this::newKey);
+                final Map<String, Integer> ids = valueIds.get(k);
+                Integer id = ids.get(label.getValue());
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(label.getValue(), id);
+                    dictionaries.get(k).add(label.getValue());
+                }
+                columns.get(k)[i] = id;
+            }
+        }
+    }
+
+    private int newKey(final String key) {
+        final int[] column = new int[samples.length];
+        Arrays.fill(column, ABSENT);
+        keys.add(key);
+        dictionaries.add(new ArrayList<>());
+        valueIds.add(new HashMap<>());
+        columns.add(column);
+        return keys.size() - 1;
+    }
+
+    int size() {
+        return samples.length;
+    }
+
+    Sample sample(final int i) {
+        return samples[i];
+    }
+
+    /**
+     * Group the samples by the values of the given label keys, an absent label equals to an empty value.
+     *
+     * @return the grouping, of which the label maps of groups are keyed in the order of {@code by}.
+     */
+    Grouping groupBy(final List<String> by) {
+        final int width = by.size();
+        final int[][] byColumns = new int[width][];
+        final int[] emptyIds = new int[width];
+        for (int j = 0; j < width; j++) {
+            final Integer k = keyIndex.get(by.get(j));
+            byColumns[j] = k == null ? null : columns.get(k);
+            emptyIds[j] = k == null ? ABSENT : valueIds.get(k).getOrDefault("", ABSENT);
+        }
+
+        final TupleIndex index = new TupleIndex(width, samples.length);
+        final int[] groupOf = new int[samples.length];
+        final int[] tuple = new int[width];
+        for (int i = 0; i < samples.length; i++) {
+            for (int j = 0; j < width; j++) {
+                final int id = byColumns[j] == null ? ABSENT : byColumns[j][i];
+                tuple[j] = id == emptyIds[j] ? ABSENT : id;
+            }
+            groupOf[i] = index.putIfAbsent(tuple, i);
+        }
+        return new Grouping(by, byColumns, groupOf, index);
+    }
+
+    /**
+     * @return whether each label value in {@code expected} satisfies the predicate against the label of the sample, an
+     * absent label is tested as an empty value. The predicate is evaluated once per distinct label value.
+     */
+    boolean[] match(final Map<String, String> expected, final BiPredicate<String, String> op) {
+        final boolean[] matched = new boolean[samples.length];
+        Arrays.fill(matched, true);
+        for (final Map.Entry<String, String> entry : expected.entrySet()) {
+            final Integer k = keyIndex.get(entry.getKey());
+            if (k == null) {
+                if (!op.test("", entry.getValue())) {
+                    return new boolean[samples.length];
+                }
+                continue;
+            }
+            final List<String> dictionary = dictionaries.get(k);
+            final boolean[] accepted = new boolean[dictionary.size()];
+            for (int id = 0; id < accepted.length; id++) {
+                accepted[id] = op.test(dictionary.get(id), entry.getValue());
+            }
+            final boolean acceptAbsent = op.test("", entry.getValue());
+            final int[] column = columns.get(k);
+            for (int i = 0; i < samples.length; i++) {
+                final int id = column[i];
+                matched[i] &= id == ABSENT ? acceptAbsent : accepted[id];
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Find the samples of {@code another} having the same label set as the samples of this family.
+     *
+     * @return the index of the first sample of {@code another} with the same labels, or -1 per sample of this family.
+     */
+    int[] join(final SampleColumns another) {
+        final int[] joined = new int[samples.length];
+        Arrays.fill(joined, -1);
+        final TupleIndex index = another.labelSets();
+        final int width = another.keys.size();
+
+        // Translate the label ids of this family to the ones of another, -2 if another doesn't have the value.
+        final int[] targetKey = new int[keys.size()];
+        final int[][] translated = new int[keys.size()][];
+        for (int k = 0; k < keys.size(); k++) {
+            final Integer target = another.keyIndex.get(keys.get(k));
+            targetKey[k] = target == null ? -1 : target;
+            final List<String> dictionary = dictionaries.get(k);
+            translated[k] = new int[dictionary.size()];
+            for (int id = 0; id < dictionary.size(); id++) {
+                translated[k][id] = target == null ? -2 : another.valueIds.get(target).getOrDefault(dictionary.get(id), -2);
+            }
+        }
+
+        final int[] tuple = new int[width];
+        samples:
+        for (int i = 0; i < samples.length; i++) {
+            Arrays.fill(tuple, ABSENT);
+            for (int k = 0; k < keys.size(); k++) {
+                final int id = columns.get(k)[i];
+                if (id == ABSENT) {
+                    continue;
+                }
+                final int targetId = translated[k][id];
+                if (targetId < 0) {
+                    continue samples;
+                }
+                tuple[targetKey[k]] = targetId;
+            }
+            joined[i] = index.get(tuple);
+        }
+        return joined;
+    }
+
+    private TupleIndex labelSets() {
+        if (labelSets == null) {
+            final TupleIndex index = new TupleIndex(keys.size(), samples.length);
+            final int[] tuple = new int[keys.size()];
+            for (int i = 0; i < samples.length; i++) {
+                for (int k = 0; k < tuple.length; k++) {
+                    tuple[k] = columns.get(k)[i];
+                }
+                index.putIfAbsent(tuple, i);
+            }
+            labelSets = index;
+        }
+        return labelSets;
+    }
+
+    /**
+     * Grouping of the samples by some of the label keys.
+     */
+    final class Grouping {
+        private final List<String> by;
+        private final int[][] byColumns;
+        /**
+         * The group of each sample.
+         */
+        final int[] groupOf;
+        private final TupleIndex index;
+
+        private Grouping(final List<String> by, final int[][] byColumns, final int[] groupOf, final TupleIndex index) {
+            this.by = by;
+            this.byColumns = byColumns;
+            this.groupOf = groupOf;
+            this.index = index;
+        }
+
+        int size() {
+            return index.size();
+        }
+
+        /**
+         * @return the first sample of the group.
+         */
+        Sample first(final int group) {
+            return samples[index.firstOf(group)];
+        }
+
+        /**
+         * @return the group labels, keyed by all of the grouping keys, with the empty value for absent labels.
+         */
+        ImmutableMap<String, String> labels(final int group) {
+            final int first = index.firstOf(group);
+            final ImmutableMap.Builder<String, String> builder = ImmutableMap.builderWithExpectedSize(by.size());
+            for (int j = 0; j < by.size(); j++) {
+                final int id = byColumns[j] == null ? ABSENT : byColumns[j][first];
+                builder.put(by.get(j), id == ABSENT ? "" : dictionaries.get(keyIndex.get(by.get(j))).get(id));
+            }
+            return builder.buildOrThrow();
+        }
+
+        /**
+         * @return the groups keyed by their labels. Iterating the map gives the order of the samples when grouping them
+         * by label maps directly, so the aggregated sample families keep their order.
+         */
+        Map<ImmutableMap<String, String>, Integer> byLabels() {
+            final Map<ImmutableMap<String, String>, Integer> groups = new HashMap<>();
+            for (int g = 0; g < size(); g++) {
+                groups.put(labels(g), g);
+            }
+            return groups;
+        }
+    }
+
+    /**
+     * Open addressing hash index of fixed-width int tuples, assigning every distinct tuple a sequential id.
+     */
+    private static final class TupleIndex {
+        private final int width;
+        private int[] tuples;
+        private int[] firsts;
+        private int[] slots;
+        private int size;
+
+        private TupleIndex(final int width, final int expected) {
+            this.width = width;
+            final int capacity = Math.max(4, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1);
+            this.slots = new int[capacity];
+            Arrays.fill(slots, -1);
+            this.tuples = new int[Math.max(1, expected) * width];
+            this.firsts = new int[Math.max(1, expected)];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int firstOf(final int id) {
+            return firsts[id];
+        }
+
+        /**
+         * @return the id of the tuple, the new id if it's absent, which records {@code first} as its first sample.
+         */
+        private int putIfAbsent(final int[] tuple, final int first) {
+            final int mask = slots.length - 1;
+            int slot = hash(tuple) & mask;
+            while (slots[slot] != -1) {
+                if (equalsAt(slots[slot], tuple)) {
+                    return slots[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == firsts.length) {
+                firsts = Arrays.copyOf(firsts, size * 2);
+                tuples = Arrays.copyOf(tuples, size * 2 * width);
+            }
+            System.arraycopy(tuple, 0, tuples, size * width, width);
+            firsts[size] = first;
+            slots[slot] = size;
+            size++;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return size - 1;
+        }
+
+        /**
+         * @return the first sample of the tuple, or -1 if absent.
+         */
+        private int get(final int[] tuple) {
+            final int mask = slots.length - 1;
+            int slot = hash(tuple) & mask;
+            while (slots[slot] != -1) {
+                if (equalsAt(slots[slot], tuple)) {
+                    return firsts[slots[slot]];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private boolean equalsAt(final int id, final int[] tuple) {
+            final int offset = id * width;
+            for (int j = 0; j < width; j++) {
+                if (tuples[offset + j] != tuple[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            Arrays.fill(slots, -1);
+            final int mask = slots.length - 1;
+            final int[] tuple = new int[width];
+            for (int id = 0; id < size; id++) {
+                System.arraycopy(tuples, id * width, tuple, 0, width);
+                int slot = hash(tuple) & mask;
+                while (slots[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id;
+            }
+        }
+
+        private static int hash(final int[] tuple) {
+            int h = 1;
+            for (final int id : tuple) {
+                h = 31 * h + id;
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -18,12 +18,6 @@
 
 package org.apache.skywalking.oap.meter.analyzer.dsl;
 
-import static java.util.function.UnaryOperator.identity;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.mapping;
-import static java.util.stream.Collectors.toList;
-import static com.google.common.collect.ImmutableMap.toImmutableMap;
-
 import org.apache.commons.lang3.StringUtils;
 import org.apache.skywalking.oap.meter.analyzer.dsl.EntityDescription.EndpointEntityDescription;
 import org.apache.skywalking.oap.meter.analyzer.dsl.EntityDescription.EntityDescription;
@@ -39,6 +33,7 @@ import org.apache.skywalking.oap.server.core.analysis.Layer;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
 import org.apache.skywalking.oap.server.core.analysis.meter.ScopeType;
 import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -52,6 +47,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
@@ -94,6 +90,20 @@ public class SampleFamily {
 
     public final RunningContext context;
 
+    /**
+     * The columnar view of the samples, built on demand by the operations grouping or matching samples.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private SampleColumns columns;
+
+    SampleColumns columns() {
+        if (columns == null) {
+            columns = new SampleColumns(samples);
+        }
+        return columns;
+    }
+
     /**
      * Following operations are used in DSL
      */
@@ -228,18 +238,23 @@ public class SampleFamily {
                 this.context, InternalOps.newSample(samples[0].name, ImmutableMap.of(), samples[0].timestamp, result));
         }
 
+        final SampleColumns.Grouping grouping = columns().groupBy(by);
+        final double[] sums = new double[grouping.size()];
+        final int[] counts = new int[grouping.size()];
+        for (int i = 0; i < grouping.groupOf.length; i++) {
+            sums[grouping.groupOf[i]] += columns.values[i];
+            counts[grouping.groupOf[i]]++;
+        }
         return SampleFamily.build(
             this.context,
-            Arrays.stream(samples)
-                  .collect(groupingBy(it -> InternalOps.getLabels(by, it), mapping(identity(), toList())))
-                  .entrySet().stream()
-                  .map(entry -> InternalOps.newSample(
-                      entry.getValue().get(0).getName(),
-                      entry.getKey(),
-                      entry.getValue().get(0).getTimestamp(),
-                      entry.getValue().stream().mapToDouble(Sample::getValue).average().orElse(0.0D)
-                  ))
-                  .toArray(Sample[]::new)
+            grouping.byLabels().entrySet().stream()
+                    .map(entry -> InternalOps.newSample(
+                        grouping.first(entry.getValue()).name,
+                        entry.getKey(),
+                        grouping.first(entry.getValue()).timestamp,
+                        sums[entry.getValue()] / counts[entry.getValue()]
+                    ))
+                    .toArray(Sample[]::new)
         );
     }
 
@@ -265,35 +280,35 @@ public class SampleFamily {
                     this.context, InternalOps.newSample(samples[0].name, ImmutableMap.of(), samples[0].timestamp, set.size()));
         }
 
-        Stream<Map.Entry<ImmutableMap<String, String>, List<Sample>>> stream = Arrays
-                .stream(samples)
-                .filter(sample -> sample.labels.keySet().containsAll(by))
-                .collect(groupingBy(it -> InternalOps.getLabels(by, it)))
-                .entrySet()
-                .stream()
-                .map(entry -> InternalOps.newSample(
-                        entry.getValue().get(0).getName(),
-                        entry.getKey(),
-                        entry.getValue().get(0).getTimestamp(),
-                        entry.getValue().size()))
-                .collect(groupingBy(it -> InternalOps.groupByExcludedLabel(by.get(by.size() - 1), it), mapping(identity(), toList())))
-                .entrySet()
-                .stream();
-
-        Sample[] array = stream
-                .map(entry -> InternalOps.newSample(
-                        entry.getValue().get(0).getName(),
+        // Count the distinct series of `by` per group of `by` excluding the last label
+        final Sample[] complete = Arrays.stream(samples)
+                                        .filter(sample -> sample.labels.keySet().containsAll(by))
+                                        .toArray(Sample[]::new);
+        final SampleColumns.Grouping series = new SampleColumns(complete).groupBy(by);
+        final Sample[] seriesSamples = series.byLabels().entrySet().stream()
+                                             .map(entry -> InternalOps.newSample(
+                                                 series.first(entry.getValue()).name,
+                                                 entry.getKey(),
+                                                 series.first(entry.getValue()).timestamp,
+                                                 0
+                                             ))
+                                             .toArray(Sample[]::new);
+        final SampleColumns.Grouping grouping = new SampleColumns(seriesSamples).groupBy(by.subList(0, by.size() - 1));
+        final int[] counts = new int[grouping.size()];
+        for (final int g : grouping.groupOf) {
+            counts[g]++;
+        }
+        return SampleFamily.build(
+            this.context,
+            grouping.byLabels().entrySet().stream()
+                    .map(entry -> InternalOps.newSample(
+                        grouping.first(entry.getValue()).name,
                         entry.getKey(),
-                        entry.getValue().get(0).getTimestamp(),
-                        entry.getValue().size()
-                ))
-                .toArray(Sample[]::new);
-
-        SampleFamily sampleFamily = SampleFamily.build(
-                this.context,
-                array
+                        grouping.first(entry.getValue()).timestamp,
+                        counts[entry.getValue()]
+                    ))
+                    .toArray(Sample[]::new)
         );
-        return sampleFamily;
     }
 
     protected SampleFamily aggregate(List<String> by, DoubleBinaryOperator aggregator) {
@@ -306,18 +321,24 @@ public class SampleFamily {
             return SampleFamily.build(
                 this.context, InternalOps.newSample(samples[0].name, ImmutableMap.of(), samples[0].timestamp, result));
         }
+        final SampleColumns.Grouping grouping = columns().groupBy(by);
+        final double[] results = new double[grouping.size()];
+        final boolean[] reduced = new boolean[grouping.size()];
+        for (int i = 0; i < grouping.groupOf.length; i++) {
+            final int g = grouping.groupOf[i];
+            results[g] = reduced[g] ? aggregator.applyAsDouble(results[g], columns.values[i]) : columns.values[i];
+            reduced[g] = true;
+        }
         return SampleFamily.build(
             this.context,
-            Arrays.stream(samples)
-                  .collect(groupingBy(it -> InternalOps.getLabels(by, it), mapping(identity(), toList())))
-                  .entrySet().stream()
-                  .map(entry -> InternalOps.newSample(
-                      entry.getValue().get(0).getName(),
-                      entry.getKey(),
-                      entry.getValue().get(0).getTimestamp(),
-                      entry.getValue().stream().mapToDouble(Sample::getValue).reduce(aggregator).orElse(0.0D)
-                  ))
-                  .toArray(Sample[]::new)
+            grouping.byLabels().entrySet().stream()
+                    .map(entry -> InternalOps.newSample(
+                        grouping.first(entry.getValue()).name,
+                        entry.getKey(),
+                        grouping.first(entry.getValue()).timestamp,
+                        results[entry.getValue()]
+                    ))
+                    .toArray(Sample[]::new)
         );
     }
 
@@ -623,15 +644,19 @@ public class SampleFamily {
 
     private SampleFamily createMeterSamples(EntityDescription entityDescription) {
         Map<MeterEntity, Sample[]> meterSamples = new HashMap<>();
-        Arrays.stream(samples)
-              .collect(groupingBy(it -> InternalOps.getLabels(entityDescription.getLabelKeys(), it),
-                                  mapping(identity(), toList())
-              ))
-              .forEach((labels, samples) -> {
-                  MeterEntity meterEntity = InternalOps.buildMeterEntity(samples, entityDescription);
-                  meterSamples.put(
-                      meterEntity, InternalOps.left(samples, entityDescription.getLabelKeys()));
-              });
+        final SampleColumns.Grouping grouping = columns().groupBy(entityDescription.getLabelKeys());
+        final List<List<Sample>> groups = new ArrayList<>(grouping.size());
+        for (int g = 0; g < grouping.size(); g++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < samples.length; i++) {
+            groups.get(grouping.groupOf[i]).add(samples[i]);
+        }
+        groups.forEach(samples -> {
+            MeterEntity meterEntity = InternalOps.buildMeterEntity(samples, entityDescription);
+            meterSamples.put(
+                meterEntity, InternalOps.left(samples, entityDescription.getLabelKeys()));
+        });
 
         this.context.setMeterSamples(meterSamples);
         //This samples is original, The grouped samples is in context which mapping with MeterEntity
@@ -644,14 +669,11 @@ public class SampleFamily {
         for (int i = 0; i < labels.length; i += 2) {
             ll.put(labels[i], labels[i + 1]);
         }
-        Sample[] ss = Arrays.stream(samples)
-                            .filter(sample -> ll.entrySet()
-                                                .stream()
-                                                .allMatch(
-                                                    entry -> op.apply(sample.labels.getOrDefault(entry.getKey(), ""),
-                                                                      entry.getValue()
-                                                    )))
-                            .toArray(Sample[]::new);
+        final boolean[] matched = columns().match(ll, op::apply);
+        Sample[] ss = IntStream.range(0, samples.length)
+                               .filter(i -> matched[i])
+                               .mapToObj(i -> samples[i])
+                               .toArray(Sample[]::new);
         return ss.length > 0 ? SampleFamily.build(this.context, ss) : EMPTY;
     }
 
@@ -674,17 +696,15 @@ public class SampleFamily {
         return SampleFamily.build(this.context, ss);
     }
 
-    private SampleFamily newValue(SampleFamily another, Function2<Double, Double, Double> transform) {
-        Sample[] ss = Arrays.stream(samples)
-                            .flatMap(cs -> io.vavr.collection.Stream.of(another.samples)
-                                                                    .find(as -> cs.labels.equals(as.labels))
-                                                                    .map(as -> cs.toBuilder()
-                                                                                 .value(transform.apply(cs.value,
-                                                                                                        as.value
-                                                                                 )))
-                                                                    .map(Sample.SampleBuilder::build)
-                                                                    .toJavaStream())
-                            .toArray(Sample[]::new);
+    private SampleFamily newValue(SampleFamily another, DoubleBinaryOperator transform) {
+        final int[] joined = columns().join(another.columns());
+        Sample[] ss = IntStream.range(0, samples.length)
+                               .filter(i -> joined[i] >= 0)
+                               .mapToObj(i -> samples[i].toBuilder()
+                                                        .value(transform.applyAsDouble(
+                                                            columns.values[i], another.columns.values[joined[i]]))
+                                                        .build())
+                               .toArray(Sample[]::new);
         return ss.length > 0 ? SampleFamily.build(this.context, ss) : EMPTY;
     }
 
@@ -847,23 +867,6 @@ public class SampleFamily {
 
             return false;
         }
-
-        private static ImmutableMap<String, String> getLabels(final List<String> labelKeys, final Sample sample) {
-            return labelKeys.stream()
-                            .collect(toImmutableMap(
-                                Function.identity(),
-                                labelKey -> sample.labels.getOrDefault(labelKey, "")
-                            ));
-        }
-
-        private static ImmutableMap<String, String> groupByExcludedLabel(final String excludedLabelKey, final Sample sample) {
-            return sample
-                    .labels
-                    .entrySet()
-                    .stream()
-                    .filter(v -> !v.getKey().equals(excludedLabelKey))
-                    .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
-        }
     }
 
     private enum CompType {
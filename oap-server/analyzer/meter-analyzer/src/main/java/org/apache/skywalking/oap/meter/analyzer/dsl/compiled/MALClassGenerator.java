@@ -0,0 +1,854 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl.compiled;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.meter.analyzer.dsl.DSL;
+import org.apache.skywalking.oap.meter.analyzer.dsl.DownsamplingType;
+import org.apache.skywalking.oap.meter.analyzer.dsl.NumberClosure;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.BooleanExpression;
+import org.codehaus.groovy.ast.expr.ClassExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.DeclarationExpression;
+import org.codehaus.groovy.ast.expr.ElvisOperatorExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.ListExpression;
+import org.codehaus.groovy.ast.expr.MapEntryExpression;
+import org.codehaus.groovy.ast.expr.MapExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.NotExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.TernaryExpression;
+import org.codehaus.groovy.ast.expr.UnaryMinusExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.EmptyStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.IfStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.syntax.Types;
+
+/**
+ * MALClassGenerator compiles a MAL expression to a Java class implementing {@link MALExpression}, which calls the
+ * {@link SampleFamily} operations directly rather than through the dynamic dispatching of Groovy.
+ * <p>
+ * The expression is parsed and checked by the Groovy compiler with the configuration of {@link DSL}, so the syntax
+ * errors and the security restrictions are the same as the Groovy engine. The AST is translated into Java code, in
+ * which the methods are resolved by the static types following the rules of Groovy, literals are evaluated once, and
+ * binary operators with numbers are delegated to {@link NumberClosure} and the Groovy number math. The code is compiled
+ * by Javassist.
+ * <p>
+ * The closures, such as the ones of `tag` and `forEach`, are compiled to the subclasses of {@link MALClosure}. The
+ * labels map is accessed directly, and the other operations follow the Groovy semantics through the Groovy runtime, as
+ * the closure parameters are not typed.
+ * <p>
+ * Expressions including anything else, such as GStrings, are not compiled, and {@link #generate} returns null to run
+ * them as Groovy scripts.
+ *
+ * @since 10.1.0
+ */
+@Slf4j
+public class MALClassGenerator {
+    private static final String CLASS_PACKAGE = "org.apache.skywalking.oap.meter.analyzer.dsl.compiled.";
+    private static final String SAMPLE_FAMILY = SampleFamily.class.getName();
+    private static final String NUMBER = Number.class.getName();
+    private static final String OBJECT = Object.class.getName();
+    private static final String CLOSURE = MALClosure.class.getName();
+    private static final String INVOKER = "org.codehaus.groovy.runtime.InvokerHelper";
+    private static final String BYTECODE_ADAPTER = "org.codehaus.groovy.runtime.ScriptBytecodeAdapter";
+    private static final AtomicInteger CLASS_INDEX = new AtomicInteger();
+
+    /**
+     * The constants declared in the delegate of Groovy scripts.
+     */
+    private static final Map<String, DownsamplingType> DOWNSAMPLING_TYPES = ImmutableMap.<String, DownsamplingType>builder()
+        .put("AVG", DownsamplingType.AVG)
+        .put("SUM", DownsamplingType.SUM)
+        .put("LATEST", DownsamplingType.LATEST)
+        .put("SUM_PER_MIN", DownsamplingType.SUM_PER_MIN)
+        .put("MAX", DownsamplingType.MAX)
+        .put("MIN", DownsamplingType.MIN)
+        .build();
+    /**
+     * Properties resolved by the Groovy script or its delegate rather than the sample families.
+     */
+    private static final Set<String> RESERVED_PROPERTIES = ImmutableSet.of(
+        "this", "super", "class", "metaClass", "binding", "properties", "metricName", "literal");
+    private static final Map<Integer, String> NUMBER_OPERATORS = ImmutableMap.of(
+        Types.PLUS, "plus",
+        Types.MINUS, "minus",
+        Types.MULTIPLY, "multiply",
+        Types.DIVIDE, "div"
+    );
+    private static final Map<Integer, String> NUMBER_MATH_OPERATORS = ImmutableMap.of(
+        Types.PLUS, "add",
+        Types.MINUS, "subtract",
+        Types.MULTIPLY, "multiply",
+        Types.DIVIDE, "divide"
+    );
+    private static final Map<Integer, String> COMPARE_OPERATORS = ImmutableMap.<Integer, String>builder()
+        .put(Types.COMPARE_EQUAL, "compareEqual")
+        .put(Types.COMPARE_NOT_EQUAL, "compareNotEqual")
+        .put(Types.COMPARE_LESS_THAN, "compareLessThan")
+        .put(Types.COMPARE_LESS_THAN_EQUAL, "compareLessThanEqual")
+        .put(Types.COMPARE_GREATER_THAN, "compareGreaterThan")
+        .put(Types.COMPARE_GREATER_THAN_EQUAL, "compareGreaterThanEqual")
+        .build();
+
+    private static final ClassPool CLASS_POOL = ClassPool.getDefault();
+
+    /**
+     * Compile the expression to a Java class.
+     *
+     * @param metricName    the name of metric defined in mal rule
+     * @param expression    string literal represents the DSL expression.
+     * @param configuration the Groovy compiler configuration used by the Groovy engine.
+     * @return the instance of the generated class, or null if the expression could only run as a Groovy script.
+     */
+    public static MALExpression generate(final String metricName,
+                                         final String expression,
+                                         final CompilerConfiguration configuration) {
+        final CompilationUnit unit = new CompilationUnit(configuration);
+        unit.addSource("MALExpression" + CLASS_INDEX.get() + ".groovy", expression);
+        unit.compile(Phases.CANONICALIZATION);
+
+        final Translation translation = new Translation();
+        final String code;
+        try {
+            code = translation.translateScript(unit.getAST().getModules().get(0));
+        } catch (UnsupportedExpressionException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("\"{}\" runs as a Groovy script, as {}", expression, e.getMessage());
+            }
+            return null;
+        }
+
+        final String className = "MALExpression" + CLASS_INDEX.incrementAndGet();
+        final CtClass expressionClass = CLASS_POOL.makeClass(CLASS_PACKAGE + className);
+        try {
+            expressionClass.addInterface(CLASS_POOL.get(MALExpression.class.getName()));
+            expressionClass.addField(CtField.make("private final java.lang.Object[] c;", expressionClass));
+            expressionClass.addConstructor(CtNewConstructor.make(
+                "public " + className + "(java.lang.Object[] c) { this.c = $1; }", expressionClass));
+            expressionClass.addMethod(CtNewMethod.make(
+                "public " + SAMPLE_FAMILY + " run(java.util.function.Function s) { return " + code + "; }",
+                expressionClass
+            ));
+            final Class<?> targetClass = expressionClass.toClass(MALClassPackageHolder.class);
+            if (log.isDebugEnabled()) {
+                log.debug("Generate MAL expression class {} of {}: {}", className, metricName, code);
+            }
+            return (MALExpression) targetClass.getConstructor(Object[].class)
+                                              .newInstance((Object) translation.constants.toArray());
+        } catch (CannotCompileException | NotFoundException | ReflectiveOperationException e) {
+            log.warn("Can't compile \"{}\", run it as a Groovy script.", expression, e);
+            return null;
+        } finally {
+            expressionClass.detach();
+        }
+    }
+
+    /**
+     * Java code of an expression with its static type.
+     */
+    private static class Code {
+        private final String code;
+        private final Class<?> type;
+        /**
+         * Not null if the value is known when compiling.
+         */
+        private final Object constant;
+
+        private Code(final String code, final Class<?> type, final Object constant) {
+            this.code = code;
+            this.type = type;
+            this.constant = constant;
+        }
+
+        private boolean isSampleFamily() {
+            return type == SampleFamily.class;
+        }
+
+        private boolean isNumber() {
+            return Number.class.isAssignableFrom(type);
+        }
+    }
+
+    private static class Translation {
+        private final List<Object> constants = new ArrayList<>();
+        /**
+         * The parameters and local variables of the closure, or null if it is not a closure.
+         */
+        private final Set<String> locals;
+        private int temporaries;
+
+        private Translation() {
+            this(null);
+        }
+
+        private Translation(final Set<String> locals) {
+            this.locals = locals;
+        }
+
+        private String translateScript(ModuleNode module) {
+            final ClassNode scriptClass = module.getClasses().get(0);
+            final MethodNode run = scriptClass.getDeclaredMethod("run", Parameter.EMPTY_ARRAY);
+            Statement statement = run.getCode();
+            if (statement instanceof BlockStatement) {
+                final List<Statement> statements = ((BlockStatement) statement).getStatements();
+                if (statements.size() != 1) {
+                    throw new UnsupportedExpressionException("multiple statements");
+                }
+                statement = statements.get(0);
+            }
+            final Expression expression;
+            if (statement instanceof ExpressionStatement) {
+                expression = ((ExpressionStatement) statement).getExpression();
+            } else if (statement instanceof ReturnStatement) {
+                expression = ((ReturnStatement) statement).getExpression();
+            } else {
+                throw new UnsupportedExpressionException(statement.getText());
+            }
+            final Code code = translate(expression);
+            if (!code.isSampleFamily()) {
+                throw new UnsupportedExpressionException("the result is " + code.type.getName());
+            }
+            return code.code;
+        }
+
+        private Code translate(Expression expression) {
+            if (locals != null) {
+                final Code code = translateInClosure(expression);
+                if (code != null) {
+                    return code;
+                }
+            }
+            final Class<?> expressionType = expression.getClass();
+            if (expressionType == ConstantExpression.class) {
+                final Object value = ((ConstantExpression) expression).getValue();
+                if (value instanceof String || value instanceof Number) {
+                    return constant(value, value.getClass());
+                }
+            } else if (expressionType == VariableExpression.class) {
+                return translateVariable((VariableExpression) expression);
+            } else if (expressionType == PropertyExpression.class) {
+                return translateStaticProperty((PropertyExpression) expression);
+            } else if (expressionType == ListExpression.class) {
+                return translateList((ListExpression) expression);
+            } else if (expressionType == MethodCallExpression.class) {
+                return translateMethodCall((MethodCallExpression) expression);
+            } else if (expressionType == BinaryExpression.class) {
+                return translateBinary((BinaryExpression) expression);
+            } else if (expressionType == UnaryMinusExpression.class) {
+                return translateUnaryMinus((UnaryMinusExpression) expression);
+            } else if (expressionType == ClosureExpression.class && locals == null) {
+                return translateClosure((ClosureExpression) expression);
+            }
+            throw new UnsupportedExpressionException(expression.getText());
+        }
+
+        /**
+         * Compile the closure to a subclass of {@link MALClosure}, the instance is a constant of the expression.
+         */
+        private Code translateClosure(ClosureExpression expression) {
+            final List<String> parameters = new ArrayList<>();
+            if (!expression.isParameterSpecified()) {
+                parameters.add("it");
+            } else {
+                for (final Parameter parameter : expression.getParameters()) {
+                    if (!parameter.isDynamicTyped() || parameter.hasInitialExpression()) {
+                        throw new UnsupportedExpressionException(expression.getText());
+                    }
+                    parameters.add(parameter.getName());
+                }
+            }
+
+            final Translation closure = new Translation(new HashSet<>(parameters));
+            final StringBuilder body = new StringBuilder();
+            for (int i = 0; i < parameters.size(); i++) {
+                body.append(OBJECT).append(' ').append(variable(parameters.get(i)))
+                    .append(" = ").append(CLOSURE).append(".arg($1, ").append(i).append(");");
+            }
+            closure.translateStatement(expression.getCode(), true, body);
+
+            final String className = "MALClosure" + CLASS_INDEX.incrementAndGet();
+            final CtClass closureClass = CLASS_POOL.makeClass(CLASS_PACKAGE + className);
+            try {
+                closureClass.setSuperclass(CLASS_POOL.get(CLOSURE));
+                closureClass.addField(CtField.make("private final java.lang.Object[] c;", closureClass));
+                closureClass.addConstructor(CtNewConstructor.make(
+                    "public " + className + "(java.lang.Object[] c) { super(" + parameters.size() + "); this.c = $1; }",
+                    closureClass
+                ));
+                closureClass.addMethod(CtNewMethod.make(
+                    "protected java.lang.Object run(java.lang.Object[] args) { " + body + " }", closureClass));
+                final Class<?> targetClass = closureClass.toClass(MALClassPackageHolder.class);
+                final Object instance = targetClass.getConstructor(Object[].class)
+                                                   .newInstance((Object) closure.constants.toArray());
+                return constant(instance, groovy.lang.Closure.class);
+            } catch (CannotCompileException | NotFoundException | ReflectiveOperationException e) {
+                log.warn("Can't compile the closure \"{}\": {}", expression.getText(), body, e);
+                throw new UnsupportedExpressionException(expression.getText());
+            } finally {
+                closureClass.detach();
+            }
+        }
+
+        /**
+         * Translate the statement of the closure body.
+         *
+         * @param tail true if it is the last statement, its value is returned as Groovy does.
+         */
+        private void translateStatement(Statement statement, boolean tail, StringBuilder code) {
+            final Class<?> statementType = statement.getClass();
+            if (statementType == BlockStatement.class) {
+                final List<Statement> statements = ((BlockStatement) statement).getStatements();
+                if (statements.isEmpty() && tail) {
+                    code.append("return null;");
+                }
+                for (int i = 0; i < statements.size(); i++) {
+                    translateStatement(statements.get(i), tail && i == statements.size() - 1, code);
+                }
+            } else if (statement instanceof EmptyStatement) {
+                if (tail) {
+                    code.append("return null;");
+                }
+            } else if (statementType == ReturnStatement.class) {
+                code.append("return ").append(object(translate(((ReturnStatement) statement).getExpression())))
+                    .append(';');
+            } else if (statementType == IfStatement.class) {
+                final IfStatement ifStatement = (IfStatement) statement;
+                code.append("if (").append(condition(ifStatement.getBooleanExpression())).append(") {");
+                translateStatement(ifStatement.getIfBlock(), tail, code);
+                code.append("} else {");
+                translateStatement(ifStatement.getElseBlock(), tail, code);
+                code.append('}');
+            } else if (statementType == ExpressionStatement.class) {
+                final Expression expression = ((ExpressionStatement) statement).getExpression();
+                if (expression.getClass() == DeclarationExpression.class) {
+                    final String name = translateDeclaration((DeclarationExpression) expression, code);
+                    if (tail) {
+                        code.append("return ").append(name).append(';');
+                    }
+                } else if (tail) {
+                    code.append("return ").append(object(translate(expression))).append(';');
+                } else {
+                    code.append(OBJECT).append(" t").append(temporaries++).append(" = ")
+                        .append(object(translate(expression))).append(';');
+                }
+            } else {
+                throw new UnsupportedExpressionException(statement.getText());
+            }
+        }
+
+        /**
+         * @return the name of the declared variable in the generated code.
+         */
+        private String translateDeclaration(DeclarationExpression expression, StringBuilder code) {
+            if (expression.isMultipleAssignmentDeclaration()) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            final VariableExpression variable = expression.getVariableExpression();
+            String value = object(translate(expression.getRightExpression()));
+            if (!variable.isDynamicTyped()) {
+                if (variable.getOriginType().getName().equals(String.class.getName())) {
+                    value = "org.codehaus.groovy.runtime.typehandling.ShortTypeHandling.castToString(" + value + ")";
+                } else {
+                    throw new UnsupportedExpressionException(expression.getText());
+                }
+            }
+            if (!locals.add(variable.getName())) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            final String name = variable(variable.getName());
+            code.append(OBJECT).append(' ').append(name).append(" = ").append(value).append(';');
+            return name;
+        }
+
+        /**
+         * Translate the expressions in the closure body, whose values are objects as the parameters are not typed.
+         *
+         * @return null if it is translated the same as the expression out of closures.
+         */
+        private Code translateInClosure(Expression expression) {
+            final Class<?> expressionType = expression.getClass();
+            if (expressionType == ConstantExpression.class) {
+                final Object value = ((ConstantExpression) expression).getValue();
+                if (value == null) {
+                    return new Code("null", Object.class, null);
+                }
+                if (value instanceof Boolean) {
+                    return constant(value, Boolean.class);
+                }
+                return null;
+            } else if (expressionType == VariableExpression.class) {
+                final String name = ((VariableExpression) expression).getName();
+                if (!locals.contains(name)) {
+                    throw new UnsupportedExpressionException(name);
+                }
+                return new Code(variable(name), Object.class, null);
+            } else if (expressionType == PropertyExpression.class) {
+                final PropertyExpression property = (PropertyExpression) expression;
+                if (property.getObjectExpression() instanceof ClassExpression) {
+                    return null;
+                }
+                if (property.isSpreadSafe() || property.getPropertyAsString() == null) {
+                    throw new UnsupportedExpressionException(expression.getText());
+                }
+                final String object = object(translate(property.getObjectExpression()));
+                final String name = constant(property.getPropertyAsString(), String.class).code;
+                if (property.isSafe()) {
+                    return new Code(
+                        INVOKER + ".getPropertySafe(" + object + ", " + name + ")", Object.class, null);
+                }
+                return new Code(CLOSURE + ".getProperty(" + object + ", " + name + ")", Object.class, null);
+            } else if (expressionType == MethodCallExpression.class) {
+                return translateMethodCallInClosure((MethodCallExpression) expression);
+            } else if (expressionType == BinaryExpression.class) {
+                return translateBinaryInClosure((BinaryExpression) expression);
+            } else if (expressionType == BooleanExpression.class || expressionType == NotExpression.class) {
+                return new Code(condition(expression), boolean.class, null);
+            } else if (expressionType == TernaryExpression.class) {
+                final TernaryExpression ternary = (TernaryExpression) expression;
+                return new Code(
+                    "(" + condition(ternary.getBooleanExpression()) + " ? "
+                        + object(translate(ternary.getTrueExpression())) + " : "
+                        + object(translate(ternary.getFalseExpression())) + ")",
+                    Object.class, null
+                );
+            } else if (expressionType == ElvisOperatorExpression.class) {
+                final ElvisOperatorExpression elvis = (ElvisOperatorExpression) expression;
+                return new Code(
+                    CLOSURE + ".elvis(" + object(translate(elvis.getTrueExpression())) + ", "
+                        + object(translateEagerly(elvis.getFalseExpression())) + ")",
+                    Object.class, null
+                );
+            } else if (expressionType == MapExpression.class) {
+                final List<String> entries = new ArrayList<>();
+                for (final MapEntryExpression entry : ((MapExpression) expression).getMapEntryExpressions()) {
+                    entries.add(object(translate(entry.getKeyExpression())));
+                    entries.add(object(translate(entry.getValueExpression())));
+                }
+                return new Code(CLOSURE + ".map(" + array(entries) + ")", Map.class, null);
+            } else if (expressionType == ListExpression.class) {
+                final List<String> elements = new ArrayList<>();
+                for (final Expression element : ((ListExpression) expression).getExpressions()) {
+                    elements.add(object(translate(element)));
+                }
+                return new Code(CLOSURE + ".list(" + array(elements) + ")", List.class, null);
+            }
+            return null;
+        }
+
+        private Code translateMethodCallInClosure(MethodCallExpression expression) {
+            final String methodName = expression.getMethodAsString();
+            if (methodName == null || expression.isSpreadSafe() || expression.isImplicitThis()
+                || expression.getArguments().getClass() != ArgumentListExpression.class) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            final List<String> arguments = new ArrayList<>();
+            for (final Expression argument : ((ArgumentListExpression) expression.getArguments()).getExpressions()) {
+                // The arguments of a safe call are not evaluated if the receiver is null.
+                arguments.add(object(expression.isSafe() ? translateEagerly(argument) : translate(argument)));
+            }
+            final String name = constant(methodName, String.class).code;
+            final Expression receiver = expression.getObjectExpression();
+            if (receiver instanceof ClassExpression) {
+                if (!receiver.getType().isResolved()) {
+                    throw new UnsupportedExpressionException(expression.getText());
+                }
+                return new Code(
+                    INVOKER + ".invokeStaticMethod(" + constant(receiver.getType().getTypeClass(), Class.class).code
+                        + ", " + name + ", " + array(arguments) + ")",
+                    Object.class, null
+                );
+            }
+            return new Code(
+                INVOKER + (expression.isSafe() ? ".invokeMethodSafe(" : ".invokeMethod(")
+                    + object(translate(receiver)) + ", " + name + ", " + array(arguments) + ")",
+                Object.class, null
+            );
+        }
+
+        private Code translateBinaryInClosure(BinaryExpression expression) {
+            final int operator = expression.getOperation().getType();
+            final Expression leftExpression = expression.getLeftExpression();
+            if (operator == Types.ASSIGN) {
+                final String value = object(translate(expression.getRightExpression()));
+                if (leftExpression.getClass() == VariableExpression.class) {
+                    final Code variable = translate(leftExpression);
+                    return new Code("(" + variable.code + " = " + value + ")", Object.class, null);
+                }
+                if (leftExpression.getClass() == PropertyExpression.class) {
+                    final PropertyExpression property = (PropertyExpression) leftExpression;
+                    if (property.isSafe() || property.isSpreadSafe() || property.getPropertyAsString() == null
+                        || property.getObjectExpression() instanceof ClassExpression) {
+                        throw new UnsupportedExpressionException(expression.getText());
+                    }
+                    return new Code(
+                        CLOSURE + ".setProperty(" + object(translate(property.getObjectExpression())) + ", "
+                            + constant(property.getPropertyAsString(), String.class).code + ", " + value + ")",
+                        Object.class, null
+                    );
+                }
+                if (leftExpression.getClass() == BinaryExpression.class
+                    && ((BinaryExpression) leftExpression).getOperation().getType() == Types.LEFT_SQUARE_BRACKET
+                    && !((BinaryExpression) leftExpression).isSafe()) {
+                    final BinaryExpression index = (BinaryExpression) leftExpression;
+                    return new Code(
+                        CLOSURE + ".putAt(" + object(translate(index.getLeftExpression())) + ", "
+                            + object(translate(index.getRightExpression())) + ", " + value + ")",
+                        Object.class, null
+                    );
+                }
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            if (expression.isSafe()) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            if (operator == Types.LOGICAL_AND || operator == Types.LOGICAL_OR) {
+                return new Code(
+                    "(" + condition(leftExpression) + (operator == Types.LOGICAL_AND ? " && " : " || ")
+                        + condition(expression.getRightExpression()) + ")",
+                    boolean.class, null
+                );
+            }
+
+            final Code left = translate(leftExpression);
+            if (operator == Types.KEYWORD_IN && expression.getRightExpression().getClass() == ListExpression.class) {
+                // The list literal of `in` is never changed, so it is created once.
+                final Code right = translateList((ListExpression) expression.getRightExpression());
+                return new Code(CLOSURE + ".isCase(" + object(left) + ", " + right.code + ")", boolean.class, null);
+            }
+            final String right = object(translate(expression.getRightExpression()));
+            if (operator == Types.LEFT_SQUARE_BRACKET) {
+                return new Code(CLOSURE + ".getAt(" + object(left) + ", " + right + ")", Object.class, null);
+            }
+            if (operator == Types.KEYWORD_IN) {
+                return new Code(CLOSURE + ".isCase(" + object(left) + ", " + right + ")", boolean.class, null);
+            }
+            if (operator == Types.PLUS) {
+                return new Code(CLOSURE + ".plus(" + object(left) + ", " + right + ")", Object.class, null);
+            }
+            if (NUMBER_OPERATORS.containsKey(operator)) {
+                return new Code(
+                    INVOKER + ".invokeMethod(" + object(left) + ", " + constant(
+                        NUMBER_OPERATORS.get(operator), String.class).code + ", " + right + ")",
+                    Object.class, null
+                );
+            }
+            final String compare = COMPARE_OPERATORS.get(operator);
+            if (compare != null) {
+                return new Code(
+                    BYTECODE_ADAPTER + "." + compare + "(" + object(left) + ", " + right + ")", boolean.class, null);
+            }
+            throw new UnsupportedExpressionException(expression.getText());
+        }
+
+        /**
+         * Translate the expression evaluated even if Groovy would skip it, only constants and variables are allowed.
+         */
+        private Code translateEagerly(Expression expression) {
+            if (expression.getClass() != ConstantExpression.class
+                && expression.getClass() != VariableExpression.class) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            return translate(expression);
+        }
+
+        /**
+         * @return the code of the Groovy truth of the expression.
+         */
+        private String condition(Expression expression) {
+            if (expression.getClass() == BooleanExpression.class) {
+                return condition(((BooleanExpression) expression).getExpression());
+            }
+            if (expression.getClass() == NotExpression.class) {
+                return "!" + condition(((NotExpression) expression).getExpression());
+            }
+            final Code code = translate(expression);
+            if (code.type == boolean.class) {
+                return code.code;
+            }
+            return "org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation.castToBoolean("
+                + code.code + ")";
+        }
+
+        private static String object(Code code) {
+            if (code.type == boolean.class) {
+                return "java.lang.Boolean.valueOf(" + code.code + ")";
+            }
+            return code.code;
+        }
+
+        private static String array(List<String> elements) {
+            if (elements.isEmpty()) {
+                return "new java.lang.Object[0]";
+            }
+            return "new java.lang.Object[] {" + String.join(", ", elements) + "}";
+        }
+
+        private static String variable(String name) {
+            return "v_" + name;
+        }
+
+        private Code translateVariable(VariableExpression expression) {
+            final String name = expression.getName();
+            final DownsamplingType downsamplingType = DOWNSAMPLING_TYPES.get(name);
+            if (downsamplingType != null) {
+                return constant(downsamplingType, DownsamplingType.class);
+            }
+            if (RESERVED_PROPERTIES.contains(name)) {
+                throw new UnsupportedExpressionException(name);
+            }
+            final Code sampleName = constant(name, String.class);
+            return new Code("((" + SAMPLE_FAMILY + ") s.apply(" + sampleName.code + "))", SampleFamily.class, null);
+        }
+
+        private Code translateStaticProperty(PropertyExpression expression) {
+            if (!(expression.getObjectExpression() instanceof ClassExpression) || expression.isSafe()
+                || expression.isSpreadSafe() || expression.getPropertyAsString() == null) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            final ClassNode owner = expression.getObjectExpression().getType();
+            if (!owner.isResolved()) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            final Field field;
+            final Object value;
+            try {
+                field = owner.getTypeClass().getField(expression.getPropertyAsString());
+                value = field.get(null);
+            } catch (ReflectiveOperationException e) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            if (!Modifier.isStatic(field.getModifiers()) || !Modifier.isFinal(field.getModifiers())) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            return constant(value, field.getType());
+        }
+
+        private Code translateList(ListExpression expression) {
+            final List<Object> values = new ArrayList<>(expression.getExpressions().size());
+            for (final Expression element : expression.getExpressions()) {
+                final Object value = element.getClass() == ConstantExpression.class ?
+                    ((ConstantExpression) element).getValue() : null;
+                if (!(value instanceof String || value instanceof Number)) {
+                    throw new UnsupportedExpressionException(expression.getText());
+                }
+                values.add(value);
+            }
+            return constant(Collections.unmodifiableList(values), List.class);
+        }
+
+        private Code translateMethodCall(MethodCallExpression expression) {
+            final String methodName = expression.getMethodAsString();
+            if (methodName == null || expression.isSafe() || expression.isSpreadSafe()
+                || expression.getArguments().getClass() != ArgumentListExpression.class) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            final List<Code> arguments = new ArrayList<>();
+            for (final Expression argument : ((ArgumentListExpression) expression.getArguments()).getExpressions()) {
+                arguments.add(translate(argument));
+            }
+
+            if (expression.isImplicitThis()) {
+                if ("time".equals(methodName) && arguments.isEmpty()) {
+                    return new Code(
+                        "java.lang.Long.valueOf(java.time.Instant.now().getEpochSecond())", Number.class, null);
+                }
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            final Code receiver = translate(expression.getObjectExpression());
+            if (!receiver.isSampleFamily()) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            return invoke(receiver, methodName, arguments);
+        }
+
+        private Code translateBinary(BinaryExpression expression) {
+            final int operator = expression.getOperation().getType();
+            final String methodName = NUMBER_OPERATORS.get(operator);
+            if (methodName == null) {
+                throw new UnsupportedExpressionException(expression.getText());
+            }
+            final Code left = translate(expression.getLeftExpression());
+            final Code right = translate(expression.getRightExpression());
+            if (left.isSampleFamily()) {
+                return invoke(left, methodName, Collections.singletonList(right));
+            }
+            if (left.isNumber() && right.isSampleFamily()) {
+                return new Code(
+                    NumberClosure.class.getName() + "." + methodName + "(" + left.code + ", " + right.code + ")",
+                    SampleFamily.class, null
+                );
+            }
+            if (left.isNumber() && right.isNumber()) {
+                return new Code(
+                    "org.codehaus.groovy.runtime.typehandling.NumberMath." + NUMBER_MATH_OPERATORS.get(operator)
+                        + "(" + left.code + ", " + right.code + ")",
+                    Number.class, null
+                );
+            }
+            throw new UnsupportedExpressionException(expression.getText());
+        }
+
+        private Code translateUnaryMinus(UnaryMinusExpression expression) {
+            final Code operand = translate(expression.getExpression());
+            if (operand.isSampleFamily()) {
+                return new Code(operand.code + ".negative()", SampleFamily.class, null);
+            }
+            if (operand.isNumber()) {
+                return new Code(
+                    "((" + NUMBER + ") org.codehaus.groovy.runtime.InvokerHelper.unaryMinus(" + operand.code + "))",
+                    Number.class, null
+                );
+            }
+            throw new UnsupportedExpressionException(expression.getText());
+        }
+
+        /**
+         * Resolve the method of the sample family by the static types of the arguments, and generate the invocation.
+         */
+        private Code invoke(Code receiver, String methodName, List<Code> arguments) {
+            Method resolved = null;
+            String resolvedArguments = null;
+            for (final Method method : SampleFamily.class.getMethods()) {
+                if (!method.getName().equals(methodName) || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                final String converted = convertArguments(method.getParameterTypes(), arguments);
+                if (converted == null) {
+                    continue;
+                }
+                if (resolved != null) {
+                    throw new UnsupportedExpressionException("ambiguous method " + methodName);
+                }
+                resolved = method;
+                resolvedArguments = converted;
+            }
+            if (resolved == null) {
+                throw new UnsupportedExpressionException("no method " + methodName + " matches the arguments");
+            }
+            return new Code(
+                receiver.code + "." + methodName + "(" + resolvedArguments + ")", resolved.getReturnType(), null);
+        }
+
+        /**
+         * @return the code of the arguments, or null if the arguments don't match the parameters. As Groovy does, the
+         * array as the last parameter accepts variable arguments.
+         */
+        private String convertArguments(Class<?>[] parameterTypes, List<Code> arguments) {
+            final boolean varargs = parameterTypes.length > 0
+                && parameterTypes[parameterTypes.length - 1].isArray();
+            final int fixed = varargs ? parameterTypes.length - 1 : parameterTypes.length;
+            if (varargs ? arguments.size() < fixed : arguments.size() != fixed) {
+                return null;
+            }
+            final StringBuilder code = new StringBuilder();
+            for (int i = 0; i < fixed; i++) {
+                final String argument = convert(parameterTypes[i], arguments.get(i));
+                if (argument == null) {
+                    return null;
+                }
+                if (i > 0) {
+                    code.append(", ");
+                }
+                code.append(argument);
+            }
+            if (!varargs) {
+                return code.toString();
+            }
+
+            final Class<?> componentType = parameterTypes[fixed].getComponentType();
+            final Object array = Array.newInstance(componentType, arguments.size() - fixed);
+            for (int i = fixed; i < arguments.size(); i++) {
+                final Object value = arguments.get(i).constant;
+                if (value == null || !componentType.isInstance(value)) {
+                    return null;
+                }
+                Array.set(array, i - fixed, value);
+            }
+            if (fixed > 0) {
+                code.append(", ");
+            }
+            return code.append(constant(array, parameterTypes[fixed]).code).toString();
+        }
+
+        private String convert(Class<?> parameterType, Code argument) {
+            if (parameterType == double.class && argument.isNumber()) {
+                return argument.code + ".doubleValue()";
+            }
+            if (parameterType == long.class && (argument.type == Long.class || argument.type == Integer.class)) {
+                return argument.code + ".longValue()";
+            }
+            if (parameterType == int.class && argument.type == Integer.class) {
+                return argument.code + ".intValue()";
+            }
+            if (!parameterType.isPrimitive() && parameterType.isAssignableFrom(argument.type)) {
+                return argument.code;
+            }
+            return null;
+        }
+
+        private Code constant(Object value, Class<?> type) {
+            constants.add(value);
+            return new Code(
+                "((" + type.getCanonicalName() + ") c[" + (constants.size() - 1) + "])", type, value);
+        }
+    }
+
+    private static class UnsupportedExpressionException extends RuntimeException {
+        private UnsupportedExpressionException(final String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl.compiled;
+
+import groovy.lang.Closure;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.SneakyThrows;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.runtime.ScriptBytecodeAdapter;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation;
+
+/**
+ * MALClosure is extended by the classes generated from the closures of MAL expressions by {@link MALClassGenerator},
+ * such as the closures of `tag` and `forEach`. It is passed to the {@link
+ * org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily} methods as a Groovy closure, and runs the translated body
+ * in {@link #run(Object[])} instead of the dynamic `doCall`.
+ * <p>
+ * The static methods are the Groovy semantics of the operators used by the translated body, with the fast path of the
+ * labels map.
+ *
+ * @since 10.1.0
+ */
+public abstract class MALClosure extends Closure<Object> {
+    protected MALClosure(final int parameters) {
+        super(null);
+        parameterTypes = new Class<?>[parameters];
+        for (int i = 0; i < parameters; i++) {
+            parameterTypes[i] = Object.class;
+        }
+        maximumNumberOfParameters = parameters;
+    }
+
+    @Override
+    public Object call(final Object... args) {
+        return run(args);
+    }
+
+    /**
+     * @param args the arguments of the closure, the missing ones are null as Groovy does.
+     * @return the value of the last statement, or the returned value.
+     */
+    protected abstract Object run(Object[] args);
+
+    public static Object arg(final Object[] args, final int index) {
+        return index < args.length ? args[index] : null;
+    }
+
+    /**
+     * `object.name`
+     */
+    public static Object getProperty(final Object object, final String name) {
+        if (object instanceof Map) {
+            return ((Map<?, ?>) object).get(name);
+        }
+        return InvokerHelper.getProperty(object, name);
+    }
+
+    /**
+     * `object.name = value`
+     */
+    @SuppressWarnings("unchecked")
+    public static Object setProperty(final Object object, final String name, final Object value) {
+        if (object instanceof Map) {
+            ((Map<Object, Object>) object).put(name, value);
+        } else {
+            InvokerHelper.setProperty(object, name, value);
+        }
+        return value;
+    }
+
+    /**
+     * `object[key]`
+     */
+    public static Object getAt(final Object object, final Object key) {
+        if (object instanceof Map) {
+            return ((Map<?, ?>) object).get(key);
+        }
+        return InvokerHelper.invokeMethod(object, "getAt", key);
+    }
+
+    /**
+     * `object[key] = value`
+     */
+    @SuppressWarnings("unchecked")
+    public static Object putAt(final Object object, final Object key, final Object value) {
+        if (object instanceof Map) {
+            ((Map<Object, Object>) object).put(key, value);
+        } else {
+            InvokerHelper.invokeMethod(object, "putAt", new Object[] {key, value});
+        }
+        return value;
+    }
+
+    /**
+     * `left + right`, the string concatenation runs directly, others are dispatched by Groovy.
+     */
+    public static Object plus(final Object left, final Object right) {
+        if (left instanceof String) {
+            return ((String) left).concat(InvokerHelper.toString(right));
+        }
+        return InvokerHelper.invokeMethod(left, "plus", right);
+    }
+
+    /**
+     * `left in right`
+     */
+    @SneakyThrows
+    public static boolean isCase(final Object left, final Object right) {
+        return ScriptBytecodeAdapter.isCase(left, right);
+    }
+
+    /**
+     * `left ?: right`, the right is a constant or a variable.
+     */
+    public static Object elvis(final Object left, final Object right) {
+        return DefaultTypeTransformation.castToBoolean(left) ? left : right;
+    }
+
+    /**
+     * `[key: value, ...]`
+     */
+    public static Map<Object, Object> map(final Object[] entries) {
+        final Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            map.put(entries[i], entries[i + 1]);
+        }
+        return map;
+    }
+
+    /**
+     * `[element, ...]`
+     */
+    public static List<Object> list(final Object[] elements) {
+        final List<Object> list = new ArrayList<>(elements.length);
+        for (final Object element : elements) {
+            list.add(element);
+        }
+        return list;
+    }
+}
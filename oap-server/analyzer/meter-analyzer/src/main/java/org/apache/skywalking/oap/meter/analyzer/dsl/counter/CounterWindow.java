@@ -21,68 +21,293 @@ package org.apache.skywalking.oap.meter.analyzer.dsl.counter;
 import com.google.common.collect.ImmutableMap;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
-import lombok.AccessLevel;
-import lombok.EqualsAndHashCode;
-import lombok.RequiredArgsConstructor;
-import lombok.ToString;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
 
 /**
  * CounterWindow stores a series of counter samples in order to calculate the increase
  * or instant rate of increase.
  *
+ * <p>The series are spread in shards locked separately, and the samples of a series are kept in primitive arrays
+ * ordered by time. A series is evicted after it hasn't been seen for {@link #idleTimeout}, or when it is the least
+ * recently seen one of its shard and the total number of series exceeds {@link #maxSeries}.
  */
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-@ToString
-@EqualsAndHashCode
 public class CounterWindow {
+    public static final long DEFAULT_IDLE_TIMEOUT = 15 * 60 * 1000L;
+    public static final int DEFAULT_MAX_SERIES = 500_000;
+    private static final int SHARD_BITS = 4;
+    private static final int SHARDS = 1 << SHARD_BITS;
 
-    public static final CounterWindow INSTANCE = new CounterWindow();
+    public static final CounterWindow INSTANCE = new CounterWindow(System::currentTimeMillis);
 
-    private final Map<ID, Tuple2<Long, Double>> lastElementMap = new ConcurrentHashMap<>();
-    private final Map<ID, Queue<Tuple2<Long, Double>>> windows = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final Shard[] shards = new Shard[SHARDS];
 
-    public Tuple2<Long, Double> increase(String name, ImmutableMap<String, String> labels, Double value, long windowSize, long now) {
-        ID id = new ID(name, labels);
-        Queue<Tuple2<Long, Double>> window = windows.computeIfAbsent(id, unused -> new PriorityQueue<>());
-        synchronized (window) {
-            window.offer(Tuple.of(now, value));
-            long waterLevel = now - windowSize;
-            Tuple2<Long, Double> peek = window.peek();
-            if (peek._1 > waterLevel) {
-                return peek;
+    private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    private volatile int maxSeries = DEFAULT_MAX_SERIES;
+    private volatile CounterMetrics idleEvictions;
+    private volatile CounterMetrics overflowEvictions;
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    CounterWindow(final LongSupplier clock) {
+        this.clock = clock;
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * @param idleTimeout       evict the series not seen for this period, unit ms.
+     * @param maxSeries         the max number of series kept.
+     * @param idleEvictions     counts the series evicted for being idle, nullable.
+     * @param overflowEvictions counts the series evicted for exceeding the max number of series, nullable.
+     */
+    public void configure(final long idleTimeout,
+                          final int maxSeries,
+                          final CounterMetrics idleEvictions,
+                          final CounterMetrics overflowEvictions) {
+        this.idleTimeout = idleTimeout;
+        this.maxSeries = maxSeries;
+        this.idleEvictions = idleEvictions;
+        this.overflowEvictions = overflowEvictions;
+    }
+
+    /**
+     * Add the sample to the window of the series, and find the sample closest to the lower bound of the window.
+     *
+     * @return the result of {@code function} applied to the lower bound sample.
+     */
+    public double increase(String name, ImmutableMap<String, String> labels, double value, long windowSize, long now,
+                           LowerBoundFunction function) {
+        final long seen = clock.getAsLong();
+        sweep(seen);
+        final ID id = new ID(name, labels);
+        final Shard shard = shardOf(id);
+        synchronized (shard) {
+            final Series series = shard.acquire(id, seen);
+            series.offer(now, value);
+            final long waterLevel = now - windowSize;
+            if (series.firstTime() > waterLevel) {
+                return function.apply(series.firstValue(), series.firstTime());
             }
 
-            Tuple2<Long, Double> result = peek;
-            while (peek._1 < waterLevel) {
-                result = window.poll();
-                peek = window.element();
+            long resultTime = series.firstTime();
+            double resultValue = series.firstValue();
+            while (series.firstTime() < waterLevel) {
+                resultTime = series.firstTime();
+                resultValue = series.firstValue();
+                series.poll();
             }
 
             // Choose the closed slot to the expected timestamp
-            if (waterLevel - result._1 <= peek._1 - waterLevel) {
-                return result;
+            if (waterLevel - resultTime <= series.firstTime() - waterLevel) {
+                return function.apply(resultValue, resultTime);
             }
+            return function.apply(series.firstValue(), series.firstTime());
+        }
+    }
+
+    public Tuple2<Long, Double> increase(String name, ImmutableMap<String, String> labels, Double value, long windowSize, long now) {
+        final long[] time = new long[1];
+        final double lowerBoundValue = increase(name, labels, value, windowSize, now, (v, t) -> {
+            time[0] = t;
+            return v;
+        });
+        return Tuple.of(time[0], lowerBoundValue);
+    }
 
-            return peek;
+    /**
+     * Replace the last sample of the series.
+     *
+     * @return the result of {@code function} applied to the replaced sample, or this sample if it's the first one.
+     */
+    public double pop(String name, ImmutableMap<String, String> labels, double value, long now,
+                      LowerBoundFunction function) {
+        final long seen = clock.getAsLong();
+        sweep(seen);
+        final ID id = new ID(name, labels);
+        final Shard shard = shardOf(id);
+        synchronized (shard) {
+            final Series series = shard.acquire(id, seen);
+            if (!series.hasLast) {
+                series.hasLast = true;
+                series.lastTime = now;
+                series.lastValue = value;
+            }
+            final double result = function.apply(series.lastValue, series.lastTime);
+            series.lastTime = now;
+            series.lastValue = value;
+            return result;
         }
     }
 
     public Tuple2<Long, Double> pop(String name, ImmutableMap<String, String> labels, Double value, long now) {
-        ID id = new ID(name, labels);
+        final long[] time = new long[1];
+        final double lastValue = pop(name, labels, value, now, (v, t) -> {
+            time[0] = t;
+            return v;
+        });
+        return Tuple.of(time[0], lastValue);
+    }
+
+    public void reset() {
+        for (final Shard shard : shards) {
+            synchronized (shard) {
+                shard.clear();
+            }
+        }
+    }
 
-        Tuple2<Long, Double> element = Tuple.of(now, value);
-        Tuple2<Long, Double> result = lastElementMap.put(id, element);
-        if (result == null) {
-            return element;
+    /**
+     * @return the number of series kept.
+     */
+    public int size() {
+        int size = 0;
+        for (final Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size();
+            }
         }
-        return result;
+        return size;
     }
 
-    public void reset() {
-        windows.clear();
+    /**
+     * Expire the idle series of all shards every quarter of the idle timeout, so the series are kept for at most 1.25
+     * times of the idle timeout after they are seen last time.
+     */
+    private void sweep(final long now) {
+        final long last = lastSweep.get();
+        if (now - last < idleTimeout / 4 || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (final Shard shard : shards) {
+            synchronized (shard) {
+                shard.expire(now);
+            }
+        }
+    }
+
+    private Shard shardOf(final ID id) {
+        // Take the high bits of the mixed hash, as the low bits pick the bucket in the shard.
+        return shards[(id.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - SHARD_BITS)];
+    }
+
+    private static void inc(final CounterMetrics counter) {
+        if (counter != null) {
+            counter.inc();
+        }
+    }
+
+    @FunctionalInterface
+    public interface LowerBoundFunction {
+        double apply(double lowerBoundValue, long lowerBoundTime);
+    }
+
+    /**
+     * The series of a shard, iterated from the least recently seen one.
+     */
+    private final class Shard extends LinkedHashMap<ID, Series> {
+        private Shard() {
+            super(16, 0.75f, true);
+        }
+
+        private Series acquire(final ID id, final long now) {
+            Series series = get(id);
+            if (series == null) {
+                series = new Series();
+                put(id, series);
+            }
+            series.lastSeen = now;
+            return series;
+        }
+
+        private void expire(final long now) {
+            final long expireBefore = now - idleTimeout;
+            final Iterator<Series> iterator = values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().lastSeen >= expireBefore) {
+                    return;
+                }
+                iterator.remove();
+                inc(idleEvictions);
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ID, Series> eldest) {
+            if (size() > Math.max(1, maxSeries / SHARDS)) {
+                inc(overflowEvictions);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The samples in the window of a series, ordered by time and then value, in a ring buffer.
+     */
+    private static final class Series {
+        private long lastSeen;
+
+        private long[] times = new long[4];
+        private double[] values = new double[4];
+        private int head;
+        private int size;
+
+        private boolean hasLast;
+        private long lastTime;
+        private double lastValue;
+
+        private void offer(final long time, final double value) {
+            if (size == times.length) {
+                grow();
+            }
+            final int mask = times.length - 1;
+            // Shift the later samples, usually none as the samples come in order.
+            int i = size;
+            while (i > 0) {
+                final int prev = (head + i - 1) & mask;
+                if (times[prev] < time || (times[prev] == time && values[prev] <= value)) {
+                    break;
+                }
+                final int at = (head + i) & mask;
+                times[at] = times[prev];
+                values[at] = values[prev];
+                i--;
+            }
+            final int at = (head + i) & mask;
+            times[at] = time;
+            values[at] = value;
+            size++;
+        }
+
+        private long firstTime() {
+            return times[head];
+        }
+
+        private double firstValue() {
+            return values[head];
+        }
+
+        private void poll() {
+            head = (head + 1) & (times.length - 1);
+            size--;
+        }
+
+        private void grow() {
+            final long[] newTimes = new long[times.length * 2];
+            final double[] newValues = new double[values.length * 2];
+            for (int i = 0; i < size; i++) {
+                newTimes[i] = times[(head + i) & (times.length - 1)];
+                newValues[i] = values[(head + i) & (values.length - 1)];
+            }
+            times = newTimes;
+            values = newValues;
+            head = 0;
+        }
     }
 }
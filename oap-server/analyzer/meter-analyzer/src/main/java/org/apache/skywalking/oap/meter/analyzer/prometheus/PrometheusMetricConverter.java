@@ -26,6 +26,7 @@ import io.vavr.Tuple;
 import io.vavr.Tuple2;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -84,6 +85,23 @@ public class PrometheusMetricConverter {
         convert.toMeter(data);
     }
 
+    /**
+     * toMeter transforms the sample families converted by {@link #convertPromMetricToSampleFamily(Stream)} to
+     * meter-system metrics, so that the metrics converted once can be shared by all the rules.
+     *
+     * @param sampleFamilies the sample families keyed by the escaped sample name.
+     */
+    public void toMeter(ImmutableMap<String, SampleFamily> sampleFamilies) {
+        convert.toMeter(sampleFamilies);
+    }
+
+    /**
+     * @return the escaped names of the samples that the rule reads.
+     */
+    public Set<String> samples() {
+        return convert.samples();
+    }
+
     public ImmutableMap<String, SampleFamily> convertPromMetricToSampleFamily(Stream<Metric> metricStream) {
         return metricStream
             .peek(metric -> log.debug("Prom metric to be convert to SampleFamily: {}", metric))
@@ -161,7 +179,7 @@ public class PrometheusMetricConverter {
     }
 
     // Returns the escaped name of the given one, with "." and "/" replaced by "_"
-    protected String escapedName(final String name) {
+    public String escapedName(final String name) {
         try {
             return escapedMetricsNameCache.get(name);
         } catch (ExecutionException e) {
@@ -18,8 +18,10 @@
 
 package org.apache.skywalking.oap.meter.analyzer;
 
+import com.google.common.collect.ImmutableMap;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -27,7 +29,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class MetricConvertTest {
@@ -196,6 +208,45 @@ public class MetricConvertTest {
 
     }
 
+    @Test
+    public void testRouteSamplesToAnalyzers() {
+        final Map<String, Analyzer> analyzers = new HashMap<>();
+        final MetricConvert metricConvert = new MetricConvert(new MockMetricRuleConfig(
+            "meter_vm",
+            null,
+            null,
+            null,
+            Arrays.asList(
+                new MockRule("cpu", "cpu_usage"),
+                new MockRule("memory", "memory_used.sum(['host'])"),
+                new MockRule("memory_percentage", "memory_used * 100 / memory_total")
+            ),
+            null
+        ), null) {
+            @Override
+            Analyzer buildAnalyzer(final String metricsName,
+                                   final String filter,
+                                   final String exp,
+                                   final MeterSystem service) {
+                final Analyzer analyzer = mock(Analyzer.class);
+                when(analyzer.getSamples()).thenReturn(
+                    exp.contains("cpu") ? Collections.singletonList("cpu_usage")
+                        : exp.contains("total") ? Arrays.asList("memory_used", "memory_total")
+                        : Collections.singletonList("memory_used"));
+                analyzers.put(metricsName, analyzer);
+                return analyzer;
+            }
+        };
+        Assertions.assertEquals(
+            new HashSet<>(Arrays.asList("cpu_usage", "memory_used", "memory_total")), metricConvert.samples());
+
+        final ImmutableMap<String, SampleFamily> families = ImmutableMap.of("memory_total", SampleFamily.EMPTY);
+        metricConvert.toMeter(families);
+        verify(analyzers.get("meter_vm_cpu"), never()).analyse(any());
+        verify(analyzers.get("meter_vm_memory"), never()).analyse(any());
+        verify(analyzers.get("meter_vm_memory_percentage")).analyse(families);
+    }
+
     static class MockMetricConvert extends MetricConvert {
         private String metricsName;
         private String filter;
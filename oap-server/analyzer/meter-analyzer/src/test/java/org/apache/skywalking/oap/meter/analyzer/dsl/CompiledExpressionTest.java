@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.apache.skywalking.oap.meter.analyzer.dsl.compiled.MALClassGenerator;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.config.NamingControl;
+import org.apache.skywalking.oap.server.core.config.group.EndpointNameGrouping;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CompiledExpressionTest {
+
+    @BeforeAll
+    public static void setup() {
+        MeterEntity.setNamingControl(new NamingControl(512, 512, 512, new EndpointNameGrouping()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "a.tagEqual('idc', 't1') + b",
+        "100 - a * 2 / b.sum(['idc', 'le'])",
+        "1 / a.tagNotEqual('idc', 't2')",
+        "(a + b) * 0.5",
+        "-a.sum(['idc', 'le'])",
+        "a.valueGreater(1).downsampling(SUM)",
+        "a.multiply(1024 * 1024 / 8)",
+        "a.sum(['le']).histogram().histogram_percentile([50, 99])",
+        "a.sum(['idc']).service(['idc'], Layer.GENERAL)",
+        "a.sum(['idc', 'le']).instance(['idc'], ['le'], Layer.GENERAL)",
+        "not_exist.sum(['idc'])",
+        "a.tag({tags -> tags.idc = 't0'})",
+        "a.tag({tags -> tags.remove('le')}).sum(['idc'])",
+        "a.tag({tags -> if (tags['idc'] == 't1' || tags['le'] == '100') {tags.idc = 'x'} else {tags.idc = 'y'} })",
+        "a.tag({tags -> tags.idc = tags.le ? 'a::' + tags.idc + ':' + tags.le : 'b'})",
+        "a.tag({tags -> tags.idc = 'p/' + (tags['none']?.trim() ?: 'none') + tags.le?.trim()})",
+        "a.tag({tags -> ['idc': tags.idc, 'le': tags.le + '0']})",
+        "a.tag({ it.idc = it.le })",
+        "a.filter({tags -> tags.idc in ['t1', 't3'] && !(tags.le == '200')})",
+        "a.sum(['idc']).forEach(['x', 'y'], {prefix, tags -> tags[prefix] = 'y'})",
+        "a.sum(['idc', 'le']).forEach(['x', 'y', 'le'], { prefix, tags ->\n"
+            + "  if (tags[prefix] != null) {\n"
+            + "    return\n"
+            + "  }\n"
+            + "  String result = ''\n"
+            + "  if (prefix == 'x') {\n"
+            + "    result = Layer.valueOf('GENERAL').name()\n"
+            + "  } else if (tags.idc == 't1') {\n"
+            + "    result = prefix + '-' + tags.idc\n"
+            + "  }\n"
+            + "  tags[prefix] = result\n"
+            + "})",
+    })
+    public void compiledAsGroovy(String expression) {
+        assertNotNull(MALClassGenerator.generate("test", expression, DSL.compilerConfiguration()));
+
+        final Result groovy = DSL.parse("test", expression, DSL.Engine.GROOVY).run(input());
+        final Result compiled = DSL.parse("test", expression, DSL.Engine.COMPILED).run(input());
+        assertEquals(groovy.isSuccess(), compiled.isSuccess());
+        if (groovy.isSuccess()) {
+            assertArrayEquals(groovy.getData().samples, compiled.getData().samples);
+            final Map<MeterEntity, Sample[]> expected = groovy.getData().context.getMeterSamples();
+            final Map<MeterEntity, Sample[]> actual = compiled.getData().context.getMeterSamples();
+            assertEquals(expected.keySet(), actual.keySet());
+            expected.forEach((entity, samples) -> assertArrayEquals(samples, actual.get(entity)));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "a.tag({Map tags -> tags.idc = 't0'})",
+        "a.tag({tags -> tags.idc = \"${tags.le}\"})",
+        "a.sum(['idc']).service(['idc'], \"${Layer.GENERAL}\")",
+    })
+    public void runAsGroovyScript(String expression) {
+        assertNull(MALClassGenerator.generate("test", expression, DSL.compilerConfiguration()));
+    }
+
+    private static Map<String, SampleFamily> input() {
+        return ImmutableMap.of(
+            "a", SampleFamilyBuilder.newBuilder(
+                Sample.builder().name("a").labels(of("idc", "t1", "le", "100")).value(1).build(),
+                Sample.builder().name("a").labels(of("idc", "t1", "le", "200")).value(3).build(),
+                Sample.builder().name("a").labels(of("idc", "t2", "le", "100")).value(4).build()
+            ).build(),
+            "b", SampleFamilyBuilder.newBuilder(
+                Sample.builder().name("b").labels(of("idc", "t1", "le", "100")).value(2).build(),
+                Sample.builder().name("b").labels(of("idc", "t1", "le", "200")).value(5).build()
+            ).build()
+        );
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.meter.analyzer.dsl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SampleColumnsTest {
+    private static final Sample[] SAMPLES = {
+        Sample.builder().name("m").labels(of("idc", "t1", "region", "us")).value(1).build(),
+        Sample.builder().name("m").labels(of("idc", "t1")).value(2).build(),
+        Sample.builder().name("m").labels(of("idc", "t1", "region", "")).value(3).build(),
+        Sample.builder().name("m").labels(of("idc", "t2", "region", "us")).value(4).build(),
+        Sample.builder().name("m").labels(of("region", "us", "idc", "t1")).value(5).build(),
+    };
+
+    @Test
+    public void testGroupBy() {
+        final SampleColumns.Grouping grouping = new SampleColumns(SAMPLES).groupBy(Arrays.asList("idc", "region"));
+
+        assertThat(grouping.size()).isEqualTo(3);
+        assertThat(grouping.groupOf).containsExactly(0, 1, 1, 2, 0);
+        assertThat(grouping.labels(0)).isEqualTo(of("idc", "t1", "region", "us"));
+        assertThat(grouping.labels(1)).isEqualTo(of("idc", "t1", "region", ""));
+        assertThat(grouping.first(2).getValue()).isEqualTo(4);
+
+        final SampleColumns.Grouping all = new SampleColumns(SAMPLES).groupBy(Collections.emptyList());
+        assertThat(all.size()).isEqualTo(1);
+        assertThat(all.labels(0)).isEmpty();
+    }
+
+    @Test
+    public void testMatch() {
+        final SampleColumns columns = new SampleColumns(SAMPLES);
+
+        assertThat(columns.match(of("region", "us"), String::equals)).containsExactly(true, false, false, true, true);
+        assertThat(columns.match(of("region", ""), String::equals)).containsExactly(false, true, true, false, false);
+        assertThat(columns.match(of("idc", "t1", "region", "u.*"), String::matches))
+            .containsExactly(true, false, false, false, true);
+        assertThat(columns.match(of("zone", "z1"), String::equals)).containsOnly(false);
+    }
+
+    @Test
+    public void testJoin() {
+        final SampleColumns columns = new SampleColumns(SAMPLES);
+        final SampleColumns another = new SampleColumns(new Sample[] {
+            Sample.builder().name("n").labels(of("idc", "t1", "zone", "z1")).value(1).build(),
+            Sample.builder().name("n").labels(of("idc", "t1")).value(2).build(),
+            Sample.builder().name("n").labels(of("region", "us", "idc", "t1")).value(3).build(),
+            Sample.builder().name("n").labels(of("idc", "t1", "region", "us")).value(4).build(),
+        });
+
+        assertThat(columns.join(another)).containsExactly(2, 1, -1, -1, 2);
+        assertThat(another.join(columns)).containsExactly(-1, 1, 0, 0);
+    }
+}
@@ -19,12 +19,15 @@ package org.apache.skywalking.oap.meter.analyzer.dsl.counter;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
+import io.vavr.Tuple;
 import io.vavr.Tuple2;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.time.Instant.parse;
 
@@ -94,4 +97,68 @@ public class CounterWindowTest {
 
         Assertions.assertArrayEquals(new double[] {0, 1d, 2d, 3d, 4d, 0d, 1d, 2d}, actuals, 0.d);
     }
+
+    @Test
+    public void testEvictIdleSeries() {
+        final AtomicLong clock = new AtomicLong();
+        final CountingMetrics idle = new CountingMetrics();
+        final CounterWindow window = new CounterWindow(clock::get);
+        window.configure(1000, 100, idle, null);
+
+        window.increase("test", ImmutableMap.of("pod", "a"), 1d, 60_000, 0);
+        clock.set(600);
+        window.increase("test", ImmutableMap.of("pod", "b"), 1d, 60_000, 0);
+        clock.set(1200);
+        window.increase("test", ImmutableMap.of("pod", "b"), 2d, 60_000, 15_000);
+        window.increase("test", ImmutableMap.of("pod", "c"), 1d, 60_000, 15_000);
+        Assertions.assertEquals(2, window.size());
+        Assertions.assertEquals(1, idle.count);
+
+        // The lower bound of the evicted series is the sample itself
+        clock.set(2500);
+        Assertions.assertEquals(
+            Tuple.of(30_000L, 3d), window.increase("test", ImmutableMap.of("pod", "b"), 3d, 60_000, 30_000));
+        Assertions.assertEquals(3, idle.count);
+    }
+
+    @Test
+    public void testEvictOverflowSeries() {
+        final CountingMetrics overflow = new CountingMetrics();
+        final CounterWindow window = new CounterWindow(() -> 0);
+        window.configure(1000, 16 * 2, null, overflow);
+
+        for (int i = 0; i < 1000; i++) {
+            window.pop("test", ImmutableMap.of("pod", String.valueOf(i)), 1d, 0);
+        }
+        Assertions.assertTrue(window.size() <= 32);
+        Assertions.assertEquals(1000 - window.size(), overflow.count);
+    }
+
+    @Test
+    public void testGrowWindow() {
+        final CounterWindow window = new CounterWindow(() -> 0);
+        for (int i = 0; i < 100; i++) {
+            // Samples every second, including a late one every ten seconds
+            final long time = i % 10 == 9 ? (i - 5) * 1000L : i * 1000L;
+            final Tuple2<Long, Double> lowerBound = window.increase(
+                "test", ImmutableMap.of(), (double) i, Duration.parse("PT1M").toMillis(), time);
+            if (i % 10 != 9) {
+                Assertions.assertEquals(Math.max(0, time - 60_000), (long) lowerBound._1, 1000);
+            }
+        }
+    }
+
+    private static class CountingMetrics implements CounterMetrics {
+        private int count;
+
+        @Override
+        public void inc() {
+            count++;
+        }
+
+        @Override
+        public void inc(final double value) {
+            count += (int) value;
+        }
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.data.BufferedData;
+import org.apache.skywalking.oap.server.core.analysis.topn.TopN;
+
+/**
+ * The LinkedList based LimitedSizeBufferedData before the bounded min-heap, kept for the comparison in
+ * {@link LimitedSizeBufferedDataBenchmark}.
+ * <p>
+ * LimitedSizeBufferedData is a thread no safe implementation of {@link BufferedData}. It collects limited records of
+ * each {@link TopN} which grouped by entityId and timeBucket.
+ */
+public class LegacyLimitedSizeBufferedData<STORAGE_DATA extends TopN> implements BufferedData<STORAGE_DATA> {
+    private final HashMap<String, LinkedList<STORAGE_DATA>> data;
+    private final int limitedSize;
+
+    public LegacyLimitedSizeBufferedData(int limitedSize) {
+        this.data = new HashMap<>();
+        this.limitedSize = limitedSize;
+    }
+
+    @Override
+    public void accept(final STORAGE_DATA data) {
+        final String topGroupKey = data.getEntityId() + TimeBucket.getMinuteTimeBucket(data.getTimestamp());
+        LinkedList<STORAGE_DATA> storageDataList = this.data.get(topGroupKey);
+        if (storageDataList == null) {
+            storageDataList = new LinkedList<>();
+            this.data.put(topGroupKey, storageDataList);
+        }
+
+        if (storageDataList.size() < limitedSize) {
+            storageDataList.add(data);
+            return;
+        }
+
+        for (int i = 0; i < storageDataList.size(); i++) {
+            STORAGE_DATA storageData = storageDataList.get(i);
+            if (data.compareTo(storageData) <= 0) {
+                if (i == 0) {
+                    // input data is less than the smallest in top N list, ignore
+                } else {
+                    // Remove the smallest in top N list
+                    // add the current data into the right position
+                    storageDataList.add(i, data);
+                    storageDataList.removeFirst();
+                }
+                return;
+            }
+        }
+
+        // Add the data as biggest in top N list
+        storageDataList.addLast(data);
+        storageDataList.removeFirst();
+    }
+
+    @Override
+    public List<STORAGE_DATA> read() {
+        try {
+            List<STORAGE_DATA> collection = new ArrayList<>();
+            data.values().forEach(collection::addAll);
+            return collection;
+        } finally {
+            data.clear();
+        }
+    }
+}
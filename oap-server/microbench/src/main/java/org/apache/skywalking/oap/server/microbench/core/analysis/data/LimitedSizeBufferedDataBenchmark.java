@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.analysis.data;
+
+import java.util.List;
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.analysis.data.BufferedData;
+import org.apache.skywalking.oap.server.core.analysis.data.LimitedSizeBufferedData;
+import org.apache.skywalking.oap.server.core.analysis.topn.TopN;
+import org.apache.skywalking.oap.server.core.storage.StorageID;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Collect the slow statements of {@link #DATABASES} databases in one minute, and read the top N of them, like one
+ * flush of the TopN worker. The latencies are random, so most of the statements are rejected once the top N is full.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class LimitedSizeBufferedDataBenchmark extends AbstractMicrobenchmark {
+    private static final int DATABASES = 20;
+    private static final int STATEMENTS = 100_000;
+
+    @Param({"10", "50", "500"})
+    private int topNSize;
+
+    private SlowStatement[] statements;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(17);
+        final long minute = System.currentTimeMillis() / 60_000 * 60_000;
+        statements = new SlowStatement[STATEMENTS];
+        for (int i = 0; i < STATEMENTS; i++) {
+            statements[i] = new SlowStatement(
+                "database-" + random.nextInt(DATABASES), minute + random.nextInt(60_000), random.nextInt(10_000));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATEMENTS)
+    public List<SlowStatement> heap() {
+        return collect(new LimitedSizeBufferedData<>(topNSize));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STATEMENTS)
+    public List<SlowStatement> legacy() {
+        return collect(new LegacyLimitedSizeBufferedData<>(topNSize));
+    }
+
+    private List<SlowStatement> collect(final BufferedData<SlowStatement> data) {
+        for (final SlowStatement statement : statements) {
+            data.accept(statement);
+        }
+        return data.read();
+    }
+
+    static class SlowStatement extends TopN {
+        SlowStatement(final String entityId, final long timestamp, final long latency) {
+            setEntityId(entityId);
+            setTimestamp(timestamp);
+            setLatency(latency);
+        }
+
+        @Override
+        public StorageID id() {
+            return new StorageID().append(ENTITY_ID, getEntityId());
+        }
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.36
+        # VM version: JDK 17.0.9, OpenJDK 64-Bit Server VM, 17.0.9+9
+        # 1 CPU, -Xmx1g, -prof gc
+        # Warmup: 3 iterations, 2 s each
+        # Measurement: 5 iterations, 2 s each
+
+        Benchmark                                                   (topNSize)   Mode  Cnt         Score          Error  Units
+        LimitedSizeBufferedDataBenchmark.heap                               10  thrpt    5  30050089.510 ± 15988104.337  ops/s
+        LimitedSizeBufferedDataBenchmark.heap:·gc.alloc.rate.norm           10  thrpt    5        32.069 ±        0.001   B/op
+        LimitedSizeBufferedDataBenchmark.heap                               50  thrpt    5  22979976.196 ±  1017896.979  ops/s
+        LimitedSizeBufferedDataBenchmark.heap:·gc.alloc.rate.norm           50  thrpt    5        32.302 ±        0.001   B/op
+        LimitedSizeBufferedDataBenchmark.heap                              500  thrpt    5  11944240.693 ±  7265444.417  ops/s
+        LimitedSizeBufferedDataBenchmark.heap:·gc.alloc.rate.norm          500  thrpt    5        34.747 ±        0.001   B/op
+        LimitedSizeBufferedDataBenchmark.legacy                             10  thrpt    5   3795524.033 ±   693380.221  ops/s
+        LimitedSizeBufferedDataBenchmark.legacy:·gc.alloc.rate.norm         10  thrpt    5       624.399 ±        0.001   B/op
+        LimitedSizeBufferedDataBenchmark.legacy                             50  thrpt    5   2814007.447 ±  1135062.285  ops/s
+        LimitedSizeBufferedDataBenchmark.legacy:·gc.alloc.rate.norm         50  thrpt    5       625.391 ±        0.001   B/op
+        LimitedSizeBufferedDataBenchmark.legacy                            500  thrpt    5   1339670.819 ±   269137.991  ops/s
+        LimitedSizeBufferedDataBenchmark.legacy:·gc.alloc.rate.norm        500  thrpt    5       629.376 ±        0.001   B/op
+
+        Most of the legacy allocation is the Calendar of the minute time bucket and the concatenated group key, with the
+        heap only the group key object of 32 bytes is left.
+     */
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.analysis.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataLabel;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics2;
+
+/**
+ * The DataTable based combine and calculate of {@link PercentileMetrics2} before the {@code BucketTable}, kept for
+ * the comparison in {@link PercentileMetrics2Benchmark}.
+ */
+public class LegacyPercentileMetrics2 {
+    private static final int[] RANKS = PercentileMetrics2.RANKS;
+
+    private final DataTable percentileValues = new DataTable(RANKS.length);
+    private final DataTable dataset = new DataTable(30);
+    private int precision;
+    private boolean isCalculated;
+
+    public final void combine(int value, int precision) {
+        this.isCalculated = false;
+        this.precision = precision;
+
+        String index = String.valueOf(value / precision);
+        dataset.valueAccumulation(index, 1L);
+    }
+
+    public boolean combine(LegacyPercentileMetrics2 percentileMetrics) {
+        this.isCalculated = false;
+
+        this.dataset.append(percentileMetrics.dataset);
+        return true;
+    }
+
+    public final void calculate() {
+        if (!isCalculated) {
+            long total = dataset.sumOfValues();
+
+            int[] roofs = new int[RANKS.length];
+            for (int i = 0; i < RANKS.length; i++) {
+                roofs[i] = Math.round(total * RANKS[i] * 1.0f / 100);
+            }
+
+            long count = 0;
+            final List<String> sortedKeys = dataset.sortedKeys(Comparator.comparingInt(Integer::parseInt));
+
+            int loopIndex = 0;
+            for (String key : sortedKeys) {
+                final Long value = dataset.get(key);
+
+                count += value;
+                for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
+                    int roof = roofs[rankIdx];
+
+                    if (count >= roof) {
+                        DataLabel label = new DataLabel();
+                        label.put(DataLabel.PERCENTILE_LABEL_NAME, String.valueOf(RANKS[rankIdx]));
+                        percentileValues.put(label.toString(), Long.parseLong(key) * precision);
+                        loopIndex++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    public DataTable getPercentileValues() {
+        return percentileValues;
+    }
+
+    public void reset() {
+        percentileValues.clear();
+        precision = 0;
+        dataset.clear();
+        isCalculated = false;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.analysis.metrics;
+
+import java.util.Random;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics2;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.apache.skywalking.oap.server.microbench.core.analysis.metrics.MetricsPoolBenchmark.PercentileMetrics2Impl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Compare the combine and calculate of {@link PercentileMetrics2} with the DataTable based {@link
+ * LegacyPercentileMetrics2}.
+ *
+ * The latencies are log-normal, the median is about 100ms and p99 is about 1s, combined with the precision 10 as
+ * `percentile2(10)` in the OAL. `combine` accumulates {@link #SAMPLE_SIZE} latencies into one minute, `calculate`
+ * computes the percentiles of the minute, and `merge` merges the minute into the L2 metrics.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class PercentileMetrics2Benchmark extends AbstractMicrobenchmark {
+    private static final int SAMPLE_SIZE = 10_000;
+    private static final int PRECISION = 10;
+    private static final int[] LATENCIES = new int[SAMPLE_SIZE];
+
+    static {
+        final Random random = new Random(20241017);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            LATENCIES[i] = (int) Math.min(Math.exp(Math.log(100) + random.nextGaussian()), 60_000);
+        }
+    }
+
+    private final ResettablePercentileMetrics2 metrics = new ResettablePercentileMetrics2();
+    private final PercentileMetrics2Impl filledMetrics = new PercentileMetrics2Impl();
+    private final PercentileMetrics2Impl emptyMetrics = new PercentileMetrics2Impl();
+    private final LegacyPercentileMetrics2 legacyMetrics = new LegacyPercentileMetrics2();
+    private final LegacyPercentileMetrics2 legacyFilledMetrics = new LegacyPercentileMetrics2();
+
+    @Setup
+    public void setup() {
+        for (final int latency : LATENCIES) {
+            filledMetrics.combine(latency, PRECISION);
+            legacyFilledMetrics.combine(latency, PRECISION);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_SIZE)
+    public PercentileMetrics2 combine() {
+        metrics.reset();
+        for (final int latency : LATENCIES) {
+            metrics.combine(latency, PRECISION);
+        }
+        return metrics;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_SIZE)
+    public LegacyPercentileMetrics2 legacyCombine() {
+        legacyMetrics.reset();
+        for (final int latency : LATENCIES) {
+            legacyMetrics.combine(latency, PRECISION);
+        }
+        return legacyMetrics;
+    }
+
+    @Benchmark
+    public DataTable calculate() {
+        filledMetrics.combine(emptyMetrics);
+        filledMetrics.calculate();
+        return filledMetrics.getValue();
+    }
+
+    @Benchmark
+    public DataTable legacyCalculate() {
+        legacyFilledMetrics.calculate();
+        return legacyFilledMetrics.getPercentileValues();
+    }
+
+    @Benchmark
+    public PercentileMetrics2 merge() {
+        metrics.reset();
+        metrics.combine(filledMetrics);
+        return metrics;
+    }
+
+    @Benchmark
+    public LegacyPercentileMetrics2 legacyMerge() {
+        legacyMetrics.reset();
+        legacyMetrics.combine(legacyFilledMetrics);
+        return legacyMetrics;
+    }
+
+    public static class ResettablePercentileMetrics2 extends PercentileMetrics2Impl {
+        @Override
+        public void reset() {
+            super.reset();
+        }
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.36
+        # VM version: JDK 17.0.9, OpenJDK 64-Bit Server VM, 17.0.9+9
+        # 1 CPU, -Xmx1g, -prof gc
+        # Warmup: 3 iterations, 2 s each
+        # Measurement: 5 iterations, 2 s each
+
+        Benchmark                                                         Mode  Cnt          Score           Error  Units
+        PercentileMetrics2Benchmark.calculate                            thrpt    5     388382.919 ±     19478.716  ops/s
+        PercentileMetrics2Benchmark.calculate:·gc.alloc.rate.norm        thrpt    5        816.001 ±         0.001   B/op
+        PercentileMetrics2Benchmark.combine                              thrpt    5  200413706.377 ± 103772806.246  ops/s
+        PercentileMetrics2Benchmark.combine:·gc.alloc.rate.norm          thrpt    5         ≈ 10⁻⁵                   B/op
+        PercentileMetrics2Benchmark.legacyCalculate                      thrpt    5      65567.981 ±     21951.100  ops/s
+        PercentileMetrics2Benchmark.legacyCalculate:·gc.alloc.rate.norm  thrpt    5       6552.003 ±         0.001   B/op
+        PercentileMetrics2Benchmark.legacyCombine                        thrpt    5   24140599.579 ±   6859856.472  ops/s
+        PercentileMetrics2Benchmark.legacyCombine:·gc.alloc.rate.norm    thrpt    5         60.775 ±         0.001   B/op
+        PercentileMetrics2Benchmark.legacyMerge                          thrpt    5     378834.944 ±    338294.685  ops/s
+        PercentileMetrics2Benchmark.legacyMerge:·gc.alloc.rate.norm      thrpt    5       5296.001 ±         0.001   B/op
+        PercentileMetrics2Benchmark.merge                                thrpt    5     679863.749 ±    420989.676  ops/s
+        PercentileMetrics2Benchmark.merge:·gc.alloc.rate.norm            thrpt    5         ≈ 10⁻⁵                   B/op
+
+        The minute has about 200 buckets. Combining a latency no longer builds the string key and boxes the count, and
+        calculating the percentiles sorts an int[] instead of parsing every key in the comparator.
+     */
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.core.analysis.worker;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CPMMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.StorageID;
+import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.oap.server.library.datacarrier.consumer.BulkConsumePool;
+import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Compare the single consumer L1 aggregation with the striped one for one hot metrics. It replays the queue and merge
+ * path of MetricsAggregateWorker, the producers are blocked when the queue is full, so the throughput represents how
+ * fast the consumers could merge.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Benchmark)
+public class L1AggregationStripeBenchmark extends AbstractMicrobenchmark {
+    private static final int ENTITY_SIZE = 1_000;
+    private static final long MINUTE_BUCKET = 202410171200L;
+
+    /**
+     * 1 is the single consumer path.
+     */
+    @Param({
+        "1",
+        "4",
+        "8"
+    })
+    private int stripeSize;
+
+    private BulkConsumePool pool;
+    private DataCarrier<Metrics>[] stripes;
+    private final LongAdder flushed = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = new BulkConsumePool("L1_AGGREGATION_BENCHMARK", 8, 20);
+        stripes = new DataCarrier[stripeSize];
+        for (int i = 0; i < stripeSize; i++) {
+            stripes[i] = new DataCarrier<>(
+                "L1AggregationStripeBenchmark." + i, "L1_AGGREGATION_BENCHMARK", 2, 10_000 / stripeSize,
+                BufferStrategy.BLOCKING
+            );
+            stripes[i].consume(pool, new StripeConsumer());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close(null);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void producer1() {
+        produce();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void producer4() {
+        produce();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void producer16() {
+        produce();
+    }
+
+    private void produce() {
+        final HotMetrics metrics = new HotMetrics();
+        metrics.entityId = "endpoint_" + ThreadLocalRandom.current().nextInt(ENTITY_SIZE);
+        metrics.setTimeBucket(MINUTE_BUCKET);
+        metrics.combine(1);
+        if (stripeSize == 1) {
+            stripes[0].produce(metrics);
+        } else {
+            stripes[(metrics.id().hashCode() & Integer.MAX_VALUE) % stripeSize].produce(metrics);
+        }
+    }
+
+    private class StripeConsumer implements IConsumer<Metrics> {
+        private final MergableBufferedData<Metrics> mergeDataCache = new MergableBufferedData<>();
+        private long lastSendTime = 0;
+
+        @Override
+        public void consume(final List<Metrics> data) {
+            data.forEach(mergeDataCache::accept);
+            nothingToConsume();
+        }
+
+        @Override
+        public void onError(final List<Metrics> data, final Throwable t) {
+        }
+
+        @Override
+        public void nothingToConsume() {
+            long currentTime = System.currentTimeMillis();
+            if (currentTime - lastSendTime > 500) {
+                flushed.add(mergeDataCache.read().size());
+                lastSendTime = currentTime;
+            }
+        }
+    }
+
+    private static class HotMetrics extends CPMMetrics {
+        private String entityId;
+
+        @Override
+        protected StorageID id0() {
+            return new StorageID().append(TIME_BUCKET, getTimeBucket()).append(ENTITY_ID, entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityId.hashCode() + (int) getTimeBucket();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof HotMetrics)) {
+                return false;
+            }
+            HotMetrics metrics = (HotMetrics) obj;
+            return entityId.equals(metrics.entityId) && getTimeBucket() == metrics.getTimeBucket();
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return hashCode();
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+}
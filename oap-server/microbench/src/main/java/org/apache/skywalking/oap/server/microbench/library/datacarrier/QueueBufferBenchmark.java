@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.library.datacarrier;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferType;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.Channels;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.oap.server.library.datacarrier.partition.SimpleRollingPartitioner;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 4 producers and 1 consumer on one buffer in {@link BufferStrategy#IF_POSSIBLE}, in the way of the L1 aggregation.
+ * `consumed` is the throughput from the producers to the consumer, `abandoned` is the saves failed due to the full
+ * buffer, and the p0.99 of `save` in the sample time mode is the enqueue latency.
+ */
+@BenchmarkMode({
+    Mode.Throughput,
+    Mode.SampleTime
+})
+public class QueueBufferBenchmark extends AbstractMicrobenchmark {
+    private static final Object DATA = new Object();
+
+    @State(Scope.Group)
+    public static class Buffer {
+        @Param({
+            "ARRAY_BLOCKING_QUEUE",
+            "MPSC_RING"
+        })
+        private BufferType type;
+
+        private QueueBuffer<Object> buffer;
+
+        @Setup
+        public void setup() {
+            buffer = new Channels<>(
+                1, 10_000, new SimpleRollingPartitioner<Object>(), BufferStrategy.IF_POSSIBLE, type).getBuffer(0);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long consumed;
+        public long abandoned;
+    }
+
+    private final List<Object> consumeList = new ArrayList<>(10_000);
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(4)
+    public void save(Buffer buffer, Counters counters) {
+        if (!buffer.buffer.save(DATA)) {
+            counters.abandoned++;
+        }
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public void obtain(Buffer buffer, Counters counters) {
+        buffer.buffer.obtain(consumeList);
+        counters.consumed += consumeList.size();
+        consumeList.clear();
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.36
+        # VM version: JDK 17.0.9, OpenJDK 64-Bit Server VM, 17.0.9+9
+        # 1 CPU
+        # Warmup: 3 iterations, 2 s each
+        # Measurement: 5 iterations, 2 s each
+
+        Benchmark                                        (type)   Mode  Cnt          Score          Error  Units
+        producerConsumer:abandoned         ARRAY_BLOCKING_QUEUE  thrpt    5   27415001.973 ?  8418293.376  ops/s
+        producerConsumer:consumed          ARRAY_BLOCKING_QUEUE  thrpt    5     491118.701 ?   270654.384  ops/s
+        producerConsumer:obtain            ARRAY_BLOCKING_QUEUE  thrpt    5    5717388.830 ?  1269124.066  ops/s
+        producerConsumer:save              ARRAY_BLOCKING_QUEUE  thrpt    5   27724157.483 ?  8445759.053  ops/s
+        producerConsumer:abandoned                    MPSC_RING  thrpt    5  185338928.003 ? 42590064.723  ops/s
+        producerConsumer:consumed                     MPSC_RING  thrpt    5     535043.145 ?   101525.285  ops/s
+        producerConsumer:obtain                       MPSC_RING  thrpt    5   27114353.374 ?  5687328.223  ops/s
+        producerConsumer:save                         MPSC_RING  thrpt    5  183447132.923 ? 41408818.457  ops/s
+
+        producerConsumer:save?p0.50        ARRAY_BLOCKING_QUEUE  sample                76.000                 ns/op
+        producerConsumer:save?p0.99        ARRAY_BLOCKING_QUEUE  sample               101.000                 ns/op
+        producerConsumer:save?p0.50                   MPSC_RING  sample                50.000                 ns/op
+        producerConsumer:save?p0.99                   MPSC_RING  sample                81.000                 ns/op
+
+        With 1 CPU, the 4 producers and the consumer share the time slices, so the consumer is the bottleneck in both
+        buffers and the most saves hit the full buffer. The full check of the ring is a plain read, while the queue
+        takes the lock for every offer.
+     */
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.log.analyzer.dsl.spec.parser;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import org.apache.skywalking.oap.log.analyzer.dsl.spec.parser.JsonFieldProjection;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+
+/**
+ * Parse an access log in the shape of the Envoy ALS JSON body, while the rule reads only 4 fields of it, like
+ * {@code parsed?.response?.responseCode?.value}.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class JsonFieldProjectionBenchmark extends AbstractMicrobenchmark {
+    private static final TypeReference<Map<String, Object>> PARSED_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private static final String JSON = "{" +
+        "\"commonProperties\":{" +
+        "\"downstreamRemoteAddress\":{\"socketAddress\":{\"address\":\"10.0.0.12\",\"portValue\":52436}}," +
+        "\"downstreamLocalAddress\":{\"socketAddress\":{\"address\":\"10.0.0.15\",\"portValue\":9080}}," +
+        "\"startTime\":\"2024-05-01T08:00:00.123Z\",\"timeToLastRxByte\":\"0.000120s\"," +
+        "\"timeToFirstUpstreamTxByte\":\"0.000950s\",\"timeToLastUpstreamTxByte\":\"0.000960s\"," +
+        "\"timeToFirstUpstreamRxByte\":\"0.012300s\",\"timeToLastUpstreamRxByte\":\"0.012400s\"," +
+        "\"timeToFirstDownstreamTxByte\":\"0.012500s\",\"timeToLastDownstreamTxByte\":\"0.012600s\"," +
+        "\"upstreamRemoteAddress\":{\"socketAddress\":{\"address\":\"10.0.0.31\",\"portValue\":9080}}," +
+        "\"upstreamCluster\":\"outbound|9080||reviews.default.svc.cluster.local\"," +
+        "\"responseFlags\":{\"upstreamConnectionFailure\":true}," +
+        "\"tlsProperties\":{\"tlsVersion\":\"TLSv1_3\",\"tlsCipherSuite\":4865,\"tlsSniHostname\":\"reviews\"," +
+        "\"localCertificateProperties\":{\"subjectAltName\":[{\"uri\":\"spiffe://cluster.local/ns/default/sa/a\"}]}," +
+        "\"peerCertificateProperties\":{\"subjectAltName\":[{\"uri\":\"spiffe://cluster.local/ns/default/sa/b\"}]}}," +
+        "\"metadata\":{\"filterMetadata\":{\"istio.mixer\":{\"labels\":[\"a\",\"b\",\"c\",\"d\",\"e\",\"f\"]}}}" +
+        "}," +
+        "\"protocolVersion\":\"HTTP11\"," +
+        "\"request\":{\"requestMethod\":\"GET\",\"scheme\":\"http\",\"authority\":\"reviews:9080\"," +
+        "\"path\":\"/reviews/0\",\"userAgent\":\"Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36\"," +
+        "\"requestId\":\"2c2f5d4e-0c5a-4f0b-9b39-8f6b7c4b3d61\",\"requestHeadersBytes\":\"712\"," +
+        "\"requestHeaders\":{\"x-b3-traceid\":\"463ac35c9f6413ad48485a3953bb6124\",\"x-b3-spanid\":\"a2fb4a1d1a96d312\"," +
+        "\"x-b3-sampled\":\"1\",\"accept\":\"application/json\",\"accept-encoding\":\"gzip, deflate\"}}," +
+        "\"response\":{\"responseCode\":{\"value\":503},\"responseHeadersBytes\":\"215\",\"responseBodyBytes\":\"91\"," +
+        "\"responseCodeDetails\":\"upstream_reset_before_response_started{connection_failure}\"," +
+        "\"responseHeaders\":{\"content-type\":\"text/plain\",\"server\":\"envoy\",\"date\":\"Wed, 01 May 2024\"}," +
+        "\"responseTrailers\":{\"grpc-status\":\"14\",\"grpc-message\":\"unavailable\"}}" +
+        "}";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final JsonFieldProjection PROJECTION = JsonFieldProjection.of(Arrays.asList(
+        Arrays.asList("response", "responseCode", "value"),
+        Arrays.asList("commonProperties", "responseFlags"),
+        Arrays.asList("commonProperties", "upstreamCluster"),
+        Arrays.asList("request", "path")
+    ));
+
+    @Benchmark
+    public Map<String, Object> full() throws IOException {
+        return MAPPER.readValue(JSON, PARSED_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, Object> projected() throws IOException {
+        return PROJECTION.read(MAPPER, JSON);
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.36
+        # VM version: JDK 17.0.9, OpenJDK 64-Bit Server VM, 17.0.9+9
+        # 1 CPU, -Xmx1g, -prof gc
+        # Warmup: 3 iterations, 2 s each
+        # Measurement: 5 iterations, 2 s each
+
+        Benchmark                                                    Mode  Cnt       Score        Error   Units
+        JsonFieldProjectionBenchmark.full                           thrpt    5  108209.299 ±  48739.766   ops/s
+        JsonFieldProjectionBenchmark.full:·gc.alloc.rate.norm       thrpt    5   10744.002 ±      0.001    B/op
+        JsonFieldProjectionBenchmark.projected                      thrpt    5  183300.482 ± 155655.185   ops/s
+        JsonFieldProjectionBenchmark.projected:·gc.alloc.rate.norm  thrpt    5    2272.001 ±      0.001    B/op
+
+        The skipped fields are still tokenized, so the gain comes from not building the maps, lists and strings of them.
+     */
+}
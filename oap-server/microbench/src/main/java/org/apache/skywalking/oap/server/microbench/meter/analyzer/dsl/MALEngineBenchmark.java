@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.meter.analyzer.dsl;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.skywalking.oap.meter.analyzer.dsl.DSL;
+import org.apache.skywalking.oap.meter.analyzer.dsl.Expression;
+import org.apache.skywalking.oap.meter.analyzer.dsl.ExpressionParsingContext;
+import org.apache.skywalking.oap.meter.analyzer.dsl.Sample;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamilyBuilder;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.MetricsRule;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Rule;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Rules;
+import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
+import org.apache.skywalking.oap.server.core.config.NamingControl;
+import org.apache.skywalking.oap.server.core.config.group.EndpointNameGrouping;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Run the expressions of all bundled otel rules, with the `expPrefix` and `expSuffix` applied as {@code MetricConvert}
+ * does, through the Groovy engine and the compiled engine ({@code SW_MAL_ENGINE=compiled}). The rules are copied from
+ * the server-starter module as resources of this module.
+ * <p>
+ * Each sample family read by an expression has 4 series. Their labels are the ones referred by the expression, such
+ * as the aggregation labels and the `tags.xxx` of the closures, with the values of `tagEqual` and `tagMatch` so that the
+ * samples are not filtered out, and the `le` buckets of histograms. The expressions of `retagByK8sMeta` are skipped, as
+ * they query the Kubernetes API.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class MALEngineBenchmark extends AbstractMicrobenchmark {
+    private static final String RULES_PATH = "otel-rules";
+    private static final int SERIES = 4;
+    private static final String[] BUCKETS = {"50", "100", "250", "500", "1000"};
+    private static final Pattern LABEL = Pattern.compile("'([A-Za-z_][A-Za-z0-9_]*)'|tags\\.([A-Za-z_][A-Za-z0-9_]*)");
+    private static final Pattern TAG_VALUE = Pattern.compile("tag(?:Equal|Match)\\(\\s*'([^']+)'\\s*,\\s*'([^']+)'");
+
+    @Param({"GROOVY", "COMPILED"})
+    private DSL.Engine engine;
+
+    private final List<Expression> expressions = new ArrayList<>();
+    private final List<Map<String, SampleFamily>> inputs = new ArrayList<>();
+
+    @Setup
+    public void setup() throws Exception {
+        MeterEntity.setNamingControl(new NamingControl(512, 512, 512, new EndpointNameGrouping()));
+        final long now = System.currentTimeMillis();
+        for (final Rule rule : Rules.loadRules(RULES_PATH, List.of("*", "*/*"))) {
+            for (final MetricsRule metricsRule : rule.getMetricsRules()) {
+                final String exp = formatExp(rule.getExpPrefix(), rule.getExpSuffix(), metricsRule.getExp());
+                if (exp.contains("retagByK8sMeta")) {
+                    continue;
+                }
+                final Expression expression = DSL.parse(metricsRule.getName(), exp, engine);
+                final List<String> samples;
+                try (ExpressionParsingContext ctx = expression.parse()) {
+                    samples = ctx.getSamples();
+                }
+                expressions.add(expression);
+                inputs.add(input(now, exp, samples));
+            }
+        }
+    }
+
+    @Benchmark
+    public void run(final Blackhole bh) {
+        for (int i = 0; i < expressions.size(); i++) {
+            bh.consume(expressions.get(i).run(inputs.get(i)));
+        }
+    }
+
+    /**
+     * The same as {@code MetricConvert#formatExp}.
+     */
+    static String formatExp(final String expPrefix, final String expSuffix, final String exp) {
+        String ret = exp;
+        if (!Strings.isNullOrEmpty(expPrefix)) {
+            ret = String.format("(%s.%s)", StringUtils.substringBefore(exp, "."), expPrefix);
+            final String after = StringUtils.substringAfter(exp, ".");
+            if (!Strings.isNullOrEmpty(after)) {
+                ret = String.format("(%s.%s)", ret, after);
+            }
+        }
+        if (!Strings.isNullOrEmpty(expSuffix)) {
+            ret = String.format("(%s).%s", ret, expSuffix);
+        }
+        return ret;
+    }
+
+    static Map<String, SampleFamily> input(final long timestamp, final String exp, final List<String> sampleNames) {
+        final Set<String> labels = new LinkedHashSet<>();
+        final Matcher label = LABEL.matcher(exp);
+        while (label.find()) {
+            labels.add(label.group(1) != null ? label.group(1) : label.group(2));
+        }
+        final Map<String, String> fixedValues = new HashMap<>();
+        final Matcher tagValue = TAG_VALUE.matcher(exp);
+        while (tagValue.find()) {
+            fixedValues.put(tagValue.group(1), StringUtils.substringBefore(tagValue.group(2), "|"));
+        }
+        labels.remove("le");
+        final boolean histogram = exp.contains("'le'");
+
+        final Map<String, SampleFamily> families = new HashMap<>();
+        for (final String name : sampleNames) {
+            final List<Sample> samples = new ArrayList<>();
+            for (int series = 0; series < SERIES; series++) {
+                final ImmutableMap.Builder<String, String> seriesLabels = ImmutableMap.builder();
+                for (final String key : labels) {
+                    seriesLabels.put(key, fixedValues.getOrDefault(key, "v" + series));
+                }
+                if (!histogram) {
+                    samples.add(sample(timestamp, name, seriesLabels.build(), series));
+                    continue;
+                }
+                for (final String bucket : BUCKETS) {
+                    samples.add(sample(timestamp, name, ImmutableMap.<String, String>builder()
+                                                                    .putAll(seriesLabels.build())
+                                                                    .put("le", bucket)
+                                                                    .build(), series));
+                }
+            }
+            families.put(name, SampleFamilyBuilder.newBuilder(samples.toArray(new Sample[0])).build());
+        }
+        return ImmutableMap.copyOf(families);
+    }
+
+    private static Sample sample(final long timestamp, final String name, final ImmutableMap<String, String> labels,
+                                 final int series) {
+        return Sample.builder()
+                     .name(name)
+                     .labels(labels)
+                     .value(1024 + series * 8)
+                     .timestamp(timestamp)
+                     .build();
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.36
+        # VM version: JDK 17.0.9, OpenJDK 64-Bit Server VM, 17.0.9+9
+        # 1 CPU, -Xmx1g, -prof gc
+        # Warmup: 5 iterations, 2 s each
+        # Measurement: 10 iterations, 2 s each, 3 forks
+
+        Benchmark                                             (engine)   Mode  Cnt         Score         Error  Units
+        MALEngineBenchmark.run                                  GROOVY  thrpt   30        15.428 ±       2.744  ops/s
+        MALEngineBenchmark.run:·gc.alloc.rate.norm              GROOVY  thrpt   30  19661458.174 ± 1355826.663   B/op
+        MALEngineBenchmark.run                                COMPILED  thrpt   30        38.599 ±       4.357  ops/s
+        MALEngineBenchmark.run:·gc.alloc.rate.norm            COMPILED  thrpt   30  16818906.016 ±   82932.713   B/op
+
+        One operation runs 874 expressions of 47 rule files, all of the 887 bundled ones but the 13 of `retagByK8sMeta`.
+        All the 887 expressions are compiled, 814 of them with closures, and give the same results on both engines. The
+        compiled engine runs them about 2.5 times as fast; most of the remaining allocation is the sample families built
+        by the SampleFamily operations, which both engines share.
+     */
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.microbench.meter.analyzer.dsl.counter;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.skywalking.oap.meter.analyzer.dsl.counter.CounterWindow;
+import org.apache.skywalking.oap.server.microbench.base.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Scrape a counter of {@link #PODS_PER_SCRAPE} pods every 15 seconds, while {@code churn} of the pods are replaced
+ * by new ones in every scrape, like pods restarted by Kubernetes. Every invocation computes the increase of one
+ * sample in the 1 minute window. The legacy window never evicts the series of the pods gone.
+ */
+@BenchmarkMode({Mode.Throughput})
+public class CounterWindowBenchmark extends AbstractMicrobenchmark {
+    private static final int PODS_PER_SCRAPE = 1000;
+    private static final long SCRAPE_INTERVAL = 15_000;
+    private static final long WINDOW = 60_000;
+
+    @Param({"0", "100"})
+    private int churn;
+
+    private CounterWindow window;
+    private LegacyCounterWindow legacyWindow;
+    private ImmutableMap<String, String>[] labels;
+    private int nextPod;
+    private int slot;
+    private long now;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        window = CounterWindow.INSTANCE;
+        window.reset();
+        // The scrapes are much faster than the wall clock here, every pod is seen within 1 second until it's gone.
+        window.configure(1000, CounterWindow.DEFAULT_MAX_SERIES, null, null);
+        legacyWindow = new LegacyCounterWindow();
+        labels = new ImmutableMap[PODS_PER_SCRAPE];
+        for (int i = 0; i < PODS_PER_SCRAPE; i++) {
+            labels[i] = newPod();
+        }
+        now = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public double increase() {
+        final ImmutableMap<String, String> pod = next();
+        return window.increase("pod_cpu_seconds_total", pod, slot, WINDOW, now, (v, t) -> v);
+    }
+
+    @Benchmark
+    public double legacyIncrease() {
+        final ImmutableMap<String, String> pod = next();
+        return legacyWindow.increase("pod_cpu_seconds_total", pod, (double) slot, WINDOW, now)._2;
+    }
+
+    private ImmutableMap<String, String> next() {
+        if (++slot == PODS_PER_SCRAPE) {
+            slot = 0;
+            now += SCRAPE_INTERVAL;
+            final int replaced = nextPod;
+            for (int i = 0; i < churn; i++) {
+                labels[(replaced + i) % PODS_PER_SCRAPE] = newPod();
+            }
+        }
+        return labels[slot];
+    }
+
+    private ImmutableMap<String, String> newPod() {
+        final int pod = nextPod++;
+        return ImmutableMap.of("namespace", "default", "pod", "pod-" + pod, "container", "app");
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.36
+        # VM version: JDK 17.0.9, OpenJDK 64-Bit Server VM, 17.0.9+9
+        # 1 CPU, -Xmx1g, -prof gc
+        # Warmup: 3 iterations, 2 s each
+        # Measurement: 5 iterations, 2 s each
+
+        Benchmark                                              (churn)   Mode  Cnt         Score         Error   Units
+        CounterWindowBenchmark.increase                              0  thrpt    5   8436789.058 ± 2321399.595   ops/s
+        CounterWindowBenchmark.increase:·gc.alloc.rate.norm          0  thrpt    5        24.001 ±       0.005    B/op
+        CounterWindowBenchmark.increase                            100  thrpt    5   1776062.073 ± 1849211.138   ops/s
+        CounterWindowBenchmark.increase:·gc.alloc.rate.norm        100  thrpt    5        88.802 ±       0.015    B/op
+        CounterWindowBenchmark.legacyIncrease                        0  thrpt    5  10518337.426 ± 4403368.118   ops/s
+        CounterWindowBenchmark.legacyIncrease:·gc.alloc.rate.norm    0  thrpt    5        96.001 ±       0.004    B/op
+        CounterWindowBenchmark.legacyIncrease                      100  thrpt    5    296284.884 ± 1157803.324   ops/s
+        CounterWindowBenchmark.legacyIncrease:·gc.alloc.rate.norm  100  thrpt    5       140.251 ±       0.890    B/op
+
+        Series kept at the end of a fork: 1000 (churn 0) and 120601 (churn 100), the legacy window kept 1281599
+        series with churn 100, with 10.9s GC time reported against 7.6s. Without churn, the shard locks and the LRU
+        order cost ~20% throughput, in exchange of no tuples allocated per sample.
+     */
+}
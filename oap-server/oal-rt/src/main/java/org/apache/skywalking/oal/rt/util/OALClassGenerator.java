@@ -78,11 +78,13 @@ public class OALClassGenerator {
     private static final String METRICS_STREAM_PROCESSOR = "org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor";
     private static final String[] METRICS_CLASS_METHODS = {
             "id",
+            "key",
             "hashCode",
             "remoteHashCode",
             "equals",
             "serialize",
             "deserialize",
+            "deserializeRows",
             "getMeta",
             "toHour",
             "toDay"
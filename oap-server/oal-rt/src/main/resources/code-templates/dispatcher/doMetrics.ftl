@@ -8,7 +8,10 @@ private void do${metricsName}(${sourcePackage}${from.sourceName} source) {
     </#list>
 </#if>
 
-${metricsClassPackage}${metricsName}Metrics metrics = new ${metricsClassPackage}${metricsName}Metrics();
+${metricsClassPackage}${metricsName}Metrics metrics = (${metricsClassPackage}${metricsName}Metrics) org.apache.skywalking.oap.server.core.analysis.metrics.MetricsPool.borrow(${metricsClassPackage}${metricsName}Metrics.class);
+if (metrics == null) {
+metrics = new ${metricsClassPackage}${metricsName}Metrics();
+}
 metrics.setTimeBucket(source.getTimeBucket());
 <#list fieldsFromSource as field>
     metrics.${field.fieldSetter}(source.${field.fieldGetter}());
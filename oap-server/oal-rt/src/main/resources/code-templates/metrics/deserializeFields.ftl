@@ -0,0 +1,22 @@
+<#list serializeFields.stringFields as field>
+    ${field.setter}(remoteData.getDataStrings(${field?index}));
+</#list>
+
+<#list serializeFields.longFields as field>
+    ${field.setter}(remoteData.getDataLongs(${field?index}));
+</#list>
+
+<#list serializeFields.doubleFields as field>
+    ${field.setter}(remoteData.getDataDoubles(${field?index}));
+</#list>
+
+<#list serializeFields.intFields as field>
+    ${field.setter}(remoteData.getDataIntegers(${field?index}));
+</#list>
+
+<#if serializeFields.objectFields?has_content>
+    org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput objects = org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput.of(remoteData);
+    <#list serializeFields.objectFields as field>
+        ${field.setter}((${field.fieldType}) objects.read(new ${field.fieldType}()));
+    </#list>
+</#if>
@@ -0,0 +1,3 @@
+public void deserialize(org.apache.skywalking.oap.server.core.remote.RemoteBlockRows remoteData) {
+<#include "deserializeFields.ftl">
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+protected org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey key0() {
+<#assign idFieldCount = 0>
+<#list fieldsFromSource as sourceField>
+    <#if sourceField.isID()>
+        <#assign idFieldCount = idFieldCount + 1>
+        <#assign idField = sourceField>
+    </#if>
+</#list>
+<#if idFieldCount == 1 && idField.getTypeName() == "java.lang.String">
+    return new org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey(getTimeBucket(), ${idField.fieldName});
+<#else>
+    return new org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey(id());
+</#if>
+}
@@ -16,9 +16,13 @@ org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData.Builder remot
     remoteBuilder.addDataIntegers(${field.getter}());
 </#list>
 
-<#list serializeFields.objectFields as field>
-    remoteBuilder.addDataObjectStrings(${field.getter}().toStorageData());
-</#list>
+<#if serializeFields.objectFields?has_content>
+    org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput objects = org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput.of(remoteBuilder);
+    <#list serializeFields.objectFields as field>
+        objects.write(${field.getter}());
+    </#list>
+    objects.flush();
+</#if>
 
 return remoteBuilder;
 }
\ No newline at end of file
@@ -50,6 +50,40 @@ public class CoreModuleConfig extends ModuleConfig {
      * The period of L1 aggregation flush. Unit is ms.
      */
     private long l1FlushPeriod = 500;
+    /**
+     * The number of stripes of every L1 aggregation worker. The metrics are routed to the stripes by the hash of their
+     * IDs, and every stripe is consumed separately, so a hot metrics could be aggregated by multiple threads. 1 means
+     * no stripe.
+     */
+    private int l1AggregationStripeSize = 1;
+    /**
+     * Move the metrics queues between the consumer threads of the L1 and L2 aggregation pools, from the busiest thread
+     * to the idlest one, based on the consume time and the backlog measured every 10 seconds.
+     *
+     * @since 10.1.0
+     */
+    private boolean enableAggregationPoolRebalance = false;
+    /**
+     * The buffer type of the queues of the L1 and L2 aggregation workers, ARRAY_BLOCKING_QUEUE or MPSC_RING, the
+     * lock-free ring buffer.
+     *
+     * @since 10.1.0
+     */
+    private String metricsQueueBufferType = "ARRAY_BLOCKING_QUEUE";
+    /**
+     * The max number of idle instances of every OAL metrics class kept for reusing. The metrics merged in the L1 and
+     * L2 aggregation are recycled, and the OAL dispatchers reuse them rather than creating new ones. 0 means
+     * disabled.
+     */
+    private int metricsObjectPoolSize = 0;
+    /**
+     * The budget of the direct memory in bytes, shared by the session caches of all metrics. When it is greater than 0,
+     * the L2 aggregation keeps the serialized hot metrics out of the heap, and evicts the least recently used ones when
+     * the budget is used up. 0 means the session caches are in-heap.
+     *
+     * @since 10.1.0
+     */
+    private long metricsSessionCacheOffHeapSize = 0;
     /**
      * The threshold of session time. Unit is ms. Default value is 70s.
      */
@@ -82,6 +116,29 @@ public class CoreModuleConfig extends ModuleConfig {
      */
 
     private int remoteTimeout = 20;
+    /**
+     * Send the stream data to other OAP servers through the columnar batch RPC, which interns the worker names and the
+     * strings, and delta-encodes the longs. All OAP servers in the cluster should be 10.1.0 or later, otherwise the
+     * client falls back to the per-message RPC for the servers not supporting it.
+     *
+     * @since 10.1.0
+     */
+    private boolean remoteBatchEncoding = false;
+    /**
+     * Send the complex objects of the stream data, such as the datasets of the percentile and histogram metrics, to
+     * other OAP servers in the binary form rather than the string data of the storage. All OAP servers in the cluster
+     * should be 10.1.0 or later.
+     *
+     * @since 10.1.0
+     */
+    private boolean remoteBinaryObjectEncoding = false;
+    /**
+     * The max number of bytes sent to another OAP server and not responded yet. The remote client blocks when it is
+     * reached, rather than queuing more messages in the gRPC transport.
+     *
+     * @since 10.1.0
+     */
+    private long remoteMaxInFlightBytes = 4 * 1024 * 1024;
     /**
      * The size of network address alias.
      */
@@ -182,6 +239,15 @@ public class CoreModuleConfig extends ModuleConfig {
     @Setter
     @Getter
     private int prepareThreads = 2;
+    /**
+     * Schedule the persistence of every worker independently, rather than waiting for the whole round of all workers.
+     * A worker is skipped in the following rounds until its previous round is persisted, instead of blocking others.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private boolean persistentPipelineEnabled = false;
 
     @Getter
     @Setter
@@ -19,67 +19,144 @@
 package org.apache.skywalking.oap.server.core.analysis.data;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import java.util.Map;
 import org.apache.skywalking.oap.server.core.analysis.topn.TopN;
 
 /**
  * LimitedSizeBufferedData is a thread no safe implementation of {@link BufferedData}. It collects limited records of
- * each {@link TopN} which grouped by entityId and timeBucket.
+ * each {@link TopN} which grouped by entityId and minute.
+ * <p>
+ * Each group keeps its records in a bounded min-heap, a record not greater than the smallest one of a full group is
+ * rejected by one comparison, otherwise it replaces the smallest one in O(log n). The records of each group are read
+ * in ascending order.
  */
 public class LimitedSizeBufferedData<STORAGE_DATA extends TopN> implements BufferedData<STORAGE_DATA> {
-    private final HashMap<String, LinkedList<STORAGE_DATA>> data;
+    private static final long MINUTE_IN_MILLIS = 60_000L;
+
+    private final Map<GroupKey, TopNHeap> data;
     private final int limitedSize;
 
     public LimitedSizeBufferedData(int limitedSize) {
-        this.data = new HashMap<>();
+        this.data = new LinkedHashMap<>();
         this.limitedSize = limitedSize;
     }
 
     @Override
     public void accept(final STORAGE_DATA data) {
-        final String topGroupKey = data.getEntityId() + TimeBucket.getMinuteTimeBucket(data.getTimestamp());
-        LinkedList<STORAGE_DATA> storageDataList = this.data.get(topGroupKey);
-        if (storageDataList == null) {
-            storageDataList = new LinkedList<>();
-            this.data.put(topGroupKey, storageDataList);
-        }
-
-        if (storageDataList.size() < limitedSize) {
-            storageDataList.add(data);
-            return;
+        // The epoch minute groups the same as the minute time bucket, as the time zone offsets are whole minutes,
+        // and saves a Calendar per record.
+        final GroupKey key = new GroupKey(data.getEntityId(), Math.floorDiv(data.getTimestamp(), MINUTE_IN_MILLIS));
+        TopNHeap heap = this.data.get(key);
+        if (heap == null) {
+            heap = new TopNHeap(limitedSize);
+            this.data.put(key, heap);
         }
-
-        for (int i = 0; i < storageDataList.size(); i++) {
-            STORAGE_DATA storageData = storageDataList.get(i);
-            if (data.compareTo(storageData) <= 0) {
-                if (i == 0) {
-                    // input data is less than the smallest in top N list, ignore
-                } else {
-                    // Remove the smallest in top N list
-                    // add the current data into the right position
-                    storageDataList.add(i, data);
-                    storageDataList.removeFirst();
-                }
-                return;
-            }
-        }
-
-        // Add the data as biggest in top N list
-        storageDataList.addLast(data);
-        storageDataList.removeFirst();
+        heap.offer(data);
     }
 
     @Override
     public List<STORAGE_DATA> read() {
         try {
             List<STORAGE_DATA> collection = new ArrayList<>();
-            data.values().forEach(collection::addAll);
+            data.values().forEach(heap -> heap.drainSortedTo(collection));
             return collection;
         } finally {
             data.clear();
         }
     }
+
+    private static final class GroupKey {
+        private final String entityId;
+        private final long minute;
+        private final int hash;
+
+        private GroupKey(final String entityId, final long minute) {
+            this.entityId = entityId;
+            this.minute = minute;
+            this.hash = 31 * entityId.hashCode() + Long.hashCode(minute);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GroupKey)) {
+                return false;
+            }
+            final GroupKey that = (GroupKey) o;
+            return minute == that.minute && entityId.equals(that.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A min-heap of at most {@code limitedSize} records, the root is the smallest record.
+     */
+    private static final class TopNHeap {
+        private final TopN[] heap;
+        private int size;
+
+        private TopNHeap(final int limitedSize) {
+            this.heap = new TopN[limitedSize];
+        }
+
+        private void offer(final TopN data) {
+            if (size < heap.length) {
+                siftUp(size++, data);
+                return;
+            }
+            if (size == 0 || data.compareTo(heap[0]) <= 0) {
+                // input data is not greater than the smallest in top N list, ignore
+                return;
+            }
+            // Replace the smallest in top N list
+            siftDown(0, data);
+        }
+
+        private void siftUp(int i, final TopN data) {
+            while (i > 0) {
+                final int parent = (i - 1) >>> 1;
+                if (data.compareTo(heap[parent]) >= 0) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = data;
+        }
+
+        private void siftDown(int i, final TopN data) {
+            final int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                final int right = child + 1;
+                if (right < size && heap[right].compareTo(heap[child]) < 0) {
+                    child = right;
+                }
+                if (data.compareTo(heap[child]) <= 0) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = data;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T extends TopN> void drainSortedTo(final List<T> collection) {
+            final TopN[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            for (final TopN data : sorted) {
+                collection.add((T) data);
+            }
+        }
+    }
 }
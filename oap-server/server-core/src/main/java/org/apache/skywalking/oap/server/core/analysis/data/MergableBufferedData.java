@@ -23,16 +23,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
-import org.apache.skywalking.oap.server.core.storage.StorageID;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsPool;
 
 /**
  * MergableBufferedData is a thread no safe implementation of {@link BufferedData}. {@link Metrics} in this cache would
- * be {@link Metrics#combine(Metrics)} if their {@link Metrics#id()}s are same.
+ * be {@link Metrics#combine(Metrics)} if their {@link Metrics#key()}s are same.
  *
  * Concurrency {@link #accept(Metrics)}s and {@link #read()} while {@link #accept(Metrics)} are both not recommended.
+ *
+ * The accepted {@link Metrics} which has been merged into the existing one would be recycled through {@link
+ * MetricsPool}, so it should not be referenced by others after accepted.
  */
 public class MergableBufferedData<METRICS extends Metrics> implements BufferedData<METRICS> {
-    private Map<StorageID, METRICS> buffer;
+    private Map<MetricsKey, METRICS> buffer;
 
     public MergableBufferedData() {
         buffer = new HashMap<>();
@@ -47,12 +51,14 @@ public class MergableBufferedData<METRICS extends Metrics> implements BufferedDa
      */
     @Override
     public void accept(final METRICS data) {
-        final StorageID id = data.id();
-        final METRICS existed = buffer.get(id);
+        final MetricsKey key = data.key();
+        final METRICS existed = buffer.get(key);
         if (existed == null) {
-            buffer.put(id, data);
+            buffer.put(key, data);
         } else {
             existed.combine(data);
+            // The data has been merged, and no one else holds it.
+            MetricsPool.recycle(data);
         }
     }
 
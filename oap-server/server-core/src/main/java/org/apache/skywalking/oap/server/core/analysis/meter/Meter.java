@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.analysis.meter;
 
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
 import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsMetaInfo;
 import org.apache.skywalking.oap.server.core.analysis.metrics.WithMetadata;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
@@ -38,6 +39,30 @@ public abstract class Meter extends Metrics implements WithMetadata {
      */
     public abstract String getEntityId();
 
+    @Override
+    protected MetricsKey key0() {
+        return new MetricsKey(getTimeBucket(), getEntityId());
+    }
+
+    /**
+     * The meter functions are identified by the time bucket and the entity ID, as their {@link #key()}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Meter)) {
+            return false;
+        }
+        return key().equals(((Meter) o).key());
+    }
+
+    @Override
+    public int hashCode() {
+        return key().hashCode();
+    }
+
     /**
      * This method is called in {@link MeterSystem#create} process through dynamic Java codes.
      *
@@ -25,6 +25,7 @@ import lombok.Setter;
 import lombok.ToString;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataLabel;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.query.type.Bucket;
 import org.apache.skywalking.oap.server.core.query.type.HeatMap;
@@ -86,4 +87,12 @@ public class BucketedValues {
 
         return Arrays.equals(buckets, existedBuckets);
     }
+
+    /**
+     * @param table the existing buckets, or null if no bucket exists.
+     * @return true if the bucket is same.
+     */
+    public boolean isCompatible(BucketTable table) {
+        return table == null || Arrays.equals(buckets, table.sortedKeys());
+    }
 }
@@ -26,8 +26,10 @@ import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.meter.Meter;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledBucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageID;
 import org.apache.skywalking.oap.server.core.storage.annotation.BanyanDB;
@@ -36,7 +38,6 @@ import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
 import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 
-import java.util.Objects;
 
 /**
  * Histogram includes data range buckets and the amount matched/grouped in the buckets. This is for original histogram
@@ -53,29 +54,36 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
     @Column(name = ENTITY_ID, length = 512)
     @BanyanDB.SeriesID(index = 0)
     private String entityId;
-    @Getter
-    @Setter
     @Column(name = DATASET, dataType = Column.ValueDataType.HISTOGRAM, storageOnly = true, defaultValue = 0)
     @BanyanDB.MeasureField
     private DataTable dataset = new DataTable(30);
+    /**
+     * The in-memory form of the {@link #dataset}, which is only synced at {@link #getDataset()}.
+     */
+    @ToString.Exclude
+    private final LabeledBucketTable buckets = new LabeledBucketTable(30);
+
+    public DataTable getDataset() {
+        return buckets.syncTo(dataset);
+    }
+
+    public void setDataset(DataTable dataset) {
+        this.dataset = dataset;
+        buckets.loadFrom(dataset);
+    }
 
     @Override
     public void accept(final MeterEntity entity, final BucketedValues value) {
-        if (dataset.size() > 0) {
-            if (!value.isCompatible(dataset)) {
-                throw new IllegalArgumentException(
-                    "Incompatible BucketedValues [" + value + "] for current HistogramFunction[" + dataset + "]");
-            }
+        if (!value.isCompatible(buckets.get(""))) {
+            throw new IllegalArgumentException(
+                "Incompatible BucketedValues [" + value + "] for current HistogramFunction[" + getDataset() + "]");
         }
 
         this.entityId = entity.id();
 
         final long[] values = value.getValues();
         for (int i = 0; i < values.length; i++) {
-            final long bucket = value.getBuckets()[i];
-            String bucketName = bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
-            final long bucketValue = values[i];
-            dataset.valueAccumulation(bucketName, bucketValue);
+            buckets.accumulate("", value.getBuckets()[i], values[i]);
         }
     }
 
@@ -83,13 +91,13 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
     public boolean combine(final Metrics metrics) {
         HistogramFunction histogram = (HistogramFunction) metrics;
 
-        if (!dataset.keysEqual(histogram.getDataset())) {
+        if (!buckets.keysEqual(histogram.buckets)) {
             log.warn("Incompatible input [{}}] for current HistogramFunction[{}], entity {}",
                      histogram, this, entityId
             );
             return true;
         }
-        this.dataset.append(histogram.dataset);
+        this.buckets.append(histogram.buckets);
         return true;
     }
 
@@ -103,7 +111,7 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
         HistogramFunction metrics = (HistogramFunction) createNew();
         metrics.setEntityId(getEntityId());
         metrics.setTimeBucket(toTimeBucketInHour());
-        metrics.getDataset().copyFrom(getDataset());
+        metrics.buckets.copyFrom(buckets);
         return metrics;
     }
 
@@ -112,7 +120,7 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
         HistogramFunction metrics = (HistogramFunction) createNew();
         metrics.setEntityId(getEntityId());
         metrics.setTimeBucket(toTimeBucketInDay());
-        metrics.getDataset().copyFrom(getDataset());
+        metrics.buckets.copyFrom(buckets);
         return metrics;
     }
 
@@ -127,7 +135,7 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
+        this.setDataset(ComplexObjectInput.of(remoteData).read(new DataTable()));
     }
 
     @Override
@@ -137,7 +145,7 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(dataset.toStorageData());
+        ComplexObjectOutput.of(remoteBuilder).write(getDataset()).flush();
 
         return remoteBuilder;
     }
@@ -176,20 +184,4 @@ public abstract class HistogramFunction extends Meter implements AcceptableValue
             converter.accept(ENTITY_ID, storageData.getEntityId());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o)
-            return true;
-        if (!(o instanceof HistogramFunction))
-            return false;
-        HistogramFunction function = (HistogramFunction) o;
-        return Objects.equals(entityId, function.entityId) &&
-            getTimeBucket() == function.getTimeBucket();
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(entityId, getTimeBucket());
-    }
 }
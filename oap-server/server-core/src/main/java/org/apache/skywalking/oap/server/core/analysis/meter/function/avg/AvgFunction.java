@@ -18,7 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.analysis.meter.function.avg;
 
-import java.util.Objects;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -192,22 +191,4 @@ public abstract class AvgFunction extends Meter implements AcceptableValue<Long>
             converter.accept(ENTITY_ID, storageData.getEntityId());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof AvgFunction)) {
-            return false;
-        }
-        AvgFunction function = (AvgFunction) o;
-        return Objects.equals(entityId, function.entityId) &&
-            getTimeBucket() == function.getTimeBucket();
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(entityId, getTimeBucket());
-    }
 }
@@ -24,9 +24,12 @@ import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
 import org.apache.skywalking.oap.server.core.analysis.meter.function.AcceptableValue;
 import org.apache.skywalking.oap.server.core.analysis.meter.function.BucketedValues;
 import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFunction;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledBucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageID;
 import org.apache.skywalking.oap.server.core.storage.annotation.BanyanDB;
@@ -35,7 +38,6 @@ import org.apache.skywalking.oap.server.core.storage.annotation.ElasticSearch;
 import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
 import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
-import java.util.Objects;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -64,64 +66,96 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
     @Column(name = ENTITY_ID, length = 512)
     @BanyanDB.SeriesID(index = 0)
     private String entityId;
-    @Getter
-    @Setter
     @Column(name = SUMMATION, storageOnly = true)
     @ElasticSearch.Column(legacyName = "summation")
     @BanyanDB.MeasureField
     protected DataTable summation = new DataTable(30);
-    @Getter
-    @Setter
     @Column(name = COUNT, storageOnly = true)
     @ElasticSearch.Column(legacyName = "count")
     @BanyanDB.MeasureField
     protected DataTable count = new DataTable(30);
-    @Getter
-    @Setter
     @Column(name = DATASET, dataType = Column.ValueDataType.HISTOGRAM, storageOnly = true, defaultValue = 0)
     @BanyanDB.MeasureField
     private DataTable dataset = new DataTable(30);
+    /**
+     * The in-memory forms of the {@link #summation}, {@link #count} and {@link #dataset}, which are only synced at
+     * their getters.
+     */
+    @ToString.Exclude
+    private final LabeledBucketTable summationBuckets = new LabeledBucketTable(30);
+    @ToString.Exclude
+    private final LabeledBucketTable countBuckets = new LabeledBucketTable(30);
+    @ToString.Exclude
+    private final LabeledBucketTable datasetBuckets = new LabeledBucketTable(30);
+
+    public DataTable getSummation() {
+        return summationBuckets.syncTo(summation);
+    }
+
+    public void setSummation(DataTable summation) {
+        this.summation = summation;
+        summationBuckets.loadFrom(summation);
+    }
+
+    public DataTable getCount() {
+        return countBuckets.syncTo(count);
+    }
+
+    public void setCount(DataTable count) {
+        this.count = count;
+        countBuckets.loadFrom(count);
+    }
+
+    public DataTable getDataset() {
+        return datasetBuckets.syncTo(dataset);
+    }
+
+    public void setDataset(DataTable dataset) {
+        this.dataset = dataset;
+        datasetBuckets.loadFrom(dataset);
+    }
 
     @Override
     public void accept(final MeterEntity entity, final BucketedValues value) {
-        if (dataset.size() > 0) {
-            if (!value.isCompatible(dataset)) {
-                throw new IllegalArgumentException(
-                    "Incompatible BucketedValues [" + value + "] for current HistogramFunction[" + dataset + "]");
-            }
+        if (!value.isCompatible(datasetBuckets.get(""))) {
+            throw new IllegalArgumentException(
+                "Incompatible BucketedValues [" + value + "] for current HistogramFunction[" + getDataset() + "]");
         }
 
         this.entityId = entity.id();
 
         final long[] values = value.getValues();
         for (int i = 0; i < values.length; i++) {
-            long bucket = value.getBuckets()[i];
-            String bucketName = bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
-            summation.valueAccumulation(bucketName, values[i]);
-            count.valueAccumulation(bucketName, 1L);
+            summationBuckets.accumulate("", value.getBuckets()[i], values[i]);
+            countBuckets.accumulate("", value.getBuckets()[i], 1L);
         }
     }
 
     @Override
     public boolean combine(final Metrics metrics) {
         AvgHistogramFunction histogram = (AvgHistogramFunction) metrics;
-        this.summation.append(histogram.summation);
-        this.count.append(histogram.count);
+        this.summationBuckets.append(histogram.summationBuckets);
+        this.countBuckets.append(histogram.countBuckets);
         return true;
     }
 
     @Override
     public void calculate() {
-        for (String key : summation.keys()) {
-            long value = 0;
-            if (count.get(key) != 0) {
-                value = summation.get(key) / count.get(key);
-                if (value == 0L && summation.get(key) > 0L) {
-                    value = 1;
+        summationBuckets.forEach((labels, sums) -> {
+            final BucketTable counts = countBuckets.get(labels);
+            for (final long bucket : sums.sortedKeys()) {
+                final long sum = sums.get(bucket);
+                final long sampleCount = counts == null ? 0L : counts.get(bucket);
+                long value = 0;
+                if (sampleCount != 0) {
+                    value = sum / sampleCount;
+                    if (value == 0L && sum > 0L) {
+                        value = 1;
+                    }
                 }
+                datasetBuckets.put(labels, bucket, value);
             }
-            dataset.put(key, value);
-        }
+        });
     }
 
     @Override
@@ -129,8 +163,8 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
         AvgHistogramFunction metrics = (AvgHistogramFunction) createNew();
         metrics.setEntityId(getEntityId());
         metrics.setTimeBucket(toTimeBucketInHour());
-        metrics.getSummation().copyFrom(getSummation());
-        metrics.getCount().copyFrom(getCount());
+        metrics.summationBuckets.copyFrom(summationBuckets);
+        metrics.countBuckets.copyFrom(countBuckets);
         return metrics;
     }
 
@@ -139,8 +173,8 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
         AvgHistogramFunction metrics = (AvgHistogramFunction) createNew();
         metrics.setEntityId(getEntityId());
         metrics.setTimeBucket(toTimeBucketInDay());
-        metrics.getSummation().copyFrom(getSummation());
-        metrics.getCount().copyFrom(getCount());
+        metrics.summationBuckets.copyFrom(summationBuckets);
+        metrics.countBuckets.copyFrom(countBuckets);
         return metrics;
     }
 
@@ -155,9 +189,10 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(2)));
+        final ComplexObjectInput objects = ComplexObjectInput.of(remoteData);
+        this.setCount(objects.read(new DataTable()));
+        this.setSummation(objects.read(new DataTable()));
+        this.setDataset(objects.read(new DataTable()));
     }
 
     @Override
@@ -167,9 +202,11 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(count.toStorageData());
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
-        remoteBuilder.addDataObjectStrings(dataset.toStorageData());
+        ComplexObjectOutput.of(remoteBuilder)
+            .write(getCount())
+            .write(getSummation())
+            .write(getDataset())
+            .flush();
 
         return remoteBuilder;
     }
@@ -212,20 +249,4 @@ public abstract class AvgHistogramFunction extends Meter implements AcceptableVa
             converter.accept(ENTITY_ID, storageData.getEntityId());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o)
-            return true;
-        if (!(o instanceof AvgHistogramFunction))
-            return false;
-        AvgHistogramFunction function = (AvgHistogramFunction) o;
-        return Objects.equals(entityId, function.entityId) &&
-            getTimeBucket() == function.getTimeBucket();
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(entityId, getTimeBucket());
-    }
 }
@@ -24,12 +24,15 @@ import org.apache.skywalking.oap.server.core.analysis.meter.MeterEntity;
 import org.apache.skywalking.oap.server.core.analysis.meter.function.AcceptableValue;
 import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFunction;
 import org.apache.skywalking.oap.server.core.analysis.meter.function.PercentileArgument;
+import org.apache.skywalking.oap.server.core.analysis.metrics.BucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataLabel;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledBucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageID;
 import org.apache.skywalking.oap.server.core.storage.annotation.BanyanDB;
@@ -38,15 +41,6 @@ import org.apache.skywalking.oap.server.core.storage.annotation.ElasticSearch;
 import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
 import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
-import io.vavr.Tuple;
-import io.vavr.Tuple2;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collector;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.mapping;
 import static org.apache.skywalking.oap.server.core.analysis.metrics.DataLabel.PERCENTILE_LABEL_NAME;
 
 import lombok.Getter;
@@ -85,20 +79,14 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
     @ElasticSearch.Column(legacyName = "value")
     @BanyanDB.MeasureField
     private DataTable percentileValues = new DataTable(10);
-    @Getter
-    @Setter
     @Column(name = SUMMATION, storageOnly = true)
     @ElasticSearch.Column(legacyName = "summation")
     @BanyanDB.MeasureField
     protected DataTable summation = new DataTable(30);
-    @Getter
-    @Setter
     @Column(name = COUNT, storageOnly = true)
     @ElasticSearch.Column(legacyName = "count")
     @BanyanDB.MeasureField
     protected DataTable count = new DataTable(30);
-    @Getter
-    @Setter
     @Column(name = DATASET, storageOnly = true)
     @BanyanDB.MeasureField
     private DataTable dataset = new DataTable(30);
@@ -110,15 +98,50 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
     @Column(name = RANKS, storageOnly = true)
     private IntList ranks = new IntList(10);
 
+    /**
+     * The in-memory forms of the {@link #summation}, {@link #count} and {@link #dataset}, keyed by the labels, which are
+     * only synced at their getters.
+     */
+    private final LabeledBucketTable summationBuckets = new LabeledBucketTable(30);
+    private final LabeledBucketTable countBuckets = new LabeledBucketTable(30);
+    private final LabeledBucketTable datasetBuckets = new LabeledBucketTable(30);
+
     private boolean isCalculated = false;
 
+    public DataTable getSummation() {
+        return summationBuckets.syncTo(summation);
+    }
+
+    public void setSummation(DataTable summation) {
+        this.summation = summation;
+        summationBuckets.loadFrom(summation);
+    }
+
+    public DataTable getCount() {
+        return countBuckets.syncTo(count);
+    }
+
+    public void setCount(DataTable count) {
+        this.count = count;
+        countBuckets.loadFrom(count);
+    }
+
+    public DataTable getDataset() {
+        return datasetBuckets.syncTo(dataset);
+    }
+
+    public void setDataset(DataTable dataset) {
+        this.dataset = dataset;
+        datasetBuckets.loadFrom(dataset);
+    }
+
     @Override
     public void accept(final MeterEntity entity, final PercentileArgument value) {
-        if (dataset.size() > 0) {
-            if (!value.getBucketedValues().isCompatible(dataset)) {
-                throw new IllegalArgumentException(
-                    "Incompatible BucketedValues [" + value + "] for current PercentileFunction[" + dataset + "]");
-            }
+        final String labels = CollectionUtils.isNotEmpty(value.getBucketedValues().getLabels())
+            ? value.getBucketedValues().getLabels().toString() : "";
+        if (!value.getBucketedValues().isCompatible(datasetBuckets.get(labels))) {
+            throw new IllegalArgumentException(
+                "Incompatible BucketedValues [" + value + "] for current PercentileFunction[" + getDataset() + "]");
         }
 
         for (final int rank : value.getRanks()) {
@@ -148,17 +171,10 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
 
         this.entityId = entity.id();
 
-        String template = "%s";
-        if (CollectionUtils.isNotEmpty(value.getBucketedValues().getLabels())) {
-            template  = value.getBucketedValues().getLabels() + ":%s";
-        }
         final long[] values = value.getBucketedValues().getValues();
         for (int i = 0; i < values.length; i++) {
-            long bucket = value.getBucketedValues().getBuckets()[i];
-            String bucketName = bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
-            String key = String.format(template, bucketName);
-            summation.valueAccumulation(key, values[i]);
-            count.valueAccumulation(key, 1L);
+            summationBuckets.accumulate(labels, value.getBucketedValues().getBuckets()[i], values[i]);
+            countBuckets.accumulate(labels, value.getBucketedValues().getBuckets()[i], 1L);
         }
 
         this.isCalculated = false;
@@ -183,8 +199,8 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
             }
         }
 
-        this.summation.append(percentile.summation);
-        this.count.append(percentile.count);
+        this.summationBuckets.append(percentile.summationBuckets);
+        this.countBuckets.append(percentile.countBuckets);
 
         this.isCalculated = false;
         return true;
@@ -193,78 +209,50 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
     @Override
     public void calculate() {
         if (!isCalculated) {
-            final Set<String> keys = summation.keys();
-            for (String key : keys) {
-                long value = 0;
-                if (count.get(key) != 0) {
-                    value = summation.get(key) / count.get(key);
-                    if (value == 0L && summation.get(key) > 0L) {
-                        value = 1;
+            summationBuckets.forEach((labels, sums) -> {
+                final BucketTable counts = countBuckets.get(labels);
+                for (final long bucket : sums.sortedKeys()) {
+                    final long sum = sums.get(bucket);
+                    final long sampleCount = counts == null ? 0L : counts.get(bucket);
+                    long value = 0;
+                    if (sampleCount != 0) {
+                        value = sum / sampleCount;
+                        if (value == 0L && sum > 0L) {
+                            value = 1;
+                        }
                     }
+                    datasetBuckets.put(labels, bucket, value);
+                }
+            });
+            datasetBuckets.forEach((labels, buckets) -> {
+                final DataLabel dataLabel = new DataLabel();
+                if (!labels.isEmpty()) {
+                    dataLabel.put(labels);
+                }
+                final long total = buckets.sumOfValues();
+
+                int[] roofs = new int[ranks.size()];
+                for (int i = 0; i < ranks.size(); i++) {
+                    roofs[i] = Math.round(total * ranks.get(i) * 1.0f / 100);
                 }
-                dataset.put(key, value);
-            }
-            dataset.keys().stream()
-                   .map(key -> {
-                       DataLabel dataLabel = new DataLabel();
-                       if (key.contains(":")) {
-                           int index = key.lastIndexOf(":");
-                           dataLabel.put(key.substring(0, index));
-                           return Tuple.of(dataLabel, key);
-                       } else {
-                           return Tuple.of(dataLabel, key);
-                       }
-                   })
-                   .collect(groupingBy(Tuple2::_1, mapping(Tuple2::_2, Collector.of(
-                       DataTable::new,
-                       (dt, key) -> {
-                           String v;
-                           if (key.contains(":")) {
-                               int index = key.lastIndexOf(":");
-                               v = key.substring(index + 1);
-                           } else {
-                               v = key;
-                           }
-                           dt.put(v, dataset.get(key));
-                       },
-                       DataTable::append
-                   ))))
-                   .forEach((labels, subDataset) -> {
-                       long total;
-                       total = subDataset.sumOfValues();
-
-                    int[] roofs = new int[ranks.size()];
-                    for (int i = 0; i < ranks.size(); i++) {
-                        roofs[i] = Math.round(total * ranks.get(i) * 1.0f / 100);
-                    }
 
-                    int count = 0;
-                    final List<String> sortedKeys = subDataset.sortedKeys(Comparator.comparingLong(Long::parseLong));
-
-                    int loopIndex = 0;
-
-                    for (String key : sortedKeys) {
-                        final Long value = subDataset.get(key);
-
-                        count += value;
-                        for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
-                            int roof = roofs[rankIdx];
-
-                            if (count >= roof) {
-                                if (labels.isEmpty()) {
-                                    labels.put(PERCENTILE_LABEL_NAME, String.valueOf(ranks.get(rankIdx)));
-                                    percentileValues.put(labels, Long.parseLong(key));
-                                } else {
-                                    labels.put(PERCENTILE_LABEL_NAME, String.valueOf(ranks.get(rankIdx)));
-                                    percentileValues.put(labels, Long.parseLong(key));
-                                }
-                                loopIndex++;
-                            } else {
-                                break;
-                            }
+                long count = 0;
+                int loopIndex = 0;
+                for (final long bucket : buckets.sortedKeys()) {
+                    count += buckets.get(bucket);
+                    for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
+                        int roof = roofs[rankIdx];
+
+                        if (count >= roof) {
+                            dataLabel.put(PERCENTILE_LABEL_NAME, String.valueOf(ranks.get(rankIdx)));
+                            percentileValues.put(dataLabel, bucket);
+                            loopIndex++;
+                        } else {
+                            break;
                         }
                     }
-                });
+                }
+            });
         }
     }
 
@@ -273,8 +261,8 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
         AvgHistogramPercentileFunction metrics = (AvgHistogramPercentileFunction) createNew();
         metrics.setEntityId(getEntityId());
         metrics.setTimeBucket(toTimeBucketInHour());
-        metrics.getSummation().copyFrom(getSummation());
-        metrics.getCount().copyFrom(getCount());
+        metrics.summationBuckets.copyFrom(summationBuckets);
+        metrics.countBuckets.copyFrom(countBuckets);
         metrics.getRanks().copyFrom(getRanks());
         metrics.getPercentileValues().copyFrom(getPercentileValues());
         return metrics;
@@ -285,8 +273,8 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
         AvgHistogramPercentileFunction metrics = (AvgHistogramPercentileFunction) createNew();
         metrics.setEntityId(getEntityId());
         metrics.setTimeBucket(toTimeBucketInDay());
-        metrics.getSummation().copyFrom(getSummation());
-        metrics.getCount().copyFrom(getCount());
+        metrics.summationBuckets.copyFrom(summationBuckets);
+        metrics.countBuckets.copyFrom(countBuckets);
         metrics.getRanks().copyFrom(getRanks());
         metrics.getPercentileValues().copyFrom(getPercentileValues());
         return metrics;
@@ -308,10 +296,11 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(1)));
-        this.setRanks(new IntList(remoteData.getDataObjectStrings(2)));
-        this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(3)));
+        final ComplexObjectInput objects = ComplexObjectInput.of(remoteData);
+        this.setSummation(objects.read(new DataTable()));
+        this.setCount(objects.read(new DataTable()));
+        this.setRanks(objects.read(new IntList(0)));
+        this.setPercentileValues(objects.read(new DataTable()));
     }
 
     @Override
@@ -321,10 +310,12 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
-        remoteBuilder.addDataObjectStrings(count.toStorageData());
-        remoteBuilder.addDataObjectStrings(ranks.toStorageData());
-        remoteBuilder.addDataObjectStrings(percentileValues.toStorageData());
+        ComplexObjectOutput.of(remoteBuilder)
+            .write(getSummation())
+            .write(getCount())
+            .write(ranks)
+            .write(percentileValues)
+            .flush();
 
         return remoteBuilder;
     }
@@ -371,22 +362,4 @@ public abstract class AvgHistogramPercentileFunction extends Meter implements Ac
             converter.accept(ENTITY_ID, storageData.getEntityId());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof AvgHistogramPercentileFunction)) {
-            return false;
-        }
-        AvgHistogramPercentileFunction function = (AvgHistogramPercentileFunction) o;
-        return Objects.equals(entityId, function.entityId) &&
-            getTimeBucket() == function.getTimeBucket();
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(entityId, getTimeBucket());
-    }
 }
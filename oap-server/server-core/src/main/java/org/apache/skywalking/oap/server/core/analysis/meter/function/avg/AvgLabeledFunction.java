@@ -27,6 +27,8 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFuncti
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageID;
 import org.apache.skywalking.oap.server.core.storage.annotation.BanyanDB;
@@ -138,8 +140,9 @@ public abstract class AvgLabeledFunction extends Meter implements AcceptableValu
 
     @Override
     public void deserialize(final RemoteData remoteData) {
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
+        final ComplexObjectInput objects = ComplexObjectInput.of(remoteData);
+        this.setCount(objects.read(new DataTable()));
+        this.setSummation(objects.read(new DataTable()));
         setTimeBucket(remoteData.getDataLongs(0));
 
         this.entityId = remoteData.getDataStrings(0);
@@ -149,8 +152,10 @@ public abstract class AvgLabeledFunction extends Meter implements AcceptableValu
     @Override
     public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.addDataObjectStrings(count.toStorageData());
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
+        ComplexObjectOutput.of(remoteBuilder)
+            .write(count)
+            .write(summation)
+            .flush();
         remoteBuilder.addDataLongs(getTimeBucket());
 
         remoteBuilder.addDataStrings(entityId);
@@ -209,22 +214,4 @@ public abstract class AvgLabeledFunction extends Meter implements AcceptableValu
             converter.accept(ENTITY_ID, storageData.getEntityId());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof AvgLabeledFunction)) {
-            return false;
-        }
-        AvgLabeledFunction function = (AvgLabeledFunction) o;
-        return Objects.equals(entityId, function.entityId) &&
-            getTimeBucket() == function.getTimeBucket();
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(entityId, getTimeBucket());
-    }
 }
@@ -37,8 +37,6 @@ import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
 import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 
-import java.util.Objects;
-
 @MeterFunction(functionName = "max")
 @ToString
 public abstract class MaxFunction extends Meter implements AcceptableValue<Long>, LongValueHolder {
@@ -168,22 +166,4 @@ public abstract class MaxFunction extends Meter implements AcceptableValue<Long>
             converter.accept(VALUE, storageData.getValue());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof MaxFunction)) {
-            return false;
-        }
-        final MaxFunction function = (MaxFunction) o;
-        return Objects.equals(getEntityId(), function.getEntityId())
-                && Objects.equals(getTimeBucket(), function.getTimeBucket());
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(getEntityId(), getTimeBucket());
-    }
 }
@@ -30,6 +30,8 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFuncti
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageID;
 import org.apache.skywalking.oap.server.core.storage.annotation.BanyanDB;
@@ -38,8 +40,6 @@ import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
 import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 
-import java.util.Objects;
-
 @MeterFunction(functionName = "maxLabeled")
 @ToString
 public abstract class MaxLabeledFunction extends Meter implements AcceptableValue<DataTable>, LabeledValueHolder {
@@ -114,7 +114,7 @@ public abstract class MaxLabeledFunction extends Meter implements AcceptableValu
 
     @Override
     public void deserialize(final RemoteData remoteData) {
-        setValue(new DataTable(remoteData.getDataObjectStrings(0)));
+        setValue(ComplexObjectInput.of(remoteData).read(new DataTable()));
         setTimeBucket(remoteData.getDataLongs(0));
 
         setEntityId(remoteData.getDataStrings(0));
@@ -124,7 +124,7 @@ public abstract class MaxLabeledFunction extends Meter implements AcceptableValu
     @Override
     public RemoteData.Builder serialize() {
         final RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.addDataObjectStrings(value.toStorageData());
+        ComplexObjectOutput.of(remoteBuilder).write(value).flush();
         remoteBuilder.addDataLongs(getTimeBucket());
 
         remoteBuilder.addDataStrings(entityId);
@@ -167,22 +167,4 @@ public abstract class MaxLabeledFunction extends Meter implements AcceptableValu
             converter.accept(ENTITY_ID, storageData.getEntityId());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof MaxLabeledFunction)) {
-            return false;
-        }
-        MaxLabeledFunction function = (MaxLabeledFunction) o;
-        return Objects.equals(entityId, function.entityId) &&
-                getTimeBucket() == function.getTimeBucket();
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(entityId, getTimeBucket());
-    }
 }
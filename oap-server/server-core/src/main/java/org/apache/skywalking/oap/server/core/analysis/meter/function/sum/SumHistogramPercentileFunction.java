@@ -27,9 +27,11 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.PercentileA
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataLabel;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledBucketTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
-import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageID;
 import org.apache.skywalking.oap.server.core.storage.annotation.BanyanDB;
@@ -38,14 +40,6 @@ import org.apache.skywalking.oap.server.core.storage.annotation.ElasticSearch;
 import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
 import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
-import io.vavr.Tuple;
-import io.vavr.Tuple2;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collector;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.mapping;
 import static org.apache.skywalking.oap.server.core.analysis.metrics.DataLabel.PERCENTILE_LABEL_NAME;
 
 import lombok.Getter;
@@ -75,8 +69,6 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
     @ElasticSearch.Column(legacyName = "value")
     @BanyanDB.MeasureField
     private DataTable percentileValues = new DataTable(10);
-    @Getter
-    @Setter
     @Column(name = SUMMATION, storageOnly = true)
     @ElasticSearch.Column(legacyName = "summation")
     @BanyanDB.MeasureField
@@ -90,15 +82,30 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
     @BanyanDB.MeasureField
     private IntList ranks = new IntList(10);
 
+    /**
+     * The in-memory form of the {@link #summation}, keyed by the labels, which is only synced at {@link
+     * #getSummation()}.
+     */
+    private final LabeledBucketTable summationBuckets = new LabeledBucketTable(30);
+
     private boolean isCalculated = false;
 
+    public DataTable getSummation() {
+        return summationBuckets.syncTo(summation);
+    }
+
+    public void setSummation(DataTable summation) {
+        this.summation = summation;
+        summationBuckets.loadFrom(summation);
+    }
+
     @Override
     public void accept(final MeterEntity entity, final PercentileArgument value) {
-        if (summation.size() > 0) {
-            if (!value.getBucketedValues().isCompatible(summation)) {
-                throw new IllegalArgumentException(
-                    "Incompatible BucketedValues [" + value + "] for current PercentileFunction[" + summation + "]");
-            }
+        final String labels = CollectionUtils.isNotEmpty(value.getBucketedValues().getLabels())
+            ? value.getBucketedValues().getLabels().toString() : "";
+        if (!value.getBucketedValues().isCompatible(summationBuckets.get(labels))) {
+            throw new IllegalArgumentException(
+                "Incompatible BucketedValues [" + value + "] for current PercentileFunction[" + getSummation() + "]");
         }
 
         for (final int rank : value.getRanks()) {
@@ -128,16 +135,9 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
 
         this.entityId = entity.id();
 
-        String template = "%s";
-        if (CollectionUtils.isNotEmpty(value.getBucketedValues().getLabels())) {
-            template  = value.getBucketedValues().getLabels() + ":%s";
-        }
         final long[] values = value.getBucketedValues().getValues();
         for (int i = 0; i < values.length; i++) {
-            long bucket = value.getBucketedValues().getBuckets()[i];
-            String bucketName = bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
-            String key = String.format(template, bucketName);
-            summation.valueAccumulation(key, values[i]);
+            summationBuckets.accumulate(labels, value.getBucketedValues().getBuckets()[i], values[i]);
         }
 
         this.isCalculated = false;
@@ -162,7 +162,7 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
             }
         }
 
-        this.summation.append(percentile.summation);
+        this.summationBuckets.append(percentile.summationBuckets);
 
         this.isCalculated = false;
         return true;
@@ -171,67 +171,35 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
     @Override
     public void calculate() {
         if (!isCalculated) {
-            summation.keys().stream()
-                   .map(key -> {
-                       DataLabel dataLabel = new DataLabel();
-                       if (key.contains(":")) {
-                           int index = key.lastIndexOf(":");
-                           dataLabel.put(key.substring(0, index));
-                           return Tuple.of(dataLabel, key);
-                       } else {
-                           return Tuple.of(dataLabel, key);
-                       }
-                   })
-                   .collect(groupingBy(Tuple2::_1, mapping(Tuple2::_2, Collector.of(
-                       DataTable::new,
-                       (dt, key) -> {
-                           String v;
-                           if (key.contains(":")) {
-                               int index = key.lastIndexOf(":");
-                               v = key.substring(index + 1);
-                           } else {
-                               v = key;
-                           }
-                           dt.put(v, summation.get(key));
-                       },
-                       DataTable::append
-                   ))))
-                   .forEach((labels, subDataset) -> {
-                       long total;
-                       total = subDataset.sumOfValues();
-
-                    int[] roofs = new int[ranks.size()];
-                    for (int i = 0; i < ranks.size(); i++) {
-                        roofs[i] = Math.round(total * ranks.get(i) * 1.0f / 100);
-                    }
+            summationBuckets.forEach((labels, buckets) -> {
+                final DataLabel dataLabel = new DataLabel();
+                if (!labels.isEmpty()) {
+                    dataLabel.put(labels);
+                }
+                final long total = buckets.sumOfValues();
+
+                int[] roofs = new int[ranks.size()];
+                for (int i = 0; i < ranks.size(); i++) {
+                    roofs[i] = Math.round(total * ranks.get(i) * 1.0f / 100);
+                }
 
-                    int count = 0;
-                    final List<String> sortedKeys = subDataset.sortedKeys(Comparator.comparingLong(Long::parseLong));
-
-                    int loopIndex = 0;
-
-                    for (String key : sortedKeys) {
-                        final Long value = subDataset.get(key);
-
-                        count += value;
-                        for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
-                            int roof = roofs[rankIdx];
-
-                            if (count >= roof) {
-                                if (labels.isEmpty()) {
-                                    labels.put(PERCENTILE_LABEL_NAME, String.valueOf(ranks.get(rankIdx)));
-                                    percentileValues.put(labels, Long.parseLong(key));
-                                } else {
-                                    labels.put(PERCENTILE_LABEL_NAME, String.valueOf(ranks.get(rankIdx)));
-                                    percentileValues.put(labels, Long.parseLong(key));
-                                }
-                                loopIndex++;
-                            } else {
-                                break;
-                            }
+                long count = 0;
+                int loopIndex = 0;
+                for (final long bucket : buckets.sortedKeys()) {
+                    count += buckets.get(bucket);
+                    for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
+                        int roof = roofs[rankIdx];
+
+                        if (count >= roof) {
+                            dataLabel.put(PERCENTILE_LABEL_NAME, String.valueOf(ranks.get(rankIdx)));
+                            percentileValues.put(dataLabel, bucket);
+                            loopIndex++;
+                        } else {
+                            break;
                         }
                     }
-                });
+                }
+            });
         }
     }
 
@@ -240,7 +208,7 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
         SumHistogramPercentileFunction metrics = (SumHistogramPercentileFunction) createNew();
         metrics.setEntityId(getEntityId());
         metrics.setTimeBucket(toTimeBucketInHour());
-        metrics.getSummation().copyFrom(getSummation());
+        metrics.summationBuckets.copyFrom(summationBuckets);
         metrics.getRanks().copyFrom(getRanks());
         metrics.getPercentileValues().copyFrom(getPercentileValues());
         return metrics;
@@ -251,7 +219,7 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
         SumHistogramPercentileFunction metrics = (SumHistogramPercentileFunction) createNew();
         metrics.setEntityId(getEntityId());
         metrics.setTimeBucket(toTimeBucketInDay());
-        metrics.getSummation().copyFrom(getSummation());
+        metrics.summationBuckets.copyFrom(summationBuckets);
         metrics.getRanks().copyFrom(getRanks());
         metrics.getPercentileValues().copyFrom(getPercentileValues());
         return metrics;
@@ -273,9 +241,10 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setRanks(new IntList(remoteData.getDataObjectStrings(1)));
-        this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(2)));
+        final ComplexObjectInput objects = ComplexObjectInput.of(remoteData);
+        this.setSummation(objects.read(new DataTable()));
+        this.setRanks(objects.read(new IntList(0)));
+        this.setPercentileValues(objects.read(new DataTable()));
     }
 
     @Override
@@ -285,9 +254,11 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
-        remoteBuilder.addDataObjectStrings(ranks.toStorageData());
-        remoteBuilder.addDataObjectStrings(percentileValues.toStorageData());
+        ComplexObjectOutput.of(remoteBuilder)
+            .write(getSummation())
+            .write(ranks)
+            .write(percentileValues)
+            .flush();
 
         return remoteBuilder;
     }
@@ -330,22 +301,4 @@ public abstract class SumHistogramPercentileFunction extends Meter implements Ac
             converter.accept(ENTITY_ID, storageData.getEntityId());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof SumHistogramPercentileFunction)) {
-            return false;
-        }
-        SumHistogramPercentileFunction function = (SumHistogramPercentileFunction) o;
-        return Objects.equals(entityId, function.entityId) &&
-            getTimeBucket() == function.getTimeBucket();
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(entityId, getTimeBucket());
-    }
 }
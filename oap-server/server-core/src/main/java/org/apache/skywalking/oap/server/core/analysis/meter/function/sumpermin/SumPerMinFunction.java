@@ -18,7 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.analysis.meter.function.sumpermin;
 
-import java.util.Objects;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -170,22 +169,4 @@ public abstract class SumPerMinFunction extends Meter implements AcceptableValue
             converter.accept(ENTITY_ID, storageData.getEntityId());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof SumPerMinFunction)) {
-            return false;
-        }
-        final SumPerMinFunction function = (SumPerMinFunction) o;
-        return Objects.equals(getEntityId(), function.getEntityId())
-            && Objects.equals(getTimeBucket(), function.getTimeBucket());
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(getEntityId(), getTimeBucket());
-    }
 }
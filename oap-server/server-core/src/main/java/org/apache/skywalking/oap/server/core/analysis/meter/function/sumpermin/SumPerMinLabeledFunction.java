@@ -30,6 +30,8 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFuncti
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageID;
 import org.apache.skywalking.oap.server.core.storage.annotation.BanyanDB;
@@ -126,7 +128,7 @@ public abstract class SumPerMinLabeledFunction extends Meter implements Acceptab
 
     @Override
     public void deserialize(RemoteData remoteData) {
-        setTotal(new DataTable(remoteData.getDataObjectStrings(0)));
+        setTotal(ComplexObjectInput.of(remoteData).read(new DataTable()));
         setTimeBucket(remoteData.getDataLongs(0));
 
         setEntityId(remoteData.getDataStrings(0));
@@ -137,7 +139,7 @@ public abstract class SumPerMinLabeledFunction extends Meter implements Acceptab
     public RemoteData.Builder serialize() {
         final RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
 
-        remoteBuilder.addDataObjectStrings(total.toStorageData());
+        ComplexObjectOutput.of(remoteBuilder).write(total).flush();
         remoteBuilder.addDataLongs(getTimeBucket());
 
         remoteBuilder.addDataStrings(getEntityId());
@@ -177,22 +179,4 @@ public abstract class SumPerMinLabeledFunction extends Meter implements Acceptab
             converter.accept(ENTITY_ID, storageData.getEntityId());
         }
     }
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof SumPerMinLabeledFunction)) {
-            return false;
-        }
-        SumPerMinLabeledFunction function = (SumPerMinLabeledFunction) o;
-        return Objects.equals(entityId, function.entityId) &&
-            getTimeBucket() == function.getTimeBucket();
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(entityId, getTimeBucket());
-    }
 }
@@ -101,4 +101,13 @@ public abstract class ApdexMetrics extends Metrics implements IntValueHolder {
     public int getValue() {
         return value;
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        totalNum = 0;
+        sNum = 0;
+        tNum = 0;
+        value = 0;
+    }
 }
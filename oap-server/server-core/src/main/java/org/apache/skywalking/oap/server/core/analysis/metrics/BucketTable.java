@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Arrays;
+
+/**
+ * BucketTable is an open addressing hash table of long keys and long values, for the buckets of the histogram and
+ * percentile metrics, such as the latency divided by the precision. Accumulating a value doesn't allocate, and the keys
+ * are sorted as long rather than parsed from strings.
+ *
+ * It is only the in-memory form of the metrics, {@link #writeTo(DataTable)} and {@link #readFrom(DataTable)} convert it
+ * from and to the {@link DataTable} in the storage and the remote data.
+ *
+ * @since 10.1.0
+ */
+public class BucketTable {
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    public BucketTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), 4) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Add the value to the existing value of the key, or put it if the key doesn't exist.
+     */
+    public void accumulate(long key, long value) {
+        final int slot = slot(key);
+        if (used[slot]) {
+            values[slot] += value;
+            return;
+        }
+        insert(slot, key, value);
+    }
+
+    public void put(long key, long value) {
+        final int slot = slot(key);
+        if (used[slot]) {
+            values[slot] = value;
+            return;
+        }
+        insert(slot, key, value);
+    }
+
+    private void insert(int slot, long key, long value) {
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+        final boolean[] oldUsed = used;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                final int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                used[slot] = true;
+            }
+        }
+    }
+
+    /**
+     * @return the value of the key, or 0 if the key doesn't exist.
+     */
+    public long get(long key) {
+        final int slot = slot(key);
+        return used[slot] ? values[slot] : 0L;
+    }
+
+    public boolean hasKey(long key) {
+        return used[slot(key)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long sumOfValues() {
+        long sum = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the keys in the ascending order.
+     */
+    public long[] sortedKeys() {
+        final long[] sorted = new long[size];
+        int index = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                sorted[index++] = keys[i];
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Accumulate all values of the given table into this one.
+     */
+    public void append(BucketTable table) {
+        for (int i = 0; i < table.keys.length; i++) {
+            if (table.used[i]) {
+                accumulate(table.keys[i], table.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Remove all keys and values, the capacity is kept.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(used, false);
+            size = 0;
+        }
+    }
+
+    /**
+     * Put all keys and values into the given table, the keys are in the string form of the long.
+     */
+    public void writeTo(DataTable table) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                table.put(String.valueOf(keys[i]), values[i]);
+            }
+        }
+    }
+
+    /**
+     * Put all keys and values of the given table into this one, the keys of the table should be longs.
+     */
+    public void readFrom(DataTable table) {
+        for (final String key : table.keys()) {
+            put(Long.parseLong(key), table.get(key));
+        }
+    }
+}
@@ -59,5 +59,11 @@ public abstract class CPMMetrics extends Metrics implements LongValueHolder {
     public void calculate() {
         this.value = total / getDurationInMinute();
     }
-}
 
+    @Override
+    protected void reset() {
+        super.reset();
+        value = 0;
+        total = 0;
+    }
+}
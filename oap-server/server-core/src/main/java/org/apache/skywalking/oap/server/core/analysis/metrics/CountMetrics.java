@@ -52,4 +52,10 @@ public abstract class CountMetrics extends Metrics implements LongValueHolder {
     @Override
     public void calculate() {
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        value = 0;
+    }
 }
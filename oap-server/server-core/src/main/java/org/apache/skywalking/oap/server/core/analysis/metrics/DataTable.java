@@ -28,6 +28,8 @@ import java.util.stream.Collectors;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
 import org.apache.skywalking.oap.server.library.util.StringUtil;
 
@@ -120,6 +122,13 @@ public class DataTable implements StorageDataComplexObject<DataTable> {
         return data.size();
     }
 
+    /**
+     * Remove all keys and values, the capacity is kept.
+     */
+    public void clear() {
+        data.clear();
+    }
+
     @Override
     public String toStorageData() {
         StringBuilder builder = new StringBuilder();
@@ -149,6 +158,24 @@ public class DataTable implements StorageDataComplexObject<DataTable> {
         }
     }
 
+    @Override
+    public void toBinary(final ComplexObjectOutput output) {
+        output.writeSize(data.size());
+        data.forEach((key, value) -> {
+            output.writeKey(key);
+            output.writeLong(value);
+        });
+    }
+
+    @Override
+    public void fromBinary(final ComplexObjectInput input) {
+        final int size = input.readSize();
+        for (int i = 0; i < size; i++) {
+            final String key = input.readKey();
+            data.put(key, input.readLong());
+        }
+    }
+
     @Override
     public void copyFrom(final DataTable source) {
         this.append(source);
@@ -70,4 +70,12 @@ public abstract class DoubleAvgMetrics extends Metrics implements DoubleValueHol
     public final void calculate() {
         this.value = this.summation / this.count;
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        summation = 0;
+        count = 0;
+        value = 0;
+    }
 }
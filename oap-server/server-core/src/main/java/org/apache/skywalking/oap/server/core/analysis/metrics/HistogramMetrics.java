@@ -18,8 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
-import lombok.Getter;
-import lombok.Setter;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Arg;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Entrance;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.MetricsFunction;
@@ -40,11 +38,30 @@ public abstract class HistogramMetrics extends Metrics {
 
     public static final String DATASET = "dataset";
 
-    @Getter
-    @Setter
     @Column(name = DATASET, dataType = Column.ValueDataType.HISTOGRAM, storageOnly = true, defaultValue = 0)
     @BanyanDB.MeasureField
     private DataTable dataset = new DataTable(30);
+    /**
+     * The in-memory form of the {@link #dataset}, which is only synced at {@link #getDataset()}.
+     */
+    private final BucketTable buckets = new BucketTable(30);
+    private boolean isDatasetSynced = true;
+
+    public DataTable getDataset() {
+        if (!isDatasetSynced) {
+            dataset.clear();
+            buckets.writeTo(dataset);
+            isDatasetSynced = true;
+        }
+        return dataset;
+    }
+
+    public void setDataset(DataTable dataset) {
+        this.dataset = dataset;
+        buckets.clear();
+        buckets.readFrom(dataset);
+        isDatasetSynced = true;
+    }
 
     /**
      * Data will be grouped in
@@ -60,10 +77,9 @@ public abstract class HistogramMetrics extends Metrics {
      */
     @Entrance
     public final void combine(@SourceFrom int value, @Arg int step, @Arg int maxNumOfSteps) {
-        if (!dataset.hasData()) {
+        if (buckets.isEmpty()) {
             for (int i = 0; i <= maxNumOfSteps; i++) {
-                String key = String.valueOf(i * step);
-                dataset.put(key, 0L);
+                buckets.put(i * step, 0L);
             }
         }
 
@@ -71,15 +87,15 @@ public abstract class HistogramMetrics extends Metrics {
         if (index > maxNumOfSteps) {
             index = maxNumOfSteps;
         }
-        String idx = String.valueOf(index * step);
-
-        dataset.valueAccumulation(idx, 1L);
+        buckets.accumulate(index * step, 1L);
+        isDatasetSynced = false;
     }
 
     @Override
     public boolean combine(Metrics metrics) {
         HistogramMetrics histogramMetrics = (HistogramMetrics) metrics;
-        this.dataset.append(histogramMetrics.dataset);
+        this.buckets.append(histogramMetrics.buckets);
+        this.isDatasetSynced = false;
         return true;
     }
 
@@ -89,4 +105,12 @@ public abstract class HistogramMetrics extends Metrics {
     @Override
     public final void calculate() {
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        dataset.clear();
+        buckets.clear();
+        isDatasetSynced = true;
+    }
 }
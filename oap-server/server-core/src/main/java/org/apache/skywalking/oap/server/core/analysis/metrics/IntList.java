@@ -23,6 +23,8 @@ import java.util.List;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
 import org.apache.skywalking.oap.server.library.util.StringUtil;
 
@@ -77,6 +79,21 @@ public class IntList implements StorageDataComplexObject<IntList> {
         }
     }
 
+    @Override
+    public void toBinary(final ComplexObjectOutput output) {
+        output.writeSize(data.size());
+        data.forEach(output::writeInt);
+    }
+
+    @Override
+    public void fromBinary(final ComplexObjectInput input) {
+        final int size = input.readSize();
+        this.data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            this.data.add(input.readInt());
+        }
+    }
+
     @Override
     public void copyFrom(final IntList source) {
         this.data.addAll(source.data);
@@ -87,4 +87,12 @@ public abstract class LabelCountMetrics extends Metrics implements LabeledValueH
     public DataTable getValue() {
         return this.value;
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        dataset.clear();
+        value.clear();
+        isCalculated = false;
+    }
 }
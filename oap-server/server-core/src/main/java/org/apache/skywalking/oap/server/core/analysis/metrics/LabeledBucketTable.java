@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import org.apache.skywalking.oap.server.core.query.type.Bucket;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * LabeledBucketTable keeps a {@link BucketTable} per label string, for the histogram meter functions. In the {@link
+ * DataTable} of the storage and the remote data, the key is the bucket, or `{labels}:{bucket}` when the labels are not
+ * empty, and the {@link Long#MIN_VALUE} bucket is {@link Bucket#INFINITE_NEGATIVE}.
+ * <p>
+ * {@link #syncTo(DataTable)} only rewrites the given data table when the buckets have changed since the last sync or
+ * {@link #loadFrom(DataTable)}.
+ *
+ * @since 10.1.0
+ */
+public class LabeledBucketTable {
+    private static final String LABELS_SEPARATOR = ":";
+
+    private final int expectedSize;
+    private final Map<String, BucketTable> tables = new HashMap<>(2);
+    private boolean isModified;
+
+    public LabeledBucketTable(int expectedSize) {
+        this.expectedSize = expectedSize;
+    }
+
+    /**
+     * @param labels the string form of the labels, or empty if no labels.
+     */
+    public void accumulate(String labels, long bucket, long value) {
+        tables.computeIfAbsent(labels, k -> new BucketTable(expectedSize)).accumulate(bucket, value);
+        isModified = true;
+    }
+
+    public void put(String labels, long bucket, long value) {
+        tables.computeIfAbsent(labels, k -> new BucketTable(expectedSize)).put(bucket, value);
+        isModified = true;
+    }
+
+    /**
+     * @return the buckets of the labels, or null if there is no bucket of the labels.
+     */
+    public BucketTable get(String labels) {
+        final BucketTable table = tables.get(labels);
+        return table == null || table.isEmpty() ? null : table;
+    }
+
+    public boolean isEmpty() {
+        for (final BucketTable table : tables.values()) {
+            if (!table.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Iterate the non-empty buckets of every labels.
+     */
+    public void forEach(BiConsumer<String, BucketTable> action) {
+        tables.forEach((labels, table) -> {
+            if (!table.isEmpty()) {
+                action.accept(labels, table);
+            }
+        });
+    }
+
+    /**
+     * @return true if both have the same labels and the same buckets of each labels.
+     */
+    public boolean keysEqual(LabeledBucketTable that) {
+        return sortedKeys().equals(that.sortedKeys());
+    }
+
+    private Map<String, List<Long>> sortedKeys() {
+        final Map<String, List<Long>> keys = new HashMap<>();
+        forEach((labels, table) -> keys.put(labels, Arrays.stream(table.sortedKeys()).boxed().collect(toList())));
+        return keys;
+    }
+
+    /**
+     * Accumulate all buckets of the given table into this one.
+     */
+    public void append(LabeledBucketTable that) {
+        that.forEach((labels, table) -> tables.computeIfAbsent(labels, k -> new BucketTable(expectedSize))
+                                               .append(table));
+        isModified = true;
+    }
+
+    public void copyFrom(LabeledBucketTable that) {
+        clear();
+        append(that);
+    }
+
+    /**
+     * Remove all buckets, the capacity is kept.
+     */
+    public void clear() {
+        tables.values().forEach(BucketTable::clear);
+        isModified = true;
+    }
+
+    /**
+     * Rewrite the given data table with all buckets if they have changed since the last sync.
+     *
+     * @return the given data table.
+     */
+    public DataTable syncTo(DataTable dataTable) {
+        if (isModified) {
+            dataTable.clear();
+            forEach((labels, table) -> {
+                for (final long bucket : table.sortedKeys()) {
+                    dataTable.put(key(labels, bucket), table.get(bucket));
+                }
+            });
+            isModified = false;
+        }
+        return dataTable;
+    }
+
+    /**
+     * Replace all buckets with the ones in the given data table.
+     */
+    public void loadFrom(DataTable dataTable) {
+        tables.values().forEach(BucketTable::clear);
+        for (final String key : dataTable.keys()) {
+            final int index = key.lastIndexOf(LABELS_SEPARATOR);
+            final String labels = index < 0 ? "" : key.substring(0, index);
+            final String bucket = index < 0 ? key : key.substring(index + 1);
+            put(labels, Bucket.INFINITE_NEGATIVE.equals(bucket) ? Long.MIN_VALUE : Long.parseLong(bucket),
+                dataTable.get(key)
+            );
+        }
+        isModified = false;
+    }
+
+    private static String key(String labels, long bucket) {
+        final String bucketName = bucket == Long.MIN_VALUE ? Bucket.INFINITE_NEGATIVE : String.valueOf(bucket);
+        return labels.isEmpty() ? bucketName : labels + LABELS_SEPARATOR + bucketName;
+    }
+}
@@ -67,4 +67,12 @@ public abstract class LongAvgMetrics extends Metrics implements LongValueHolder
     public final void calculate() {
         this.value = this.summation / this.count;
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        summation = 0;
+        count = 0;
+        value = 0;
+    }
 }
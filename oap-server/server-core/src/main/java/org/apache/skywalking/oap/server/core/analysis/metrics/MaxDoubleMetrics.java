@@ -54,4 +54,10 @@ public abstract class MaxDoubleMetrics extends Metrics implements DoubleValueHol
     @Override
     public void calculate() {
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        value = 0;
+    }
 }
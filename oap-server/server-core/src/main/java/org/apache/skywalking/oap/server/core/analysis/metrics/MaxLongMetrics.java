@@ -54,4 +54,10 @@ public abstract class MaxLongMetrics extends Metrics implements LongValueHolder
     @Override
     public void calculate() {
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        value = 0;
+    }
 }
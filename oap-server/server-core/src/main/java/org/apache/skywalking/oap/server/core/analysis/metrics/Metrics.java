@@ -145,6 +145,17 @@ public abstract class Metrics extends StreamData implements StorageData {
         return TimeBucket.isDayBucket(timeBucket);
     }
 
+    /**
+     * Reset this metrics to the initial status, so the instance could be reused through {@link MetricsPool}. The
+     * function metrics must override this to reset their own statistic fields, and call the super method.
+     */
+    protected void reset() {
+        timeBucket = 0L;
+        lastUpdateTimestamp = 0L;
+        id = null;
+        key = null;
+    }
+
     private volatile StorageID id;
 
     @Override
@@ -162,4 +173,25 @@ public abstract class Metrics extends StreamData implements StorageData {
      * {@link BanyanDB.SeriesID}
      */
     protected abstract StorageID id0();
+
+    private volatile MetricsKey key;
+
+    /**
+     * @return {@link MetricsKey} of this metrics to represent the identity in the in-memory aggregation, such as
+     * {@link org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData}.
+     */
+    public MetricsKey key() {
+        if (key == null) {
+            key = key0();
+        }
+        return key;
+    }
+
+    /**
+     * The metrics identified by the time bucket and one entity ID should override this to build the compact
+     * {@link MetricsKey#MetricsKey(long, String)}, the default one wraps the {@link StorageID}.
+     */
+    protected MetricsKey key0() {
+        return new MetricsKey(id());
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Objects;
+import org.apache.skywalking.oap.server.core.storage.StorageID;
+
+/**
+ * MetricsKey is the in-memory identity of a {@link Metrics} in the aggregation buffers and the session caches. Most
+ * metrics are identified by the time bucket and one entity ID, which are kept here as a primitive long and the string
+ * itself with a precomputed hash, so the key costs one small object and no {@link StorageID} fragments. Metrics with
+ * other ID layouts fall back to wrap their {@link StorageID}.
+ *
+ * The key is only meaningful among the metrics of the same class. {@link StorageID#build()} is still the identity in
+ * the storage.
+ *
+ * @since 10.1.0
+ */
+public final class MetricsKey {
+    private final long timeBucket;
+    private final String entityId;
+    private final StorageID storageID;
+    private final int hash;
+
+    public MetricsKey(final long timeBucket, final String entityId) {
+        this.timeBucket = timeBucket;
+        this.entityId = entityId;
+        this.storageID = null;
+        this.hash = mix(31 * Objects.hashCode(entityId) + Long.hashCode(timeBucket));
+    }
+
+    public MetricsKey(final StorageID storageID) {
+        this.timeBucket = 0L;
+        this.entityId = null;
+        this.storageID = storageID;
+        this.hash = mix(storageID.hashCode());
+    }
+
+    /**
+     * Spread the higher bits, the time buckets of the same entity differ in the lower digits only.
+     */
+    private static int mix(final int h) {
+        final int x = h * 0x9E3779B9;
+        return x ^ (x >>> 16);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MetricsKey)) {
+            return false;
+        }
+        final MetricsKey other = (MetricsKey) obj;
+        return hash == other.hash
+            && timeBucket == other.timeBucket
+            && Objects.equals(entityId, other.entityId)
+            && Objects.equals(storageID, other.storageID);
+    }
+
+    @Override
+    public String toString() {
+        return storageID != null ? storageID.build() : timeBucket + "_" + entityId;
+    }
+}
@@ -54,4 +54,10 @@ public abstract class MinLongMetrics extends Metrics implements LongValueHolder
     @Override
     public void calculate() {
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        value = Long.MAX_VALUE;
+    }
 }
@@ -71,4 +71,12 @@ public abstract class PercentMetrics extends Metrics implements IntValueHolder {
     public int getValue() {
         return percentage;
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        total = 0;
+        percentage = 0;
+        match = 0;
+    }
 }
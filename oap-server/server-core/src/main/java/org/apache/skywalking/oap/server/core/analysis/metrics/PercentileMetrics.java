@@ -26,7 +26,6 @@ import org.apache.skywalking.oap.server.core.storage.annotation.BanyanDB;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
 import org.apache.skywalking.oap.server.core.storage.annotation.ElasticSearch;
 import java.util.Comparator;
-import java.util.List;
 import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.Setter;
@@ -64,17 +63,38 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
     @Column(name = PRECISION, storageOnly = true)
     @BanyanDB.MeasureField
     private int precision;
-    @Getter
-    @Setter
     @Column(name = DATASET, storageOnly = true)
     @BanyanDB.MeasureField
     private DataTable dataset;
+    /**
+     * The in-memory form of the {@link #dataset}, which is only synced at {@link #getDataset()}.
+     */
+    private final BucketTable buckets;
+    private boolean isDatasetSynced;
 
     private boolean isCalculated;
 
     public PercentileMetrics() {
         percentileValues = new DataTable(RANKS.length);
         dataset = new DataTable(30);
+        buckets = new BucketTable(30);
+        isDatasetSynced = true;
+    }
+
+    public DataTable getDataset() {
+        if (!isDatasetSynced) {
+            dataset.clear();
+            buckets.writeTo(dataset);
+            isDatasetSynced = true;
+        }
+        return dataset;
+    }
+
+    public void setDataset(DataTable dataset) {
+        this.dataset = dataset;
+        buckets.clear();
+        buckets.readFrom(dataset);
+        isDatasetSynced = true;
     }
 
     @Entrance
@@ -82,8 +102,8 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
         this.isCalculated = false;
         this.precision = precision;
 
-        String index = String.valueOf(value / precision);
-        dataset.valueAccumulation(index, 1L);
+        buckets.accumulate(value / precision, 1L);
+        isDatasetSynced = false;
     }
 
     @Override
@@ -91,14 +111,15 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
         this.isCalculated = false;
 
         PercentileMetrics percentileMetrics = (PercentileMetrics) metrics;
-        this.dataset.append(percentileMetrics.dataset);
+        this.buckets.append(percentileMetrics.buckets);
+        this.isDatasetSynced = false;
         return true;
     }
 
     @Override
     public final void calculate() {
         if (!isCalculated) {
-            long total = dataset.sumOfValues();
+            long total = buckets.sumOfValues();
 
             int[] roofs = new int[RANKS.length];
             for (int i = 0; i < RANKS.length; i++) {
@@ -106,18 +127,16 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
             }
 
             long count = 0;
-            final List<String> sortedKeys = dataset.sortedKeys(Comparator.comparingInt(Integer::parseInt));
+            final long[] sortedKeys = buckets.sortedKeys();
 
             int loopIndex = 0;
-            for (String key : sortedKeys) {
-                final Long value = dataset.get(key);
-
-                count += value;
+            for (long key : sortedKeys) {
+                count += buckets.get(key);
                 for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
                     int roof = roofs[rankIdx];
 
                     if (count >= roof) {
-                        percentileValues.put(String.valueOf(rankIdx), Long.parseLong(key) * precision);
+                        percentileValues.put(String.valueOf(rankIdx), key * precision);
                         loopIndex++;
                     } else {
                         break;
@@ -134,4 +153,15 @@ public abstract class PercentileMetrics extends Metrics implements MultiIntValue
                                .flatMapToInt(l -> IntStream.of(l.intValue()))
                                .toArray();
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        percentileValues.clear();
+        precision = 0;
+        dataset.clear();
+        buckets.clear();
+        isDatasetSynced = true;
+        isCalculated = false;
+    }
 }
@@ -18,8 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.analysis.metrics;
 
-import java.util.Comparator;
-import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.Arg;
@@ -53,6 +51,16 @@ public abstract class PercentileMetrics2 extends Metrics implements LabeledValue
         99
     };
 
+    private static final String[] RANK_LABELS = new String[RANKS.length];
+
+    static {
+        for (int i = 0; i < RANKS.length; i++) {
+            DataLabel label = new DataLabel();
+            label.put(PERCENTILE_LABEL_NAME, String.valueOf(RANKS[i]));
+            RANK_LABELS[i] = label.toString();
+        }
+    }
+
     @Getter
     @Setter
     @Column(name = VALUE, dataType = Column.ValueDataType.LABELED_VALUE, storageOnly = true)
@@ -64,17 +72,38 @@ public abstract class PercentileMetrics2 extends Metrics implements LabeledValue
     @Column(name = PRECISION, storageOnly = true)
     @BanyanDB.MeasureField
     private int precision;
-    @Getter
-    @Setter
     @Column(name = DATASET, storageOnly = true)
     @BanyanDB.MeasureField
     private DataTable dataset;
+    /**
+     * The in-memory form of the {@link #dataset}, which is only synced at {@link #getDataset()}.
+     */
+    private final BucketTable buckets;
+    private boolean isDatasetSynced;
 
     private boolean isCalculated;
 
     public PercentileMetrics2() {
         percentileValues = new DataTable(RANKS.length);
         dataset = new DataTable(30);
+        buckets = new BucketTable(30);
+        isDatasetSynced = true;
+    }
+
+    public DataTable getDataset() {
+        if (!isDatasetSynced) {
+            dataset.clear();
+            buckets.writeTo(dataset);
+            isDatasetSynced = true;
+        }
+        return dataset;
+    }
+
+    public void setDataset(DataTable dataset) {
+        this.dataset = dataset;
+        buckets.clear();
+        buckets.readFrom(dataset);
+        isDatasetSynced = true;
     }
 
     @Entrance
@@ -82,8 +111,8 @@ public abstract class PercentileMetrics2 extends Metrics implements LabeledValue
         this.isCalculated = false;
         this.precision = precision;
 
-        String index = String.valueOf(value / precision);
-        dataset.valueAccumulation(index, 1L);
+        buckets.accumulate(value / precision, 1L);
+        isDatasetSynced = false;
     }
 
     @Override
@@ -91,14 +120,15 @@ public abstract class PercentileMetrics2 extends Metrics implements LabeledValue
         this.isCalculated = false;
 
         PercentileMetrics2 percentileMetrics = (PercentileMetrics2) metrics;
-        this.dataset.append(percentileMetrics.dataset);
+        this.buckets.append(percentileMetrics.buckets);
+        this.isDatasetSynced = false;
         return true;
     }
 
     @Override
     public final void calculate() {
         if (!isCalculated) {
-            long total = dataset.sumOfValues();
+            long total = buckets.sumOfValues();
 
             int[] roofs = new int[RANKS.length];
             for (int i = 0; i < RANKS.length; i++) {
@@ -106,20 +136,16 @@ public abstract class PercentileMetrics2 extends Metrics implements LabeledValue
             }
 
             long count = 0;
-            final List<String> sortedKeys = dataset.sortedKeys(Comparator.comparingInt(Integer::parseInt));
+            final long[] sortedKeys = buckets.sortedKeys();
 
             int loopIndex = 0;
-            for (String key : sortedKeys) {
-                final Long value = dataset.get(key);
-
-                count += value;
+            for (long key : sortedKeys) {
+                count += buckets.get(key);
                 for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
                     int roof = roofs[rankIdx];
 
                     if (count >= roof) {
-                        DataLabel label = new DataLabel();
-                        label.put(PERCENTILE_LABEL_NAME, String.valueOf(RANKS[rankIdx]));
-                        percentileValues.put(label.toString(), Long.parseLong(key) * precision);
+                        percentileValues.put(RANK_LABELS[rankIdx], key * precision);
                         loopIndex++;
                     } else {
                         break;
@@ -133,4 +159,15 @@ public abstract class PercentileMetrics2 extends Metrics implements LabeledValue
     public DataTable getValue() {
         return percentileValues;
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        percentileValues.clear();
+        precision = 0;
+        dataset.clear();
+        buckets.clear();
+        isDatasetSynced = true;
+        isCalculated = false;
+    }
 }
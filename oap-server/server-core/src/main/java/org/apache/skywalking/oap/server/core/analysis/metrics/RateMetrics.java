@@ -76,4 +76,12 @@ public abstract class RateMetrics extends Metrics implements IntValueHolder {
     public int getValue() {
         return percentage;
     }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        denominator = 0;
+        percentage = 0;
+        numerator = 0;
+    }
 }
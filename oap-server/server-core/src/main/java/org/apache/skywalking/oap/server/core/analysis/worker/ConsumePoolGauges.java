@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.library.datacarrier.consumer.BulkConsumePoolListener;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * Export the thread utilization and the queue depth of the metrics aggregation consume pools as gauges.
+ */
+@RequiredArgsConstructor
+class ConsumePoolGauges implements BulkConsumePoolListener {
+    private final String pool;
+    private final MetricsCreator metricsCreator;
+    private final Map<String, GaugeMetrics> utilization = new ConcurrentHashMap<>();
+    private final Map<String, GaugeMetrics> depth = new ConcurrentHashMap<>();
+
+    @Override
+    public void onThreadUtilization(final String thread, final double value) {
+        utilization.computeIfAbsent(thread, key -> metricsCreator.createGauge(
+            "metrics_aggregation_pool_thread_utilization",
+            "The ratio of time spent in consuming of the aggregation consumer thread",
+            new MetricsTag.Keys("pool", "thread"), new MetricsTag.Values(pool, thread)
+        )).setValue(value);
+    }
+
+    @Override
+    public void onQueueDepth(final String carrier, final long value) {
+        depth.computeIfAbsent(carrier, key -> metricsCreator.createGauge(
+            "metrics_aggregation_pool_queue_depth",
+            "The number of metrics waiting in the queue of the aggregation worker",
+            new MetricsTag.Keys("pool", "carrier"), new MetricsTag.Values(pool, carrier)
+        )).setValue(value);
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferType;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.BulkConsumePool;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.ConsumerPoolFactory;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
@@ -40,25 +41,29 @@ import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
  * it merges the data just after the receiver analysis. The metrics belonging to the same entity, metrics type and time
  * bucket, the L1 aggregation will merge them into one metrics object to reduce the unnecessary memory and network
  * payload.
+ *
+ * The merge buffer could be split into several stripes. Metrics are routed to the stripe by the hash of their {@link
+ * Metrics#key()}, and every stripe has its own queue, merge buffer and consumer, so a hot metrics is not pinned to
+ * one consumer thread. As the same ID always goes to the same stripe, every stripe is still merged serially.
  */
 @Slf4j
 public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
     public final long l1FlushPeriod;
     private AbstractWorker<Metrics> nextWorker;
-    private final DataCarrier<Metrics> dataCarrier;
-    private final MergableBufferedData<Metrics> mergeDataCache;
+    private final Stripe[] stripes;
     private CounterMetrics abandonCounter;
     private CounterMetrics aggregationCounter;
-    private long lastSendTime = 0;
 
     MetricsAggregateWorker(ModuleDefineHolder moduleDefineHolder,
                            AbstractWorker<Metrics> nextWorker,
                            String modelName,
                            long l1FlushPeriod,
+                           int stripeSize,
+                           boolean poolRebalance,
+                           BufferType bufferType,
                            MetricStreamKind kind) {
         super(moduleDefineHolder);
         this.nextWorker = nextWorker;
-        this.mergeDataCache = new MergableBufferedData();
         String name = "METRICS_L1_AGGREGATION";
         int queueChannelSize = 2;
         int queueBufferSize = 10_000;
@@ -69,21 +74,34 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
             queueChannelSize = 1;
             queueBufferSize = 1_000;
         }
-        this.dataCarrier = new DataCarrier<>(
-            "MetricsAggregateWorker." + modelName, name, queueChannelSize, queueBufferSize, BufferStrategy.IF_POSSIBLE);
+        stripeSize = Math.max(stripeSize, 1);
+        // The total buffer size of all stripes keeps the same as the non-striped worker.
+        queueBufferSize = Math.max(queueBufferSize / stripeSize, 1);
 
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
         BulkConsumePool.Creator creator = new BulkConsumePool.Creator(
-            name, BulkConsumePool.Creator.recommendMaxSize() * 2, 20);
+            name, BulkConsumePool.Creator.recommendMaxSize() * 2, 20, poolRebalance,
+            new ConsumePoolGauges(name, metricsCreator)
+        );
         try {
             ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
         } catch (Exception e) {
             throw new UnexpectedException(e.getMessage(), e);
         }
-        this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new AggregatorConsumer());
 
-        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
-                                                          .provider()
-                                                          .getService(MetricsCreator.class);
+        this.stripes = new Stripe[stripeSize];
+        for (int i = 0; i < stripeSize; i++) {
+            String carrierName = "MetricsAggregateWorker." + modelName;
+            if (stripeSize > 1) {
+                carrierName += "." + i;
+            }
+            stripes[i] = new Stripe(new DataCarrier<>(
+                carrierName, name, queueChannelSize, queueBufferSize, BufferStrategy.IF_POSSIBLE, bufferType));
+            stripes[i].dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), stripes[i]);
+        }
+
         abandonCounter = metricsCreator.createCounter(
             "metrics_aggregator_abandon", "The abandon number of rows received in aggregation",
             new MetricsTag.Keys("metricName", "level", "dimensionality"),
@@ -102,42 +120,45 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
      */
     @Override
     public final void in(Metrics metrics) {
-        if (!dataCarrier.produce(metrics)) {
+        if (!stripeOf(metrics).dataCarrier.produce(metrics)) {
             abandonCounter.inc();
         }
     }
 
+    private Stripe stripeOf(Metrics metrics) {
+        if (stripes.length == 1) {
+            return stripes[0];
+        }
+        return stripes[(metrics.key().hashCode() & Integer.MAX_VALUE) % stripes.length];
+    }
+
     /**
-     * Dequeue consuming. According to {@link IConsumer#consume(List)}, this is a serial operation for every work
-     * instance.
-     *
-     * @param metricsList from the queue.
+     * Stripe hosts a part of the metrics of this worker. According to {@link IConsumer#consume(List)}, the consuming
+     * is a serial operation for every stripe.
      */
-    private void onWork(List<Metrics> metricsList) {
-        metricsList.forEach(metrics -> {
-            aggregationCounter.inc();
-            mergeDataCache.accept(metrics);
-        });
-
-        flush();
-    }
+    private class Stripe implements IConsumer<Metrics> {
+        private final DataCarrier<Metrics> dataCarrier;
+        private final MergableBufferedData<Metrics> mergeDataCache;
+        private long lastSendTime = 0;
 
-    private void flush() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastSendTime > l1FlushPeriod) {
-            mergeDataCache.read().forEach(
-                data -> {
-                    nextWorker.in(data);
-                }
-            );
-            lastSendTime = currentTime;
+        private Stripe(DataCarrier<Metrics> dataCarrier) {
+            this.dataCarrier = dataCarrier;
+            this.mergeDataCache = new MergableBufferedData<>();
         }
-    }
 
-    private class AggregatorConsumer implements IConsumer<Metrics> {
+        /**
+         * Dequeue consuming.
+         *
+         * @param metricsList from the queue.
+         */
         @Override
-        public void consume(List<Metrics> data) {
-            MetricsAggregateWorker.this.onWork(data);
+        public void consume(List<Metrics> metricsList) {
+            metricsList.forEach(metrics -> {
+                aggregationCounter.inc();
+                mergeDataCache.accept(metrics);
+            });
+
+            flush();
         }
 
         @Override
@@ -149,5 +170,17 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
         public void nothingToConsume() {
             flush();
         }
+
+        private void flush() {
+            long currentTime = System.currentTimeMillis();
+            if (currentTime - lastSendTime > l1FlushPeriod) {
+                mergeDataCache.read().forEach(
+                    data -> {
+                        nextWorker.in(data);
+                    }
+                );
+                lastSendTime = currentTime;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -20,7 +20,9 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -31,17 +33,22 @@ import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
 import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
 import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsPool;
+import org.apache.skywalking.oap.server.core.exporter.ExporterModule;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
 import org.apache.skywalking.oap.server.core.status.BootingStatus;
 import org.apache.skywalking.oap.server.core.status.ClusterStatus;
 import org.apache.skywalking.oap.server.core.status.ServerStatusService;
 import org.apache.skywalking.oap.server.core.status.ServerStatusWatcher;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.IMetricsUpsertDAO;
 import org.apache.skywalking.oap.server.core.storage.SessionCacheCallback;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferType;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.BulkConsumePool;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.ConsumerPoolFactory;
 import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
@@ -64,6 +71,16 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
     private final DataCarrier<Metrics> dataCarrier;
     private final Optional<MetricsTransWorker> transWorker;
     private final boolean supportUpdate;
+    /**
+     * Not null means the storage merges the metrics natively, the worker writes the values received since the last
+     * flush through {@link IMetricsUpsertDAO#prepareBatchUpsert}, and never reads the metrics from the storage.
+     */
+    private final IMetricsUpsertDAO upsertDAO;
+    /**
+     * True means the metrics merged into the session cache could be recycled through {@link MetricsPool}. The
+     * exporter holds the metrics asynchronously, so recycling is not allowed when it is activated.
+     */
+    private final boolean recyclable;
     /**
      * The counter of L2 aggregation.
      */
@@ -104,15 +121,41 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
                             AbstractWorker<Metrics> nextAlarmWorker, AbstractWorker<ExportEvent> nextExportWorker,
                             MetricsTransWorker transWorker, boolean supportUpdate,
-                            long storageSessionTimeout, int metricsDataTTL, MetricStreamKind kind) {
+                            long storageSessionTimeout, int metricsDataTTL, MetricStreamKind kind,
+                            OffHeapSessionMemory offHeapSessionMemory, boolean poolRebalance,
+                            BufferType bufferType) {
         super(moduleDefineHolder, new ReadWriteSafeCache<>(new MergableBufferedData(), new MergableBufferedData()));
         this.model = model;
-        this.sessionCache = new MetricsSessionCache(storageSessionTimeout);
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        if (offHeapSessionMemory == null) {
+            this.sessionCache = new MetricsSessionCache(storageSessionTimeout);
+        } else {
+            this.sessionCache = new OffHeapMetricsSessionCache(
+                storageSessionTimeout, offHeapSessionMemory,
+                metricsCreator.createCounter(
+                    "metrics_session_cache", "The counter of the off-heap session cache, hit, miss or evicted.",
+                    new MetricsTag.Keys("status"), new MetricsTag.Values("hit")
+                ),
+                metricsCreator.createCounter(
+                    "metrics_session_cache", "The counter of the off-heap session cache, hit, miss or evicted.",
+                    new MetricsTag.Keys("status"), new MetricsTag.Values("miss")
+                ),
+                metricsCreator.createCounter(
+                    "metrics_session_cache", "The counter of the off-heap session cache, hit, miss or evicted.",
+                    new MetricsTag.Keys("status"), new MetricsTag.Values("evicted")
+                )
+            );
+        }
         this.metricsDAO = metricsDAO;
         this.nextAlarmWorker = Optional.ofNullable(nextAlarmWorker);
         this.nextExportWorker = Optional.ofNullable(nextExportWorker);
         this.transWorker = Optional.ofNullable(transWorker);
         this.supportUpdate = supportUpdate;
+        this.upsertDAO = supportUpdate && metricsDAO instanceof IMetricsUpsertDAO
+            && ((IMetricsUpsertDAO) metricsDAO).isUpsertSupported(model) ? (IMetricsUpsertDAO) metricsDAO : null;
+        this.recyclable = nextExportWorker == null || !moduleDefineHolder.has(ExporterModule.NAME);
         this.persistentCounter = 0;
         this.persistentMod = 1;
         this.metricsDataTTL = metricsDataTTL;
@@ -122,7 +165,8 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
         if (size == 0) {
             size = 1;
         }
-        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 20);
+        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(
+            name, size, 20, poolRebalance, new ConsumePoolGauges(name, metricsCreator));
         try {
             ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
         } catch (Exception e) {
@@ -136,12 +180,10 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
             // Set the buffer(size of queue) as 1/2 to reduce unnecessary resource costs.
             bufferSize = 1000;
         }
-        this.dataCarrier = new DataCarrier<>("MetricsPersistentWorker." + model.getName(), name, 1, bufferSize);
+        this.dataCarrier = new DataCarrier<>(
+            "MetricsPersistentWorker." + model.getName(), name, 1, bufferSize, BufferStrategy.BLOCKING, bufferType);
         this.dataCarrier.consume(ConsumerPoolFactory.INSTANCE.get(name), new PersistentConsumer());
 
-        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
-                                                          .provider()
-                                                          .getService(MetricsCreator.class);
         aggregationCounter = metricsCreator.createCounter(
             "metrics_aggregation", "The number of rows in aggregation",
             new MetricsTag.Keys("metricName", "level", "dimensionality"),
@@ -170,10 +212,13 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
                             boolean supportUpdate,
                             long storageSessionTimeout,
                             int metricsDataTTL,
-                            MetricStreamKind kind) {
+                            MetricStreamKind kind,
+                            OffHeapSessionMemory offHeapSessionMemory,
+                            boolean poolRebalance,
+                            BufferType bufferType) {
         this(moduleDefineHolder, model, metricsDAO,
              null, null, null,
-             supportUpdate, storageSessionTimeout, metricsDataTTL, kind
+             supportUpdate, storageSessionTimeout, metricsDataTTL, kind, offHeapSessionMemory, poolRebalance, bufferType
         );
         // For a down-sampling metrics, we prolong the session timeout for 4 times, nearly 5 minutes.
         sessionCache.setTimeoutThreshold(storageSessionTimeout * 4);
@@ -190,6 +235,11 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
         dataCarrier.produce(metrics);
     }
 
+    @Override
+    public String getModelName() {
+        return model.getName();
+    }
+
     @Override
     public List<PrepareRequest> buildBatchRequests() {
         if (persistentCounter++ % persistentMod != 0) {
@@ -241,12 +291,16 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
      */
     private void prepareFlushDataToStorage(List<Metrics> metricsList,
                                            List<PrepareRequest> prepareRequests) {
+        if (upsertDAO != null) {
+            prepareUpsertDataToStorage(metricsList, prepareRequests);
+            return;
+        }
         try {
-            loadFromStorage(metricsList);
+            final Map<Metrics, Metrics> cachedMetricsList = loadFromStorage(metricsList);
 
             long timestamp = System.currentTimeMillis();
             for (Metrics metrics : metricsList) {
-                Metrics cachedMetrics = sessionCache.get(metrics);
+                Metrics cachedMetrics = cachedMetricsList.get(metrics);
                 if (cachedMetrics != null) {
                     cachedMetrics.setLastUpdateTimestamp(timestamp);
                     /*
@@ -254,6 +308,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
                      * then no merge and further process happens.
                      */
                     if (!supportUpdate) {
+                        recycle(metrics);
                         continue;
                     }
                     /*
@@ -261,9 +316,12 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
                      */
                     final boolean isAbandoned = !cachedMetrics.combine(metrics);
                     if (isAbandoned) {
+                        recycle(metrics);
                         continue;
                     }
                     cachedMetrics.calculate();
+                    // Write back, in case the session cache doesn't hold the instance, such as the off-heap cache.
+                    sessionCache.put(cachedMetrics);
                     prepareRequests.add(
                         metricsDAO.prepareBatchUpdate(
                             model,
@@ -288,7 +346,71 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
                  */
                 nextExportWorker.ifPresent(exportEvenWorker -> exportEvenWorker.in(
                     new ExportEvent(metrics, ExportEvent.EventType.INCREMENT)));
+                if (cachedMetrics != null) {
+                    recycle(metrics);
+                }
+            }
+        } catch (Throwable t) {
+            log.error(t.getMessage(), t);
+        } finally {
+            metricsList.clear();
+        }
+    }
+
+    /**
+     * Build the upsert requests of the given metrics, the storage merges them into the existing ones. The session cache
+     * only serves the alarm and exporter, which would see the values since the metrics entered the cache, if the
+     * storage had the values before that, such as after a reboot.
+     *
+     * @param metricsList     the metrics in the last read from the in-memory aggregated cache.
+     * @param prepareRequests the results for final execution.
+     */
+    private void prepareUpsertDataToStorage(List<Metrics> metricsList,
+                                            List<PrepareRequest> prepareRequests) {
+        try {
+            final long timestamp = System.currentTimeMillis();
+            int cachedCount = 0;
+            for (Metrics metrics : metricsList) {
+                Metrics cachedMetrics = sessionCache.get(metrics);
+                if (cachedMetrics != null && !model.isTimeRelativeID()
+                    && metricsDAO.isExpiredCache(model, cachedMetrics, timestamp, metricsDataTTL)) {
+                    sessionCache.remove(metrics);
+                    cachedMetrics = null;
+                }
+                // The request is built before merging, it only includes the values since the last flush.
+                metrics.calculate();
+                if (cachedMetrics != null) {
+                    cachedCount++;
+                    prepareRequests.add(
+                        upsertDAO.prepareBatchUpsert(
+                            model,
+                            metrics,
+                            new SessionCacheCallback(sessionCache, cachedMetrics)
+                        ));
+                    cachedMetrics.setLastUpdateTimestamp(timestamp);
+                    cachedMetrics.combine(metrics);
+                    cachedMetrics.calculate();
+                    sessionCache.put(cachedMetrics);
+                    nextWorker(cachedMetrics);
+                } else {
+                    prepareRequests.add(
+                        upsertDAO.prepareBatchUpsert(
+                            model,
+                            metrics,
+                            new SessionCacheCallback(sessionCache, metrics)
+                        ));
+                    nextWorker(metrics);
+                    metrics.setLastUpdateTimestamp(timestamp);
+                }
+
+                nextExportWorker.ifPresent(exportEvenWorker -> exportEvenWorker.in(
+                    new ExportEvent(metrics, ExportEvent.EventType.INCREMENT)));
+                if (cachedMetrics != null) {
+                    recycle(metrics);
+                }
             }
+            readMetricsCounter.inc(metricsList.size() - cachedCount);
+            cachedMetricsCounter.inc(cachedCount);
         } catch (Throwable t) {
             log.error(t.getMessage(), t);
         } finally {
@@ -296,6 +418,15 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
         }
     }
 
+    /**
+     * Recycle the metrics which has been merged into the cached one.
+     */
+    private void recycle(Metrics metrics) {
+        if (recyclable) {
+            MetricsPool.recycle(metrics);
+        }
+    }
+
     private void nextWorker(Metrics metrics) {
         nextAlarmWorker.ifPresent(nextAlarmWorker -> nextAlarmWorker.in(metrics));
         nextExportWorker.ifPresent(
@@ -304,9 +435,12 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
 
     /**
      * Load data from the storage, only load data when the id doesn't exist.
+     *
+     * @return the metrics in the cache or loaded from the storage, keyed by the given metrics.
      */
-    private void loadFromStorage(List<Metrics> metrics) {
+    private Map<Metrics, Metrics> loadFromStorage(List<Metrics> metrics) {
         final long currentTimeMillis = System.currentTimeMillis();
+        final Map<Metrics, Metrics> cachedMetrics = new HashMap<>(metrics.size());
         try {
             List<Metrics> notInCacheMetrics =
                 metrics.stream()
@@ -316,6 +450,10 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
                            if (cachedValue == null) {
                                return true;
                            }
+                           // The metric is not in the cache, but it is not required to load from the database.
+                           if (cachedValue == m) {
+                               return false;
+                           }
                            // The metric is in the cache, but still we have to check
                            // whether the cache is expired due to TTL.
                            // This is a cache-DB inconsistent case:
@@ -331,6 +469,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
                                }
                            }
 
+                           cachedMetrics.put(m, cachedValue);
                            return false;
                        })
                        .collect(Collectors.toList());
@@ -338,15 +477,17 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> implemen
             readMetricsCounter.inc(notInCacheMetrics.size());
             cachedMetricsCounter.inc(metrics.size() - notInCacheMetrics.size());
             if (notInCacheMetrics.isEmpty()) {
-                return;
+                return cachedMetrics;
             }
             metricsDAO.multiGet(model, notInCacheMetrics).forEach(m -> {
                 m.setLastUpdateTimestamp(currentTimeMillis);
                 sessionCache.put(m);
+                cachedMetrics.put(m, m);
             });
         } catch (final Exception e) {
             log.error("Failed to load metrics for merging", e);
         }
+        return cachedMetrics;
     }
 
     @Override
@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.Setter;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
@@ -39,11 +40,14 @@ import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
  * 2. The built {@link UpdateRequest} executed failure, which could be caused
  * (1) Database error. (2) No data updated, such as the counter of update statement is 0 in JDBC.
  *
+ * Since 10.1.0, {@link OffHeapMetricsSessionCache} is provided to hold the metrics out of the heap.
+ *
  * @since 9.4.0 Created this from MetricsPersistentWorker.sessionCache.
  */
 public class MetricsSessionCache {
     private final Map<Metrics, Metrics> sessionCache;
     @Setter(AccessLevel.PACKAGE)
+    @Getter(AccessLevel.PACKAGE)
     private long timeoutThreshold;
 
     public MetricsSessionCache(long timeoutThreshold) {
@@ -51,7 +55,14 @@ public class MetricsSessionCache {
         // the map/cache could be updated concurrently.
         // Set to ConcurrentHashMap in order to avoid HashMap deadlock.
         // Since 9.3.0
-        this.sessionCache = new ConcurrentHashMap<>(100);
+        this(timeoutThreshold, new ConcurrentHashMap<>(100));
+    }
+
+    /**
+     * @param sessionCache the in-heap cache, null if the implementation doesn't hold metrics in-heap.
+     */
+    MetricsSessionCache(long timeoutThreshold, Map<Metrics, Metrics> sessionCache) {
+        this.sessionCache = sessionCache;
         this.timeoutThreshold = timeoutThreshold;
     }
 
@@ -39,6 +39,7 @@ import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.storage.model.ModelCreator;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferType;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 
 import java.lang.reflect.InvocationTargetException;
@@ -77,6 +78,29 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
     @Setter
     @Getter
     private long l1FlushPeriod = 500;
+    /**
+     * The number of stripes of every L1 aggregation worker. 1 means no stripe.
+     */
+    @Setter
+    @Getter
+    private int l1AggregationStripeSize = 1;
+    /**
+     * Move the metrics queues between the consumer threads of the L1 and L2 aggregation pools based on the measured
+     * load.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private boolean aggregationPoolRebalance = false;
+    /**
+     * The buffer type of the queues of the L1 and L2 aggregation workers.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    @Getter
+    private BufferType metricsQueueBufferType = BufferType.ARRAY_BLOCKING_QUEUE;
     /**
      * The threshold of session time. Unit is ms. Default value is 70s.
      */
@@ -87,6 +111,20 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
      */
     @Setter
     private int metricsDataTTL = 3;
+    /**
+     * The memory shared by the off-heap session caches of all metrics. Null means the session caches are in-heap.
+     *
+     * @since 10.1.0
+     */
+    private OffHeapSessionMemory offHeapSessionMemory;
+
+    /**
+     * @param size the budget of the off-heap session cache in bytes, shared by all metrics. 0 means disabled.
+     * @since 10.1.0
+     */
+    public void setSessionCacheOffHeapSize(long size) {
+        this.offHeapSessionMemory = size > 0 ? new OffHeapSessionMemory(size) : null;
+    }
 
     public static MetricsStreamProcessor getInstance() {
         return PROCESSOR;
@@ -195,7 +233,9 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
 
         MetricsRemoteWorker remoteWorker = new MetricsRemoteWorker(moduleDefineHolder, remoteReceiverWorkerName);
         MetricsAggregateWorker aggregateWorker = new MetricsAggregateWorker(
-            moduleDefineHolder, remoteWorker, stream.getName(), l1FlushPeriod, kind);
+            moduleDefineHolder, remoteWorker, stream.getName(), l1FlushPeriod, l1AggregationStripeSize,
+            aggregationPoolRebalance, metricsQueueBufferType, kind
+        );
 
         entryWorkers.put(metricsClass, aggregateWorker);
     }
@@ -211,7 +251,8 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
 
         MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(
             moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker,
-            supportUpdate, storageSessionTimeout, metricsDataTTL, kind
+            supportUpdate, storageSessionTimeout, metricsDataTTL, kind, offHeapSessionMemory, aggregationPoolRebalance,
+            metricsQueueBufferType
         );
         persistentWorkers.add(minutePersistentWorker);
 
@@ -225,7 +266,8 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
                                                        MetricStreamKind kind) {
         MetricsPersistentWorker persistentWorker = new MetricsPersistentWorker(
             moduleDefineHolder, model, metricsDAO,
-            supportUpdate, storageSessionTimeout, metricsDataTTL, kind
+            supportUpdate, storageSessionTimeout, metricsDataTTL, kind, offHeapSessionMemory, aggregationPoolRebalance,
+            metricsQueueBufferType
         );
         persistentWorkers.add(persistentWorker);
 
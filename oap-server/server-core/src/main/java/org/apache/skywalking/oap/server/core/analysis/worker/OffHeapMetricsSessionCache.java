@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+
+/**
+ * OffHeapMetricsSessionCache keeps the hot metrics in the {@link OffHeapSessionMemory} rather than the heap. The metrics
+ * are serialized through the {@link org.apache.skywalking.oap.server.core.remote.data.StreamData} contract, and indexed
+ * by the {@link MetricsKey}, which is built once per metrics instance.
+ * <p>
+ * Different from {@link MetricsSessionCache}, {@link #get(Metrics)} returns a new instance every time, so the change of
+ * the cached metrics takes effect only after it is {@link #put(Metrics)} back. A hit refreshes the last update
+ * timestamp of the cached metrics, as {@link MetricsPersistentWorker} does for the in-heap cache. Besides {@link
+ * #removeExpired()}, the metrics could be evicted at any time when the memory budget is used up.
+ *
+ * @since 10.1.0
+ */
+@Slf4j
+class OffHeapMetricsSessionCache extends MetricsSessionCache {
+    private final OffHeapSessionMemory memory;
+    private final Map<MetricsKey, OffHeapSessionMemory.Slot> index = new ConcurrentHashMap<>(100);
+    private final CounterMetrics hitCounter;
+    private final CounterMetrics missCounter;
+    private final CounterMetrics evictionCounter;
+
+    OffHeapMetricsSessionCache(long timeoutThreshold,
+                               OffHeapSessionMemory memory,
+                               CounterMetrics hitCounter,
+                               CounterMetrics missCounter,
+                               CounterMetrics evictionCounter) {
+        super(timeoutThreshold, null);
+        this.memory = memory;
+        this.hitCounter = hitCounter;
+        this.missCounter = missCounter;
+        this.evictionCounter = evictionCounter;
+    }
+
+    @Override
+    Metrics get(Metrics metrics) {
+        final MetricsKey key = metrics.key();
+        final OffHeapSessionMemory.Slot slot = index.get(key);
+        if (slot != null) {
+            final byte[] bytes;
+            final Class<?> type;
+            synchronized (slot.getSizeClass()) {
+                if (slot.isOwnedBy(this, key)) {
+                    slot.setLastUpdateTimestamp(System.currentTimeMillis());
+                    bytes = slot.read();
+                    type = slot.getType();
+                } else {
+                    bytes = null;
+                    type = null;
+                }
+            }
+            if (bytes != null) {
+                hitCounter.inc();
+                return deserialize(type, bytes, slot.getLastUpdateTimestamp());
+            }
+            // The slot has been evicted and reused.
+            index.remove(key, slot);
+        }
+        missCounter.inc();
+        return null;
+    }
+
+    @Override
+    public Metrics remove(Metrics metrics) {
+        final MetricsKey key = metrics.key();
+        final OffHeapSessionMemory.Slot slot = index.remove(key);
+        if (slot != null) {
+            free(slot, key);
+        }
+        return null;
+    }
+
+    @Override
+    public void put(Metrics metrics) {
+        final MetricsKey key = metrics.key();
+        final byte[] bytes = metrics.serialize().build().toByteArray();
+        final OffHeapSessionMemory.SizeClass sizeClass = memory.sizeClassOf(bytes.length);
+
+        final OffHeapSessionMemory.Slot existing = index.get(key);
+        if (existing != null && existing.getSizeClass() == sizeClass) {
+            synchronized (sizeClass) {
+                if (existing.isOwnedBy(this, key)) {
+                    existing.write(this, key, metrics.getClass(), bytes, metrics.getLastUpdateTimestamp());
+                    return;
+                }
+            }
+        }
+
+        final OffHeapSessionMemory.Slot slot = sizeClass == null ? null : sizeClass.allocate(
+            this, key, metrics.getClass(), bytes, metrics.getLastUpdateTimestamp());
+        final OffHeapSessionMemory.Slot previous = slot == null ? index.remove(key) : index.put(key, slot);
+        if (previous != null) {
+            free(previous, key);
+        }
+        if (slot == null) {
+            // No memory for the metrics, treat it as evicted immediately.
+            evictionCounter.inc();
+        }
+    }
+
+    @Override
+    void removeExpired() {
+        final Iterator<Map.Entry<MetricsKey, OffHeapSessionMemory.Slot>> iterator = index.entrySet().iterator();
+        final long timestamp = System.currentTimeMillis();
+        while (iterator.hasNext()) {
+            final Map.Entry<MetricsKey, OffHeapSessionMemory.Slot> entry = iterator.next();
+            final OffHeapSessionMemory.Slot slot = entry.getValue();
+            if (timestamp - slot.getLastUpdateTimestamp() > getTimeoutThreshold()) {
+                if (index.remove(entry.getKey(), slot)) {
+                    free(slot, entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Called by {@link OffHeapSessionMemory} under the lock of the size class, before the slot is reused.
+     */
+    void onEvicted(OffHeapSessionMemory.Slot slot) {
+        index.remove(slot.getKey(), slot);
+        evictionCounter.inc();
+    }
+
+    private void free(OffHeapSessionMemory.Slot slot, MetricsKey key) {
+        final OffHeapSessionMemory.SizeClass sizeClass = slot.getSizeClass();
+        synchronized (sizeClass) {
+            // The slot could have been evicted and reused by others.
+            if (slot.isOwnedBy(this, key)) {
+                sizeClass.free(slot);
+            }
+        }
+    }
+
+    private Metrics deserialize(Class<?> type, byte[] bytes, long lastUpdateTimestamp) {
+        try {
+            final Metrics metrics = (Metrics) type.getDeclaredConstructor().newInstance();
+            metrics.deserialize(RemoteData.parseFrom(bytes));
+            metrics.setLastUpdateTimestamp(lastUpdateTimestamp);
+            return metrics;
+        } catch (Exception e) {
+            log.error("Failed to deserialize the cached metrics of {}", type.getName(), e);
+            return null;
+        }
+    }
+}
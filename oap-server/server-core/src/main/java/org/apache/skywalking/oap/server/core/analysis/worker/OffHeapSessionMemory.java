@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsKey;
+
+/**
+ * OffHeapSessionMemory is the direct memory shared by all {@link OffHeapMetricsSessionCache}s, bounded by a global
+ * budget.
+ * <p>
+ * The memory is allocated lazily in {@link #CHUNK_SIZE} chunks, and every chunk is divided into the slots of a power of
+ * two size class, from {@link #MIN_SLOT_SIZE} to {@link #CHUNK_SIZE}. When the budget is used up and there is no free
+ * slot in the size class, a chunk is taken over from the size class holding the most chunks, if it holds more than one
+ * chunk over the requesting one, so the chunks are shared fairly by the size classes in use. Otherwise, a slot of the
+ * same size class is evicted by the CLOCK policy, which skips and clears the slots read since the last sweep.
+ *
+ * @since 10.1.0
+ */
+class OffHeapSessionMemory {
+    static final int MIN_SLOT_SIZE = 64;
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final long budget;
+    private final SizeClass[] sizeClasses;
+    @Getter
+    private long allocatedBytes;
+
+    OffHeapSessionMemory(long budget) {
+        this.budget = budget;
+        final int classes = Integer.numberOfTrailingZeros(CHUNK_SIZE) - Integer.numberOfTrailingZeros(MIN_SLOT_SIZE) + 1;
+        this.sizeClasses = new SizeClass[classes];
+        for (int i = 0; i < classes; i++) {
+            sizeClasses[i] = new SizeClass(MIN_SLOT_SIZE << i);
+        }
+    }
+
+    /**
+     * @return the size class to store the given number of bytes, or null if it is larger than a chunk.
+     */
+    SizeClass sizeClassOf(int length) {
+        if (length > CHUNK_SIZE) {
+            return null;
+        }
+        final int slotSize = Math.max(MIN_SLOT_SIZE, Integer.highestOneBit(Math.max(length - 1, 1)) << 1);
+        return sizeClasses[Integer.numberOfTrailingZeros(slotSize) - Integer.numberOfTrailingZeros(MIN_SLOT_SIZE)];
+    }
+
+    private synchronized ByteBuffer allocateChunk() {
+        if (allocatedBytes + CHUNK_SIZE > budget) {
+            return null;
+        }
+        allocatedBytes += CHUNK_SIZE;
+        return ByteBuffer.allocateDirect(CHUNK_SIZE);
+    }
+
+    /**
+     * @return the chunk taken over from the size class holding the most chunks, or null if it doesn't hold more than
+     * one chunk over the requesting one.
+     */
+    private ByteBuffer takeChunkFor(SizeClass requesting) {
+        SizeClass victim = null;
+        for (final SizeClass sizeClass : sizeClasses) {
+            if (sizeClass != requesting && (victim == null || sizeClass.chunkCount > victim.chunkCount)) {
+                victim = sizeClass;
+            }
+        }
+        if (victim == null) {
+            return null;
+        }
+        synchronized (victim) {
+            if (victim.chunkCount <= requesting.chunkCount + 1) {
+                return null;
+            }
+            return victim.releaseChunk();
+        }
+    }
+
+    /**
+     * The slots of the same size. All reads and writes of the slots are guarded by the lock of the size class.
+     */
+    class SizeClass {
+        @Getter
+        private final int slotSize;
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private final List<Slot> slots = new ArrayList<>();
+        private final ArrayDeque<Slot> freeSlots = new ArrayDeque<>();
+        private volatile int chunkCount;
+        private int hand;
+
+        private SizeClass(int slotSize) {
+            this.slotSize = slotSize;
+        }
+
+        /**
+         * Take a free slot, or a chunk from the budget or other size classes, or evict a slot of this size class, and
+         * write the bytes into the slot. The lock of this size class must not be held by the caller, as the chunk is
+         * taken over under the lock of the other size class.
+         *
+         * @return the slot, or null if there is no memory for this size class.
+         */
+        Slot allocate(OffHeapMetricsSessionCache owner, MetricsKey key, Class<?> type, byte[] bytes, long timestamp) {
+            synchronized (this) {
+                Slot slot = freeSlots.poll();
+                if (slot == null) {
+                    final ByteBuffer chunk = allocateChunk();
+                    if (chunk != null) {
+                        addChunk(chunk);
+                        slot = freeSlots.poll();
+                    }
+                }
+                if (slot != null) {
+                    slot.write(owner, key, type, bytes, timestamp);
+                    return slot;
+                }
+            }
+            final ByteBuffer chunk = takeChunkFor(this);
+            synchronized (this) {
+                if (chunk != null) {
+                    addChunk(chunk);
+                }
+                Slot slot = freeSlots.poll();
+                if (slot == null) {
+                    slot = evict();
+                }
+                if (slot != null) {
+                    slot.write(owner, key, type, bytes, timestamp);
+                }
+                return slot;
+            }
+        }
+
+        private void addChunk(ByteBuffer chunk) {
+            chunks.add(chunk);
+            chunkCount = chunks.size();
+            for (int offset = 0; offset + slotSize <= CHUNK_SIZE; offset += slotSize) {
+                final Slot newSlot = new Slot(this, chunk, offset);
+                slots.add(newSlot);
+                freeSlots.add(newSlot);
+            }
+        }
+
+        /**
+         * Evict all the slots of the last chunk, and remove the chunk from this size class.
+         */
+        private ByteBuffer releaseChunk() {
+            final ByteBuffer chunk = chunks.remove(chunks.size() - 1);
+            chunkCount = chunks.size();
+            slots.removeIf(slot -> {
+                if (slot.chunk != chunk) {
+                    return false;
+                }
+                if (slot.owner != null) {
+                    slot.owner.onEvicted(slot);
+                    slot.release();
+                }
+                return true;
+            });
+            freeSlots.removeIf(slot -> slot.chunk == chunk);
+            hand = slots.isEmpty() ? 0 : hand % slots.size();
+            return chunk;
+        }
+
+        private Slot evict() {
+            if (slots.isEmpty()) {
+                return null;
+            }
+            // Every slot is visited twice at most, as the referenced bit is cleared in the first visit.
+            for (int i = 0; i < slots.size() * 2; i++) {
+                final Slot slot = slots.get(hand);
+                hand = (hand + 1) % slots.size();
+                if (slot.referenced) {
+                    slot.referenced = false;
+                    continue;
+                }
+                slot.owner.onEvicted(slot);
+                slot.release();
+                return slot;
+            }
+            return null;
+        }
+
+        void free(Slot slot) {
+            slot.release();
+            freeSlots.push(slot);
+        }
+    }
+
+    /**
+     * A fixed size region of a chunk, holding the serialized metrics of a key.
+     */
+    static class Slot {
+        @Getter
+        private final SizeClass sizeClass;
+        private final ByteBuffer chunk;
+        private final int offset;
+        private int length;
+        private boolean referenced;
+        private OffHeapMetricsSessionCache owner;
+        @Getter
+        private MetricsKey key;
+        @Getter
+        private Class<?> type;
+        @Getter
+        @Setter
+        private volatile long lastUpdateTimestamp;
+
+        private Slot(SizeClass sizeClass, ByteBuffer chunk, int offset) {
+            this.sizeClass = sizeClass;
+            this.chunk = chunk;
+            this.offset = offset;
+        }
+
+        /**
+         * @return true if this slot holds the value of the given key of the given cache.
+         */
+        boolean isOwnedBy(OffHeapMetricsSessionCache owner, MetricsKey key) {
+            return this.owner == owner && key.equals(this.key);
+        }
+
+        void write(OffHeapMetricsSessionCache owner, MetricsKey key, Class<?> type, byte[] bytes, long timestamp) {
+            this.owner = owner;
+            this.key = key;
+            this.type = type;
+            this.length = bytes.length;
+            this.lastUpdateTimestamp = timestamp;
+            this.referenced = false;
+            final ByteBuffer buffer = chunk.duplicate();
+            buffer.position(offset);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Copy the bytes out, and mark this slot as referenced for the CLOCK policy.
+         */
+        byte[] read() {
+            final byte[] bytes = new byte[length];
+            final ByteBuffer buffer = chunk.duplicate();
+            buffer.position(offset);
+            buffer.get(bytes);
+            referenced = true;
+            return bytes;
+        }
+
+        private void release() {
+            owner = null;
+            key = null;
+            type = null;
+            length = 0;
+            referenced = false;
+        }
+    }
+}
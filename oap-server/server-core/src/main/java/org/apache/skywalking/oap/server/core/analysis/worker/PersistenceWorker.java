@@ -62,4 +62,10 @@ public abstract class PersistenceWorker<INPUT extends StorageData> extends Abstr
      * implementations.
      */
     public abstract List<PrepareRequest> buildBatchRequests();
+
+    /**
+     * @return the name of the model persisted by this worker.
+     * @since 10.1.0
+     */
+    public abstract String getModelName();
 }
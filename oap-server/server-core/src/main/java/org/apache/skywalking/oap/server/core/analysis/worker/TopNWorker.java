@@ -61,6 +61,11 @@ public class TopNWorker extends PersistenceWorker<TopN> {
     /**
      * Force overriding the parent buildBatchRequests. Use its own report period.
      */
+    @Override
+    public String getModelName() {
+        return model.getName();
+    }
+
     @Override
     public List<PrepareRequest> buildBatchRequests() {
         long now = System.currentTimeMillis();
@@ -25,4 +25,14 @@ import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
  */
 public interface Deserializable {
     void deserialize(RemoteData remoteData);
+
+    /**
+     * Deserialize the current row of the columnar {@link RemoteBlockRows}. The implementations should read the columns
+     * directly, the default one restores the {@link RemoteData} of the row.
+     *
+     * @since 10.1.0
+     */
+    default void deserialize(RemoteBlockRows rows) {
+        deserialize(rows.toRemoteData());
+    }
 }
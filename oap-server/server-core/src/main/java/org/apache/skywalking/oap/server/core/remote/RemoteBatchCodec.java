@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBlock;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+
+/**
+ * Convert {@link RemoteMessage}s to the columnar {@link RemoteBatch} and back.
+ * <p>
+ * The messages are grouped into {@link RemoteBlock}s by the next worker name and the field counts of the {@link
+ * RemoteData}. The worker names, the strings and the object strings are interned in the dictionaries of the batch, so
+ * the entity IDs shared by many metrics are only sent once. The longs are encoded as the delta to the same field of the
+ * previous row in the block, which makes the time buckets and the slowly changing values as small as one byte in the
+ * varint encoding.
+ *
+ * @since 10.1.0
+ */
+public class RemoteBatchCodec {
+    private RemoteBatchCodec() {
+    }
+
+    public static RemoteBatch encode(List<RemoteMessage> messages) {
+        final Map<String, Integer> workerNames = new LinkedHashMap<>();
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final Map<BlockKey, List<RemoteData>> blocks = new LinkedHashMap<>();
+
+        for (final RemoteMessage message : messages) {
+            final int workerIndex = workerNames.computeIfAbsent(message.getNextWorkerName(), k -> workerNames.size());
+            blocks.computeIfAbsent(new BlockKey(workerIndex, message.getRemoteData()), k -> new ArrayList<>())
+                  .add(message.getRemoteData());
+        }
+
+        final RemoteBatch.Builder batch = RemoteBatch.newBuilder();
+        batch.addAllWorkerNames(workerNames.keySet());
+        blocks.forEach((key, rows) -> batch.addBlocks(encodeBlock(key, rows, strings)));
+        batch.addAllStrings(strings.keySet());
+        return batch.build();
+    }
+
+    private static RemoteBlock encodeBlock(BlockKey key, List<RemoteData> rows, Map<String, Integer> strings) {
+        final RemoteBlock.Builder block = RemoteBlock.newBuilder();
+        block.setWorkerIndex(key.workerIndex)
+             .setRows(rows.size())
+             .setStringFields(key.stringFields)
+             .setLongFields(key.longFields)
+             .setDoubleFields(key.doubleFields)
+             .setIntegerFields(key.integerFields)
+             .setObjectStringFields(key.objectStringFields)
+             .setBinaryObjects(key.binaryObjects)
+             .setBinary(key.binary);
+
+        for (int field = 0; field < key.stringFields; field++) {
+            for (final RemoteData row : rows) {
+                block.addDataStrings(intern(strings, row.getDataStrings(field)));
+            }
+        }
+        for (int field = 0; field < key.longFields; field++) {
+            long previous = 0;
+            for (final RemoteData row : rows) {
+                final long value = row.getDataLongs(field);
+                block.addDataLongs(value - previous);
+                previous = value;
+            }
+        }
+        for (int field = 0; field < key.doubleFields; field++) {
+            for (final RemoteData row : rows) {
+                block.addDataDoubles(row.getDataDoubles(field));
+            }
+        }
+        for (int field = 0; field < key.integerFields; field++) {
+            for (final RemoteData row : rows) {
+                block.addDataIntegers(row.getDataIntegers(field));
+            }
+        }
+        for (int field = 0; field < key.objectStringFields; field++) {
+            for (final RemoteData row : rows) {
+                block.addDataObjectStrings(intern(strings, row.getDataObjectStrings(field)));
+            }
+        }
+        if (key.binaryObjects) {
+            for (final RemoteData row : rows) {
+                block.addDataObjects(row.getDataObjects());
+            }
+        }
+        if (key.binary) {
+            for (final RemoteData row : rows) {
+                block.addDataBinary(row.getDataBinary());
+            }
+        }
+        return block.build();
+    }
+
+    private static int intern(Map<String, Integer> strings, String value) {
+        return strings.computeIfAbsent(value, k -> strings.size());
+    }
+
+    /**
+     * Read the rows of every block in the batch through {@link RemoteBlockRows}, in the order of the block.
+     */
+    public static void decode(RemoteBatch batch, BlockConsumer consumer) {
+        for (final RemoteBlock block : batch.getBlocksList()) {
+            consumer.accept(batch.getWorkerNames(block.getWorkerIndex()), new RemoteBlockRows(batch, block));
+        }
+    }
+
+    /**
+     * Restore the {@link RemoteMessage}s in the batch, grouped by the blocks.
+     */
+    public static List<RemoteMessage> toMessages(RemoteBatch batch) {
+        final List<RemoteMessage> messages = new ArrayList<>();
+        decode(batch, (nextWorkerName, rows) -> {
+            while (rows.next()) {
+                messages.add(RemoteMessage.newBuilder()
+                                          .setNextWorkerName(nextWorkerName)
+                                          .setRemoteData(rows.toRemoteData())
+                                          .build());
+            }
+        });
+        return messages;
+    }
+
+    public interface BlockConsumer {
+        void accept(String nextWorkerName, RemoteBlockRows rows);
+    }
+
+    /**
+     * Messages are in the same block only when they have the same next worker, the same field counts, the same
+     * encoding of the complex objects and the same presence of the raw binary.
+     */
+    private static class BlockKey {
+        private final int workerIndex;
+        private final int stringFields;
+        private final int longFields;
+        private final int doubleFields;
+        private final int integerFields;
+        private final int objectStringFields;
+        private final boolean binaryObjects;
+        private final boolean binary;
+
+        private BlockKey(int workerIndex, RemoteData data) {
+            this.workerIndex = workerIndex;
+            this.stringFields = data.getDataStringsCount();
+            this.longFields = data.getDataLongsCount();
+            this.doubleFields = data.getDataDoublesCount();
+            this.integerFields = data.getDataIntegersCount();
+            this.objectStringFields = data.getDataObjectStringsCount();
+            this.binaryObjects = !data.getDataObjects().isEmpty();
+            this.binary = !data.getDataBinary().isEmpty();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final BlockKey key = (BlockKey) o;
+            return workerIndex == key.workerIndex
+                && stringFields == key.stringFields
+                && longFields == key.longFields
+                && doubleFields == key.doubleFields
+                && integerFields == key.integerFields
+                && objectStringFields == key.objectStringFields
+                && binaryObjects == key.binaryObjects
+                && binary == key.binary;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                workerIndex, stringFields, longFields, doubleFields, integerFields, objectStringFields, binaryObjects,
+                binary);
+        }
+    }
+}
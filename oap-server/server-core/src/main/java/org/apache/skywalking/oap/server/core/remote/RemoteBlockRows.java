@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+import com.google.protobuf.ByteString;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBlock;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+
+/**
+ * RemoteBlockRows reads the rows of a {@link RemoteBlock} one by one, straight from its columns. The getters are named
+ * after the ones of {@link RemoteData}, so a {@link Deserializable} reads the current row the same way as a {@link
+ * RemoteData}, without restoring the {@link RemoteData} of every row.
+ * <p>
+ * The strings are shared by all rows through the dictionary of the batch, and the longs are restored from the deltas
+ * once per block.
+ *
+ * @since 10.1.0
+ */
+public class RemoteBlockRows {
+    private final RemoteBatch batch;
+    private final RemoteBlock block;
+    private final int rows;
+    /**
+     * The longs of all rows, column-major as the deltas in the block.
+     */
+    private final long[] longs;
+    private int row = -1;
+
+    RemoteBlockRows(RemoteBatch batch, RemoteBlock block) {
+        this.batch = batch;
+        this.block = block;
+        this.rows = block.getRows();
+        this.longs = new long[block.getDataLongsCount()];
+        int index = 0;
+        for (int field = 0; field < block.getLongFields(); field++) {
+            long previous = 0;
+            for (int i = 0; i < rows; i++) {
+                previous += block.getDataLongs(index);
+                longs[index++] = previous;
+            }
+        }
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Move to the next row.
+     *
+     * @return false if there is no more row.
+     */
+    public boolean next() {
+        if (row + 1 >= rows) {
+            return false;
+        }
+        row++;
+        return true;
+    }
+
+    public String getDataStrings(int field) {
+        return batch.getStrings(block.getDataStrings(field * rows + row));
+    }
+
+    public long getDataLongs(int field) {
+        return longs[field * rows + row];
+    }
+
+    public double getDataDoubles(int field) {
+        return block.getDataDoubles(field * rows + row);
+    }
+
+    public int getDataIntegers(int field) {
+        return block.getDataIntegers(field * rows + row);
+    }
+
+    public String getDataObjectStrings(int field) {
+        return batch.getStrings(block.getDataObjectStrings(field * rows + row));
+    }
+
+    public ByteString getDataObjects() {
+        return block.getBinaryObjects() ? block.getDataObjects(row) : ByteString.EMPTY;
+    }
+
+    public ByteString getDataBinary() {
+        return block.getBinary() ? block.getDataBinary(row) : ByteString.EMPTY;
+    }
+
+    /**
+     * Restore the {@link RemoteData} of the current row, for the stream data reading {@link RemoteData} only.
+     */
+    public RemoteData toRemoteData() {
+        final RemoteData.Builder data = RemoteData.newBuilder();
+        for (int field = 0; field < block.getStringFields(); field++) {
+            data.addDataStrings(getDataStrings(field));
+        }
+        for (int field = 0; field < block.getLongFields(); field++) {
+            data.addDataLongs(getDataLongs(field));
+        }
+        for (int field = 0; field < block.getDoubleFields(); field++) {
+            data.addDataDoubles(getDataDoubles(field));
+        }
+        for (int field = 0; field < block.getIntegerFields(); field++) {
+            data.addDataIntegers(getDataIntegers(field));
+        }
+        for (int field = 0; field < block.getObjectStringFields(); field++) {
+            data.addDataObjectStrings(getDataObjectStrings(field));
+        }
+        return data.setDataObjects(getDataObjects()).setDataBinary(getDataBinary()).build();
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Objects;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
@@ -98,15 +99,7 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
      */
     @Override
     public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
-        if (Objects.isNull(workerInstanceGetter)) {
-            synchronized (RemoteServiceHandler.class) {
-                if (Objects.isNull(workerInstanceGetter)) {
-                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
-                                                             .provider()
-                                                             .getService(IWorkerInstanceGetter.class);
-                }
-            }
-        }
+        initWorkerInstanceGetter();
 
         return new StreamObserver<RemoteMessage>() {
             @Override
@@ -118,18 +111,12 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
                     RemoteData remoteData = message.getRemoteData();
 
                     try {
-                        RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
+                        RemoteHandleWorker handleWorker = findHandleWorker(nextWorkerName);
                         if (handleWorker != null) {
                             AbstractWorker nextWorker = handleWorker.getWorker();
                             StreamData streamData = handleWorker.getStreamDataClass().newInstance();
                             streamData.deserialize(remoteData);
                             nextWorker.in(streamData);
-                        } else {
-                            remoteInTargetNotFoundCounter.inc();
-                            LOGGER.warn(
-                                "Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
-                                nextWorkerName
-                            );
                         }
                     } catch (Throwable t) {
                         remoteInErrorCounter.inc();
@@ -142,14 +129,61 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
 
             @Override
             public void onError(Throwable throwable) {
-                Status status = Status.fromThrowable(throwable);
-                if (Status.CANCELLED.getCode() == status.getCode()) {
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug(throwable.getMessage(), throwable);
-                    }
-                    return;
+                logStreamError(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onNext(Empty.newBuilder().build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * gRPC handler of the columnar {@link RemoteBatch}. The target worker is looked up once per block, and every row of
+     * the block is deserialized into a new stream data instance straight from the columns.
+     */
+    @Override
+    public StreamObserver<RemoteBatch> batchCall(StreamObserver<Empty> responseObserver) {
+        initWorkerInstanceGetter();
+
+        return new StreamObserver<RemoteBatch>() {
+            @Override
+            public void onNext(RemoteBatch batch) {
+                try {
+                    RemoteBatchCodec.decode(batch, (nextWorkerName, rows) -> {
+                        remoteInCounter.inc(rows.size());
+                        HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
+                        try {
+                            RemoteHandleWorker handleWorker = findHandleWorker(nextWorkerName);
+                            if (handleWorker == null) {
+                                return;
+                            }
+                            AbstractWorker nextWorker = handleWorker.getWorker();
+                            while (rows.next()) {
+                                try {
+                                    StreamData streamData = handleWorker.getStreamDataClass().newInstance();
+                                    streamData.deserialize(rows);
+                                    nextWorker.in(streamData);
+                                } catch (Throwable t) {
+                                    remoteInErrorCounter.inc();
+                                    LOGGER.error(t.getMessage(), t);
+                                }
+                            }
+                        } finally {
+                            timer.finish();
+                        }
+                    });
+                } catch (Throwable t) {
+                    remoteInErrorCounter.inc();
+                    LOGGER.error(t.getMessage(), t);
                 }
-                LOGGER.error(throwable.getMessage(), throwable);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                logStreamError(throwable);
             }
 
             @Override
@@ -159,4 +193,39 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
             }
         };
     }
+
+    private void initWorkerInstanceGetter() {
+        if (Objects.isNull(workerInstanceGetter)) {
+            synchronized (RemoteServiceHandler.class) {
+                if (Objects.isNull(workerInstanceGetter)) {
+                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
+                                                             .provider()
+                                                             .getService(IWorkerInstanceGetter.class);
+                }
+            }
+        }
+    }
+
+    private RemoteHandleWorker findHandleWorker(String nextWorkerName) {
+        RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
+        if (handleWorker == null) {
+            remoteInTargetNotFoundCounter.inc();
+            LOGGER.warn(
+                "Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
+                nextWorkerName
+            );
+        }
+        return handleWorker;
+    }
+
+    private void logStreamError(Throwable throwable) {
+        Status status = Status.fromThrowable(throwable);
+        if (Status.CANCELLED.getCode() == status.getCode()) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(throwable.getMessage(), throwable);
+            }
+            return;
+        }
+        LOGGER.error(throwable.getMessage(), throwable);
+    }
 }
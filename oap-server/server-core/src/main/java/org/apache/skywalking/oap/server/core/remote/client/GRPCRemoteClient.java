@@ -20,15 +20,17 @@ package org.apache.skywalking.oap.server.core.remote.client;
 
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
-import io.grpc.stub.StreamObserver;
 import io.netty.handler.ssl.SslContext;
 import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.remote.RemoteBatchCodec;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
-import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
@@ -37,26 +39,53 @@ import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * This is a wrapper of the gRPC client for sending message to each other OAP server. It contains a block queue to
- * buffering the message and sending the message by batch.
+ * buffering the message and sending the message by batch. The messages are written into a long-lived and
+ * flow-controlled stream, see {@link RemoteStreamSender}.
  */
 @Slf4j
 public class GRPCRemoteClient implements RemoteClient {
+    /**
+     * The max number of messages encoded into a single {@link RemoteBatch}, to keep the gRPC message size bounded.
+     */
+    private static final int MAX_MESSAGES_PER_BATCH = 500;
+    /**
+     * The default max number of bytes sent and not responded by the target OAP server.
+     */
+    public static final long DEFAULT_MAX_IN_FLIGHT_BYTES = 4 * 1024 * 1024;
+
     private final int channelSize;
     private final int bufferSize;
     private final Address address;
-    private final AtomicInteger concurrentStreamObserverNumber = new AtomicInteger(0);
     private SslContext sslContext;
     private GRPCClient client;
     private DataCarrier<RemoteMessage> carrier;
     private boolean isConnect;
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
+    private GaugeMetrics remoteOutQueueDepth;
+    private GaugeMetrics remoteOutInFlightBytes;
+    private HistogramMetrics remoteOutLatency;
     private int remoteTimeout;
+    /**
+     * Send the messages through {@link RemoteBatch}, see {@link RemoteBatchCodec}. Turned off automatically when the
+     * target OAP server doesn't implement the batch RPC, such as an older version in the rolling upgrade.
+     */
+    private volatile boolean batchEncoding;
+    private final long maxInFlightBytes;
+    private RemoteStreamSender<RemoteMessage> messageSender;
+    private RemoteStreamSender<RemoteBatch> batchSender;
+    /**
+     * The batches not responded by the target OAP server not implementing the batch RPC, to be sent again through the
+     * per-message RPC by the consumer thread.
+     */
+    private final Queue<RemoteBatch> unsentBatches = new ConcurrentLinkedQueue<>();
 
     public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
                             final Address address,
@@ -64,39 +93,76 @@ public class GRPCRemoteClient implements RemoteClient {
                             final int bufferSize,
                             final int remoteTimeout,
                             final SslContext sslContext) {
+        this(
+            moduleDefineHolder, address, channelSize, bufferSize, remoteTimeout, sslContext, false,
+            DEFAULT_MAX_IN_FLIGHT_BYTES
+        );
+    }
+
+    public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
+                            final Address address,
+                            final int channelSize,
+                            final int bufferSize,
+                            final int remoteTimeout,
+                            final SslContext sslContext,
+                            final boolean batchEncoding,
+                            final long maxInFlightBytes) {
 
         this.address = address;
         this.channelSize = channelSize;
         this.bufferSize = bufferSize;
         this.remoteTimeout = remoteTimeout;
         this.sslContext = sslContext;
+        this.batchEncoding = batchEncoding;
+        this.maxInFlightBytes = maxInFlightBytes;
 
-        remoteOutCounter = moduleDefineHolder.find(TelemetryModule.NAME)
-                                             .provider()
-                                             .getService(MetricsCreator.class)
-                                             .createCounter(
-                                                 "remote_out_count",
-                                                 "The number(client side) of inside remote inside aggregate rpc.",
-                                                 new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(
-                                                     address
-                                                         .toString(), "N")
-                                             );
-        remoteOutErrorCounter = moduleDefineHolder.find(TelemetryModule.NAME)
-                                                  .provider()
-                                                  .getService(MetricsCreator.class)
-                                                  .createCounter(
-                                                      "remote_out_error_count",
-                                                      "The error number(client side) of inside remote inside aggregate rpc.",
-                                                      new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(
-                                                          address
-                                                              .toString(), "N")
-                                                  );
+        final MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                                .provider()
+                                                                .getService(MetricsCreator.class);
+        remoteOutCounter = metricsCreator.createCounter(
+            "remote_out_count",
+            "The number(client side) of inside remote inside aggregate rpc.",
+            new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address.toString(), "N")
+        );
+        remoteOutErrorCounter = metricsCreator.createCounter(
+            "remote_out_error_count",
+            "The error number(client side) of inside remote inside aggregate rpc.",
+            new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address.toString(), "N")
+        );
+        remoteOutQueueDepth = metricsCreator.createGauge(
+            "remote_out_queue_depth",
+            "The number(client side) of messages waiting in the queue of inside remote inside aggregate rpc.",
+            new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address.toString(), "N")
+        );
+        remoteOutInFlightBytes = metricsCreator.createGauge(
+            "remote_out_in_flight_bytes",
+            "The bytes(client side) sent and not responded of inside remote inside aggregate rpc.",
+            new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address.toString(), "N")
+        );
+        remoteOutLatency = metricsCreator.createHistogramMetric(
+            "remote_out_latency",
+            "The latency(client side) of inside remote inside aggregate rpc, including the time blocked by flow control.",
+            new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address.toString(), "N")
+        );
     }
 
     @Override
     public void connect() {
         if (!isConnect) {
             this.getClient().connect();
+            final AtomicLong inFlightBytes = new AtomicLong();
+            this.messageSender = new RemoteStreamSender<>(
+                address,
+                responseObserver -> getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS).call(responseObserver),
+                (throwable, messages) -> onStreamError(throwable), maxInFlightBytes, remoteTimeout, inFlightBytes,
+                remoteOutInFlightBytes
+            );
+            this.batchSender = new RemoteStreamSender<>(
+                address,
+                responseObserver -> getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS)
+                                             .batchCall(responseObserver),
+                this::onBatchStreamError, maxInFlightBytes, remoteTimeout, inFlightBytes, remoteOutInFlightBytes
+            );
             this.getDataCarrier().consume(new RemoteMessageConsumer(), 1);
             this.isConnect = true;
         }
@@ -149,22 +215,42 @@ public class GRPCRemoteClient implements RemoteClient {
         builder.setNextWorkerName(nextWorkerName);
         builder.setRemoteData(streamData.serialize());
 
-        this.getDataCarrier().produce(builder.build());
+        if (this.getDataCarrier().produce(builder.build())) {
+            remoteOutQueueDepth.inc();
+        }
     }
 
     class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
         @Override
         public void consume(List<RemoteMessage> remoteMessages) {
+            remoteOutQueueDepth.dec(remoteMessages.size());
+            HistogramMetrics.Timer timer = remoteOutLatency.createTimer();
             try {
-                StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
-                for (RemoteMessage remoteMessage : remoteMessages) {
-                    remoteOutCounter.inc();
-                    streamObserver.onNext(remoteMessage);
+                resendUnsentBatches();
+                if (batchEncoding) {
+                    messageSender.complete();
+                    for (int from = 0; from < remoteMessages.size(); from += MAX_MESSAGES_PER_BATCH) {
+                        List<RemoteMessage> chunk = remoteMessages.subList(
+                            from, Math.min(from + MAX_MESSAGES_PER_BATCH, remoteMessages.size()));
+                        final RemoteBatch batch = RemoteBatchCodec.encode(chunk);
+                        if (!batchSender.send(batch) && !batchEncoding) {
+                            // The target OAP server doesn't support the batch RPC.
+                            unsentBatches.add(batch);
+                        }
+                        remoteOutCounter.inc(chunk.size());
+                    }
+                } else {
+                    batchSender.complete();
+                    for (RemoteMessage remoteMessage : remoteMessages) {
+                        messageSender.send(remoteMessage);
+                        remoteOutCounter.inc();
+                    }
                 }
-                streamObserver.onCompleted();
             } catch (Throwable t) {
                 remoteOutErrorCounter.inc();
                 log.error(t.getMessage(), t);
+            } finally {
+                timer.finish();
             }
         }
 
@@ -172,65 +258,56 @@ public class GRPCRemoteClient implements RemoteClient {
         public void onError(List<RemoteMessage> remoteMessages, Throwable t) {
             log.error(t.getMessage(), t);
         }
-    }
 
-    /**
-     * Create a gRPC stream observer to sending stream data, one stream observer could send multiple stream data by a
-     * single consume. The max number of concurrency allowed at the same time is 10.
-     *
-     * @return stream observer
-     */
-    private StreamObserver<RemoteMessage> createStreamObserver() {
-        int sleepTotalMillis = 0;
-        int sleepMillis = 10;
-
-        // Control the concurrency of gRPC streaming stub.
-        // If over 10 created and not finished/error, this blocks the method.
-        while (concurrentStreamObserverNumber.get() > 10) {
+        @Override
+        public void nothingToConsume() {
             try {
-                Thread.sleep(sleepMillis);
-            } catch (InterruptedException e) {
-                log.error(e.getMessage(), e);
+                resendUnsentBatches();
+            } catch (Throwable t) {
+                remoteOutErrorCounter.inc();
+                log.error(t.getMessage(), t);
             }
+            messageSender.completeIfExpired();
+            batchSender.completeIfExpired();
+        }
+    }
 
-            sleepTotalMillis += sleepMillis;
+    private void resendUnsentBatches() throws InterruptedException {
+        for (RemoteBatch batch = unsentBatches.poll(); batch != null; batch = unsentBatches.poll()) {
+            batchSender.complete();
+            for (RemoteMessage remoteMessage : RemoteBatchCodec.toMessages(batch)) {
+                messageSender.send(remoteMessage);
+            }
+        }
+    }
 
-            if (sleepTotalMillis > 60000) {
-                log.warn("Remote client [{}] block times over 60 seconds. Current streaming number {}",
-                         address, concurrentStreamObserverNumber.get()
-                );
-                // Reset sleepTotalMillis to avoid too many warn logs.
-                sleepTotalMillis = 0;
+    private void onStreamError(Throwable throwable) {
+        Status status = Status.fromThrowable(throwable);
+        if (Status.CANCELLED.getCode() == status.getCode()) {
+            if (log.isDebugEnabled()) {
+                log.debug(throwable.getMessage(), throwable);
             }
+            return;
         }
+        remoteOutErrorCounter.inc();
+        log.error(throwable.getMessage(), throwable);
+    }
 
-        final StreamObserver<RemoteMessage> remoteMessageStreamObserver
-            = getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS)
-                       .call(new StreamObserver<Empty>() {
-                           @Override
-                           public void onNext(Empty empty) {
-                           }
-
-                           @Override
-                           public void onError(Throwable throwable) {
-                               concurrentStreamObserverNumber.addAndGet(-1);
-                               Status status = Status.fromThrowable(throwable);
-                               if (Status.CANCELLED.getCode() == status.getCode()) {
-                                   if (log.isDebugEnabled()) {
-                                       log.debug(throwable.getMessage(), throwable);
-                                   }
-                                   return;
-                               }
-                               log.error(throwable.getMessage(), throwable);
-                           }
-
-                           @Override
-                           public void onCompleted() {
-                               concurrentStreamObserverNumber.addAndGet(-1);
-                           }
-                       });
-        concurrentStreamObserverNumber.incrementAndGet();
-        return remoteMessageStreamObserver;
+    /**
+     * When the target OAP server doesn't support the batch RPC, the batch encoding is turned off, and the batches
+     * written into the failed stream are sent again through the per-message RPC, followed by the next messages.
+     */
+    private void onBatchStreamError(Throwable throwable, List<RemoteBatch> batches) {
+        if (Status.UNIMPLEMENTED.getCode() == Status.fromThrowable(throwable).getCode()) {
+            remoteOutErrorCounter.inc();
+            if (batchEncoding) {
+                batchEncoding = false;
+                log.warn("Remote server [{}] doesn't support the batch RPC, fall back to the per-message RPC.", address);
+            }
+            unsentBatches.addAll(batches);
+            return;
+        }
+        onStreamError(throwable);
     }
 
     @Override
@@ -238,6 +315,8 @@ public class GRPCRemoteClient implements RemoteClient {
         if (Objects.nonNull(this.carrier)) {
             this.carrier.shutdownConsumers();
         }
+        messageSender.complete();
+        batchSender.complete();
         if (Objects.nonNull(this.client)) {
             this.client.shutdown();
         }
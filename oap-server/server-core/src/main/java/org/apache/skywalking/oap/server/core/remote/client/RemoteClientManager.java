@@ -63,6 +63,20 @@ public class RemoteClientManager implements Service, ClusterWatcher {
     private volatile List<RemoteClient> usingClients;
     private GaugeMetrics gauge;
     private int remoteTimeout;
+    /**
+     * Send the stream data to other OAP servers through the columnar batch RPC.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    private boolean batchEncoding;
+    /**
+     * The max number of bytes sent to an OAP server and not responded.
+     *
+     * @since 10.1.0
+     */
+    @Setter
+    private long maxInFlightBytes = GRPCRemoteClient.DEFAULT_MAX_IN_FLIGHT_BYTES;
 
     /**
      * Initial the manager for all remote communication clients.
@@ -240,7 +254,8 @@ public class RemoteClientManager implements Service, ClusterWatcher {
                         newRemoteClients.add(client);
                     } else {
                         RemoteClient client;
-                        client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext);
+                        client = new GRPCRemoteClient(
+                            moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext, batchEncoding, maxInFlightBytes);
                         client.connect();
                         newRemoteClients.add(client);
                     }
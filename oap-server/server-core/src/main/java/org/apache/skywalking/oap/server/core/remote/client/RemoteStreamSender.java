@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.client;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+
+/**
+ * A flow-controlled sender of a client streaming RPC to another OAP server.
+ * <p>
+ * The messages are written into one long-lived stream, and the sender waits for the {@link
+ * ClientCallStreamObserver#isReady()} signal of gRPC flow control before writing, instead of buffering unlimited
+ * messages in the transport. Because the OAP server only responds when the stream is completed, the stream is rotated
+ * when its written bytes reach a quarter of the in-flight limit or it gets close to the deadline, and the bytes of a
+ * stream are in-flight until the response arrives. The sender blocks when the in-flight bytes reach the limit, which
+ * back-pressures the {@link org.apache.skywalking.oap.server.library.datacarrier.DataCarrier} of the remote client.
+ * The messages of a stream are kept until the response arrives, and handed to the error handler if the stream fails.
+ * <p>
+ * All methods, except the gRPC callbacks, should be called by the same consumer thread.
+ *
+ * @param <T> the message type of the stream.
+ * @since 10.1.0
+ */
+@Slf4j
+class RemoteStreamSender<T extends MessageLite> {
+    private static final long WAIT_MILLIS = 100;
+    private static final long WARN_INTERVAL_MILLIS = 60_000;
+
+    private final Address address;
+    /**
+     * Open a new stream with the given response observer.
+     */
+    private final Function<StreamObserver<Empty>, StreamObserver<T>> streamOpener;
+    private final BiConsumer<Throwable, List<T>> errorHandler;
+    private final long maxInFlightBytes;
+    private final long maxStreamBytes;
+    private final long maxStreamAgeMillis;
+    private final AtomicLong inFlightBytes;
+    private final GaugeMetrics inFlightBytesGauge;
+    private final Object lock = new Object();
+    private Stream current;
+
+    /**
+     * @param streamOpener       open a new stream of the RPC with the given response observer.
+     * @param errorHandler       handle the error of a stream and the messages written into it, after its in-flight
+     *                           bytes are released.
+     * @param maxInFlightBytes   the max number of bytes written and not responded by the server.
+     * @param remoteTimeout      the deadline of the stream, in second unit.
+     * @param inFlightBytes      the in-flight bytes of the target server, could be shared with other senders.
+     * @param inFlightBytesGauge the gauge of the in-flight bytes.
+     */
+    RemoteStreamSender(final Address address,
+                       final Function<StreamObserver<Empty>, StreamObserver<T>> streamOpener,
+                       final BiConsumer<Throwable, List<T>> errorHandler,
+                       final long maxInFlightBytes,
+                       final int remoteTimeout,
+                       final AtomicLong inFlightBytes,
+                       final GaugeMetrics inFlightBytesGauge) {
+        this.address = address;
+        this.streamOpener = streamOpener;
+        this.errorHandler = errorHandler;
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.maxStreamBytes = Math.max(maxInFlightBytes / 4, 1);
+        this.maxStreamAgeMillis = Math.max(remoteTimeout * 1000L / 2, 1000L);
+        this.inFlightBytes = inFlightBytes;
+        this.inFlightBytesGauge = inFlightBytesGauge;
+    }
+
+    /**
+     * Write the message into the stream, blocking until the in-flight bytes are under the limit and the stream is
+     * ready.
+     *
+     * @return false if the message is not written, as the stream opened for it was terminated by an error, which has
+     * been handled by the error handler.
+     */
+    boolean send(T message) throws InterruptedException {
+        final int size = message.getSerializedSize();
+        while (true) {
+            if (current != null && (current.terminated
+                || current.bytes.get() + size > maxStreamBytes
+                || current.isExpired())) {
+                complete();
+            }
+            awaitInFlightBytes(size);
+            final boolean opened = current == null;
+            if (opened) {
+                current = open();
+            }
+            if (awaitReady(current) && current.write(message, size)) {
+                return true;
+            }
+            if (opened) {
+                return false;
+            }
+            // The stream was terminated while waiting, retry with a new one.
+        }
+    }
+
+    /**
+     * Complete the current stream if it is close to the deadline. It is called when there is nothing to send, to make
+     * sure an idle stream is completed normally rather than by the deadline.
+     */
+    void completeIfExpired() {
+        if (current != null && (current.terminated || current.isExpired())) {
+            complete();
+        }
+    }
+
+    /**
+     * Complete the current stream, the next message is going to be written into a new one.
+     */
+    void complete() {
+        final Stream stream = current;
+        current = null;
+        if (stream != null && !stream.terminated) {
+            stream.requestStream.onCompleted();
+        }
+    }
+
+    private Stream open() {
+        final Stream stream = new Stream();
+        streamOpener.apply(stream);
+        return stream;
+    }
+
+    private void awaitInFlightBytes(int size) throws InterruptedException {
+        long waitMillis = 0;
+        synchronized (lock) {
+            // A message larger than the limit is still sent when nothing else is in-flight.
+            while (inFlightBytes.get() > 0 && inFlightBytes.get() + size > maxInFlightBytes) {
+                // The server responds the completed streams only.
+                complete();
+                lock.wait(WAIT_MILLIS);
+                waitMillis = warnIfBlocked(waitMillis);
+            }
+        }
+    }
+
+    private boolean awaitReady(Stream stream) throws InterruptedException {
+        long waitMillis = 0;
+        synchronized (lock) {
+            while (!stream.terminated && !stream.requestStream.isReady()) {
+                lock.wait(WAIT_MILLIS);
+                waitMillis = warnIfBlocked(waitMillis);
+            }
+        }
+        return !stream.terminated;
+    }
+
+    private long warnIfBlocked(long waitMillis) {
+        waitMillis += WAIT_MILLIS;
+        if (waitMillis >= WARN_INTERVAL_MILLIS) {
+            log.warn(
+                "Remote client [{}] block times over 60 seconds. Current in-flight bytes {}",
+                address, inFlightBytes.get()
+            );
+            // Reset waitMillis to avoid too many warn logs.
+            waitMillis = 0;
+        }
+        return waitMillis;
+    }
+
+    private void signal() {
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    private class Stream implements ClientResponseObserver<T, Empty> {
+        private final long createTime = System.currentTimeMillis();
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile boolean terminated;
+        private ClientCallStreamObserver<T> requestStream;
+        /**
+         * The messages written and not responded, guarded by the lock of this stream. Null once the stream is closed.
+         */
+        private List<T> messages = new ArrayList<>();
+
+        @Override
+        public void beforeStart(final ClientCallStreamObserver<T> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(RemoteStreamSender.this::signal);
+        }
+
+        @Override
+        public void onNext(final Empty empty) {
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            // The error is handled before the message not written is returned to the sender.
+            synchronized (this) {
+                errorHandler.accept(throwable, close());
+            }
+            terminate();
+        }
+
+        @Override
+        public void onCompleted() {
+            close();
+            terminate();
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - createTime >= maxStreamAgeMillis;
+        }
+
+        /**
+         * @return false if the stream has been closed, the message is not written.
+         */
+        private boolean write(final T message, final int size) {
+            synchronized (this) {
+                if (messages == null) {
+                    return false;
+                }
+                bytes.addAndGet(size);
+                inFlightBytesGauge.setValue(inFlightBytes.addAndGet(size));
+                messages.add(message);
+            }
+            requestStream.onNext(message);
+            return true;
+        }
+
+        /**
+         * Release the in-flight bytes, no message could be written after closed.
+         *
+         * @return the messages written and not responded.
+         */
+        private synchronized List<T> close() {
+            inFlightBytesGauge.setValue(inFlightBytes.addAndGet(-bytes.getAndSet(0)));
+            final List<T> written = messages;
+            messages = null;
+            return written == null ? Collections.emptyList() : written;
+        }
+
+        private void terminate() {
+            terminated = true;
+            signal();
+        }
+    }
+}
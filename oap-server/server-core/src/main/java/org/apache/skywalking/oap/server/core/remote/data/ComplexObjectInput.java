@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import com.google.protobuf.ByteString;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.apache.skywalking.oap.server.core.remote.RemoteBlockRows;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * ComplexObjectInput reads the {@link StorageDataComplexObject} fields written by {@link ComplexObjectOutput}. The
+ * encoding is detected from the {@link RemoteData} or the {@link RemoteBlockRows}, so the OAP node accepts the objects
+ * from the nodes with the binary encoding activated or not.
+ *
+ * @since 10.1.0
+ */
+public class ComplexObjectInput {
+    private final IntFunction<String> objectStrings;
+    private final byte[] buffer;
+    private int position;
+    private List<String> keys;
+    private int index;
+
+    private ComplexObjectInput(final IntFunction<String> objectStrings, final ByteString objects) {
+        this.objectStrings = objectStrings;
+        this.buffer = objects.isEmpty() ? null : objects.toByteArray();
+    }
+
+    public static ComplexObjectInput of(final RemoteData remoteData) {
+        return new ComplexObjectInput(remoteData::getDataObjectStrings, remoteData.getDataObjects());
+    }
+
+    /**
+     * Read the current row of the rows, the input should be used up before moving to the next row.
+     */
+    public static ComplexObjectInput of(final RemoteBlockRows rows) {
+        return new ComplexObjectInput(rows::getDataObjectStrings, rows.getDataObjects());
+    }
+
+    /**
+     * Initialize the given empty object by the next complex object in the {@link RemoteData}.
+     *
+     * @return the given object.
+     */
+    public <T extends StorageDataComplexObject<?>> T read(final T object) {
+        if (buffer == null) {
+            object.toObject(objectStrings.apply(index++));
+        } else {
+            object.fromBinary(this);
+        }
+        return object;
+    }
+
+    public int readSize() {
+        return (int) readVarint();
+    }
+
+    public int readInt() {
+        final int value = (int) readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readLong() {
+        final long value = readVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public String readString() {
+        final int length = readSize();
+        if (length < 0 || position + length > buffer.length) {
+            throw new IllegalStateException("Malformed complex object, string length " + length + " at " + position);
+        }
+        final String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /**
+     * @see ComplexObjectOutput#writeKey(String)
+     */
+    public String readKey() {
+        if (keys == null) {
+            keys = new ArrayList<>();
+        }
+        final int reference = readSize();
+        if (reference > 0) {
+            return keys.get(reference - 1);
+        }
+        final String key = readString();
+        keys.add(key);
+        return key;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= buffer.length) {
+                throw new IllegalStateException("Malformed complex object, truncated varint at " + position);
+            }
+            final byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed complex object, varint is too long at " + position);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import com.google.protobuf.ByteString;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * ComplexObjectOutput writes the {@link StorageDataComplexObject} fields of a {@link StreamData} into the {@link
+ * RemoteData}, in the order of {@link #write(StorageDataComplexObject)} calls. Read them back in the same order through
+ * {@link ComplexObjectInput}.
+ * <p>
+ * By default, every object is added to the `dataObjectStrings` as {@link StorageDataComplexObject#toStorageData()}.
+ * When the binary encoding is activated, all objects are written into the `dataObjects` bytes through {@link
+ * StorageDataComplexObject#toBinary(ComplexObjectOutput)} instead. The sizes and values are varints as in protobuf,
+ * and the keys share one dictionary in the {@link RemoteData}, every distinct key is written once, and referenced by
+ * its index later, such as the labels shared by the count and the summation of a labeled average.
+ *
+ * @since 10.1.0
+ */
+public class ComplexObjectOutput {
+    /**
+     * All OAP nodes in the cluster should support the binary encoding before activating it.
+     */
+    private static volatile boolean BINARY_ENCODING = false;
+
+    private final RemoteData.Builder builder;
+    private byte[] buffer;
+    private int position;
+    private Map<String, Integer> keys;
+
+    private ComplexObjectOutput(final RemoteData.Builder builder) {
+        this.builder = builder;
+        if (BINARY_ENCODING) {
+            buffer = new byte[256];
+        }
+    }
+
+    public static void setBinaryEncoding(final boolean binaryEncoding) {
+        BINARY_ENCODING = binaryEncoding;
+    }
+
+    public static ComplexObjectOutput of(final RemoteData.Builder builder) {
+        return new ComplexObjectOutput(builder);
+    }
+
+    public ComplexObjectOutput write(final StorageDataComplexObject<?> object) {
+        if (buffer == null) {
+            builder.addDataObjectStrings(object.toStorageData());
+        } else {
+            object.toBinary(this);
+        }
+        return this;
+    }
+
+    /**
+     * Set the binary objects into the {@link RemoteData}, should be called once after all objects are written.
+     */
+    public void flush() {
+        if (buffer != null) {
+            builder.setDataObjects(ByteString.copyFrom(buffer, 0, position));
+        }
+    }
+
+    public void writeSize(final int size) {
+        writeVarint(size & 0xFFFFFFFFL);
+    }
+
+    public void writeInt(final int value) {
+        writeVarint(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    public void writeLong(final long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    public void writeString(final String value) {
+        final int length = value.length();
+        if (length < 0x80) {
+            // The keys are ASCII mostly, such as the labels and the buckets, write the chars directly.
+            ensureCapacity(length + 1);
+            buffer[position] = (byte) length;
+            int i = 0;
+            for (; i < length; i++) {
+                final char c = value.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                buffer[position + 1 + i] = (byte) c;
+            }
+            if (i == length) {
+                position += length + 1;
+                return;
+            }
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeSize(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Write the index + 1 of the key in the dictionary, or 0 followed by the key itself at the first time.
+     */
+    public void writeKey(final String key) {
+        if (keys == null) {
+            keys = new HashMap<>(64);
+        }
+        final Integer index = keys.putIfAbsent(key, keys.size());
+        if (index != null) {
+            writeSize(index + 1);
+            return;
+        }
+        writeSize(0);
+        writeString(key);
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensureCapacity(final int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
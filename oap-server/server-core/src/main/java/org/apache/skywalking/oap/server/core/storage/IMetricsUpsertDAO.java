@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage;
+
+import java.io.IOException;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+
+/**
+ * The metrics DAO of the storages merging the metrics into the existing ones natively, such as the upsert of the
+ * relational databases. The metrics of the supported models are written without reading from the storage in advance.
+ *
+ * @since 10.1.0
+ */
+public interface IMetricsUpsertDAO extends IMetricsDAO {
+    /**
+     * @return true if the metrics of the given model are written through {@link #prepareBatchUpsert}.
+     */
+    boolean isUpsertSupported(Model model);
+
+    /**
+     * Transfer the given metrics to an executable statement, which inserts the metrics, or merges the metrics into
+     * the existing one in the same way as {@link Metrics#combine(Metrics)}.
+     *
+     * @param metrics includes the values received since the last flush only.
+     * @return InsertRequest should follow the database client driver datatype, in order to make sure it could be
+     * executed ASAP.
+     */
+    InsertRequest prepareBatchUpsert(Model model, Metrics metrics, SessionCacheCallback callback) throws IOException;
+}
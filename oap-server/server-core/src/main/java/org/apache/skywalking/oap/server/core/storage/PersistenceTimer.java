@@ -21,10 +21,13 @@ package org.apache.skywalking.oap.server.core.storage;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
@@ -50,6 +53,13 @@ public enum PersistenceTimer {
     private HistogramMetrics executeLatency;
     private HistogramMetrics allLatency;
     private ExecutorService prepareExecutorService;
+    private MetricsCreator metricsCreator;
+    /**
+     * The states of the workers in the pipelined mode.
+     *
+     * @since 10.1.0
+     */
+    private final Map<PersistenceWorker<? extends StorageData>, WorkerState> workerStates = new ConcurrentHashMap<>();
 
     PersistenceTimer() {
     }
@@ -59,9 +69,9 @@ public enum PersistenceTimer {
         IBatchDAO batchDAO =
             moduleManager.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
 
-        MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
-                                                     .provider()
-                                                     .getService(MetricsCreator.class);
+        metricsCreator = moduleManager.find(TelemetryModule.NAME)
+                                      .provider()
+                                      .getService(MetricsCreator.class);
         errorCounter = metricsCreator.createCounter(
             "persistence_timer_bulk_error_count",
             "Error execution of the prepare stage in persistence timer",
@@ -91,13 +101,24 @@ public enum PersistenceTimer {
 
         prepareExecutorService = Executors.newFixedThreadPool(moduleConfig.getPrepareThreads());
         if (!isStarted) {
-            Executors.newSingleThreadScheduledExecutor()
-                     .scheduleWithFixedDelay(
-                         new RunnableWithExceptionProtection(
-                             () -> extractDataAndSave(batchDAO).join(),
-                             t -> log.error("Extract data and save failure.", t)
-                         ), 5, moduleConfig.getPersistentPeriod(), TimeUnit.SECONDS
-                     );
+            if (moduleConfig.isPersistentPipelineEnabled()) {
+                log.info("persistence timer runs in the pipelined mode");
+                Executors.newSingleThreadScheduledExecutor()
+                         .scheduleWithFixedDelay(
+                             new RunnableWithExceptionProtection(
+                                 () -> extractDataAndSavePipelined(batchDAO),
+                                 t -> log.error("Extract data and save failure.", t)
+                             ), 5, moduleConfig.getPersistentPeriod(), TimeUnit.SECONDS
+                         );
+            } else {
+                Executors.newSingleThreadScheduledExecutor()
+                         .scheduleWithFixedDelay(
+                             new RunnableWithExceptionProtection(
+                                 () -> extractDataAndSave(batchDAO).join(),
+                                 t -> log.error("Extract data and save failure.", t)
+                             ), 5, moduleConfig.getPersistentPeriod(), TimeUnit.SECONDS
+                         );
+            }
 
             this.isStarted = true;
         }
@@ -160,4 +181,113 @@ public enum PersistenceTimer {
         });
         return future;
     }
+
+    /**
+     * Start a new round for every worker which is ready, without waiting for the previous round of other workers. A
+     * worker is skipped in this round if its previous round is still preparing or executing, so a slow worker doesn't
+     * block others. The rounds of the same worker never overlap, the prepare stage reads the session cache which is
+     * only updated by the callbacks of the previous execution, an overlapped round would insert the same metrics again
+     * or write the updates out of order.
+     *
+     * @return the future of the prepare stages started in this round.
+     * @since 10.1.0
+     */
+    private CompletableFuture<Void> extractDataAndSavePipelined(IBatchDAO batchDAO) {
+        List<PersistenceWorker<? extends StorageData>> workers = new ArrayList<>();
+        workers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
+        workers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>(workers.size());
+        for (final PersistenceWorker<? extends StorageData> worker : workers) {
+            final WorkerState state = workerStates.computeIfAbsent(worker, w -> new WorkerState(w.getModelName()));
+            if (!state.tryStartRound()) {
+                if (log.isDebugEnabled()) {
+                    log.debug(
+                        "skip the round of {}, the previous round is in flight", state.modelName
+                    );
+                }
+                continue;
+            }
+            futures.add(CompletableFuture.runAsync(() -> {
+                List<PrepareRequest> innerPrepareRequests;
+                // Prepare stage
+                try (HistogramMetrics.Timer ignored = prepareLatency.createTimer();
+                     HistogramMetrics.Timer ignored2 = state.prepareLatency.createTimer()) {
+                    innerPrepareRequests = worker.buildBatchRequests();
+
+                    worker.endOfRound();
+                } catch (Throwable t) {
+                    state.finishRound();
+                    throw t;
+                }
+
+                if (CollectionUtils.isEmpty(innerPrepareRequests)) {
+                    state.finishRound();
+                    return;
+                }
+
+                // Execution stage
+                HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
+                HistogramMetrics.Timer modelExecuteLatencyTimer = state.executeLatency.createTimer();
+                try {
+                    batchDAO.flush(innerPrepareRequests)
+                            .whenComplete(($1, $2) -> {
+                                state.finishRound();
+                                executeLatencyTimer.close();
+                                modelExecuteLatencyTimer.close();
+                            });
+                } catch (Throwable t) {
+                    state.finishRound();
+                    throw t;
+                }
+            }, prepareExecutorService));
+        }
+
+        final CompletableFuture<Void> future = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        future.whenComplete((unused, throwable) -> {
+            batchDAO.endOfFlush();
+            if (throwable != null) {
+                errorCounter.inc();
+                log.error(throwable.getMessage(), throwable);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * The state of a worker in the pipelined mode.
+     */
+    private class WorkerState {
+        private final String modelName;
+        /**
+         * True from the start of the prepare stage until the execution stage finishes.
+         */
+        private final AtomicBoolean inFlight = new AtomicBoolean(false);
+        private final HistogramMetrics prepareLatency;
+        private final HistogramMetrics executeLatency;
+
+        private WorkerState(String modelName) {
+            this.modelName = modelName;
+            prepareLatency = metricsCreator.createHistogramMetric(
+                "persistence_timer_model_prepare_latency",
+                "Latency of the prepare stage of a model in persistence timer",
+                new MetricsTag.Keys("model"), new MetricsTag.Values(modelName),
+                .05, .075, .1, .25, .5, .75, 1, 3, 5, 10, 30
+            );
+            executeLatency = metricsCreator.createHistogramMetric(
+                "persistence_timer_model_execute_latency",
+                "Latency of the execute stage of a model in persistence timer",
+                new MetricsTag.Keys("model"), new MetricsTag.Values(modelName),
+                0.5, 1, 3, 5, 10, 15, 20, 25, 50, 120
+            );
+        }
+
+        private boolean tryStartRound() {
+            return inFlight.compareAndSet(false, true);
+        }
+
+        private void finishRound() {
+            inFlight.set(false);
+        }
+    }
 }
@@ -23,6 +23,8 @@ import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.io.IOException;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectInput;
+import org.apache.skywalking.oap.server.core.remote.data.ComplexObjectOutput;
 
 /**
  * StorageDataComplexObject implementation supports String-Object interconversion.
@@ -44,6 +46,24 @@ public interface StorageDataComplexObject<T> {
      */
     void copyFrom(T source);
 
+    /**
+     * Write this object in the binary form for the transport between OAP nodes, the string data by default.
+     *
+     * @since 10.1.0
+     */
+    default void toBinary(ComplexObjectOutput output) {
+        output.writeString(toStorageData());
+    }
+
+    /**
+     * Initialize this object based on the binary form written by {@link #toBinary(ComplexObjectOutput)}.
+     *
+     * @since 10.1.0
+     */
+    default void fromBinary(ComplexObjectInput input) {
+        toObject(input.readString());
+    }
+
     final class Serializer extends JsonSerializer<StorageDataComplexObject<?>> {
         @Override
         public void serialize(
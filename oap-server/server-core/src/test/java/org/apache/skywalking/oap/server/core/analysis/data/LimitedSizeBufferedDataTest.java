@@ -18,6 +18,10 @@
 
 package org.apache.skywalking.oap.server.core.analysis.data;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
 import org.apache.skywalking.oap.server.core.analysis.topn.TopN;
 import org.apache.skywalking.oap.server.core.storage.StorageID;
 import org.junit.jupiter.api.Assertions;
@@ -55,6 +59,32 @@ public class LimitedSizeBufferedDataTest {
         }
     }
 
+    @Test
+    public void testKeepLargestInOrder() {
+        final Random random = new Random(17);
+        for (int limitedSize : new int[] {1, 10, 50}) {
+            LimitedSizeBufferedData<MockStorageData> collection = new LimitedSizeBufferedData<>(limitedSize);
+            List<Long> latencies = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                long latency = random.nextInt(200);
+                latencies.add(latency);
+                collection.accept(new MockStorageData(latency, 1705482000000L));
+            }
+            List<Long> expected = latencies.stream().sorted().skip(1000 - limitedSize).collect(Collectors.toList());
+            List<Long> actual = collection.read().stream().map(d -> d.latency).collect(Collectors.toList());
+            Assertions.assertEquals(expected, actual);
+            Assertions.assertTrue(collection.read().isEmpty());
+        }
+
+        // Less records than the limited size are read in order too.
+        LimitedSizeBufferedData<MockStorageData> collection = new LimitedSizeBufferedData<>(5);
+        collection.accept(new MockStorageData(9, 1705482000000L));
+        collection.accept(new MockStorageData(1, 1705482000000L));
+        collection.accept(new MockStorageData(5, 1705482000000L));
+        Assertions.assertEquals(
+            List.of(1L, 5L, 9L), collection.read().stream().map(d -> d.latency).collect(Collectors.toList()));
+    }
+
     private class MockStorageData extends TopN {
         private long latency;
         private long timestamp;
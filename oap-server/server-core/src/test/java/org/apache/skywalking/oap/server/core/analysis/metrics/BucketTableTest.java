@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BucketTableTest {
+    @Test
+    public void testAccumulateAndRehash() {
+        BucketTable table = new BucketTable(4);
+        for (int i = 0; i < 1000; i++) {
+            table.accumulate(i % 100 - 10, i);
+        }
+        Assertions.assertEquals(100, table.size());
+        Assertions.assertEquals(499500L, table.sumOfValues());
+        Assertions.assertEquals(0 + 100 + 200 + 300 + 400 + 500 + 600 + 700 + 800 + 900, table.get(-10));
+        Assertions.assertEquals(0L, table.get(100));
+        Assertions.assertFalse(table.hasKey(100));
+
+        long[] sortedKeys = table.sortedKeys();
+        Assertions.assertEquals(-10, sortedKeys[0]);
+        Assertions.assertEquals(89, sortedKeys[sortedKeys.length - 1]);
+
+        table.clear();
+        Assertions.assertTrue(table.isEmpty());
+        Assertions.assertFalse(table.hasKey(-10));
+    }
+
+    @Test
+    public void testAppend() {
+        BucketTable table = new BucketTable(2);
+        table.accumulate(1, 100L);
+        table.accumulate(2, 200L);
+        BucketTable other = new BucketTable(2);
+        other.accumulate(2, 20L);
+        other.accumulate(3, 30L);
+
+        table.append(other);
+        Assertions.assertEquals(3, table.size());
+        Assertions.assertEquals(220L, table.get(2));
+        Assertions.assertEquals(30L, table.get(3));
+    }
+
+    @Test
+    public void testLongKeys() {
+        BucketTable table = new BucketTable(2);
+        table.accumulate(10_000_000_000L, 1L);
+        table.accumulate(Long.MIN_VALUE, 2L);
+        table.accumulate(10_000_000_000L + (1L << 32), 3L);
+        Assertions.assertEquals(1L, table.get(10_000_000_000L));
+        Assertions.assertArrayEquals(
+            new long[] {Long.MIN_VALUE, 10_000_000_000L, 10_000_000_000L + (1L << 32)}, table.sortedKeys());
+    }
+
+    @Test
+    public void testDataTableConversion() {
+        BucketTable table = new BucketTable(8);
+        table.accumulate(7, 700L);
+        table.accumulate(1, 100L);
+        table.put(5, 0L);
+
+        DataTable dataTable = new DataTable();
+        table.writeTo(dataTable);
+        Assertions.assertEquals("1,100|5,0|7,700", dataTable.toStorageData());
+
+        BucketTable restored = new BucketTable(8);
+        restored.readFrom(new DataTable("1,100|5,0|7,700"));
+        Assertions.assertArrayEquals(new long[] {1, 5, 7}, restored.sortedKeys());
+        Assertions.assertEquals(700L, restored.get(7));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LabeledBucketTableTest {
+    @Test
+    public void testDataTableConversion() {
+        LabeledBucketTable table = new LabeledBucketTable(4);
+        table.accumulate("", Long.MIN_VALUE, 1L);
+        table.accumulate("", 100L, 2L);
+        table.accumulate("{url=localhost:3306}", 100L, 3L);
+        table.accumulate("{url=localhost:3306}", 100L, 4L);
+
+        DataTable dataTable = new DataTable();
+        Assertions.assertSame(dataTable, table.syncTo(dataTable));
+        Assertions.assertEquals(3, dataTable.size());
+        Assertions.assertEquals(1L, dataTable.get(Bucket.INFINITE_NEGATIVE));
+        Assertions.assertEquals(2L, dataTable.get("100"));
+        Assertions.assertEquals(7L, dataTable.get("{url=localhost:3306}:100"));
+
+        LabeledBucketTable restored = new LabeledBucketTable(4);
+        restored.loadFrom(new DataTable(dataTable.toStorageData()));
+        Assertions.assertTrue(restored.keysEqual(table));
+        Assertions.assertArrayEquals(new long[] {Long.MIN_VALUE, 100L}, restored.get("").sortedKeys());
+        Assertions.assertEquals(7L, restored.get("{url=localhost:3306}").get(100L));
+    }
+
+    @Test
+    public void testSyncOnlyWhenModified() {
+        LabeledBucketTable table = new LabeledBucketTable(4);
+        table.accumulate("", 10L, 1L);
+        DataTable dataTable = table.syncTo(new DataTable());
+
+        dataTable.put("20", 2L);
+        table.syncTo(dataTable);
+        Assertions.assertEquals(2, dataTable.size());
+
+        LabeledBucketTable other = new LabeledBucketTable(4);
+        other.accumulate("", 10L, 5L);
+        table.append(other);
+        table.syncTo(dataTable);
+        Assertions.assertEquals(1, dataTable.size());
+        Assertions.assertEquals(6L, dataTable.get("10"));
+
+        table.clear();
+        Assertions.assertTrue(table.isEmpty());
+        Assertions.assertNull(table.get(""));
+        Assertions.assertFalse(table.keysEqual(other));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.apache.skywalking.oap.server.core.storage.StorageID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MetricsKeyTest {
+    @Test
+    public void testCompactKey() {
+        MetricsKey key = new MetricsKey(202410171200L, "c2VydmljZQ==.1");
+        Assertions.assertEquals(key, new MetricsKey(202410171200L, new String("c2VydmljZQ==.1")));
+        Assertions.assertEquals(key.hashCode(), new MetricsKey(202410171200L, "c2VydmljZQ==.1").hashCode());
+        Assertions.assertNotEquals(key, new MetricsKey(202410171201L, "c2VydmljZQ==.1"));
+        Assertions.assertNotEquals(key, new MetricsKey(202410171200L, "c2VydmljZQ==.0"));
+        Assertions.assertEquals("202410171200_c2VydmljZQ==.1", key.toString());
+    }
+
+    @Test
+    public void testStorageIDKey() {
+        MetricsKey key = new MetricsKey(
+            new StorageID().append(Metrics.TIME_BUCKET, 202410171200L).append(Metrics.ENTITY_ID, "a"));
+        Assertions.assertEquals(key, new MetricsKey(
+            new StorageID().append(Metrics.TIME_BUCKET, 202410171200L).append(Metrics.ENTITY_ID, "a")));
+        Assertions.assertNotEquals(key, new MetricsKey(
+            new StorageID().append(Metrics.TIME_BUCKET, 202410171200L).append(Metrics.ENTITY_ID, "b")));
+        Assertions.assertNotEquals(key, new MetricsKey(202410171200L, "a"));
+    }
+
+    @Test
+    public void testKeyResetWithMetrics() {
+        MetricsPoolTest.PercentileMetrics2Impl metrics = new MetricsPoolTest.PercentileMetrics2Impl();
+        metrics.setTimeBucket(202410171200L);
+        MetricsKey key = metrics.key();
+        Assertions.assertSame(key, metrics.key());
+
+        metrics.reset();
+        metrics.setTimeBucket(202410171201L);
+        Assertions.assertNotEquals(key, metrics.key());
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.StorageID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MetricsPoolTest {
+    @AfterEach
+    public void tearDown() {
+        MetricsPool.setSize(0);
+    }
+
+    @Test
+    public void testDisabled() {
+        MetricsPool.recycle(new PercentileMetrics2Impl());
+        Assertions.assertNull(MetricsPool.borrow(PercentileMetrics2Impl.class));
+    }
+
+    @Test
+    public void testNotActivated() {
+        MetricsPool.setSize(10);
+        MetricsPool.recycle(new CPMMetricsImpl());
+        MetricsPool.recycle(new CPMMetricsImpl());
+        // The first borrow activates the pool, the recycled instances before are dropped.
+        Assertions.assertNull(MetricsPool.borrow(CPMMetricsImpl.class));
+    }
+
+    @Test
+    public void testRecycleAfterMerged() {
+        MetricsPool.setSize(10);
+        Assertions.assertNull(MetricsPool.borrow(PercentileMetrics2Impl.class));
+
+        MergableBufferedData<Metrics> buffer = new MergableBufferedData<>();
+        PercentileMetrics2Impl first = new PercentileMetrics2Impl();
+        first.setTimeBucket(202410171200L);
+        first.combine(100, 10);
+        PercentileMetrics2Impl second = new PercentileMetrics2Impl();
+        second.setTimeBucket(202410171200L);
+        second.combine(200, 10);
+        second.id();
+        buffer.accept(first);
+        buffer.accept(second);
+
+        Metrics borrowed = MetricsPool.borrow(PercentileMetrics2Impl.class);
+        Assertions.assertSame(second, borrowed);
+        Assertions.assertEquals(0, borrowed.getTimeBucket());
+        Assertions.assertEquals(0, second.getPrecision());
+        Assertions.assertFalse(second.getDataset().hasData());
+        Assertions.assertNull(MetricsPool.borrow(PercentileMetrics2Impl.class));
+
+        Assertions.assertEquals(2L, first.getDataset().sumOfValues());
+    }
+
+    @Test
+    public void testBounded() {
+        MetricsPool.setSize(1);
+        Assertions.assertNull(MetricsPool.borrow(DoubleAvgMetricsImpl.class));
+        DoubleAvgMetricsImpl metrics = new DoubleAvgMetricsImpl();
+        metrics.combine(10D, 1);
+        MetricsPool.recycle(metrics);
+        MetricsPool.recycle(new DoubleAvgMetricsImpl());
+
+        DoubleAvgMetricsImpl borrowed = (DoubleAvgMetricsImpl) MetricsPool.borrow(DoubleAvgMetricsImpl.class);
+        Assertions.assertSame(metrics, borrowed);
+        Assertions.assertEquals(0, borrowed.getCount());
+        Assertions.assertEquals(0D, borrowed.getSummation());
+        Assertions.assertNull(MetricsPool.borrow(DoubleAvgMetricsImpl.class));
+    }
+
+    public static class CPMMetricsImpl extends CPMMetrics {
+        @Override
+        protected StorageID id0() {
+            return new StorageID().append(TIME_BUCKET, getTimeBucket());
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+
+    public static class DoubleAvgMetricsImpl extends DoubleAvgMetrics {
+        @Override
+        protected StorageID id0() {
+            return new StorageID().append(TIME_BUCKET, getTimeBucket());
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+
+    public static class PercentileMetrics2Impl extends PercentileMetrics2 {
+        @Override
+        protected StorageID id0() {
+            return new StorageID().append(TIME_BUCKET, getTimeBucket());
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.StorageID;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapMetricsSessionCacheTest {
+    private Counter hit;
+    private Counter miss;
+    private Counter evicted;
+
+    @BeforeEach
+    public void setUp() {
+        hit = new Counter();
+        miss = new Counter();
+        evicted = new Counter();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        final OffHeapMetricsSessionCache cache = newCache(OffHeapSessionMemory.CHUNK_SIZE * 2);
+        Assertions.assertNull(cache.get(metrics("a", 0)));
+
+        final TestMetrics metrics = metrics("a", 10);
+        metrics.setLastUpdateTimestamp(1000);
+        cache.put(metrics);
+        final TestMetrics cached = (TestMetrics) cache.get(metrics("a", 0));
+        Assertions.assertNotSame(metrics, cached);
+        Assertions.assertEquals(10, cached.value);
+        Assertions.assertEquals(metrics.getTimeBucket(), cached.getTimeBucket());
+
+        // The change takes effect after put back.
+        cached.value = 20;
+        Assertions.assertEquals(10, ((TestMetrics) cache.get(metrics)).value);
+        cache.put(cached);
+        Assertions.assertEquals(20, ((TestMetrics) cache.get(metrics)).value);
+
+        // A larger value moves to another size class.
+        final TestMetrics large = metrics("a", 30);
+        large.padding = new String(new char[500]);
+        cache.put(large);
+        Assertions.assertEquals(30, ((TestMetrics) cache.get(metrics)).value);
+
+        cache.remove(metrics);
+        Assertions.assertNull(cache.get(metrics));
+        Assertions.assertEquals(4, hit.value);
+        Assertions.assertEquals(2, miss.value);
+        Assertions.assertEquals(0, evicted.value);
+    }
+
+    @Test
+    public void testEviction() {
+        final OffHeapMetricsSessionCache cache = newCache(OffHeapSessionMemory.CHUNK_SIZE);
+        final int slots = OffHeapSessionMemory.CHUNK_SIZE / OffHeapSessionMemory.MIN_SLOT_SIZE;
+        for (int i = 0; i < slots; i++) {
+            cache.put(metrics(String.valueOf(i), i));
+        }
+        // Referenced recently, skipped by the CLOCK.
+        Assertions.assertNotNull(cache.get(metrics("0", 0)));
+
+        cache.put(metrics("new", 1));
+        Assertions.assertEquals(1, evicted.value);
+        Assertions.assertNotNull(cache.get(metrics("0", 0)));
+        Assertions.assertNull(cache.get(metrics("1", 0)));
+        Assertions.assertNotNull(cache.get(metrics("new", 0)));
+
+        // No chunk for another size class in the budget.
+        final TestMetrics large = metrics("large", 1);
+        large.padding = new String(new char[500]);
+        cache.put(large);
+        Assertions.assertEquals(2, evicted.value);
+        Assertions.assertNull(cache.get(large));
+    }
+
+    @Test
+    public void testTakeChunkFromOtherSizeClass() {
+        final OffHeapMetricsSessionCache cache = newCache(OffHeapSessionMemory.CHUNK_SIZE * 2);
+        final int slots = OffHeapSessionMemory.CHUNK_SIZE / OffHeapSessionMemory.MIN_SLOT_SIZE;
+        for (int i = 0; i < slots * 2; i++) {
+            cache.put(metrics(String.valueOf(i), i));
+        }
+        Assertions.assertEquals(0, evicted.value);
+
+        // The small size class holds the whole budget, one chunk of it is taken over by the large size class.
+        final TestMetrics large = metrics("large", 1);
+        large.padding = new String(new char[500]);
+        cache.put(large);
+        Assertions.assertEquals(slots, evicted.value);
+        Assertions.assertEquals(1, ((TestMetrics) cache.get(large)).value);
+        Assertions.assertNotNull(cache.get(metrics("0", 0)));
+        Assertions.assertNull(cache.get(metrics(String.valueOf(slots * 2 - 1), 0)));
+
+        // Both size classes hold one chunk, the small one evicts its own slots now.
+        cache.put(metrics("new", 1));
+        Assertions.assertEquals(slots + 1, evicted.value);
+        Assertions.assertNotNull(cache.get(large));
+        Assertions.assertNotNull(cache.get(metrics("new", 0)));
+    }
+
+    @Test
+    public void testRemoveExpired() {
+        final OffHeapMetricsSessionCache cache = newCache(OffHeapSessionMemory.CHUNK_SIZE);
+        final TestMetrics expired = metrics("expired", 1);
+        expired.setLastUpdateTimestamp(System.currentTimeMillis() - 10_000);
+        cache.put(expired);
+        final TestMetrics active = metrics("active", 1);
+        active.setLastUpdateTimestamp(System.currentTimeMillis());
+        cache.put(active);
+
+        cache.removeExpired();
+        Assertions.assertNull(cache.get(expired));
+        Assertions.assertNotNull(cache.get(active));
+    }
+
+    private OffHeapMetricsSessionCache newCache(long budget) {
+        return new OffHeapMetricsSessionCache(5_000, new OffHeapSessionMemory(budget), hit, miss, evicted);
+    }
+
+    private static TestMetrics metrics(String entityId, long value) {
+        final TestMetrics metrics = new TestMetrics();
+        metrics.entityId = entityId;
+        metrics.value = value;
+        metrics.setTimeBucket(202401010101L);
+        return metrics;
+    }
+
+    public static class TestMetrics extends Metrics {
+        private String entityId;
+        private long value;
+        private String padding = "";
+
+        @Override
+        protected StorageID id0() {
+            return new StorageID().append(TIME_BUCKET, getTimeBucket()).append(ENTITY_ID, entityId);
+        }
+
+        @Override
+        public boolean combine(Metrics metrics) {
+            return true;
+        }
+
+        @Override
+        public void calculate() {
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+            entityId = remoteData.getDataStrings(0);
+            padding = remoteData.getDataStrings(1);
+            setTimeBucket(remoteData.getDataLongs(0));
+            value = remoteData.getDataLongs(1);
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return RemoteData.newBuilder()
+                             .addDataStrings(entityId)
+                             .addDataStrings(padding)
+                             .addDataLongs(getTimeBucket())
+                             .addDataLongs(value);
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+    }
+
+    private static class Counter implements CounterMetrics {
+        private long value;
+
+        @Override
+        public void inc() {
+            value++;
+        }
+
+        @Override
+        public void inc(double value) {
+            this.value += (long) value;
+        }
+    }
+}
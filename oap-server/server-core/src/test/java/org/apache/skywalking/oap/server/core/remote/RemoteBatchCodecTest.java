@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteBatch;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RemoteBatchCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        final List<RemoteMessage> messages = Arrays.asList(
+            message("worker-a", data("svc1", 202401010101L, 10L, 1.5D, 3, "1,2|3,4")),
+            message("worker-b", data("svc1", 202401010101L, -7L, 0D, 0, "")),
+            message("worker-a", data("svc2", 202401010102L, 5L, 2.5D, -3, "1,2|3,4")),
+            message("worker-a", RemoteData.newBuilder().addDataStrings("svc3").build()),
+            message("worker-a", data("svc1", Long.MIN_VALUE, Long.MAX_VALUE, Double.NaN, Integer.MIN_VALUE, "x"))
+        );
+
+        final RemoteBatch batch = RemoteBatchCodec.encode(messages);
+        Assertions.assertEquals(Arrays.asList("worker-a", "worker-b"), batch.getWorkerNamesList());
+        // worker-a is split by the field counts.
+        Assertions.assertEquals(3, batch.getBlocksCount());
+        Assertions.assertEquals(batch.getStringsCount(), batch.getStringsList().stream().distinct().count());
+
+        final List<RemoteMessage> decoded = RemoteBatchCodec.toMessages(batch);
+
+        Assertions.assertEquals(messages.size(), decoded.size());
+        Assertions.assertTrue(decoded.containsAll(messages));
+        // The order is kept in the same block.
+        Assertions.assertEquals(messages.get(0), decoded.get(0));
+        Assertions.assertEquals(messages.get(2), decoded.get(1));
+        Assertions.assertEquals(messages.get(4), decoded.get(2));
+    }
+
+    @Test
+    public void testReadColumns() {
+        final List<RemoteMessage> messages = Arrays.asList(
+            message("worker-a", data("svc1", 202401010101L, 10L, 1.5D, 3, "1,2|3,4")),
+            message("worker-a", data("svc2", 202401010102L, -5L, 2.5D, -3, "5,6")),
+            message("worker-a", data("svc1", 202401010102L, 7L, 0D, 0, "1,2|3,4"))
+        );
+
+        final List<RemoteData> read = new ArrayList<>();
+        RemoteBatchCodec.decode(RemoteBatchCodec.encode(messages), (nextWorkerName, rows) -> {
+            Assertions.assertEquals("worker-a", nextWorkerName);
+            Assertions.assertEquals(3, rows.size());
+            while (rows.next()) {
+                read.add(RemoteData.newBuilder()
+                                   .addDataStrings(rows.getDataStrings(0))
+                                   .addDataLongs(rows.getDataLongs(0))
+                                   .addDataLongs(rows.getDataLongs(1))
+                                   .addDataDoubles(rows.getDataDoubles(0))
+                                   .addDataIntegers(rows.getDataIntegers(0))
+                                   .addDataObjectStrings(rows.getDataObjectStrings(0))
+                                   .build());
+            }
+        });
+        Assertions.assertEquals(
+            messages.stream().map(RemoteMessage::getRemoteData).collect(Collectors.toList()), read);
+    }
+
+    @Test
+    public void testBinaryObjects() {
+        final RemoteData binary = RemoteData.newBuilder()
+                                            .addDataStrings("svc1")
+                                            .addDataLongs(202401010101L)
+                                            .setDataObjects(ByteString.copyFrom(new byte[] {2, 0, 1}))
+                                            .build();
+        final List<RemoteMessage> messages = Arrays.asList(
+            message("worker-a", binary),
+            message("worker-a", RemoteData.newBuilder().addDataStrings("svc2").addDataLongs(202401010101L).build()),
+            message("worker-a", binary.toBuilder().setDataStrings(0, "svc3").build())
+        );
+
+        final RemoteBatch batch = RemoteBatchCodec.encode(messages);
+        // The rows with and without the binary objects are in different blocks.
+        Assertions.assertEquals(2, batch.getBlocksCount());
+
+        final List<RemoteMessage> decoded = RemoteBatchCodec.toMessages(batch);
+        Assertions.assertEquals(Arrays.asList(messages.get(0), messages.get(2), messages.get(1)), decoded);
+    }
+
+    @Test
+    public void testBinary() {
+        final RemoteData binary = RemoteData.newBuilder()
+                                            .addDataStrings("trace1")
+                                            .addDataIntegers(10)
+                                            .setDataBinary(ByteString.copyFrom(new byte[] {10, 3, 0, -1}))
+                                            .build();
+        final List<RemoteMessage> messages = Arrays.asList(
+            message("worker-a", binary),
+            message("worker-a", RemoteData.newBuilder().addDataStrings("trace2").addDataIntegers(20).build()),
+            message("worker-a", binary.toBuilder().setDataStrings(0, "trace3").build())
+        );
+
+        final RemoteBatch batch = RemoteBatchCodec.encode(messages);
+        Assertions.assertEquals(2, batch.getBlocksCount());
+
+        final List<RemoteMessage> decoded = RemoteBatchCodec.toMessages(batch);
+        Assertions.assertEquals(Arrays.asList(messages.get(0), messages.get(2), messages.get(1)), decoded);
+    }
+
+    @Test
+    public void testSmallerThanMessages() {
+        final List<RemoteMessage> messages = new ArrayList<>();
+        int size = 0;
+        for (int i = 0; i < 100; i++) {
+            final RemoteMessage message = message(
+                "ServiceInstanceRespTimeMetrics", data("c2VydmljZQ==.1_aW5zdGFuY2U=" + (i % 5), 202401010101L, i, 0, 0, ""));
+            messages.add(message);
+            size += message.getSerializedSize();
+        }
+
+        Assertions.assertTrue(RemoteBatchCodec.encode(messages).getSerializedSize() < size / 3);
+    }
+
+    private static RemoteMessage message(String worker, RemoteData data) {
+        return RemoteMessage.newBuilder().setNextWorkerName(worker).setRemoteData(data).build();
+    }
+
+    private static RemoteData data(String entityId, long timeBucket, long value, double d, int i, String object) {
+        return RemoteData.newBuilder()
+                         .addDataStrings(entityId)
+                         .addDataLongs(timeBucket)
+                         .addDataLongs(value)
+                         .addDataDoubles(d)
+                         .addDataIntegers(i)
+                         .addDataObjectStrings(object)
+                         .build();
+    }
+}
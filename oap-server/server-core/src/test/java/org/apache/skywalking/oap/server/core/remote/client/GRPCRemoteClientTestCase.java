@@ -22,11 +22,15 @@ import io.grpc.ManagedChannel;
 import io.grpc.Server;
 import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
 import io.grpc.util.MutableHandlerRegistry;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
@@ -34,6 +38,7 @@ import org.apache.skywalking.oap.server.core.worker.WorkerInstancesService;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
@@ -46,6 +51,7 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doReturn;
@@ -83,6 +89,7 @@ public class GRPCRemoteClientTestCase {
         moduleDefine.provider().registerServiceImplementation(IWorkerInstanceGetter.class, workerInstancesService);
         moduleDefine.provider().registerServiceImplementation(IWorkerInstanceSetter.class, workerInstancesService);
 
+        TestWorker.RECEIVED.set(0);
         TestWorker worker = new TestWorker(moduleManager);
         workerInstancesService.put(nextWorkerName, worker, TestStreamData.class);
     }
@@ -108,6 +115,23 @@ public class GRPCRemoteClientTestCase {
 
     @Test
     public void testPush() throws InterruptedException {
+        push(false, false);
+    }
+
+    @Test
+    public void testPushWithBatchEncoding() throws InterruptedException {
+        push(true, false);
+    }
+
+    @Test
+    public void testPushWithBatchEncodingToOlderServer() throws InterruptedException {
+        push(true, true);
+    }
+
+    /**
+     * @param olderServer the server doesn't implement the batch RPC.
+     */
+    private void push(boolean batchEncoding, boolean olderServer) throws InterruptedException {
         MetricsCreator metricsCreator = mock(MetricsCreator.class);
         when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
             @Override
@@ -121,6 +145,38 @@ public class GRPCRemoteClientTestCase {
             }
         });
 
+        when(metricsCreator.createGauge(any(), any(), any(), any())).thenReturn(new GaugeMetrics() {
+            @Override
+            public void inc() {
+
+            }
+
+            @Override
+            public void inc(double value) {
+
+            }
+
+            @Override
+            public void dec() {
+
+            }
+
+            @Override
+            public void dec(double value) {
+
+            }
+
+            @Override
+            public void setValue(double value) {
+
+            }
+
+            @Override
+            public double getValue() {
+                return 0;
+            }
+        });
+
         when(metricsCreator.createHistogramMetric(any(), any(), any(), any())).thenReturn(new HistogramMetrics() {
             @Override
             public Timer createTimer() {
@@ -137,19 +193,32 @@ public class GRPCRemoteClientTestCase {
         moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
         telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
 
-        serviceRegistry.addService(new RemoteServiceHandler(moduleManager));
+        final RemoteServiceHandler handler = new RemoteServiceHandler(moduleManager);
+        if (olderServer) {
+            serviceRegistry.addService(new RemoteServiceGrpc.RemoteServiceImplBase() {
+                @Override
+                public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
+                    return handler.call(responseObserver);
+                }
+            });
+        } else {
+            serviceRegistry.addService(handler);
+        }
 
         Address address = new Address("not-important", 11, false);
-        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, 10, null));
-        remoteClient.connect();
-
+        GRPCRemoteClient remoteClient = spy(
+            new GRPCRemoteClient(moduleManager, address, 1, 10, 10, null, batchEncoding, 64));
         doReturn(channel).when(remoteClient).getChannel();
+        remoteClient.connect();
 
         for (int i = 0; i < 12; i++) {
             remoteClient.push(nextWorkerName, new TestStreamData());
         }
 
         TimeUnit.SECONDS.sleep(2);
+        // The in-flight bytes limit is smaller than the messages, the streams are rotated to make progress.
+        // The batches rejected by the older server are sent again through the per-message RPC.
+        Assertions.assertEquals(12, TestWorker.RECEIVED.get());
     }
 
     public static class TestStreamData extends StreamData {
@@ -175,6 +244,7 @@ public class GRPCRemoteClientTestCase {
     }
 
     static class TestWorker extends AbstractWorker {
+        private static final AtomicInteger RECEIVED = new AtomicInteger();
 
         public TestWorker(ModuleDefineHolder moduleDefineHolder) {
             super(moduleDefineHolder);
@@ -184,6 +254,7 @@ public class GRPCRemoteClientTestCase {
         public void in(Object o) {
             TestStreamData streamData = (TestStreamData) o;
             Assertions.assertEquals(987, streamData.value);
+            RECEIVED.incrementAndGet();
         }
     }
 }
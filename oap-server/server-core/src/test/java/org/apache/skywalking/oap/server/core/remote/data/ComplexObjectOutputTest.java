@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
+import org.apache.skywalking.oap.server.core.analysis.record.LongText;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ComplexObjectOutputTest {
+    @AfterEach
+    public void tearDown() {
+        ComplexObjectOutput.setBinaryEncoding(false);
+    }
+
+    @Test
+    public void testStringEncoding() {
+        final RemoteData remoteData = write();
+        Assertions.assertEquals(4, remoteData.getDataObjectStringsCount());
+        Assertions.assertTrue(remoteData.getDataObjects().isEmpty());
+        assertRead(remoteData);
+    }
+
+    @Test
+    public void testBinaryEncoding() {
+        ComplexObjectOutput.setBinaryEncoding(true);
+        final RemoteData remoteData = write();
+        Assertions.assertEquals(0, remoteData.getDataObjectStringsCount());
+        Assertions.assertFalse(remoteData.getDataObjects().isEmpty());
+        assertRead(remoteData);
+    }
+
+    @Test
+    public void testKeyDictionary() {
+        ComplexObjectOutput.setBinaryEncoding(true);
+        final DataTable table = labeled();
+        final RemoteData.Builder once = RemoteData.newBuilder();
+        ComplexObjectOutput.of(once).write(table).flush();
+        final RemoteData.Builder twice = RemoteData.newBuilder();
+        ComplexObjectOutput.of(twice).write(table).write(table).flush();
+
+        // The labels of the second table are only referenced by the index.
+        Assertions.assertTrue(twice.getDataObjects().size() - once.getDataObjects().size() < once.getDataObjects().size() / 4);
+        final ComplexObjectInput objects = ComplexObjectInput.of(twice.build());
+        Assertions.assertEquals(table, objects.read(new DataTable()));
+        Assertions.assertEquals(table, objects.read(new DataTable()));
+    }
+
+    private static RemoteData write() {
+        final IntList ranks = new IntList(3);
+        ranks.add(50);
+        ranks.add(-1);
+        ranks.add(Integer.MAX_VALUE);
+        final RemoteData.Builder builder = RemoteData.newBuilder();
+        ComplexObjectOutput.of(builder)
+            .write(labeled())
+            .write(new DataTable())
+            .write(ranks)
+            .write(new LongText("a long text, with the splitters |,"))
+            .flush();
+        return builder.build();
+    }
+
+    private static void assertRead(final RemoteData remoteData) {
+        final ComplexObjectInput objects = ComplexObjectInput.of(remoteData);
+        Assertions.assertEquals(labeled(), objects.read(new DataTable()));
+        Assertions.assertFalse(objects.read(new DataTable()).hasData());
+        final IntList ranks = objects.read(new IntList(0));
+        Assertions.assertEquals(3, ranks.size());
+        Assertions.assertEquals(-1, ranks.get(1));
+        Assertions.assertEquals(Integer.MAX_VALUE, ranks.get(2));
+        Assertions.assertEquals(
+            "a long text, with the splitters |,", objects.read(new LongText("")).getText());
+    }
+
+    private static DataTable labeled() {
+        final DataTable table = new DataTable();
+        table.put("{service=a,instance=b}", 100L);
+        table.put("{service=a,instance=c}", -20L);
+        table.put("{service=a,instance=d}", Long.MAX_VALUE);
+        return table;
+    }
+}
@@ -36,16 +36,22 @@ import org.junit.jupiter.api.Test;
 import org.powermock.reflect.Whitebox;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class PersistenceTimerTest {
 
@@ -88,6 +94,98 @@ public class PersistenceTimerTest {
         Assertions.assertEquals(count * workCount * 2, result.size());
     }
 
+    @Test
+    public void testExtractDataAndSavePipelined() throws Exception {
+        MetricsStreamProcessor.getInstance().getPersistentWorkers().clear();
+        TopNStreamProcessor.getInstance().getPersistentWorkers().clear();
+        List<PrepareRequest> result = new ArrayList<>();
+        CompletableFuture<Void> execution = new CompletableFuture<>();
+        CoreModuleConfig moduleConfig = new CoreModuleConfig();
+        moduleConfig.setPersistentPeriod(Integer.MAX_VALUE);
+        IBatchDAO iBatchDAO = new IBatchDAO() {
+            @Override
+            public void insert(InsertRequest insertRequest) {
+
+            }
+
+            @Override
+            public CompletableFuture<Void> flush(final List<PrepareRequest> prepareRequests) {
+                synchronized (result) {
+                    result.addAll(prepareRequests);
+                }
+                return execution;
+            }
+        };
+
+        CountDownLatch slowWorkerLatch = new CountDownLatch(1);
+        AtomicInteger slowWorkerRounds = new AtomicInteger();
+        MetricsPersistentWorker slowWorker = mock(MetricsPersistentWorker.class);
+        doAnswer(invocation -> {
+            slowWorkerRounds.incrementAndGet();
+            slowWorkerLatch.await();
+            return Collections.singletonList(new MockStorageData("slow"));
+        }).when(slowWorker).buildBatchRequests();
+        MetricsPersistentWorker fastWorker = genWorkers(0, 1);
+        MetricsStreamProcessor.getInstance().getPersistentWorkers().add(slowWorker);
+        MetricsStreamProcessor.getInstance().getPersistentWorkers().add(fastWorker);
+
+        ModuleManager moduleManager = mock(ModuleManager.class);
+        ModuleServiceHolder moduleServiceHolder = mock(ModuleServiceHolder.class);
+        doReturn((ModuleProviderHolder) () -> moduleServiceHolder).when(moduleManager).find(anyString());
+        doReturn(new MetricsCreatorNoop()).when(moduleServiceHolder).getService(MetricsCreator.class);
+        doReturn(iBatchDAO).when(moduleServiceHolder).getService(IBatchDAO.class);
+        PersistenceTimer.INSTANCE.isStarted = true;
+        PersistenceTimer.INSTANCE.start(moduleManager, moduleConfig);
+
+        try {
+            // The slow worker doesn't block the other one.
+            CompletableFuture<Void> slowRound = Whitebox.invokeMethod(
+                PersistenceTimer.INSTANCE, "extractDataAndSavePipelined", iBatchDAO);
+            waitForSize(result, 1);
+
+            // The slow worker is still preparing, and the execution of the fast worker is not finished, both are
+            // skipped. The next round of the fast worker would miss the session cache updated by the execution.
+            CompletableFuture<Void> f = Whitebox.invokeMethod(
+                PersistenceTimer.INSTANCE, "extractDataAndSavePipelined", iBatchDAO);
+            f.join();
+            Assertions.assertEquals(1, result.size());
+            verify(fastWorker, times(1)).buildBatchRequests();
+            Assertions.assertEquals(1, slowWorkerRounds.get());
+
+            // The fast worker starts its next round once its execution finishes.
+            execution.complete(null);
+            f = Whitebox.invokeMethod(PersistenceTimer.INSTANCE, "extractDataAndSavePipelined", iBatchDAO);
+            f.join();
+            Assertions.assertEquals(2, result.size());
+            verify(fastWorker, times(2)).buildBatchRequests();
+            Assertions.assertEquals(1, slowWorkerRounds.get());
+
+            slowWorkerLatch.countDown();
+            slowRound.join();
+            Assertions.assertEquals(3, result.size());
+
+            f = Whitebox.invokeMethod(PersistenceTimer.INSTANCE, "extractDataAndSavePipelined", iBatchDAO);
+            f.join();
+            Assertions.assertEquals(5, result.size());
+            Assertions.assertEquals(2, slowWorkerRounds.get());
+        } finally {
+            slowWorkerLatch.countDown();
+            MetricsStreamProcessor.getInstance().getPersistentWorkers().clear();
+        }
+    }
+
+    private void waitForSize(List<PrepareRequest> result, int size) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            synchronized (result) {
+                if (result.size() == size) {
+                    return;
+                }
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        Assertions.fail("Expect " + size + " requests, but " + result.size());
+    }
+
     private MetricsPersistentWorker genWorkers(int num, int count) {
         MetricsPersistentWorker persistenceWorker = mock(MetricsPersistentWorker.class);
         doAnswer(invocation -> {
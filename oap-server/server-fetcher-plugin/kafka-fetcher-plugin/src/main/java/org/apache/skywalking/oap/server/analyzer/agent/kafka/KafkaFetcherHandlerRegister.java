@@ -47,6 +47,7 @@ import org.apache.skywalking.oap.server.analyzer.agent.kafka.module.KafkaFetcher
 import org.apache.skywalking.oap.server.analyzer.agent.kafka.provider.handler.KafkaHandler;
 import org.apache.skywalking.oap.server.library.module.ModuleStartException;
 import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 /**
  * Configuring and initializing a KafkaConsumer client as a dispatcher to delivery Kafka Message to registered handler
@@ -72,6 +73,10 @@ public class KafkaFetcherHandlerRegister {
         properties.setProperty(ConsumerConfig.GROUP_ID_CONFIG, config.getGroupId());
         properties.setProperty(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, config.getBootstrapServers());
         properties.putAll(config.getKafkaConsumerConfig());
+        if (config.isEnablePartitionPipeline()) {
+            // The pipeline commits the offsets after the records are handed off.
+            properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        }
 
         int threadPoolSize = Runtime.getRuntime().availableProcessors() * 2;
         if (config.getKafkaHandlerThreadPoolSize() > 0) {
@@ -101,15 +106,22 @@ public class KafkaFetcherHandlerRegister {
         builder.put(handler.getTopic(), handler);
     }
 
-    public void start() throws ModuleStartException {
+    public void start(final MetricsCreator metricsCreator) throws ModuleStartException {
         handlerMap = builder.build();
         builder = null;
 
         createTopicIfNeeded(handlerMap.keySet(), properties);
+        // The polling threads of the pipeline wait for the batches handled by the executor, so they can't be in it.
+        final CustomThreadFactory pipelineThreadFactory = new CustomThreadFactory("KafkaConsumerPipeline");
         for (KafkaConsumer<String, Bytes> consumer : consumers) {
             consumer.subscribe(handlerMap.keySet());
             consumer.seekToEnd(consumer.assignment());
-            executor.submit(() -> runTask(consumer));
+            if (config.isEnablePartitionPipeline()) {
+                pipelineThreadFactory.newThread(new KafkaPartitionPipeline(
+                    consumer, handlerMap, executor, Duration.ofMillis(500L), metricsCreator)).start();
+            } else {
+                executor.submit(() -> runTask(consumer));
+            }
         }
     }
 
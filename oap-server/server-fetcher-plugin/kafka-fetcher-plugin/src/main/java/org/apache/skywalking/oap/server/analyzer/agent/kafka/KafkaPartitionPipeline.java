@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.agent.kafka;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.skywalking.oap.server.analyzer.agent.kafka.provider.handler.KafkaHandler;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * KafkaPartitionPipeline polls a consumer and hands the records of each partition to the {@link KafkaHandler} of the
+ * topic as one batch. The batches of different partitions are handled in parallel, and the next poll waits until all
+ * the batches of the current poll are handed off, so the records of a partition are handled in order, and the offsets
+ * are committed only after the records have been handed off to the analysis layer. A partition whose batch fails is
+ * not committed, the consumer seeks back to the first record of the batch to handle it again in the next poll.
+ */
+@Slf4j
+public class KafkaPartitionPipeline implements Runnable {
+    private final Consumer<String, Bytes> consumer;
+    private final Map<String, KafkaHandler> handlers;
+    private final Executor executor;
+    private final Duration pollTimeout;
+    private final MetricsCreator metricsCreator;
+    private final Map<String, HistogramMetrics> batchLatencies;
+    private final Map<TopicPartition, GaugeMetrics> lags = new HashMap<>();
+
+    private volatile boolean running = true;
+
+    public KafkaPartitionPipeline(final Consumer<String, Bytes> consumer,
+                                  final Map<String, KafkaHandler> handlers,
+                                  final Executor executor,
+                                  final Duration pollTimeout,
+                                  final MetricsCreator metricsCreator) {
+        this.consumer = consumer;
+        this.handlers = handlers;
+        this.executor = executor;
+        this.pollTimeout = pollTimeout;
+        this.metricsCreator = metricsCreator;
+        this.batchLatencies = new HashMap<>();
+        handlers.keySet().forEach(topic -> batchLatencies.put(topic, metricsCreator.createHistogramMetric(
+            "kafka_fetcher_batch_latency", "The latency of handling a batch of records of a partition",
+            new MetricsTag.Keys("topic"), new MetricsTag.Values(topic)
+        )));
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                pollOnce();
+            } catch (Exception e) {
+                log.error("Kafka handle message error.", e);
+            }
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Poll the records, hand them off partition by partition, then commit the offsets of the handed off records, and
+     * seek back to the failed batches.
+     */
+    void pollOnce() {
+        final ConsumerRecords<String, Bytes> records = consumer.poll(pollTimeout);
+        if (!records.isEmpty()) {
+            final Map<TopicPartition, OffsetAndMetadata> offsets = new ConcurrentHashMap<>();
+            final List<CompletableFuture<Void>> handling = new ArrayList<>();
+            Runnable inCurrentThread = null;
+            for (final TopicPartition partition : records.partitions()) {
+                final List<ConsumerRecord<String, Bytes>> batch = records.records(partition);
+                final Runnable task = () -> {
+                    if (handle(partition.topic(), batch)) {
+                        offsets.put(partition, new OffsetAndMetadata(batch.get(batch.size() - 1).offset() + 1));
+                    }
+                };
+                if (inCurrentThread == null) {
+                    // Keep one of the batches in the polling thread rather than waiting for the others idle.
+                    inCurrentThread = task;
+                } else {
+                    handling.add(CompletableFuture.runAsync(task, executor));
+                }
+            }
+            inCurrentThread.run();
+            CompletableFuture.allOf(handling.toArray(new CompletableFuture[0])).join();
+
+            for (final TopicPartition partition : records.partitions()) {
+                if (!offsets.containsKey(partition)) {
+                    // The consumer is not thread-safe, so the failed partitions are rewound in the polling thread.
+                    consumer.seek(partition, records.records(partition).get(0).offset());
+                }
+            }
+            if (!offsets.isEmpty()) {
+                consumer.commitAsync(offsets, (committed, e) -> {
+                    if (e != null) {
+                        log.warn("Failed to commit Kafka offsets {}.", committed, e);
+                    }
+                });
+            }
+        }
+        updateLags();
+    }
+
+    /**
+     * @return true if the batch has been handed off, or skipped as no handler is bound to the topic.
+     */
+    private boolean handle(final String topic, final List<ConsumerRecord<String, Bytes>> batch) {
+        final KafkaHandler handler = handlers.get(topic);
+        if (handler == null) {
+            log.warn("No handler for {} records of topic {}.", batch.size(), topic);
+            return true;
+        }
+        try (HistogramMetrics.Timer ignored = batchLatencies.get(topic).createTimer()) {
+            handler.handle(batch);
+            return true;
+        } catch (Throwable t) {
+            log.error("Kafka handle {} records of topic {} error, retry from offset {}.",
+                      batch.size(), topic, batch.get(0).offset(), t);
+            return false;
+        }
+    }
+
+    private void updateLags() {
+        for (final TopicPartition partition : consumer.assignment()) {
+            final OptionalLong lag = consumer.currentLag(partition);
+            if (lag.isPresent()) {
+                lags.computeIfAbsent(partition, it -> metricsCreator.createGauge(
+                    "kafka_fetcher_consumer_lag", "The number of records behind the end of a partition",
+                    new MetricsTag.Keys("topic", "partition"),
+                    new MetricsTag.Values(it.topic(), String.valueOf(it.partition()))
+                )).setValue(lag.getAsLong());
+            }
+        }
+    }
+}
@@ -84,4 +84,13 @@ public class KafkaFetcherConfig extends ModuleConfig {
 
     private int consumers = 1;
 
+    /**
+     * Hand the records of each partition to the handler as a batch, and commit the offsets explicitly after the
+     * batches are handed off, rather than submitting every record to the handler thread pool. The partitions are
+     * handled in parallel by the handler thread pool while the records of a partition keep their order.
+     *
+     * @since 10.1.0
+     */
+    private boolean enablePartitionPipeline = false;
+
 }
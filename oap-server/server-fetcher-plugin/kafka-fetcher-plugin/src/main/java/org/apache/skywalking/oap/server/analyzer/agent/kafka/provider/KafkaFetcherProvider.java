@@ -37,6 +37,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleProvider;
 import org.apache.skywalking.oap.server.library.module.ModuleStartException;
 import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedException;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 @Slf4j
 public class KafkaFetcherProvider extends ModuleProvider {
@@ -88,7 +89,8 @@ public class KafkaFetcherProvider extends ModuleProvider {
             handlerRegister.register(new JsonLogHandler(getManager(), config));
         }
 
-        handlerRegister.start();
+        handlerRegister.start(
+            getManager().find(TelemetryModule.NAME).provider().getService(MetricsCreator.class));
     }
 
     @Override
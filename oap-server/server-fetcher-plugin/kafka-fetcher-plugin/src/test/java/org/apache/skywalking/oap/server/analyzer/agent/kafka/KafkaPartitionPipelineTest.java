@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.agent.kafka;
+
+import com.google.common.collect.ImmutableMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.skywalking.oap.server.analyzer.agent.kafka.provider.handler.KafkaHandler;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class KafkaPartitionPipelineTest {
+    private static final String TOPIC = "skywalking-meters";
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+
+    private final MockConsumer<String, Bytes> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private final Map<TopicPartition, List<List<Long>>> batches = new ConcurrentHashMap<>();
+    private final Map<String, GaugeMetrics> lags = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private MetricsCreator metricsCreator;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createHistogramMetric(anyString(), anyString(), any(), any()))
+            .thenReturn(new MetricsCreatorNoop().createHistogramMetric(
+                "", "", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE));
+        when(metricsCreator.createGauge(eq("kafka_fetcher_consumer_lag"), anyString(), any(), any()))
+            .thenAnswer(it -> lags.computeIfAbsent(
+                String.join(":", ((MetricsTag.Values) it.getArgument(3)).getValues()), k -> mock(GaugeMetrics.class)));
+
+        consumer.assign(Arrays.asList(P0, P1));
+        consumer.updateBeginningOffsets(ImmutableMap.of(P0, 0L, P1, 0L));
+        consumer.updateEndOffsets(ImmutableMap.of(P0, 10L, P1, 3L));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testHandBatchesOffInOrderThenCommit() {
+        final List<Long> committedBeforeHandOff = Collections.synchronizedList(new ArrayList<>());
+        final KafkaPartitionPipeline pipeline = pipeline(records -> {
+            final TopicPartition partition = new TopicPartition(TOPIC, records.get(0).partition());
+            final OffsetAndMetadata committed = consumer.committed(Collections.singleton(partition)).get(partition);
+            if (committed != null && committed.offset() > records.get(0).offset()) {
+                committedBeforeHandOff.add(committed.offset());
+            }
+        });
+        for (long offset = 0; offset < 5; offset++) {
+            consumer.addRecord(record(P0, offset));
+        }
+        for (long offset = 0; offset < 3; offset++) {
+            consumer.addRecord(record(P1, offset));
+        }
+
+        pipeline.pollOnce();
+
+        assertEquals(Collections.singletonList(Arrays.asList(0L, 1L, 2L, 3L, 4L)), batches.get(P0));
+        assertEquals(Collections.singletonList(Arrays.asList(0L, 1L, 2L)), batches.get(P1));
+        assertEquals(5L, consumer.committed(Collections.singleton(P0)).get(P0).offset());
+        assertEquals(3L, consumer.committed(Collections.singleton(P1)).get(P1).offset());
+        verify(lags.get(TOPIC + ":0")).setValue(5);
+        verify(lags.get(TOPIC + ":1")).setValue(0);
+
+        consumer.addRecord(record(P0, 5));
+        consumer.addRecord(record(P0, 6));
+        pipeline.pollOnce();
+
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L), flatten(batches.get(P0)));
+        assertEquals(7L, consumer.committed(Collections.singleton(P0)).get(P0).offset());
+        verify(lags.get(TOPIC + ":0")).setValue(3);
+        assertTrue(committedBeforeHandOff.isEmpty());
+    }
+
+    @Test
+    public void testFailedBatchDoesNotBlockOthers() {
+        final AtomicBoolean failing = new AtomicBoolean(true);
+        final KafkaPartitionPipeline pipeline = pipeline(records -> {
+            if (records.get(0).partition() == 0 && failing.get()) {
+                throw new IllegalStateException("mocked failure");
+            }
+        });
+        consumer.addRecord(record(P0, 0));
+        consumer.addRecord(record(P0, 1));
+        consumer.addRecord(record(P1, 0));
+
+        pipeline.pollOnce();
+
+        assertEquals(Collections.singletonList(Collections.singletonList(0L)), batches.get(P1));
+        // The failed batch is not committed, and it is polled again from its first record.
+        assertNull(consumer.committed(Collections.singleton(P0)).get(P0));
+        assertEquals(0L, consumer.position(P0));
+        assertEquals(1L, consumer.committed(Collections.singleton(P1)).get(P1).offset());
+
+        failing.set(false);
+        // The mock consumer drops the polled records, add them back as the broker would redeliver them.
+        consumer.addRecord(record(P0, 0));
+        consumer.addRecord(record(P0, 1));
+        pipeline.pollOnce();
+
+        assertEquals(Collections.singletonList(Arrays.asList(0L, 1L)), batches.get(P0));
+        assertEquals(2L, consumer.committed(Collections.singleton(P0)).get(P0).offset());
+    }
+
+    private KafkaPartitionPipeline pipeline(final Consumer<List<ConsumerRecord<String, Bytes>>> check) {
+        final KafkaHandler handler = new KafkaHandler() {
+            @Override
+            public String getTopic() {
+                return TOPIC;
+            }
+
+            @Override
+            public void handle(final ConsumerRecord<String, Bytes> record) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void handle(final List<ConsumerRecord<String, Bytes>> records) {
+                check.accept(records);
+                batches.computeIfAbsent(new TopicPartition(TOPIC, records.get(0).partition()), k -> new ArrayList<>())
+                       .add(records.stream().map(ConsumerRecord::offset).collect(Collectors.toList()));
+            }
+        };
+        return new KafkaPartitionPipeline(
+            consumer, ImmutableMap.of(TOPIC, handler), executor, Duration.ofMillis(10), metricsCreator);
+    }
+
+    private static ConsumerRecord<String, Bytes> record(final TopicPartition partition, final long offset) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, "key", Bytes.wrap(new byte[0]));
+    }
+
+    private static List<Long> flatten(final List<List<Long>> batches) {
+        return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+}
@@ -41,6 +41,7 @@ import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.library.elasticsearch.ElasticSearch;
 import org.apache.skywalking.library.elasticsearch.ElasticSearchBuilder;
 import org.apache.skywalking.library.elasticsearch.ElasticSearchVersion;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkListener;
 import org.apache.skywalking.library.elasticsearch.bulk.BulkProcessor;
 import org.apache.skywalking.library.elasticsearch.requests.search.Search;
 import org.apache.skywalking.library.elasticsearch.requests.search.SearchParams;
@@ -373,11 +374,25 @@ public class ElasticSearchClient implements Client, HealthCheckable {
                                              int flushInterval,
                                              int concurrentRequests,
                                              int batchOfBytes) {
+        return createBulkProcessor(
+            bulkActions, flushInterval, concurrentRequests, batchOfBytes, false, 3, BulkListener.NOOP);
+    }
+
+    public BulkProcessor createBulkProcessor(int bulkActions,
+                                             int flushInterval,
+                                             int concurrentRequests,
+                                             int batchOfBytes,
+                                             boolean gzip,
+                                             int maxRetries,
+                                             BulkListener listener) {
         return BulkProcessor.builder()
                             .bulkActions(bulkActions)
                             .batchOfBytes(batchOfBytes)
                             .flushInterval(Duration.ofSeconds(flushInterval))
                             .concurrentRequests(concurrentRequests)
+                            .gzip(gzip)
+                            .maxRetries(maxRetries)
+                            .listener(listener)
                             .build(es);
     }
 
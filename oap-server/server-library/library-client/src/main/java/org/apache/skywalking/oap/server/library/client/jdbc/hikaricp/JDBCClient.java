@@ -59,6 +59,13 @@ public class JDBCClient implements Client, HealthCheckable {
         dataSource.close();
     }
 
+    /**
+     * @return the max number of connections the pool could hold, including idle and in-use ones.
+     */
+    public int getMaximumPoolSize() {
+        return hikariConfig.getMaximumPoolSize();
+    }
+
     /**
      * Default getConnection is set in auto-commit.
      */
@@ -62,6 +62,16 @@ public class ArrayBlockingQueueBuffer<T> implements QueueBuffer<T> {
         queue.drainTo(consumeList);
     }
 
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
     @Override
     public int getBufferSize() {
         return bufferSize;
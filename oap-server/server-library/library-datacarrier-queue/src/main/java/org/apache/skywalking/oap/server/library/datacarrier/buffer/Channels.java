@@ -31,11 +31,20 @@ public class Channels<T> {
     private final long size;
 
     public Channels(int channelSize, int bufferSize, IDataPartitioner<T> partitioner, BufferStrategy strategy) {
+        this(channelSize, bufferSize, partitioner, strategy, BufferType.ARRAY_BLOCKING_QUEUE);
+    }
+
+    public Channels(int channelSize, int bufferSize, IDataPartitioner<T> partitioner, BufferStrategy strategy,
+                    BufferType type) {
         this.dataPartitioner = partitioner;
         this.strategy = strategy;
         bufferChannels = new QueueBuffer[channelSize];
         for (int i = 0; i < channelSize; i++) {
-            bufferChannels[i] = new ArrayBlockingQueueBuffer<>(bufferSize, strategy);
+            if (BufferType.MPSC_RING.equals(type)) {
+                bufferChannels[i] = new MpscRingBuffer<>(bufferSize, strategy);
+            } else {
+                bufferChannels[i] = new ArrayBlockingQueueBuffer<>(bufferSize, strategy);
+            }
         }
         // noinspection PointlessArithmeticExpression
         size = 1L * channelSize * bufferSize; // it's not pointless, it prevents numeric overflow before assigning an integer to a long
@@ -83,7 +92,30 @@ public class Channels<T> {
         return size;
     }
 
+    /**
+     * @return the number of data waiting in all the channels, rather than the capacity returned by {@link #size()}.
+     */
+    public long dataSize() {
+        long dataSize = 0;
+        for (QueueBuffer<T> buffer : bufferChannels) {
+            dataSize += buffer.size();
+        }
+        return dataSize;
+    }
+
     public QueueBuffer<T> getBuffer(int index) {
         return this.bufferChannels[index];
     }
+
+    /**
+     * @return true if all the channels are empty.
+     */
+    public boolean isEmpty() {
+        for (QueueBuffer<T> buffer : bufferChannels) {
+            if (!buffer.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.buffer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.skywalking.oap.server.library.datacarrier.common.WakeupSignal;
+
+/**
+ * The bounded lock-free buffer for multiple producers and a single consumer, based on a ring of slots.
+ * <p>
+ * The producers claim a slot by CAS on the producer index, then publish the data into the slot. The consumer drains
+ * all the published slots in one batch, clears them and moves the consumer index forward. The indexes are padded in
+ * the middle of the arrays, the same as {@link org.apache.skywalking.oap.server.library.datacarrier.common.AtomicRangeInteger},
+ * to avoid false sharing between the producers and the consumer.
+ * <p>
+ * Only one thread could call {@link #obtain(List)}, which is guaranteed by the consumer drivers, as every buffer is
+ * assigned to one consumer thread.
+ */
+public class MpscRingBuffer<T> implements QueueBuffer<T> {
+    private static final int INDEX_OFFSET = 15;
+    /**
+     * The time to wait for the consumer when the buffer is full in {@link BufferStrategy#BLOCKING}.
+     */
+    private static final long BLOCKING_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private volatile BufferStrategy strategy;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray producerIndex = new AtomicLongArray(31);
+    private final AtomicLongArray consumerIndex = new AtomicLongArray(31);
+    private final int bufferSize;
+    private volatile WakeupSignal wakeupSignal;
+
+    MpscRingBuffer(int bufferSize, BufferStrategy strategy) {
+        this.strategy = strategy;
+        this.slots = new AtomicReferenceArray<>(bufferSize);
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public boolean save(T data) {
+        while (!offer(data)) {
+            if (BufferStrategy.IF_POSSIBLE.equals(strategy) || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            final WakeupSignal signal = wakeupSignal;
+            if (signal != null) {
+                signal.wakeup();
+            }
+            LockSupport.parkNanos(this, BLOCKING_WAIT_NANOS);
+        }
+        final WakeupSignal signal = wakeupSignal;
+        if (signal != null) {
+            signal.wakeup();
+        }
+        return true;
+    }
+
+    private boolean offer(T data) {
+        long index;
+        do {
+            index = producerIndex.get(INDEX_OFFSET);
+            if (index - consumerIndex.get(INDEX_OFFSET) >= bufferSize) {
+                return false;
+            }
+        }
+        while (!producerIndex.compareAndSet(INDEX_OFFSET, index, index + 1));
+        slots.lazySet(slotOf(index), data);
+        return true;
+    }
+
+    @Override
+    public void setStrategy(BufferStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void obtain(List<T> consumeList) {
+        long index = consumerIndex.get(INDEX_OFFSET);
+        final long limit = producerIndex.get(INDEX_OFFSET);
+        for (; index < limit; index++) {
+            final int slot = slotOf(index);
+            final T data = slots.get(slot);
+            if (data == null) {
+                // The slot is claimed but not published yet, leave it to the next round.
+                break;
+            }
+            slots.lazySet(slot, null);
+            consumeList.add(data);
+        }
+        consumerIndex.lazySet(INDEX_OFFSET, index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return consumerIndex.get(INDEX_OFFSET) == producerIndex.get(INDEX_OFFSET);
+    }
+
+    @Override
+    public int size() {
+        final long consumer = consumerIndex.get(INDEX_OFFSET);
+        return (int) Math.max(0, producerIndex.get(INDEX_OFFSET) - consumer);
+    }
+
+    @Override
+    public void setWakeupSignal(WakeupSignal wakeupSignal) {
+        this.wakeupSignal = wakeupSignal;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    private int slotOf(long index) {
+        return (int) (index % bufferSize);
+    }
+}
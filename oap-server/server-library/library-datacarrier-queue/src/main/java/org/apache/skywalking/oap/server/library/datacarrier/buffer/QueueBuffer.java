@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.library.datacarrier.buffer;
 
 import java.util.List;
+import org.apache.skywalking.oap.server.library.datacarrier.common.WakeupSignal;
 
 /**
  * Queue buffer interface.
@@ -42,5 +43,22 @@ public interface QueueBuffer<T> {
      */
     void obtain(List<T> consumeList);
 
+    /**
+     * @return true if there is no data in the queue.
+     */
+    boolean isEmpty();
+
+    /**
+     * @return the number of data in the queue, it is an estimated value while the queue is being used.
+     */
+    int size();
+
+    /**
+     * Set the signal to wake up the consumer parked on the empty queue after the data saved. The queue could ignore
+     * it, then the consumer only wakes up after its consume cycle.
+     */
+    default void setWakeupSignal(WakeupSignal wakeupSignal) {
+    }
+
     int getBufferSize();
 }
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * WakeupSignal parks the consumer thread when all its buffers are empty, and the producers wake it up after saving
+ * data, rather than letting the consumer sleep for a fixed cycle. One signal is shared by all the buffers consumed by
+ * the same thread.
+ */
+public class WakeupSignal {
+    private final Thread consumer;
+    private volatile boolean waiting;
+
+    public WakeupSignal(Thread consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Called by the producers after the data saved, unpark the consumer only if it is waiting.
+     */
+    public void wakeup() {
+        if (waiting) {
+            waiting = false;
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Called by the consumer thread, park at most {@code timeoutInMillis} if all the buffers are still empty after the
+     * waiting flag is visible to the producers, so no wakeup is lost between the check and the park.
+     */
+    public void await(BooleanSupplier isEmpty, long timeoutInMillis) {
+        waiting = true;
+        if (isEmpty.getAsBoolean()) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(timeoutInMillis));
+            // Clear the interrupt status, otherwise the following parks return immediately.
+            Thread.interrupted();
+        }
+        waiting = false;
+    }
+}
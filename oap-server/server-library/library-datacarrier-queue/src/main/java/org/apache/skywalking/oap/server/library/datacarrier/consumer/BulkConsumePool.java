@@ -19,8 +19,14 @@
 package org.apache.skywalking.oap.server.library.datacarrier.consumer;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.library.datacarrier.EnvUtil;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.Channels;
 
@@ -29,12 +35,45 @@ import org.apache.skywalking.oap.server.library.datacarrier.buffer.Channels;
  * MultipleChannelsConsumer}s.
  * <p>
  * In typical case, the number of {@link MultipleChannelsConsumer} should be less than the number of channels.
+ * <p>
+ * The channels are assigned to the consumer threads by their capacity when added. In the rebalance mode, the consume
+ * time and the backlog of every channels are measured periodically, and the channels are moved from the busiest
+ * thread to the idlest one. A channels is only consumed by one thread at any time, see {@link
+ * MultipleChannelsConsumer#moveTarget}.
  */
+@Slf4j
 public class BulkConsumePool implements ConsumerPool {
+    private static final long PERIOD_IN_SECONDS = 10;
+    /**
+     * Don't move the channels when the load gap between threads is less than this ratio of the period, as the
+     * measurement is not accurate enough.
+     */
+    private static final double MIN_GAP_RATIO = 0.1;
+
+    private final String name;
     private List<MultipleChannelsConsumer> allConsumers;
     private volatile boolean isStarted = false;
+    private final boolean rebalance;
+    private final BulkConsumePoolListener listener;
+    private ScheduledExecutorService scheduler;
+
+    private long lastMeasureTime;
+    private final Map<MultipleChannelsConsumer, Long> lastBusyNanos = new IdentityHashMap<>();
+    private final Map<MultipleChannelsConsumer.Group, long[]> lastGroupStats = new IdentityHashMap<>();
 
     public BulkConsumePool(String name, int size, long consumeCycle) {
+        this(name, size, consumeCycle, false, BulkConsumePoolListener.NOOP);
+    }
+
+    /**
+     * @param rebalance true to move the channels between the consumer threads based on the measured load.
+     * @param listener  receives the thread utilization and the queue depth periodically.
+     */
+    public BulkConsumePool(String name, int size, long consumeCycle, boolean rebalance,
+                           BulkConsumePoolListener listener) {
+        this.name = name;
+        this.rebalance = rebalance;
+        this.listener = listener;
         size = EnvUtil.getInt(name + "_THREAD", size);
         allConsumers = new ArrayList<>(size);
         for (int i = 0; i < size; i++) {
@@ -47,7 +86,7 @@ public class BulkConsumePool implements ConsumerPool {
     @Override
     synchronized public void add(String name, Channels channels, IConsumer consumer) {
         MultipleChannelsConsumer multipleChannelsConsumer = getLowestPayload();
-        multipleChannelsConsumer.addNewTarget(channels, consumer);
+        multipleChannelsConsumer.addNewTarget(name, channels, consumer);
     }
 
     /**
@@ -66,6 +105,103 @@ public class BulkConsumePool implements ConsumerPool {
         return winner;
     }
 
+    /**
+     * Measure the load of the consumer threads and channels since the last measurement, report them to the listener,
+     * and rebalance the channels if the rebalance mode is activated.
+     */
+    synchronized void measure() {
+        final long now = System.nanoTime();
+        final long period = now - lastMeasureTime;
+        lastMeasureTime = now;
+
+        final List<ThreadLoad> threadLoads = new ArrayList<>(allConsumers.size());
+        long totalNanos = 0;
+        long totalCount = 0;
+        for (MultipleChannelsConsumer consumer : allConsumers) {
+            final long busyNanos = consumer.getBusyNanos();
+            final Long lastBusy = lastBusyNanos.put(consumer, busyNanos);
+            final long busy = busyNanos - (lastBusy == null ? 0 : lastBusy);
+            listener.onThreadUtilization(consumer.getName(), Math.min(1D, (double) busy / period));
+
+            final ThreadLoad threadLoad = new ThreadLoad(consumer);
+            for (MultipleChannelsConsumer.Group group : consumer.getConsumeTargets()) {
+                final long consumeNanos = group.getConsumeNanos();
+                final long consumedCount = group.getConsumedCount();
+                final long[] last = lastGroupStats.put(group, new long[] {
+                    consumeNanos,
+                    consumedCount
+                });
+                final GroupLoad groupLoad = new GroupLoad(group);
+                groupLoad.consumeNanos = consumeNanos - (last == null ? 0 : last[0]);
+                groupLoad.consumedCount = consumedCount - (last == null ? 0 : last[1]);
+                groupLoad.depth = group.getChannels().dataSize();
+                if (group.getName() != null) {
+                    listener.onQueueDepth(group.getName(), groupLoad.depth);
+                }
+                totalNanos += groupLoad.consumeNanos;
+                totalCount += groupLoad.consumedCount;
+                threadLoad.groups.add(groupLoad);
+            }
+            threadLoads.add(threadLoad);
+        }
+
+        if (rebalance && threadLoads.size() > 1 && period > 0) {
+            rebalance(threadLoads, totalCount == 0 ? 0 : (double) totalNanos / totalCount, period);
+        }
+    }
+
+    /**
+     * Move the channels from the busiest thread to the idlest thread, greedily. The load of a channels is the time
+     * spent in consuming it plus the estimated time to consume its backlog.
+     */
+    private void rebalance(List<ThreadLoad> threadLoads, double avgNanosPerItem, long period) {
+        for (ThreadLoad threadLoad : threadLoads) {
+            for (GroupLoad groupLoad : threadLoad.groups) {
+                final double nanosPerItem = groupLoad.consumedCount > 0
+                    ? (double) groupLoad.consumeNanos / groupLoad.consumedCount : avgNanosPerItem;
+                groupLoad.load = groupLoad.consumeNanos + groupLoad.depth * nanosPerItem;
+                threadLoad.load += groupLoad.load;
+            }
+        }
+
+        final int maxMoves = Math.max(1, threadLoads.size() / 2);
+        for (int moves = 0; moves < maxMoves; moves++) {
+            ThreadLoad busiest = null;
+            ThreadLoad idlest = null;
+            for (ThreadLoad threadLoad : threadLoads) {
+                if (threadLoad.groups.size() > 1 && (busiest == null || threadLoad.load > busiest.load)) {
+                    busiest = threadLoad;
+                }
+                if (idlest == null || threadLoad.load < idlest.load) {
+                    idlest = threadLoad;
+                }
+            }
+            if (busiest == null || busiest == idlest) {
+                return;
+            }
+            final double gap = busiest.load - idlest.load;
+            if (gap < period * MIN_GAP_RATIO) {
+                return;
+            }
+            // Moving a channels lighter than the gap always narrows it, pick the heaviest one of them.
+            GroupLoad candidate = null;
+            for (GroupLoad groupLoad : busiest.groups) {
+                if (groupLoad.load > 0 && groupLoad.load < gap
+                    && (candidate == null || groupLoad.load > candidate.load)) {
+                    candidate = groupLoad;
+                }
+            }
+            if (candidate == null) {
+                return;
+            }
+            busiest.consumer.moveTarget(candidate.group, idlest.consumer);
+            busiest.groups.remove(candidate);
+            busiest.load -= candidate.load;
+            idlest.groups.add(candidate);
+            idlest.load += candidate.load;
+        }
+    }
+
     /**
      *
      */
@@ -76,22 +212,63 @@ public class BulkConsumePool implements ConsumerPool {
 
     @Override
     public void close(Channels channels) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
         for (MultipleChannelsConsumer consumer : allConsumers) {
             consumer.shutdown();
         }
     }
 
     @Override
-    public void begin(Channels channels) {
+    public synchronized void begin(Channels channels) {
         if (isStarted) {
             return;
         }
         for (MultipleChannelsConsumer consumer : allConsumers) {
             consumer.start();
         }
+        if (rebalance || listener != BulkConsumePoolListener.NOOP) {
+            lastMeasureTime = System.nanoTime();
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "DataCarrier." + name + ".BulkConsumePool.Scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    measure();
+                } catch (Throwable t) {
+                    // Keep the schedule running, the next measurement could be fine.
+                    log.error(t.getMessage(), t);
+                }
+            }, PERIOD_IN_SECONDS, PERIOD_IN_SECONDS, TimeUnit.SECONDS);
+        }
         isStarted = true;
     }
 
+    private static class ThreadLoad {
+        private final MultipleChannelsConsumer consumer;
+        private final List<GroupLoad> groups = new ArrayList<>();
+        private double load;
+
+        private ThreadLoad(MultipleChannelsConsumer consumer) {
+            this.consumer = consumer;
+        }
+    }
+
+    private static class GroupLoad {
+        private final MultipleChannelsConsumer.Group group;
+        private long consumeNanos;
+        private long consumedCount;
+        private long depth;
+        private double load;
+
+        private GroupLoad(MultipleChannelsConsumer.Group group) {
+            this.group = group;
+        }
+    }
+
     /**
      * The creator for {@link BulkConsumePool}.
      */
@@ -99,16 +276,25 @@ public class BulkConsumePool implements ConsumerPool {
         private String name;
         private int size;
         private long consumeCycle;
+        private boolean rebalance;
+        private BulkConsumePoolListener listener;
 
         public Creator(String name, int poolSize, long consumeCycle) {
+            this(name, poolSize, consumeCycle, false, BulkConsumePoolListener.NOOP);
+        }
+
+        public Creator(String name, int poolSize, long consumeCycle, boolean rebalance,
+                       BulkConsumePoolListener listener) {
             this.name = name;
             this.size = poolSize;
             this.consumeCycle = consumeCycle;
+            this.rebalance = rebalance;
+            this.listener = listener;
         }
 
         @Override
         public ConsumerPool call() {
-            return new BulkConsumePool(name, size, consumeCycle);
+            return new BulkConsumePool(name, size, consumeCycle, rebalance, listener);
         }
 
         public static int recommendMaxSize() {
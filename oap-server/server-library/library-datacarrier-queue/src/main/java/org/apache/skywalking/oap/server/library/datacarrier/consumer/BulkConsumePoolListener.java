@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.consumer;
+
+/**
+ * BulkConsumePoolListener receives the statistics of the {@link BulkConsumePool} periodically.
+ */
+public interface BulkConsumePoolListener {
+    BulkConsumePoolListener NOOP = new BulkConsumePoolListener() {
+        @Override
+        public void onThreadUtilization(final String thread, final double utilization) {
+        }
+
+        @Override
+        public void onQueueDepth(final String group, final long depth) {
+        }
+    };
+
+    /**
+     * @param thread      name of the consumer thread.
+     * @param utilization the ratio of time spent in consuming during the last period, in [0, 1].
+     */
+    void onThreadUtilization(String thread, double utilization);
+
+    /**
+     * @param group name of the channels(DataCarrier) consumed by the pool.
+     * @param depth the number of data waiting in the channels.
+     */
+    void onQueueDepth(String group, long depth);
+}
@@ -20,13 +20,16 @@ package org.apache.skywalking.oap.server.library.datacarrier.consumer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.oap.server.library.datacarrier.common.WakeupSignal;
 
 public class ConsumerThread<T> extends Thread {
     private volatile boolean running;
     private IConsumer<T> consumer;
     private List<DataSource> dataSources;
     private long consumeCycle;
+    private final WakeupSignal wakeupSignal;
 
     ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle) {
         super(threadName);
@@ -34,6 +37,7 @@ public class ConsumerThread<T> extends Thread {
         running = false;
         dataSources = new ArrayList<DataSource>(1);
         this.consumeCycle = consumeCycle;
+        this.wakeupSignal = new WakeupSignal(this);
     }
 
     /**
@@ -41,6 +45,7 @@ public class ConsumerThread<T> extends Thread {
      */
     void addDataSource(QueueBuffer<T> sourceBuffer) {
         this.dataSources.add(new DataSource(sourceBuffer));
+        sourceBuffer.setWakeupSignal(wakeupSignal);
     }
 
     @Override
@@ -50,10 +55,7 @@ public class ConsumerThread<T> extends Thread {
         final List<T> consumeList = new ArrayList<T>(1500);
         while (running) {
             if (!consume(consumeList)) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
-                }
+                wakeupSignal.await(this::isEmpty, consumeCycle);
             }
         }
 
@@ -83,8 +85,18 @@ public class ConsumerThread<T> extends Thread {
         return false;
     }
 
+    private boolean isEmpty() {
+        for (DataSource dataSource : dataSources) {
+            if (!dataSource.sourceBuffer.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     void shutdown() {
         running = false;
+        LockSupport.unpark(this);
     }
 
     class DataSource {
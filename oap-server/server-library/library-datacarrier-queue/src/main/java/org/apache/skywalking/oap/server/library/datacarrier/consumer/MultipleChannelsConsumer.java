@@ -20,12 +20,20 @@ package org.apache.skywalking.oap.server.library.datacarrier.consumer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.Channels;
 import org.apache.skywalking.oap.server.library.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.oap.server.library.datacarrier.common.WakeupSignal;
 
 /**
  * MultipleChannelsConsumer represent a single consumer thread, but support multiple channels with their {@link
  * IConsumer}s
+ * <p>
+ * A target(group of channels and its consumer) could be moved to another consumer thread by {@link #moveTarget}, the
+ * move is executed by this thread between two rounds of consuming, so the target is never consumed by two threads at
+ * the same time.
  */
 public class MultipleChannelsConsumer extends Thread {
     private volatile boolean running;
@@ -33,11 +41,19 @@ public class MultipleChannelsConsumer extends Thread {
     @SuppressWarnings("NonAtomicVolatileUpdate")
     private volatile long size;
     private final long consumeCycle;
+    private final WakeupSignal wakeupSignal;
+    /**
+     * The time spent in consuming, only updated by this thread.
+     */
+    @SuppressWarnings("NonAtomicVolatileUpdate")
+    private volatile long busyNanos;
+    private final Queue<Move> pendingMoves = new ConcurrentLinkedQueue<>();
 
     public MultipleChannelsConsumer(String threadName, long consumeCycle) {
         super(threadName);
         this.consumeTargets = new ArrayList<>();
         this.consumeCycle = consumeCycle;
+        this.wakeupSignal = new WakeupSignal(this);
     }
 
     @Override
@@ -46,6 +62,8 @@ public class MultipleChannelsConsumer extends Thread {
 
         final List consumeList = new ArrayList(2000);
         while (running) {
+            executeMoves();
+
             boolean hasData = false;
             for (Group target : consumeTargets) {
                 boolean consumed = consume(target, consumeList);
@@ -53,10 +71,7 @@ public class MultipleChannelsConsumer extends Thread {
             }
 
             if (!hasData) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
-                }
+                wakeupSignal.await(this::isEmpty, consumeCycle);
             }
         }
 
@@ -76,11 +91,16 @@ public class MultipleChannelsConsumer extends Thread {
         }
 
         if (!consumeList.isEmpty()) {
+            final long startTime = System.nanoTime();
             try {
                 target.consumer.consume(consumeList);
             } catch (Throwable t) {
                 target.consumer.onError(consumeList, t);
             } finally {
+                final long elapsed = System.nanoTime() - startTime;
+                busyNanos += elapsed;
+                target.consumeNanos += elapsed;
+                target.consumedCount += consumeList.size();
                 consumeList.clear();
             }
             return true;
@@ -89,19 +109,65 @@ public class MultipleChannelsConsumer extends Thread {
         return false;
     }
 
+    /**
+     * Add a new target channels.
+     */
+    public void addNewTarget(String name, Channels channels, IConsumer consumer) {
+        addTarget(new Group(name, channels, consumer));
+    }
+
     /**
      * Add a new target channels.
      */
     public void addNewTarget(Channels channels, IConsumer consumer) {
-        Group group = new Group(channels, consumer);
-        // Recreate the new list to avoid change list while the list is used in consuming.
-        ArrayList<Group> newList = new ArrayList<>();
-        for (Group target : consumeTargets) {
-            newList.add(target);
+        addNewTarget(null, channels, consumer);
+    }
+
+    private synchronized void addTarget(Group group) {
+        for (int i = 0; i < group.channels.getChannelSize(); i++) {
+            group.channels.getBuffer(i).setWakeupSignal(wakeupSignal);
         }
+        // Recreate the new list to avoid change list while the list is used in consuming.
+        ArrayList<Group> newList = new ArrayList<>(consumeTargets);
         newList.add(group);
         consumeTargets = newList;
-        size += channels.size();
+        size += group.channels.size();
+        // Wake up to consume the data saved before the signal bound.
+        LockSupport.unpark(this);
+    }
+
+    private synchronized void removeTarget(Group group) {
+        ArrayList<Group> newList = new ArrayList<>(consumeTargets);
+        if (newList.remove(group)) {
+            consumeTargets = newList;
+            size -= group.channels.size();
+        }
+    }
+
+    /**
+     * Request to move the target to another consumer thread, the move is executed by this thread before the next round
+     * of consuming.
+     */
+    void moveTarget(Group group, MultipleChannelsConsumer destination) {
+        pendingMoves.add(new Move(group, destination));
+        LockSupport.unpark(this);
+    }
+
+    private void executeMoves() {
+        for (Move move = pendingMoves.poll(); move != null; move = pendingMoves.poll()) {
+            if (consumeTargets.contains(move.group)) {
+                removeTarget(move.group);
+                move.destination.addTarget(move.group);
+            }
+        }
+    }
+
+    List<Group> getConsumeTargets() {
+        return consumeTargets;
+    }
+
+    long getBusyNanos() {
+        return busyNanos;
     }
 
     public long size() {
@@ -110,15 +176,60 @@ public class MultipleChannelsConsumer extends Thread {
 
     void shutdown() {
         running = false;
+        LockSupport.unpark(this);
     }
 
-    private static class Group {
-        private Channels channels;
-        private IConsumer consumer;
+    private boolean isEmpty() {
+        for (Group target : consumeTargets) {
+            if (!target.channels.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        public Group(Channels channels, IConsumer consumer) {
+    static class Group {
+        private final String name;
+        private final Channels channels;
+        private final IConsumer consumer;
+        /**
+         * The statistics of consuming, only updated by the thread owning this group.
+         */
+        @SuppressWarnings("NonAtomicVolatileUpdate")
+        private volatile long consumeNanos;
+        @SuppressWarnings("NonAtomicVolatileUpdate")
+        private volatile long consumedCount;
+
+        Group(String name, Channels channels, IConsumer consumer) {
+            this.name = name;
             this.channels = channels;
             this.consumer = consumer;
         }
+
+        String getName() {
+            return name;
+        }
+
+        Channels getChannels() {
+            return channels;
+        }
+
+        long getConsumeNanos() {
+            return consumeNanos;
+        }
+
+        long getConsumedCount() {
+            return consumedCount;
+        }
+    }
+
+    private static class Move {
+        private final Group group;
+        private final MultipleChannelsConsumer destination;
+
+        private Move(Group group, MultipleChannelsConsumer destination) {
+            this.group = group;
+            this.destination = destination;
+        }
     }
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.buffer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
+import org.apache.skywalking.oap.server.library.datacarrier.SampleData;
+import org.apache.skywalking.oap.server.library.datacarrier.consumer.IConsumer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MpscRingBufferTest {
+    @Test
+    public void testIfPossibleSave() {
+        final MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3, BufferStrategy.IF_POSSIBLE);
+        assertTrue(buffer.isEmpty());
+        for (int round = 0; round < 3; round++) {
+            assertTrue(buffer.save(1));
+            assertTrue(buffer.save(2));
+            assertTrue(buffer.save(3));
+            assertFalse(buffer.save(4));
+            assertFalse(buffer.isEmpty());
+
+            final List<Integer> result = new ArrayList<>();
+            buffer.obtain(result);
+            assertEquals(List.of(1, 2, 3), result);
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    public void testMultipleProducers() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 50_000;
+        final MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(100, BufferStrategy.BLOCKING);
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.save(base + i);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        final Set<Integer> received = new HashSet<>();
+        final List<Integer> batch = new ArrayList<>();
+        final long deadline = System.currentTimeMillis() + 30_000;
+        while (received.size() < producers * perProducer && System.currentTimeMillis() < deadline) {
+            buffer.obtain(batch);
+            received.addAll(batch);
+            batch.clear();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(producers * perProducer, received.size());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testWakeupConsumer() throws InterruptedException {
+        final DataCarrier<SampleData> carrier = new DataCarrier<>(
+            "MpscRingBufferTest", "MpscRingBufferTest", 2, 100, BufferStrategy.BLOCKING, BufferType.MPSC_RING);
+        final CountDownLatch latch = new CountDownLatch(1);
+        carrier.consume(new IConsumer<SampleData>() {
+            @Override
+            public void consume(final List<SampleData> data) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(final List<SampleData> data, final Throwable t) {
+            }
+        }, 1, TimeUnit.MINUTES.toMillis(1));
+
+        // Let the consumer park with the long consume cycle.
+        Thread.sleep(200);
+        assertTrue(carrier.produce(new SampleData().setName("a")));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        carrier.shutdownConsumers();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.library.datacarrier.consumer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.oap.server.library.datacarrier.DataCarrier;
+import org.apache.skywalking.oap.server.library.datacarrier.buffer.BufferStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkConsumePoolTest {
+
+    @Test
+    public void moveBusyChannelsToIdleThread() throws InterruptedException {
+        final Map<String, Double> utilization = new ConcurrentHashMap<>();
+        final Map<String, Long> depth = new ConcurrentHashMap<>();
+        final BulkConsumePool pool = new BulkConsumePool("rebalance-test", 2, 20, true, new BulkConsumePoolListener() {
+            @Override
+            public void onThreadUtilization(final String thread, final double value) {
+                utilization.put(thread, value);
+            }
+
+            @Override
+            public void onQueueDepth(final String group, final long value) {
+                depth.put(group, value);
+            }
+        });
+
+        // The channels are assigned in turn, both slow ones go to thread 0.
+        final RecordingConsumer[] consumers = new RecordingConsumer[4];
+        final DataCarrier<Integer>[] carriers = new DataCarrier[4];
+        for (int i = 0; i < 4; i++) {
+            consumers[i] = new RecordingConsumer(i % 2 == 0 ? 5 : 0);
+            carriers[i] = new DataCarrier<>("carrier-" + i, "", 1, 100, BufferStrategy.IF_POSSIBLE);
+            carriers[i].consume(pool, consumers[i]);
+        }
+
+        final AtomicBoolean producing = new AtomicBoolean(true);
+        final Thread producer = new Thread(() -> {
+            while (producing.get()) {
+                carriers[0].produce(1);
+                carriers[2].produce(1);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        producer.start();
+        try {
+            Thread.sleep(500);
+            pool.measure();
+
+            assertEquals(4, depth.size());
+            assertTrue(
+                utilization.get("DataCarrier.rebalance-test.BulkConsumePool.0.Thread")
+                    > utilization.get("DataCarrier.rebalance-test.BulkConsumePool.1.Thread"));
+
+            for (int i = 0; i < 100 && !consumers[0].threads.contains(1) && !consumers[2].threads.contains(1); i++) {
+                Thread.sleep(10);
+            }
+            // Only one of the slow channels is moved.
+            assertTrue(consumers[0].threads.contains(1) ^ consumers[2].threads.contains(1));
+        } finally {
+            producing.set(false);
+            producer.join();
+            pool.close(null);
+        }
+
+        for (RecordingConsumer consumer : consumers) {
+            assertFalse(consumer.concurrent.get());
+        }
+    }
+
+    private static class RecordingConsumer implements IConsumer<Integer> {
+        private final long sleepInMillis;
+        private final Set<Integer> threads = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger consuming = new AtomicInteger();
+        private final AtomicBoolean concurrent = new AtomicBoolean();
+
+        private RecordingConsumer(final long sleepInMillis) {
+            this.sleepInMillis = sleepInMillis;
+        }
+
+        @Override
+        public void consume(final List<Integer> data) {
+            if (consuming.incrementAndGet() > 1) {
+                concurrent.set(true);
+            }
+            final String name = Thread.currentThread().getName();
+            threads.add(name.endsWith(".1.Thread") ? 1 : 0);
+            try {
+                Thread.sleep(sleepInMillis);
+            } catch (InterruptedException ignored) {
+            } finally {
+                consuming.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void onError(final List<Integer> data, final Throwable t) {
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.library.elasticsearch.bulk;
+
+/**
+ * Listen to the items failed in the bulk responses.
+ */
+public interface BulkListener {
+    BulkListener NOOP = (index, status, retrying) -> {
+    };
+
+    /**
+     * @param index    of the failed item.
+     * @param status   HTTP status of the item, 429 means rejected due to the indexing pressure.
+     * @param retrying true if the item is going to be retried, otherwise it is dropped.
+     */
+    void onItemFailure(String index, int status, boolean retrying);
+}
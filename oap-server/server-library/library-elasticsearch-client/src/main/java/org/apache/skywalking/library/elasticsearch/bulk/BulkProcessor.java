@@ -17,29 +17,40 @@
 
 package org.apache.skywalking.library.elasticsearch.bulk;
 
+import com.linecorp.armeria.common.AggregatedHttpResponse;
 import com.linecorp.armeria.common.HttpStatus;
 import com.linecorp.armeria.common.util.Exceptions;
+import com.google.common.io.CountingOutputStream;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.library.elasticsearch.ElasticSearch;
+import org.apache.skywalking.library.elasticsearch.exception.ResponseException;
 import org.apache.skywalking.library.elasticsearch.requests.IndexRequest;
 import org.apache.skywalking.library.elasticsearch.requests.UpdateRequest;
 import org.apache.skywalking.library.elasticsearch.requests.factory.Codec;
 import org.apache.skywalking.library.elasticsearch.requests.factory.RequestFactory;
-import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.library.elasticsearch.response.BulkResponse;
 import org.apache.skywalking.oap.server.library.util.RunnableWithExceptionProtection;
 
 import static java.util.Objects.requireNonNull;
@@ -54,6 +65,15 @@ public final class BulkProcessor {
     private final long flushInternalInMillis;
     private volatile long lastFlushTS = 0;
     private final int batchOfBytes;
+    private final boolean gzip;
+    private final int maxRetries;
+    private final long retryBackoffInMillis;
+    private final BulkListener listener;
+    private final ScheduledThreadPoolExecutor scheduler;
+    /**
+     * The rejected requests waiting for the next retry, ordered by the time their backoff passes.
+     */
+    private final DelayQueue<Holder> retryRequests = new DelayQueue<>();
 
     public static BulkProcessorBuilder builder() {
         return new BulkProcessorBuilder();
@@ -63,16 +83,25 @@ public final class BulkProcessor {
                   final int bulkActions,
                   final Duration flushInterval,
                   final int concurrentRequests,
-                  final int batchOfBytes) {
+                  final int batchOfBytes,
+                  final boolean gzip,
+                  final int maxRetries,
+                  final Duration retryBackoff,
+                  final BulkListener listener) {
         requireNonNull(flushInterval, "flushInterval");
+        requireNonNull(retryBackoff, "retryBackoff");
 
         this.es = requireNonNull(es, "es");
         this.bulkActions = bulkActions;
         this.batchOfBytes = batchOfBytes;
+        this.gzip = gzip;
+        this.maxRetries = maxRetries;
+        this.retryBackoffInMillis = retryBackoff.toMillis();
+        this.listener = requireNonNull(listener, "listener");
         this.semaphore = new Semaphore(concurrentRequests > 0 ? concurrentRequests : 1);
         this.requests = new ArrayBlockingQueue<>(bulkActions + 1);
 
-        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
             final Thread thread = new Thread(r);
             thread.setName("ElasticSearch BulkProcessor");
             return thread;
@@ -86,6 +115,15 @@ public final class BulkProcessor {
                 this::doPeriodicalFlush,
                 t -> log.error("flush data to ES failure:", t)
             ), 0, flushInterval.getSeconds(), TimeUnit.SECONDS);
+        if (maxRetries > 0) {
+            // The requests are retried at most one base backoff later than they are due.
+            final long retryInterval = Math.max(retryBackoffInMillis, 1);
+            scheduler.scheduleWithFixedDelay(
+                new RunnableWithExceptionProtection(
+                    this::flushRetries,
+                    t -> log.error("retry data to ES failure:", t)
+                ), retryInterval, retryInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     public CompletableFuture<Void> add(IndexRequest request) {
@@ -135,12 +173,41 @@ public final class BulkProcessor {
 
         final List<Holder> batch = new ArrayList<>(requests.size());
         requests.drainTo(batch);
+        execute(batch);
+        lastFlushTS = System.currentTimeMillis();
+    }
+
+    /**
+     * Execute all the rejected requests whose backoff has passed, in one batch.
+     */
+    private void flushRetries() {
+        final List<Holder> batch = new ArrayList<>();
+        // Only the expired elements are drained from the delay queue.
+        retryRequests.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            log.error("Interrupted when trying to get semaphore to execute bulk requests", e);
+            retryRequests.addAll(batch);
+            return;
+        }
+
+        execute(batch);
+    }
+
+    /**
+     * Execute the batch and wait for the responses, the semaphore should have been acquired.
+     */
+    private void execute(final List<Holder> batch) {
         final List<CompletableFuture<Void>> futures = doFlush(batch);
         final CompletableFuture<Void> future = CompletableFuture.allOf(
             futures.toArray(new CompletableFuture[futures.size()]));
         future.whenComplete((v, t) -> semaphore.release());
         future.join();
-        lastFlushTS = System.currentTimeMillis();
     }
 
     private List<CompletableFuture<Void>> doFlush(final List<Holder> batch) {
@@ -148,66 +215,197 @@ public final class BulkProcessor {
         if (batch.isEmpty()) {
             return Collections.emptyList();
         }
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        Content content = null;
+        // The index of the first holder not handed to an executed bulk yet.
+        int unsent = 0;
         try {
-            int bufferOfBytes = 0;
-            Codec codec = es.get().version().get().codec();
-            final List<byte[]> bs = new ArrayList<>();
-            List<CompletableFuture<Void>> futures = new ArrayList<>();
-            List<ByteBuf> byteBufList = new ArrayList<>();
-            for (final Holder holder : batch) {
-                byte[] bytes = codec.encode(holder.request);
-                bs.add(bytes);
-                bs.add("\n".getBytes());
-                bufferOfBytes += bytes.length + 1;
-                if (bufferOfBytes >= batchOfBytes) {
-                    final ByteBuf content = Unpooled.wrappedBuffer(bs.toArray(new byte[0][]));
-                    byteBufList.add(content);
-                    bs.clear();
-                    bufferOfBytes = 0;
+            final Codec codec = es.get().version().get().codec();
+            for (int i = 0; i < batch.size(); i++) {
+                if (content == null) {
+                    content = new Content(gzip);
+                }
+                content.add(codec, batch.get(i));
+                if (content.size() >= batchOfBytes) {
+                    futures.add(execute(content));
+                    content = null;
+                    unsent = i + 1;
                 }
             }
-            if (CollectionUtils.isNotEmpty(bs)) {
-                final ByteBuf content = Unpooled.wrappedBuffer(bs.toArray(new byte[0][]));
-                byteBufList.add(content);
-            }
-            for (final ByteBuf content : byteBufList) {
-                CompletableFuture<Void> future = es.get().version().thenCompose(v -> {
-                    try {
-                        final RequestFactory rf = v.requestFactory();
-                        return es.get().client().execute(rf.bulk().bulk(content)).aggregate().thenAccept(response -> {
-                            final HttpStatus status = response.status();
-                            if (status != HttpStatus.OK) {
-                                throw new RuntimeException(response.contentUtf8());
-                            }
-                        });
-                    } catch (Exception e) {
-                        return Exceptions.throwUnsafely(e);
-                    }
-                });
-                future.whenComplete((ignored, exception) -> {
-                    if (exception != null) {
-                        batch.stream().map(it -> it.future)
-                             .forEach(it -> it.completeExceptionally((Throwable) exception));
-                        log.error("Failed to execute requests in bulk", exception);
-                    } else {
-                        log.debug("Succeeded to execute {} requests in bulk", batch.size());
-                        batch.stream().map(it -> it.future).forEach(it -> it.complete(null));
-                    }
-                });
-                futures.add(future);
+            if (content != null) {
+                futures.add(execute(content));
             }
             return futures;
 
         } catch (Exception e) {
             log.error("Failed to execute requests in bulk", e);
-            return Collections.emptyList();
+            if (content != null) {
+                content.release();
+            }
+            // Complete all the holders not sent, including the ones after the failed one, otherwise their futures
+            // would never be completed.
+            batch.subList(unsent, batch.size()).forEach(it -> it.future.completeExceptionally(e));
+            return futures;
+        }
+    }
+
+    private CompletableFuture<Void> execute(final Content content) throws IOException {
+        final ByteBuf buffer = content.finish();
+        final List<Holder> holders = content.holders;
+        final CompletableFuture<Void> future = es.get().version().thenCompose(v -> {
+            try {
+                final RequestFactory rf = v.requestFactory();
+                return es.get().client().execute(rf.bulk().bulk(buffer, content.gzipped)).aggregate().thenAccept(
+                    response -> onResponse(v.codec(), holders, response));
+            } catch (Exception e) {
+                return Exceptions.throwUnsafely(e);
+            }
+        });
+        future.whenComplete((ignored, exception) -> {
+            if (exception != null) {
+                holders.stream().map(it -> it.future)
+                       .forEach(it -> it.completeExceptionally((Throwable) exception));
+                log.error("Failed to execute requests in bulk", exception);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Complete the requests according to the items in the response, the items are in the same order as the requests.
+     * The rejected requests are retried with exponential backoff.
+     */
+    @SneakyThrows
+    private void onResponse(final Codec codec, final List<Holder> holders, final AggregatedHttpResponse response) {
+        final HttpStatus status = response.status();
+        if (status == HttpStatus.TOO_MANY_REQUESTS) {
+            // The whole bulk is rejected.
+            holders.forEach(it -> retryOrFail(it, status.code(), response.contentUtf8()));
+            return;
+        }
+        if (status != HttpStatus.OK) {
+            throw new ResponseException(response.contentUtf8(), status.code());
+        }
+
+        final BulkResponse bulkResponse;
+        try (final InputStream is = response.content().toInputStream()) {
+            bulkResponse = codec.decode(is, BulkResponse.class);
+        }
+        if (!bulkResponse.isErrors()) {
+            log.debug("Succeeded to execute {} requests in bulk", holders.size());
+            holders.forEach(it -> it.future.complete(null));
+            return;
+        }
+        final List<Map<String, BulkResponse.Item>> items = bulkResponse.getItems();
+        if (items == null || items.size() != holders.size()) {
+            throw new IllegalStateException(
+                "The number of items in the bulk response doesn't match the requests: " + holders.size());
+        }
+        for (int i = 0; i < holders.size(); i++) {
+            final Holder holder = holders.get(i);
+            final BulkResponse.Item item = items.get(i).values().iterator().next();
+            if (item.getStatus() >= 200 && item.getStatus() < 300) {
+                holder.future.complete(null);
+            } else if (item.getStatus() == HttpStatus.TOO_MANY_REQUESTS.code()) {
+                retryOrFail(holder, item.getStatus(), String.valueOf(item.getError()));
+            } else {
+                fail(holder, item.getStatus(), String.valueOf(item.getError()));
+            }
+        }
+    }
+
+    private void retryOrFail(final Holder holder, final int status, final String reason) {
+        if (holder.retries >= maxRetries) {
+            fail(holder, status, reason);
+            return;
+        }
+        holder.dueTime = System.currentTimeMillis() + (retryBackoffInMillis << holder.retries);
+        holder.retries++;
+        listener.onItemFailure(holder.index(), status, true);
+        retryRequests.add(holder);
+    }
+
+    private void fail(final Holder holder, final int status, final String reason) {
+        log.error("Failed to execute the request in bulk, index: {}, status: {}, retries: {}, reason: {}",
+                  holder.index(), status, holder.retries, reason);
+        listener.onItemFailure(holder.index(), status, false);
+        holder.future.completeExceptionally(new ResponseException(reason, status));
+    }
+
+    /**
+     * The body of a bulk request, the requests are encoded into a pooled buffer directly, one line for the action and
+     * one line for the document, optionally compressed in gzip.
+     */
+    static final class Content {
+        private final ByteBuf buffer;
+        private final CountingOutputStream out;
+        private final boolean gzipped;
+        private final List<Holder> holders = new ArrayList<>();
+
+        Content(final boolean gzipped) throws IOException {
+            this.gzipped = gzipped;
+            buffer = PooledByteBufAllocator.DEFAULT.buffer();
+            final OutputStream os = new ByteBufOutputStream(buffer);
+            out = new CountingOutputStream(gzipped ? new GZIPOutputStream(os) : os);
+        }
+
+        void add(final Codec codec, final Holder holder) throws Exception {
+            codec.encode(holder.request, out);
+            out.write('\n');
+            holders.add(holder);
+        }
+
+        /**
+         * @return the size before compression.
+         */
+        long size() {
+            return out.getCount();
+        }
+
+        /**
+         * @return the encoded buffer, the ownership is transferred to the caller if no exception is thrown.
+         */
+        ByteBuf finish() throws IOException {
+            out.close();
+            return buffer;
+        }
+
+        void release() {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // The buffer is released anyway.
+            }
+            buffer.release();
         }
     }
 
     @RequiredArgsConstructor
-    static class Holder {
+    static class Holder implements Delayed {
         private final CompletableFuture<Void> future;
         private final Object request;
+        private int retries;
+        /**
+         * The time in milliseconds when the backoff of the next retry passes.
+         */
+        private long dueTime;
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(dueTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed o) {
+            return Long.compare(dueTime, ((Holder) o).dueTime);
+        }
+
+        private String index() {
+            if (request instanceof IndexRequest) {
+                return ((IndexRequest) request).getIndex();
+            }
+            return ((UpdateRequest) request).getIndex();
+        }
     }
 
 }
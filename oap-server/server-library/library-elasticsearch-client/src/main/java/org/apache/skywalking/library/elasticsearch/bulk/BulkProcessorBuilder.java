@@ -33,6 +33,10 @@ public final class BulkProcessorBuilder {
     private Duration flushInterval;
     private int concurrentRequests = 2;
     private int batchOfBytes;
+    private boolean gzip;
+    private int maxRetries = 3;
+    private Duration retryBackoff = Duration.ofMillis(100);
+    private BulkListener listener = BulkListener.NOOP;
 
     public BulkProcessorBuilder bulkActions(int bulkActions) {
         checkArgument(bulkActions > 0, "bulkActions must be positive");
@@ -57,8 +61,35 @@ public final class BulkProcessorBuilder {
         return this;
     }
 
+    /**
+     * Compress the bulk requests in gzip, this reduces the network traffic at the cost of CPU.
+     */
+    public BulkProcessorBuilder gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    /**
+     * The max times to retry the request rejected due to the indexing pressure, the backoff doubles after every retry.
+     */
+    public BulkProcessorBuilder maxRetries(int maxRetries) {
+        checkArgument(maxRetries >= 0, "maxRetries must be >= 0");
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    public BulkProcessorBuilder retryBackoff(Duration retryBackoff) {
+        this.retryBackoff = requireNonNull(retryBackoff, "retryBackoff");
+        return this;
+    }
+
+    public BulkProcessorBuilder listener(BulkListener listener) {
+        this.listener = requireNonNull(listener, "listener");
+        return this;
+    }
+
     public BulkProcessor build(AtomicReference<ElasticSearch> es) {
         return new BulkProcessor(
-            es, bulkActions, flushInterval, concurrentRequests, batchOfBytes);
+            es, bulkActions, flushInterval, concurrentRequests, batchOfBytes, gzip, maxRetries, retryBackoff, listener);
     }
 }
@@ -24,5 +24,12 @@ public interface BulkFactory {
     /**
      * Returns a request to perform multiple indexing or delete operations in a single API call.
      */
-    HttpRequest bulk(ByteBuf content);
+    default HttpRequest bulk(ByteBuf content) {
+        return bulk(content, false);
+    }
+
+    /**
+     * @param gzipped true if the content is compressed in gzip, the {@code Content-Encoding} header is set.
+     */
+    HttpRequest bulk(ByteBuf content, boolean gzipped);
 }
@@ -18,7 +18,9 @@
 package org.apache.skywalking.library.elasticsearch.requests.factory.common;
 
 import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
 import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpRequestBuilder;
 import com.linecorp.armeria.common.MediaType;
 import io.netty.buffer.ByteBuf;
 import java.nio.charset.StandardCharsets;
@@ -37,16 +39,18 @@ public final class CommonBulkFactory implements BulkFactory {
 
     @SneakyThrows
     @Override
-    public HttpRequest bulk(ByteBuf content) {
+    public HttpRequest bulk(ByteBuf content, boolean gzipped) {
         requireNonNull(content, "content");
 
-        if (log.isDebugEnabled()) {
+        if (log.isDebugEnabled() && !gzipped) {
             log.debug("Bulk requests: {}", content.toString(StandardCharsets.UTF_8));
         }
 
-        return HttpRequest.builder()
-                          .post("/_bulk")
-                          .content(MediaType.JSON, HttpData.wrap(content))
-                          .build();
+        final HttpRequestBuilder builder = HttpRequest.builder().post("/_bulk");
+        if (gzipped) {
+            builder.header(HttpHeaderNames.CONTENT_ENCODING, "gzip");
+        }
+        return builder.content(MediaType.JSON, HttpData.wrap(content))
+                      .build();
     }
 }
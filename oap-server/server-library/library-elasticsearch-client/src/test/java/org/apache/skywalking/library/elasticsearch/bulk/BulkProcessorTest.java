@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.library.elasticsearch.bulk;
+
+import com.google.common.io.ByteStreams;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.server.Server;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import lombok.SneakyThrows;
+import org.apache.skywalking.library.elasticsearch.ElasticSearch;
+import org.apache.skywalking.library.elasticsearch.exception.ResponseException;
+import org.apache.skywalking.library.elasticsearch.requests.IndexRequest;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BulkProcessorTest {
+    private final Queue<String> bulkResponses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bulkCalls = new AtomicInteger();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    private final Queue<String> bulkBodies = new ConcurrentLinkedQueue<>();
+    private Server server;
+    private ElasticSearch es;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = Server.builder()
+                       .http(0)
+                       .service("/", (ctx, req) -> HttpResponse.of(
+                           HttpStatus.OK, MediaType.JSON_UTF_8, "{\"version\":{\"number\":\"8.1.0\"}}"))
+                       .service("/_cluster/health", (ctx, req) -> HttpResponse.of(HttpStatus.OK))
+                       .service("/_bulk", (ctx, req) -> HttpResponse.from(req.aggregate().thenApply(it -> {
+                           bulkCalls.incrementAndGet();
+                           bulkBodies.add(body(
+                               it.headers().get(HttpHeaderNames.CONTENT_ENCODING), it.content().array()));
+                           final String response = bulkResponses.poll();
+                           if (response == null) {
+                               return HttpResponse.of(HttpStatus.TOO_MANY_REQUESTS);
+                           }
+                           return HttpResponse.of(HttpStatus.OK, MediaType.JSON_UTF_8, response);
+                       })))
+                       .build();
+        server.start().join();
+        es = ElasticSearch.builder()
+                          .endpoints("127.0.0.1:" + server.activePort().localAddress().getPort())
+                          .build();
+        es.connect().get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        es.close();
+        server.stop().join();
+    }
+
+    @Test
+    public void shouldCompleteItemsIndividuallyAndRetryRejected() {
+        bulkResponses.add(
+            "{\"errors\":true,\"items\":["
+                + "{\"index\":{\"_index\":\"idx-20240101\",\"status\":201}},"
+                + "{\"index\":{\"_index\":\"idx-20240101\",\"status\":429,\"error\":{\"type\":\"es_rejected_execution_exception\"}}},"
+                + "{\"index\":{\"_index\":\"idx-20240101\",\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\"}}}"
+                + "]}");
+        bulkResponses.add(
+            "{\"errors\":false,\"items\":[{\"index\":{\"_index\":\"idx-20240101\",\"status\":200}}]}");
+
+        final BulkProcessor processor = processor(3);
+        final CompletableFuture<Void> f0 = processor.add(request("0"));
+        final CompletableFuture<Void> f1 = processor.add(request("1"));
+        final CompletableFuture<Void> f2 = processor.add(request("2"));
+        processor.flush();
+
+        f0.join();
+        f1.join();
+        final CompletionException e = assertThrows(CompletionException.class, f2::join);
+        assertThat(e.getCause()).isInstanceOf(ResponseException.class);
+        assertThat(((ResponseException) e.getCause()).getStatusCode()).isEqualTo(400);
+        assertThat(bulkCalls.get()).isEqualTo(2);
+        assertThat(failures).containsExactlyInAnyOrder("idx-20240101/429/true", "idx-20240101/400/false");
+    }
+
+    @Test
+    public void shouldDropRejectedItemsWhenRetriesRunOut() {
+        final BulkProcessor processor = processor(2);
+        final CompletableFuture<Void> f0 = processor.add(request("0"));
+        processor.flush();
+
+        final CompletionException e = assertThrows(CompletionException.class, f0::join);
+        assertThat(((ResponseException) e.getCause()).getStatusCode()).isEqualTo(429);
+        assertThat(bulkCalls.get()).isEqualTo(3);
+        assertThat(failures).containsExactly(
+            "idx-20240101/429/true", "idx-20240101/429/true", "idx-20240101/429/false");
+    }
+
+    @Test
+    public void shouldRetryOnlyTheRejectedItemsWhoseBackoffPassed() {
+        final BulkProcessor processor = BulkProcessor.builder()
+                                                     .bulkActions(100)
+                                                     .batchOfBytes(1024 * 1024)
+                                                     .flushInterval(Duration.ofSeconds(60))
+                                                     .maxRetries(3)
+                                                     .retryBackoff(Duration.ofMillis(100))
+                                                     .build(new AtomicReference<>(es));
+        final CompletableFuture<Void> f0 = processor.add(request("0"));
+        processor.flush();
+        // The 3rd attempt of the request 0 is rejected, it waits for 400ms before the next one.
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> bulkCalls.get() == 3);
+
+        final CompletableFuture<Void> f1 = processor.add(request("1"));
+        processor.flush();
+        assertThrows(CompletionException.class, f1::join);
+        assertThrows(CompletionException.class, f0::join);
+
+        final List<String> bodies = new ArrayList<>(bulkBodies);
+        // The first retry of the request 1 is due 300ms before the request 0, the later ones may be in one bulk.
+        assertThat(bodies.get(4)).contains("\"_id\":\"1\"").doesNotContain("\"_id\":\"0\"");
+    }
+
+    @Test
+    public void shouldCompleteAllItemsWhenEncodingFails() {
+        final BulkProcessor processor = processor(0);
+        final CompletableFuture<Void> f0 = processor.add(request("0"));
+        final CompletableFuture<Void> f1 = processor.add(IndexRequest.builder()
+                                                                     .index("idx-20240101")
+                                                                     .type("_doc")
+                                                                     .id("1")
+                                                                     .doc(Collections.singletonMap("k", new Object()))
+                                                                     .build());
+        final CompletableFuture<Void> f2 = processor.add(request("2"));
+        processor.flush();
+
+        assertThat(f0).isCompletedExceptionally();
+        assertThat(f1).isCompletedExceptionally();
+        assertThat(f2).isCompletedExceptionally();
+        assertThat(bulkCalls.get()).isZero();
+    }
+
+    @Test
+    public void shouldEncodeRequestsLineByLine() {
+        shouldEncodeRequests(false);
+    }
+
+    @Test
+    public void shouldEncodeRequestsInGzip() {
+        shouldEncodeRequests(true);
+    }
+
+    private void shouldEncodeRequests(final boolean gzip) {
+        bulkResponses.add("{\"errors\":false,\"items\":[]}");
+        final BulkProcessor processor = BulkProcessor.builder()
+                                                     .bulkActions(100)
+                                                     .batchOfBytes(1024 * 1024)
+                                                     .flushInterval(Duration.ofSeconds(60))
+                                                     .gzip(gzip)
+                                                     .build(new AtomicReference<>(es));
+        final CompletableFuture<Void> f0 = processor.add(request("0"));
+        final CompletableFuture<Void> f1 = processor.add(request("1"));
+        processor.flush();
+
+        f0.join();
+        f1.join();
+        assertThat(bulkBodies).containsExactly(
+            "{\"index\":{\"_index\":\"idx-20240101\",\"_id\":\"0\"}}\n{\"k\":\"0\"}\n"
+                + "{\"index\":{\"_index\":\"idx-20240101\",\"_id\":\"1\"}}\n{\"k\":\"1\"}\n");
+    }
+
+    private BulkProcessor processor(final int maxRetries) {
+        return BulkProcessor.builder()
+                            .bulkActions(100)
+                            .batchOfBytes(1024 * 1024)
+                            .flushInterval(Duration.ofSeconds(60))
+                            .concurrentRequests(2)
+                            .maxRetries(maxRetries)
+                            .retryBackoff(Duration.ofMillis(10))
+                            .listener((index, status, retrying) -> failures.add(index + "/" + status + "/" + retrying))
+                            .build(new AtomicReference<>(es));
+    }
+
+    @SneakyThrows
+    private static String body(final String contentEncoding, final byte[] content) {
+        if (!"gzip".equals(contentEncoding)) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(ByteStreams.toByteArray(is), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static IndexRequest request(final String id) {
+        return IndexRequest.builder()
+                           .index("idx-20240101")
+                           .type("_doc")
+                           .id(id)
+                           .doc(Collections.singletonMap("k", id))
+                           .build();
+    }
+}
@@ -28,6 +28,7 @@ import io.vavr.Function1;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.meter.analyzer.MetricConvert;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
 import org.apache.skywalking.oap.meter.analyzer.prometheus.PrometheusMetricConverter;
 import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Rule;
 import org.apache.skywalking.oap.meter.analyzer.prometheus.rule.Rules;
@@ -44,6 +45,8 @@ import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Summary;
 import org.apache.skywalking.oap.server.receiver.otel.OtelMetricReceiverConfig;
 
 import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -73,7 +76,16 @@ public class OpenTelemetryMetricRequestProcessor implements Service {
             .build();
     private List<PrometheusMetricConverter> converters;
 
+    /**
+     * The indexes of the {@link #converters} whose rules read each sample, the OTLP metrics are converted to sample
+     * families once per request and only routed to the rules reading them.
+     */
+    private Map<String, int[]> converterIndexes = Collections.emptyMap();
+
     public void processMetricsRequest(final ExportMetricsServiceRequest requests) {
+        if (converterIndexes.isEmpty()) {
+            return;
+        }
         requests.getResourceMetricsList().forEach(request -> {
             if (log.isDebugEnabled()) {
                 log.debug("Resource attributes: {}", request.getResource().getAttributesList());
@@ -92,18 +104,36 @@ public class OpenTelemetryMetricRequestProcessor implements Service {
                         (v1, v2) -> v1
                     ));
 
-            converters
-                .forEach(convert -> convert.toMeter(
+            // The conversion doesn't depend on the rule, convert the metrics once and share them with all the rules.
+            final ImmutableMap<String, SampleFamily> sampleFamilies =
+                converters.get(0).convertPromMetricToSampleFamily(
                     request
                         .getScopeMetricsList().stream()
                         .flatMap(scopeMetrics -> scopeMetrics
                             .getMetricsList().stream()
+                            .filter(metric -> isReferenced(metric.getName()))
                             .flatMap(metric -> adaptMetrics(nodeLabels, metric))
                             .map(Function1.liftTry(Function.identity()))
                             .flatMap(tryIt -> MetricConvert.log(
                                 tryIt,
                                 "Convert OTEL metric to prometheus metric"
-                            )))));
+                            ))));
+            if (sampleFamilies.isEmpty()) {
+                return;
+            }
+
+            final BitSet routed = new BitSet(converters.size());
+            for (final String sample : sampleFamilies.keySet()) {
+                final int[] indexes = converterIndexes.get(sample);
+                if (indexes != null) {
+                    for (final int index : indexes) {
+                        routed.set(index);
+                    }
+                }
+            }
+            for (int i = routed.nextSetBit(0); i >= 0; i = routed.nextSetBit(i + 1)) {
+                converters.get(i).toMeter(sampleFamilies);
+            }
         });
 
     }
@@ -130,6 +160,27 @@ public class OpenTelemetryMetricRequestProcessor implements Service {
             .stream()
             .map(r -> new PrometheusMetricConverter(r, meterSystem))
             .collect(toList());
+
+        final Map<String, BitSet> indexes = new HashMap<>();
+        for (int i = 0; i < converters.size(); i++) {
+            for (final String sample : converters.get(i).samples()) {
+                indexes.computeIfAbsent(sample, k -> new BitSet()).set(i);
+            }
+        }
+        converterIndexes = indexes.entrySet()
+                                  .stream()
+                                  .collect(toMap(Map.Entry::getKey, it -> it.getValue().stream().toArray()));
+    }
+
+    /**
+     * @return true if any rule reads the samples converted from the OTLP metric, a histogram or summary is converted to
+     * the samples of its name, and the name with "_count" and "_sum" suffix.
+     */
+    private boolean isReferenced(final String metricName) {
+        final String name = converters.get(0).escapedName(metricName);
+        return converterIndexes.containsKey(name)
+            || converterIndexes.containsKey(name + "_count")
+            || converterIndexes.containsKey(name + "_sum");
     }
 
     private static Map<String, String> buildLabels(List<KeyValue> kvs) {
@@ -17,24 +17,42 @@
 
 package org.apache.skywalking.oap.server.receiver.otel.otlp;
 
+import com.google.common.collect.ImmutableMap;
+import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceRequest;
 import io.opentelemetry.proto.metrics.v1.ExponentialHistogram;
 import io.opentelemetry.proto.metrics.v1.ExponentialHistogramDataPoint;
+import io.opentelemetry.proto.metrics.v1.Gauge;
 import io.opentelemetry.proto.metrics.v1.Metric;
+import io.opentelemetry.proto.metrics.v1.NumberDataPoint;
+import io.opentelemetry.proto.metrics.v1.ResourceMetrics;
+import io.opentelemetry.proto.metrics.v1.ScopeMetrics;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.apache.skywalking.oap.meter.analyzer.dsl.SampleFamily;
+import org.apache.skywalking.oap.meter.analyzer.prometheus.PrometheusMetricConverter;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.util.prometheus.metrics.Histogram;
 import org.apache.skywalking.oap.server.receiver.otel.OtelMetricReceiverConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.powermock.reflect.Whitebox;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class OpenTelemetryMetricRequestProcessorTest {
 
@@ -131,4 +149,53 @@ public class OpenTelemetryMetricRequestProcessorTest {
         assertTrue(histogramMetric.getBuckets().containsKey(-Math.pow(base, 17)));
         assertEquals(2, histogramMetric.getBuckets().get(-Math.pow(base, 17)));
     }
+
+    @Test
+    public void testConvertOnceAndRoute() {
+        final List<String> converted = new ArrayList<>();
+        final PrometheusMetricConverter cpu = mock(PrometheusMetricConverter.class);
+        final PrometheusMetricConverter memory = mock(PrometheusMetricConverter.class);
+        final PrometheusMetricConverter disk = mock(PrometheusMetricConverter.class);
+        when(cpu.escapedName(anyString())).thenAnswer(it -> ((String) it.getArgument(0)).replace('.', '_'));
+        when(cpu.convertPromMetricToSampleFamily(any())).thenAnswer(it -> {
+            final ImmutableMap.Builder<String, SampleFamily> families = ImmutableMap.builder();
+            ((Stream<org.apache.skywalking.oap.server.library.util.prometheus.metrics.Metric>) it.getArgument(0))
+                .forEach(metric -> {
+                    converted.add(metric.getName());
+                    families.put(metric.getName().replace('.', '_'), SampleFamily.EMPTY);
+                });
+            return families.build();
+        });
+        Whitebox.setInternalState(metricRequestProcessor, "converters", Arrays.asList(cpu, memory, disk));
+        Whitebox.setInternalState(metricRequestProcessor, "converterIndexes", ImmutableMap.of(
+            "cpu_usage", new int[] {0},
+            "cpu_total", new int[] {0},
+            "memory_used", new int[] {1},
+            "disk_used", new int[] {2}
+        ));
+
+        metricRequestProcessor.processMetricsRequest(
+            ExportMetricsServiceRequest.newBuilder()
+                                       .addResourceMetrics(ResourceMetrics.newBuilder().addScopeMetrics(
+                                           ScopeMetrics.newBuilder()
+                                                       .addMetrics(gauge("cpu.usage"))
+                                                       .addMetrics(gauge("memory.used"))
+                                                       .addMetrics(gauge("unknown.metric"))))
+                                       .build());
+
+        // Converted once, without the metrics no rule reads.
+        assertEquals(Arrays.asList("cpu.usage", "memory.used"), converted);
+        final ImmutableMap<String, SampleFamily> families =
+            ImmutableMap.of("cpu_usage", SampleFamily.EMPTY, "memory_used", SampleFamily.EMPTY);
+        verify(cpu, times(1)).toMeter(families);
+        verify(memory, times(1)).toMeter(families);
+        verify(disk, never()).toMeter(any(ImmutableMap.class));
+    }
+
+    private static Metric gauge(final String name) {
+        return Metric.newBuilder()
+                     .setName(name)
+                     .setGauge(Gauge.newBuilder().addDataPoints(NumberDataPoint.newBuilder().setAsDouble(1)))
+                     .build();
+    }
 }
@@ -18,8 +18,19 @@
 
 package org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import io.grpc.BindableService;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.Status;
+import io.grpc.stub.ServerCalls;
 import io.grpc.stub.StreamObserver;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.network.common.v3.Commands;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentCollection;
@@ -35,8 +46,13 @@ import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
+/**
+ * The handler of {@link TraceSegmentReportServiceGrpc}. The segments are bound as raw bytes rather than the parsed
+ * messages, see {@link #bindService()}. So the segment binary received from the agent is saved into the storage
+ * directly, without being encoded again.
+ */
 @Slf4j
-public class TraceSegmentReportServiceHandler extends TraceSegmentReportServiceGrpc.TraceSegmentReportServiceImplBase implements GRPCHandler {
+public class TraceSegmentReportServiceHandler implements BindableService, GRPCHandler {
     private HistogramMetrics histogram;
     private CounterMetrics errorCounter;
 
@@ -59,7 +75,6 @@ public class TraceSegmentReportServiceHandler extends TraceSegmentReportServiceG
         );
     }
 
-    @Override
     public StreamObserver<SegmentObject> collect(StreamObserver<Commands> responseObserver) {
         return new StreamObserver<SegmentObject>() {
             @Override
@@ -68,15 +83,7 @@ public class TraceSegmentReportServiceHandler extends TraceSegmentReportServiceG
                     log.debug("received segment in streaming");
                 }
 
-                HistogramMetrics.Timer timer = histogram.createTimer();
-                try {
-                    segmentParserService.send(segment);
-                } catch (Exception e) {
-                    errorCounter.inc();
-                    log.error(e.getMessage(), e);
-                } finally {
-                    timer.finish();
-                }
+                analyze(segment, null);
             }
 
             @Override
@@ -99,25 +106,123 @@ public class TraceSegmentReportServiceHandler extends TraceSegmentReportServiceG
         };
     }
 
-    @Override
     public void collectInSync(final SegmentCollection request, final StreamObserver<Commands> responseObserver) {
         if (log.isDebugEnabled()) {
             log.debug("received {} segments", request.getSegmentsCount());
         }
 
-        request.getSegmentsList().forEach(segment -> {
-            HistogramMetrics.Timer timer = histogram.createTimer();
-            try {
-                segmentParserService.send(segment);
-            } catch (Exception e) {
-                errorCounter.inc();
-                log.error(e.getMessage(), e);
-            } finally {
-                timer.finish();
+        request.getSegmentsList().forEach(segment -> analyze(segment, null));
+
+        responseObserver.onNext(Commands.newBuilder().build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Bind the methods with the request marshaller of bytes, the segments are parsed in {@link #analyze(byte[])} and
+     * keep their binary.
+     */
+    @Override
+    public ServerServiceDefinition bindService() {
+        return ServerServiceDefinition.builder(TraceSegmentReportServiceGrpc.SERVICE_NAME)
+                                      .addMethod(
+                                          withBinaryRequest(TraceSegmentReportServiceGrpc.getCollectMethod()),
+                                          ServerCalls.asyncClientStreamingCall(this::collectBinary)
+                                      )
+                                      .addMethod(
+                                          withBinaryRequest(TraceSegmentReportServiceGrpc.getCollectInSyncMethod()),
+                                          ServerCalls.asyncUnaryCall(this::collectInSyncBinary)
+                                      )
+                                      .build();
+    }
+
+    private StreamObserver<byte[]> collectBinary(StreamObserver<Commands> responseObserver) {
+        final StreamObserver<SegmentObject> delegate = collect(responseObserver);
+        return new StreamObserver<byte[]>() {
+            @Override
+            public void onNext(byte[] segmentBinary) {
+                if (log.isDebugEnabled()) {
+                    log.debug("received segment in streaming");
+                }
+
+                analyze(segmentBinary);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                delegate.onError(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                delegate.onCompleted();
+            }
+        };
+    }
+
+    private void collectInSyncBinary(byte[] request, StreamObserver<Commands> responseObserver) {
+        // Read the segments of the SegmentCollection one by one, to keep their binary.
+        final CodedInputStream input = CodedInputStream.newInstance(request);
+        try {
+            for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+                if (WireFormat.getTagFieldNumber(tag) == SegmentCollection.SEGMENTS_FIELD_NUMBER
+                    && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                    analyze(input.readByteArray());
+                } else if (!input.skipField(tag)) {
+                    break;
+                }
             }
-        });
+        } catch (IOException e) {
+            errorCounter.inc();
+            log.error("Failed to read the segment collection", e);
+        }
 
         responseObserver.onNext(Commands.newBuilder().build());
         responseObserver.onCompleted();
     }
+
+    private void analyze(byte[] segmentBinary) {
+        final SegmentObject segment;
+        try {
+            segment = SegmentObject.parseFrom(segmentBinary);
+        } catch (InvalidProtocolBufferException e) {
+            errorCounter.inc();
+            log.error(e.getMessage(), e);
+            return;
+        }
+        analyze(segment, segmentBinary);
+    }
+
+    private void analyze(SegmentObject segment, byte[] segmentBinary) {
+        HistogramMetrics.Timer timer = histogram.createTimer();
+        try {
+            segmentParserService.send(segment, segmentBinary);
+        } catch (Exception e) {
+            errorCounter.inc();
+            log.error(e.getMessage(), e);
+        } finally {
+            timer.finish();
+        }
+    }
+
+    private static MethodDescriptor<byte[], Commands> withBinaryRequest(MethodDescriptor<?, Commands> method) {
+        return method.toBuilder(BinaryMarshaller.INSTANCE, method.getResponseMarshaller()).build();
+    }
+
+    private static class BinaryMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+        private static final BinaryMarshaller INSTANCE = new BinaryMarshaller();
+
+        @Override
+        public InputStream stream(final byte[] value) {
+            return new ByteArrayInputStream(value);
+        }
+
+        @Override
+        public byte[] parse(final InputStream stream) {
+            try {
+                return stream.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
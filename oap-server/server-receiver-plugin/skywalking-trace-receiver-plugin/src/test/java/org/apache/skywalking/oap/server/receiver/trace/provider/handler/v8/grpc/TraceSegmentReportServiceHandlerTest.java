@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.network.common.v3.Commands;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentCollection;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
+import org.apache.skywalking.apm.network.language.agent.v3.TraceSegmentReportServiceGrpc;
+import org.apache.skywalking.oap.server.analyzer.module.AnalyzerModule;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.ISegmentParserService;
+import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.module.ModuleProviderHolder;
+import org.apache.skywalking.oap.server.library.module.ModuleServiceHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TraceSegmentReportServiceHandlerTest {
+    private final List<SegmentObject> segments = new CopyOnWriteArrayList<>();
+    private final List<byte[]> binaries = new CopyOnWriteArrayList<>();
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        final ModuleManager moduleManager = mock(ModuleManager.class);
+        final ModuleProviderHolder providerHolder = mock(ModuleProviderHolder.class);
+        final ModuleServiceHolder serviceHolder = mock(ModuleServiceHolder.class);
+        when(moduleManager.find(AnalyzerModule.NAME)).thenReturn(providerHolder);
+        when(moduleManager.find(TelemetryModule.NAME)).thenReturn(providerHolder);
+        when(providerHolder.provider()).thenReturn(serviceHolder);
+        when(serviceHolder.getService(MetricsCreator.class)).thenReturn(new MetricsCreatorNoop());
+        when(serviceHolder.getService(ISegmentParserService.class)).thenReturn(new ISegmentParserService() {
+            @Override
+            public void send(final SegmentObject segment) {
+                send(segment, null);
+            }
+
+            @Override
+            public void send(final SegmentObject segment, final byte[] segmentBinary) {
+                segments.add(segment);
+                binaries.add(segmentBinary);
+            }
+        });
+
+        final String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                                       .directExecutor()
+                                       .addService(new TraceSegmentReportServiceHandler(moduleManager))
+                                       .build()
+                                       .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    public void collectInSyncKeepsSegmentBinary() {
+        final SegmentCollection collection = SegmentCollection.newBuilder()
+                                                              .addSegments(segment("segment-1"))
+                                                              .addSegments(segment("segment-2"))
+                                                              .build();
+
+        TraceSegmentReportServiceGrpc.newBlockingStub(channel).collectInSync(collection);
+
+        assertEquals(collection.getSegmentsList(), segments);
+        assertEquals(2, binaries.size());
+        for (int i = 0; i < 2; i++) {
+            assertArrayEquals(collection.getSegments(i).toByteArray(), binaries.get(i));
+        }
+    }
+
+    @Test
+    public void collectKeepsSegmentBinary() throws InterruptedException {
+        final CountDownLatch completed = new CountDownLatch(1);
+        final StreamObserver<SegmentObject> observer = TraceSegmentReportServiceGrpc.newStub(channel).collect(
+            new StreamObserver<Commands>() {
+                @Override
+                public void onNext(final Commands value) {
+                }
+
+                @Override
+                public void onError(final Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    completed.countDown();
+                }
+            });
+        final SegmentObject segment = segment("segment-1");
+        observer.onNext(segment);
+        observer.onCompleted();
+
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(segment), segments);
+        assertArrayEquals(segment.toByteArray(), binaries.get(0));
+    }
+
+    private static SegmentObject segment(String segmentId) {
+        return SegmentObject.newBuilder()
+                            .setTraceId("trace")
+                            .setTraceSegmentId(segmentId)
+                            .setService("service")
+                            .setServiceInstance("instance")
+                            .addSpans(SpanObject.newBuilder()
+                                                .setSpanId(0)
+                                                .setParentSpanId(-1)
+                                                .setSpanType(SpanType.Entry)
+                                                .setOperationName("/test"))
+                            .build();
+    }
+}
@@ -96,6 +96,19 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
      */
     private int flushInterval = 5;
     private int concurrentRequests = 2;
+    /**
+     * The max times to retry the bulk items rejected by ElasticSearch due to the indexing pressure(HTTP 429).
+     * The backoff doubles after every retry, the item is dropped when the retries run out.
+     *
+     * @since 10.1.0
+     */
+    private int bulkMaxRetries = 3;
+    /**
+     * Compress the bulk requests in gzip, this reduces the network traffic to ElasticSearch at the cost of CPU.
+     *
+     * @since 10.1.0
+     */
+    private boolean enableBulkCompression = false;
     /**
      * @since 7.0.0 This could be managed inside {@link #secretsManagementFile}
      */
@@ -66,6 +66,7 @@ import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedExcepti
 import org.apache.skywalking.oap.server.library.util.MultipleFilesChangeMonitor;
 import org.apache.skywalking.oap.server.library.util.StringUtil;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.BatchProcessEsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.BulkItemFailureCounters;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.HistoryDeleteEsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.IndexController;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.StorageEsDAO;
@@ -110,6 +111,7 @@ public class StorageModuleElasticsearchProvider extends ModuleProvider {
     protected StorageModuleElasticsearchConfig config;
     protected ElasticSearchClient elasticSearchClient;
     protected StorageEsInstaller modelInstaller;
+    protected BatchProcessEsDAO batchProcessEsDAO;
 
     @Override
     public String name() {
@@ -191,11 +193,12 @@ public class StorageModuleElasticsearchProvider extends ModuleProvider {
         );
         modelInstaller = new StorageEsInstaller(elasticSearchClient, getManager(), config);
 
-        this.registerServiceImplementation(
-            IBatchDAO.class,
-            new BatchProcessEsDAO(elasticSearchClient, config.getBulkActions(), config
-                .getFlushInterval(), config.getConcurrentRequests(), config.getBatchOfBytes())
+        batchProcessEsDAO = new BatchProcessEsDAO(
+            elasticSearchClient, config.getBulkActions(), config.getFlushInterval(),
+            config.getConcurrentRequests(), config.getBatchOfBytes(), config.isEnableBulkCompression(),
+            config.getBulkMaxRetries()
         );
+        this.registerServiceImplementation(IBatchDAO.class, batchProcessEsDAO);
         this.registerServiceImplementation(StorageDAO.class, new StorageEsDAO(elasticSearchClient));
         this.registerServiceImplementation(
             IHistoryDeleteDAO.class, new HistoryDeleteEsDAO(elasticSearchClient));
@@ -267,6 +270,7 @@ public class StorageModuleElasticsearchProvider extends ModuleProvider {
         HealthCheckMetrics healthChecker = metricCreator.createHealthCheckerGauge(
             "storage_elasticsearch", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
         elasticSearchClient.registerChecker(healthChecker);
+        batchProcessEsDAO.setBulkListener(new BulkItemFailureCounters(metricCreator));
         try {
             elasticSearchClient.connect();
 
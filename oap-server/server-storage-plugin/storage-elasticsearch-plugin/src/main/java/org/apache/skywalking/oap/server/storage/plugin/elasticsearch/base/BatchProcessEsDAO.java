@@ -20,7 +20,9 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkListener;
 import org.apache.skywalking.library.elasticsearch.bulk.BulkProcessor;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
@@ -37,17 +39,28 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
     private final int flushInterval;
     private final int concurrentRequests;
     private final int batchOfBytes;
+    private final boolean gzip;
+    private final int maxRetries;
+    /**
+     * Notified when the items in the bulk are rejected or failed, it should be set before the first flush.
+     */
+    @Setter
+    private volatile BulkListener bulkListener = BulkListener.NOOP;
 
     public BatchProcessEsDAO(ElasticSearchClient client,
                              int bulkActions,
                              int flushInterval,
                              int concurrentRequests,
-                             int batchOfBytes) {
+                             int batchOfBytes,
+                             boolean gzip,
+                             int maxRetries) {
         super(client);
         this.bulkActions = bulkActions;
         this.flushInterval = flushInterval;
         this.concurrentRequests = concurrentRequests;
         this.batchOfBytes = batchOfBytes;
+        this.gzip = gzip;
+        this.maxRetries = maxRetries;
     }
 
     @Override
@@ -56,7 +69,7 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
             synchronized (this) {
                 if (bulkProcessor == null) {
                     this.bulkProcessor = getClient().createBulkProcessor(
-                        bulkActions, flushInterval, concurrentRequests, batchOfBytes);
+                        bulkActions, flushInterval, concurrentRequests, batchOfBytes, gzip, maxRetries, bulkListener);
                 }
             }
         }
@@ -70,7 +83,7 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
             synchronized (this) {
                 if (bulkProcessor == null) {
                     this.bulkProcessor = getClient().createBulkProcessor(
-                        bulkActions, flushInterval, concurrentRequests, batchOfBytes);
+                        bulkActions, flushInterval, concurrentRequests, batchOfBytes, gzip, maxRetries, bulkListener);
                 }
             }
         }
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.library.elasticsearch.bulk.BulkListener;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * Count the failed bulk items per logic index, the time suffix of the index name is removed to keep the label set
+ * bounded. `result=retried` means the item was rejected and put back for retry, `result=dropped` means it failed
+ * finally.
+ */
+@RequiredArgsConstructor
+public class BulkItemFailureCounters implements BulkListener {
+    private static final Pattern TIME_SUFFIX = Pattern.compile("-\\d{8}$");
+
+    private final MetricsCreator metricsCreator;
+    private final Map<String, CounterMetrics> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void onItemFailure(final String index, final int status, final boolean retrying) {
+        final String name = index == null ? "unknown" : TIME_SUFFIX.matcher(index).replaceFirst("");
+        final String result = retrying ? "retried" : "dropped";
+        counters.computeIfAbsent(name + "/" + status + "/" + result, key -> metricsCreator.createCounter(
+            "elasticsearch_bulk_item_failure", "The number of failed items in the ElasticSearch bulk requests",
+            new MetricsTag.Keys("index", "status", "result"),
+            new MetricsTag.Values(name, String.valueOf(status), result)
+        )).inc();
+    }
+}
@@ -74,7 +74,7 @@ public class ElasticSearchConverter {
             if (CollectionUtils.isEmpty(fieldValue)) {
                 source.put(getPhysicalColumnName(modelName, fieldName), Const.EMPTY_STRING);
             } else {
-                source.put(getPhysicalColumnName(modelName, fieldName), new String(Base64.getEncoder().encode(fieldValue)));
+                source.put(getPhysicalColumnName(modelName, fieldName), Base64.getEncoder().encodeToString(fieldValue));
             }
         }
 
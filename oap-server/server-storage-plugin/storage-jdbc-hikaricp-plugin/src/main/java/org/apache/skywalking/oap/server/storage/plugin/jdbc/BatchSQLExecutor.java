@@ -27,9 +27,11 @@ import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
 
+import java.sql.BatchUpdateException;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -50,6 +52,7 @@ public class BatchSQLExecutor implements InsertRequest, UpdateRequest {
         }
         final var sql = prepareRequests.get(0).toString();
         final var bulkRequest = new ArrayList<PrepareRequest>(maxBatchSqlSize);
+        var executedCount = 0;
         try (final var connection = jdbcClient.getConnection();
              final var preparedStatement = connection.prepareStatement(sql)) {
             var pendingCount = 0;
@@ -64,6 +67,7 @@ public class BatchSQLExecutor implements InsertRequest, UpdateRequest {
                 bulkRequest.add(sqlExecutor);
                 if (bulkRequest.size() == maxBatchSqlSize) {
                     executeBatch(preparedStatement, maxBatchSqlSize, sql, bulkRequest);
+                    executedCount += bulkRequest.size();
                     bulkRequest.clear();
                     pendingCount = 0;
                 } else {
@@ -72,8 +76,13 @@ public class BatchSQLExecutor implements InsertRequest, UpdateRequest {
             }
             if (pendingCount > 0) {
                 executeBatch(preparedStatement, pendingCount, sql, bulkRequest);
+                executedCount += bulkRequest.size();
                 bulkRequest.clear();
             }
+        } catch (Exception e) {
+            // The requests not executed are failed, the update ones should be reloaded from the storage next time.
+            prepareRequests.subList(executedCount, prepareRequests.size()).forEach(BatchSQLExecutor::onFailure);
+            throw e;
         }
     }
 
@@ -82,15 +91,26 @@ public class BatchSQLExecutor implements InsertRequest, UpdateRequest {
                               String sql,
                               List<PrepareRequest> bulkRequest) throws SQLException {
         final var start = System.currentTimeMillis();
-        final var executeBatchResults = preparedStatement.executeBatch();
-        final var isInsert = bulkRequest.get(0) instanceof InsertRequest;
+        // SQLExecutor is both InsertRequest and UpdateRequest, the statement type could only be told by the SQL.
+        final var isUpdate = sql.startsWith("UPDATE");
+        int[] executeBatchResults;
+        try {
+            executeBatchResults = preparedStatement.executeBatch();
+        } catch (BatchUpdateException e) {
+            // Some drivers stop at the first failed statement, the results of the rest are not reported.
+            log.error("execute batch sql failed, batch size: {}, sql: {}", pendingCount, sql, e);
+            final var updateCounts = e.getUpdateCounts();
+            executeBatchResults = Arrays.copyOf(updateCounts, bulkRequest.size());
+            if (updateCounts.length < executeBatchResults.length) {
+                Arrays.fill(executeBatchResults, updateCounts.length, executeBatchResults.length, Statement.EXECUTE_FAILED);
+            }
+        }
         for (int i = 0; i < executeBatchResults.length; i++) {
-            if ((executeBatchResults[i] == 1 || executeBatchResults[i] == Statement.SUCCESS_NO_INFO) && isInsert) {
-                // Insert successfully.
+            final var result = executeBatchResults[i];
+            if (result == Statement.EXECUTE_FAILED || (result == 0 && isUpdate)) {
+                onFailure(bulkRequest.get(i));
+            } else if ((result > 0 || result == Statement.SUCCESS_NO_INFO) && bulkRequest.get(i) instanceof InsertRequest) {
                 ((InsertRequest) bulkRequest.get(i)).onInsertCompleted();
-            } else if (executeBatchResults[i] == 0 && !isInsert) {
-                // Update Failure.
-                ((UpdateRequest) bulkRequest.get(i)).onUpdateFailure();
             }
         }
         if (log.isDebugEnabled()) {
@@ -100,6 +120,16 @@ public class BatchSQLExecutor implements InsertRequest, UpdateRequest {
         }
     }
 
+    /**
+     * Notify the failure through {@link UpdateRequest#onUpdateFailure()}, the metrics would be removed from the session
+     * cache and reloaded from the storage in the next round, no matter it was going to be inserted or updated.
+     */
+    private static void onFailure(PrepareRequest prepareRequest) {
+        if (prepareRequest instanceof UpdateRequest) {
+            ((UpdateRequest) prepareRequest).onUpdateFailure();
+        }
+    }
+
     @Override
     public void onInsertCompleted() {
         throw new UnexpectedException("BatchSQLExecutor.onInsertCompleted should not be called");
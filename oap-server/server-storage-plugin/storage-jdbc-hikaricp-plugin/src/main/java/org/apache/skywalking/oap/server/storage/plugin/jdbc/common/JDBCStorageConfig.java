@@ -35,5 +35,19 @@ public class JDBCStorageConfig extends ModuleConfig {
      * async batch execute pool size
      */
     protected int asyncBatchPersistentPoolSize  = 4;
+    /**
+     * The max number of SQL batches executed concurrently in one flush, each batch holds one connection. The actual
+     * parallelism is limited by the connection pool size. 0 means executing the batches one by one.
+     *
+     * @since 10.1.0
+     */
+    protected int flushParallelism = 0;
+    /**
+     * Write the metrics of sum, count, max, min, avg and cpm functions through the native upsert, rather than reading
+     * them before the update. Only MySQL and PostgreSQL support it.
+     *
+     * @since 10.1.0
+     */
+    protected boolean metricsUpsertEnabled = false;
     protected Properties properties;
 }
@@ -104,6 +104,16 @@ public abstract class JDBCStorageProvider extends ModuleProvider {
      */
     protected abstract ModelInstaller createModelInstaller();
 
+    /**
+     * The storage implementations supporting the native upsert should provide the dialect.
+     *
+     * @return null if the upsert is not supported.
+     * @since 10.1.0
+     */
+    protected UpsertDialect createUpsertDialect() {
+        return null;
+    }
+
     @Override
     public Class<? extends ModuleDefine> module() {
         return StorageModule.class;
@@ -139,10 +149,11 @@ public abstract class JDBCStorageProvider extends ModuleProvider {
             new JDBCBatchDAO(
                 jdbcClient,
                 config.getMaxSizeOfBatchSql(),
-                config.getAsyncBatchPersistentPoolSize()));
+                config.getAsyncBatchPersistentPoolSize(),
+                config.getFlushParallelism()));
         this.registerServiceImplementation(
             StorageDAO.class,
-            new JDBCStorageDAO(jdbcClient));
+            new JDBCStorageDAO(jdbcClient, config.isMetricsUpsertEnabled() ? createUpsertDialect() : null));
 
         this.registerServiceImplementation(
             INetworkAddressAliasDAO.class,
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.common;
+
+import java.util.Map;
+
+/**
+ * The native upsert syntax of the database, which inserts the row, or updates the existing row when the id conflicts.
+ * The existing values are referenced by the column names directly.
+ *
+ * @since 10.1.0
+ */
+public interface UpsertDialect {
+    /**
+     * @param assignments the storage column names and the SQL expressions of their values after the update. MySQL
+     *                    evaluates the assignments from left to right, so an expression must not reference the columns
+     *                    assigned before it.
+     * @return the clause to append to the insert statement.
+     */
+    String onConflictUpdate(Map<String, String> assignments);
+
+    /**
+     * @return the reference of the given column in the row being inserted.
+     */
+    String inserting(String column);
+
+    /**
+     * @return the integer division truncated toward zero, as the Java long division.
+     */
+    String longDivide(String dividend, String divisor);
+}
@@ -32,6 +32,9 @@ import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -40,8 +43,21 @@ public class JDBCBatchDAO implements IBatchDAO {
     private final JDBCClient jdbcClient;
     private final DataCarrier<PrepareRequest> dataCarrier;
     private final int maxBatchSqlSize;
+    /**
+     * Execute the batches of different SQLs concurrently. Null means the batches are executed one by one in the
+     * caller thread.
+     */
+    private final ExecutorService flushExecutor;
 
     public JDBCBatchDAO(JDBCClient jdbcClient, int maxBatchSqlSize, int asyncBatchPersistentPoolSize) {
+        this(jdbcClient, maxBatchSqlSize, asyncBatchPersistentPoolSize, 0);
+    }
+
+    /**
+     * @param flushParallelism the max number of SQL batches executed concurrently in one flush, 0 means executing
+     *                         them in the caller thread.
+     */
+    public JDBCBatchDAO(JDBCClient jdbcClient, int maxBatchSqlSize, int asyncBatchPersistentPoolSize, int flushParallelism) {
         this.jdbcClient = jdbcClient;
         String name = "H2_ASYNCHRONOUS_BATCH_PERSISTENT";
         if (log.isDebugEnabled()) {
@@ -50,6 +66,21 @@ public class JDBCBatchDAO implements IBatchDAO {
         this.maxBatchSqlSize = maxBatchSqlSize;
         this.dataCarrier = new DataCarrier<>(name, asyncBatchPersistentPoolSize, 10000);
         this.dataCarrier.consume(new H2BatchConsumer(this), asyncBatchPersistentPoolSize, 20);
+        if (flushParallelism > 0) {
+            // Every flush thread holds one connection while executing, leave the connections for the async insert
+            // consumers and the queries, otherwise they would wait for the connection timeout.
+            final int threads = Math.max(
+                1, Math.min(flushParallelism, jdbcClient.getMaximumPoolSize() - asyncBatchPersistentPoolSize - 1));
+            log.info("JDBC batch flush parallelism: {}, max pool size: {}", threads, jdbcClient.getMaximumPoolSize());
+            final var threadIndex = new AtomicInteger();
+            this.flushExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+                final var thread = new Thread(runnable, "JDBC-batch-flush-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.flushExecutor = null;
+        }
     }
 
     @Override
@@ -72,19 +103,37 @@ public class JDBCBatchDAO implements IBatchDAO {
         }
 
         final var batchRequestsOfSql = sqls.stream().collect(Collectors.groupingBy(Function.identity()));
-        batchRequestsOfSql.forEach((sql, requests) -> {
-            try {
-                final var batchSQLExecutor = new BatchSQLExecutor(jdbcClient, requests);
-                batchSQLExecutor.invoke(maxBatchSqlSize);
-            } catch (Exception e) {
-                // Just to avoid one execution failure makes the rest of batch failure.
-                log.error(e.getMessage(), e);
+        if (flushExecutor == null) {
+            batchRequestsOfSql.values().forEach(this::executeBatch);
+            if (log.isDebugEnabled()) {
+                log.debug("execute sql statements done, data size: {}, maxBatchSqlSize: {}", prepareRequests.size(), maxBatchSqlSize);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // The batches of different SQLs are independent, the additional SQLs of one request could be executed in any
+        // order, as they were when grouped by the SQL.
+        return CompletableFuture.allOf(
+            batchRequestsOfSql.values()
+                              .stream()
+                              .map(requests -> CompletableFuture.runAsync(() -> executeBatch(requests), flushExecutor))
+                              .toArray(CompletableFuture[]::new)
+        ).whenComplete(($1, $2) -> {
+            if (log.isDebugEnabled()) {
+                log.debug("execute sql statements done, data size: {}, maxBatchSqlSize: {}", prepareRequests.size(), maxBatchSqlSize);
             }
         });
-        if (log.isDebugEnabled()) {
-            log.debug("execute sql statements done, data size: {}, maxBatchSqlSize: {}", prepareRequests.size(), maxBatchSqlSize);
+    }
+
+    private void executeBatch(List<PrepareRequest> requests) {
+        try {
+            final var batchSQLExecutor = new BatchSQLExecutor(jdbcClient, requests);
+            batchSQLExecutor.invoke(maxBatchSqlSize);
+        } catch (Exception e) {
+            // Just to avoid one execution failure makes the rest of batch failure.
+            // The failed requests have been notified through their callbacks.
+            log.error(e.getMessage(), e);
         }
-        return CompletableFuture.completedFuture(null);
     }
 
     @Override
@@ -102,7 +151,8 @@ public class JDBCBatchDAO implements IBatchDAO {
 
         @Override
         public void consume(List<PrepareRequest> prepareRequests) {
-            h2BatchDAO.flush(prepareRequests);
+            // Wait for the flush to keep the back pressure of the queue.
+            h2BatchDAO.flush(prepareRequests).join();
         }
 
         @Override
@@ -19,8 +19,9 @@
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.common.dao;
 
 import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
-import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.IMetricsUpsertDAO;
 import org.apache.skywalking.oap.server.core.storage.SessionCacheCallback;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
@@ -29,17 +30,34 @@ import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCClient;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.TableHelper;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.UpsertDialect;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.stream.Collectors.toList;
 
 @RequiredArgsConstructor
-public class JDBCMetricsDAO extends JDBCSQLExecutor implements IMetricsDAO {
+public class JDBCMetricsDAO extends JDBCSQLExecutor implements IMetricsUpsertDAO {
     private final JDBCClient jdbcClient;
     private final StorageBuilder<Metrics> storageBuilder;
+    /**
+     * Null means the upsert is disabled.
+     *
+     * @since 10.1.0
+     */
+    private final UpsertDialect upsertDialect;
+    /**
+     * The upsert clauses of the models of this stream, empty means the model is not supported.
+     */
+    private final Map<DownSampling, String> upsertClauses = new ConcurrentHashMap<>();
+
+    public JDBCMetricsDAO(JDBCClient jdbcClient, StorageBuilder<Metrics> storageBuilder) {
+        this(jdbcClient, storageBuilder, null);
+    }
 
     @Override
     public List<Metrics> multiGet(Model model, List<Metrics> metrics) throws Exception {
@@ -57,6 +75,23 @@ public class JDBCMetricsDAO extends JDBCSQLExecutor implements IMetricsDAO {
         return getInsertExecutor(model, metrics, metrics.getTimeBucket(), storageBuilder, new HashMapConverter.ToStorage(), callback);
     }
 
+    @Override
+    public boolean isUpsertSupported(Model model) {
+        return upsertDialect != null && !upsertClause(model).isEmpty();
+    }
+
+    @Override
+    public SQLExecutor prepareBatchUpsert(Model model, Metrics metrics, SessionCacheCallback callback) {
+        return getUpsertExecutor(model, metrics, metrics.getTimeBucket(), storageBuilder, upsertClause(model), callback);
+    }
+
+    private String upsertClause(Model model) {
+        return upsertClauses.computeIfAbsent(model.getDownsampling(), ignored -> {
+            final String clause = MetricsUpsertClause.build(model, upsertDialect);
+            return clause == null ? "" : clause;
+        });
+    }
+
     @Override
     public SQLExecutor prepareBatchUpdate(Model model, Metrics metrics, SessionCacheCallback callback) {
         return getUpdateExecutor(model, metrics, metrics.getTimeBucket(), storageBuilder, callback);
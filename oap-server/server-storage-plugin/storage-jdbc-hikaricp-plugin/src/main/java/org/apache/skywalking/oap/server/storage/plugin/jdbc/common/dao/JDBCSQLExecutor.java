@@ -114,7 +114,7 @@ public class JDBCSQLExecutor {
             mainEntity.put(column.getColumnName().getName(), objectMap.get(column.getColumnName().getName()));
         });
         SQLExecutor sqlExecutor = buildInsertExecutor(
-            model, metrics, timeBucket, mainEntity, callback);
+            model, metrics, timeBucket, mainEntity, callback, null);
         //build additional table sql
         for (final var additionalTable : model.getSqlDBModelExtension().getAdditionalTables().values()) {
             Map<String, Object> additionalEntity = new HashMap<>();
@@ -131,11 +131,28 @@ public class JDBCSQLExecutor {
         return sqlExecutor;
     }
 
+    /**
+     * Build the insert statement of the main table only, which merges the metrics into the existing row through the
+     * given upsert clause.
+     *
+     * @since 10.1.0
+     */
+    protected <T extends StorageData> SQLExecutor getUpsertExecutor(Model model, T metrics,
+                                                                    long timeBucket,
+                                                                    StorageBuilder<T> storageBuilder,
+                                                                    String upsertClause,
+                                                                    SessionCacheCallback callback) {
+        final var toStorage = new HashMapConverter.ToStorage();
+        storageBuilder.entity2Storage(metrics, toStorage);
+        return buildInsertExecutor(model, metrics, timeBucket, toStorage.obtain(), callback, upsertClause);
+    }
+
     private <T extends StorageData> SQLExecutor buildInsertExecutor(Model model,
                                                                     T metrics,
                                                                     long timeBucket,
                                                                     Map<String, Object> objectMap,
-                                                                    SessionCacheCallback onCompleteCallback) {
+                                                                    SessionCacheCallback onCompleteCallback,
+                                                                    String upsertClause) {
         final var table = TableHelper.getTable(model, timeBucket);
         final var sqlBuilder = new SQLBuilder("INSERT INTO " + table);
         final var columns = model.getColumns();
@@ -150,6 +167,9 @@ public class JDBCSQLExecutor {
         sqlBuilder.append(columnNames.stream().collect(Collectors.joining(",", "(", ")")));
         sqlBuilder.append(" VALUES ");
         sqlBuilder.append(columnNames.stream().map(it -> "?").collect(Collectors.joining(",", "(", ")")));
+        if (upsertClause != null) {
+            sqlBuilder.append(upsertClause);
+        }
 
         final var param =
             Stream.concat(
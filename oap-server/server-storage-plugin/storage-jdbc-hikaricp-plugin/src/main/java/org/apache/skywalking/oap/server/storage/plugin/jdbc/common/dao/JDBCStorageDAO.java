@@ -30,14 +30,25 @@ import org.apache.skywalking.oap.server.core.storage.IRecordDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageDAO;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.UpsertDialect;
 
 @RequiredArgsConstructor
 public class JDBCStorageDAO implements StorageDAO {
     private final JDBCClient jdbcClient;
+    /**
+     * Null means the metrics are not written through upsert.
+     *
+     * @since 10.1.0
+     */
+    private final UpsertDialect upsertDialect;
+
+    public JDBCStorageDAO(JDBCClient jdbcClient) {
+        this(jdbcClient, null);
+    }
 
     @Override
     public IMetricsDAO newMetricsDao(StorageBuilder storageBuilder) {
-        return new JDBCMetricsDAO(jdbcClient, (StorageBuilder<Metrics>) storageBuilder);
+        return new JDBCMetricsDAO(jdbcClient, (StorageBuilder<Metrics>) storageBuilder, upsertDialect);
     }
 
     @Override
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.common.dao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CPMMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DoubleAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MaxDoubleMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MaxLongMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MinDoubleMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MinLongMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.SumMetrics;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.JDBCTableInstaller;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.UpsertDialect;
+
+/**
+ * Build the upsert clause merging the inserted metrics into the existing row, in the same way as the combine and
+ * calculate of the metrics function. Only the functions whose merge could be expressed in SQL are supported, the
+ * others, such as percentile and histogram, keep reading the metrics before the update.
+ */
+final class MetricsUpsertClause {
+    private MetricsUpsertClause() {
+    }
+
+    /**
+     * @return the clause to append to the insert statement of the model, or null if the model is not supported.
+     */
+    static String build(Model model, UpsertDialect dialect) {
+        if (!model.getSqlDBModelExtension().getAdditionalTables().isEmpty()) {
+            return null;
+        }
+        final Map<String, String> storageNames = new LinkedHashMap<>();
+        for (final ModelColumn column : model.getColumns()) {
+            storageNames.put(column.getColumnName().getName(), column.getColumnName().getStorageName());
+        }
+        // The calculated columns go first, as MySQL evaluates the assignments from left to right.
+        final Map<String, String> assignments = new LinkedHashMap<>();
+        final Class<?> function = model.getStreamClass();
+        final UnaryOperator<String> sum = column -> column + " + " + dialect.inserting(column);
+        if (SumMetrics.class.isAssignableFrom(function) || CountMetrics.class.isAssignableFrom(function)) {
+            if (!merge(assignments, storageNames, "value", sum)) {
+                return null;
+            }
+        } else if (MaxLongMetrics.class.isAssignableFrom(function) || MaxDoubleMetrics.class.isAssignableFrom(function)) {
+            if (!merge(assignments, storageNames, "value", column -> "GREATEST(" + column + ", " + dialect.inserting(column) + ")")) {
+                return null;
+            }
+        } else if (MinLongMetrics.class.isAssignableFrom(function) || MinDoubleMetrics.class.isAssignableFrom(function)) {
+            if (!merge(assignments, storageNames, "value", column -> "LEAST(" + column + ", " + dialect.inserting(column) + ")")) {
+                return null;
+            }
+        } else if (LongAvgMetrics.class.isAssignableFrom(function)) {
+            final String summation = storageNames.get("summation");
+            final String count = storageNames.get("count");
+            if (summation == null || count == null
+                || !merge(assignments, storageNames, "value", column -> dialect.longDivide(sum.apply(summation), sum.apply(count)))
+                || !merge(assignments, storageNames, "summation", sum)
+                || !merge(assignments, storageNames, "count", sum)) {
+                return null;
+            }
+        } else if (DoubleAvgMetrics.class.isAssignableFrom(function)) {
+            final String summation = storageNames.get("double_summation");
+            final String count = storageNames.get("count");
+            if (summation == null || count == null
+                || !merge(assignments, storageNames, "double_value", column -> "(" + sum.apply(summation) + ") / (" + sum.apply(count) + ")")
+                || !merge(assignments, storageNames, "double_summation", sum)
+                || !merge(assignments, storageNames, "count", sum)) {
+                return null;
+            }
+        } else if (CPMMetrics.class.isAssignableFrom(function)) {
+            final String total = storageNames.get("total");
+            final long durationInMinute = durationInMinute(model.getDownsampling());
+            if (total == null || durationInMinute <= 0
+                || !merge(assignments, storageNames, "value", column -> dialect.longDivide(sum.apply(total), String.valueOf(durationInMinute)))
+                || !merge(assignments, storageNames, "total", sum)) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        // The rest are the entity columns, keep them as the inserted values.
+        storageNames.values().forEach(column -> assignments.putIfAbsent(column, dialect.inserting(column)));
+        assignments.putIfAbsent(JDBCTableInstaller.TABLE_COLUMN, dialect.inserting(JDBCTableInstaller.TABLE_COLUMN));
+        return dialect.onConflictUpdate(assignments);
+    }
+
+    private static boolean merge(Map<String, String> assignments,
+                                 Map<String, String> storageNames,
+                                 String name,
+                                 UnaryOperator<String> expression) {
+        final String column = storageNames.get(name);
+        if (column == null) {
+            return false;
+        }
+        assignments.put(column, expression.apply(column));
+        return true;
+    }
+
+    /**
+     * Same as {@code Metrics#getDurationInMinute}, the time bucket of a model is always in its down sampling.
+     */
+    private static long durationInMinute(DownSampling downSampling) {
+        switch (downSampling) {
+            case Minute:
+                return 1;
+            case Hour:
+                return 60;
+            case Day:
+                return 24 * 60;
+            default:
+                return -1;
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
 
 import org.apache.skywalking.oap.server.core.storage.model.ModelInstaller;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.JDBCStorageProvider;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.UpsertDialect;
 
 /**
  * MySQL storage provider should be secondary choice for production usage as SkyWalking storage solution. It enhanced
@@ -39,4 +40,9 @@ public class MySQLStorageProvider extends JDBCStorageProvider {
     protected ModelInstaller createModelInstaller() {
         return new MySQLTableInstaller(jdbcClient, getManager());
     }
+
+    @Override
+    protected UpsertDialect createUpsertDialect() {
+        return new MySQLUpsertDialect();
+    }
 }
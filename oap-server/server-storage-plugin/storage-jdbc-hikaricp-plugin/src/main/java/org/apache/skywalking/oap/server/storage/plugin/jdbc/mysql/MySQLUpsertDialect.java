@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.UpsertDialect;
+
+/**
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE}, the {@code VALUES()} function is used rather than the row alias, to keep
+ * compatible with MySQL 5.7 and the MySQL-compatible projects.
+ */
+public class MySQLUpsertDialect implements UpsertDialect {
+    @Override
+    public String onConflictUpdate(final Map<String, String> assignments) {
+        return assignments.entrySet()
+                          .stream()
+                          .map(it -> it.getKey() + " = " + it.getValue())
+                          .collect(Collectors.joining(", ", " ON DUPLICATE KEY UPDATE ", ""));
+    }
+
+    @Override
+    public String inserting(final String column) {
+        return "VALUES(" + column + ")";
+    }
+
+    @Override
+    public String longDivide(final String dividend, final String divisor) {
+        return "(" + dividend + ") DIV (" + divisor + ")";
+    }
+}
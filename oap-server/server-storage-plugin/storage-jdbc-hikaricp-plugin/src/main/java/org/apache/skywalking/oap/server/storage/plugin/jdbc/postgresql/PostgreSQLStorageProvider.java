@@ -26,6 +26,7 @@ import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedExcepti
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.JDBCStorageProvider;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql.dao.PostgreSQLAggregationQueryDAO;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql.dao.PostgreSQLMetricsQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.UpsertDialect;
 
 /**
  * PostgreSQL storage enhanced and came from MySQLStorageProvider to support PostgreSQL.
@@ -41,6 +42,11 @@ public class PostgreSQLStorageProvider extends JDBCStorageProvider {
         return new PostgreSQLTableInstaller(jdbcClient, getManager());
     }
 
+    @Override
+    protected UpsertDialect createUpsertDialect() {
+        return new PostgreSQLUpsertDialect();
+    }
+
     @Override
     public void prepare() throws ServiceNotProvidedException, ModuleStartException {
         super.prepare();
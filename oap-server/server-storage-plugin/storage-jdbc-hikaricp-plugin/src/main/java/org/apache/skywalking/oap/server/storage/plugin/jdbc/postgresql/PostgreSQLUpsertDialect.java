@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.JDBCTableInstaller;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.UpsertDialect;
+
+/**
+ * {@code INSERT ... ON CONFLICT (id) DO UPDATE}, the id column is the primary key of the metrics tables.
+ */
+public class PostgreSQLUpsertDialect implements UpsertDialect {
+    @Override
+    public String onConflictUpdate(final Map<String, String> assignments) {
+        return assignments.entrySet()
+                          .stream()
+                          .map(it -> it.getKey() + " = " + it.getValue())
+                          .collect(Collectors.joining(
+                              ", ", " ON CONFLICT (" + JDBCTableInstaller.ID_COLUMN + ") DO UPDATE SET ", ""));
+    }
+
+    @Override
+    public String inserting(final String column) {
+        return "EXCLUDED." + column;
+    }
+
+    @Override
+    public String longDivide(final String dividend, final String divisor) {
+        // The division of integer types truncates toward zero.
+        return "(" + dividend + ") / (" + divisor + ")";
+    }
+}
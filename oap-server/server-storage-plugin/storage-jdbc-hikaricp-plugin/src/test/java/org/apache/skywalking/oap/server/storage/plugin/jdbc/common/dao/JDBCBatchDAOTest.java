@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.common.dao;
+
+import org.apache.skywalking.oap.server.core.storage.SessionCacheCallback;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCClient;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class JDBCBatchDAOTest {
+    private static final int TABLE_SIZE = 4;
+
+    private JDBCClient jdbcClient;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        final var properties = new Properties();
+        properties.setProperty("jdbcUrl", "jdbc:h2:mem:JDBCBatchDAOTest;DB_CLOSE_DELAY=-1");
+        properties.setProperty("dataSource.user", "sa");
+        properties.setProperty("maximumPoolSize", "8");
+        jdbcClient = new JDBCClient(properties);
+        jdbcClient.connect();
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            jdbcClient.execute("CREATE TABLE test_" + i + " (id VARCHAR(64) PRIMARY KEY, v BIGINT)");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        jdbcClient.execute("DROP ALL OBJECTS");
+        jdbcClient.shutdown();
+    }
+
+    @Test
+    public void testParallelFlush() throws Exception {
+        final var batchDAO = new JDBCBatchDAO(jdbcClient, 7, 1, 4);
+        final var requests = new ArrayList<PrepareRequest>();
+        final var callbacks = new ArrayList<SessionCacheCallback>();
+        for (int i = 0; i < 100; i++) {
+            final var callback = mock(SessionCacheCallback.class);
+            callbacks.add(callback);
+            requests.add(new SQLExecutor(
+                "INSERT INTO test_" + i % TABLE_SIZE + " (id, v) VALUES (?, ?)", List.of("id-" + i, (long) i), callback));
+        }
+        batchDAO.flush(requests).join();
+
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            assertEquals(25, count("test_" + i));
+        }
+        callbacks.forEach(callback -> {
+            verify(callback).onInsertCompleted();
+            verify(callback, never()).onUpdateFailure();
+        });
+    }
+
+    @Test
+    public void testFailureNotifiedPerCallback() throws Exception {
+        final var batchDAO = new JDBCBatchDAO(jdbcClient, 10, 1, 4);
+        jdbcClient.executeUpdate("INSERT INTO test_0 (id, v) VALUES (?, ?)", "existing", 1L);
+
+        final var inserted = mock(SessionCacheCallback.class);
+        final var duplicated = mock(SessionCacheCallback.class);
+        final var updated = mock(SessionCacheCallback.class);
+        final var missing = mock(SessionCacheCallback.class);
+        final var requests = List.<PrepareRequest>of(
+            new SQLExecutor("INSERT INTO test_1 (id, v) VALUES (?, ?)", List.of("new", 1L), inserted),
+            new SQLExecutor("INSERT INTO test_0 (id, v) VALUES (?, ?)", List.of("existing", 2L), duplicated),
+            new SQLExecutor("UPDATE test_0 SET v = ? WHERE id = ?", List.of(3L, "existing"), updated),
+            new SQLExecutor("UPDATE test_0 SET v = ? WHERE id = ?", List.of(4L, "missing"), missing)
+        );
+        batchDAO.flush(requests).join();
+
+        verify(inserted).onInsertCompleted();
+        verify(inserted, never()).onUpdateFailure();
+        verify(duplicated).onUpdateFailure();
+        verify(updated, never()).onUpdateFailure();
+        verify(missing).onUpdateFailure();
+        assertEquals(1, count("test_1"));
+    }
+
+    private int count(String table) throws Exception {
+        return jdbcClient.executeQuery("SELECT COUNT(1) FROM " + table, resultSet -> {
+            resultSet.next();
+            return resultSet.getInt(1);
+        });
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.common.dao;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics2;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.StorageID;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.model.BanyanDBModelExtension;
+import org.apache.skywalking.oap.server.core.storage.model.ColumnName;
+import org.apache.skywalking.oap.server.core.storage.model.ElasticSearchModelExtension;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.apache.skywalking.oap.server.core.storage.model.SQLDatabaseExtension;
+import org.apache.skywalking.oap.server.core.storage.model.SQLDatabaseModelExtension;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Entity;
+import org.apache.skywalking.oap.server.core.storage.type.Convert2Storage;
+import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.common.TableHelper;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql.MySQLUpsertDialect;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql.PostgreSQLUpsertDialect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JDBCMetricsDAOUpsertTest {
+    private static final long TIME_BUCKET = 202410171200L;
+
+    private JDBCClient jdbcClient;
+    private Model model;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        final var properties = new Properties();
+        properties.setProperty("jdbcUrl", "jdbc:h2:mem:JDBCMetricsDAOUpsertTest;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        properties.setProperty("dataSource.user", "sa");
+        jdbcClient = new JDBCClient(properties);
+        jdbcClient.connect();
+
+        model = model(AvgMetrics.class);
+        jdbcClient.execute("CREATE TABLE " + TableHelper.getTable(model, TIME_BUCKET)
+                               + " (id VARCHAR(512) PRIMARY KEY, table_name VARCHAR(512), entity_id VARCHAR(512),"
+                               + " summation BIGINT, count BIGINT, value_ BIGINT, time_bucket BIGINT)");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        jdbcClient.execute("DROP ALL OBJECTS");
+        jdbcClient.shutdown();
+    }
+
+    @Test
+    public void testUpsertMerge() throws Exception {
+        // H2 in MySQL mode supports ON DUPLICATE KEY UPDATE, but not the DIV operator.
+        final var dialect = new MySQLUpsertDialect() {
+            @Override
+            public String longDivide(final String dividend, final String divisor) {
+                return "(" + dividend + ") / (" + divisor + ")";
+            }
+        };
+        final var metricsDAO = new JDBCMetricsDAO(jdbcClient, (StorageBuilder) new AvgMetrics.Builder(), dialect);
+        assertTrue(metricsDAO.isUpsertSupported(model));
+
+        metricsDAO.prepareBatchUpsert(model, avg("service-a", 10, 2), null).invoke(jdbcClient.getConnection());
+        assertEquals(List.of(10L, 2L, 5L), load("service-a"));
+
+        metricsDAO.prepareBatchUpsert(model, avg("service-a", 5, 3), null).invoke(jdbcClient.getConnection());
+        metricsDAO.prepareBatchUpsert(model, avg("service-b", 7, 7), null).invoke(jdbcClient.getConnection());
+        // Same as LongAvgMetrics#combine and LongAvgMetrics#calculate.
+        assertEquals(List.of(15L, 5L, 3L), load("service-a"));
+        assertEquals(List.of(7L, 7L, 1L), load("service-b"));
+    }
+
+    @Test
+    public void testUpsertClause() {
+        assertEquals(
+            " ON CONFLICT (id) DO UPDATE SET value_ = (summation + EXCLUDED.summation) / (count + EXCLUDED.count),"
+                + " summation = summation + EXCLUDED.summation, count = count + EXCLUDED.count,"
+                + " entity_id = EXCLUDED.entity_id, time_bucket = EXCLUDED.time_bucket,"
+                + " table_name = EXCLUDED.table_name",
+            MetricsUpsertClause.build(model, new PostgreSQLUpsertDialect())
+        );
+    }
+
+    @Test
+    public void testUnsupportedFunction() {
+        assertFalse(new JDBCMetricsDAO(jdbcClient, null, new MySQLUpsertDialect()).isUpsertSupported(model(PercentileMetrics2.class)));
+        assertFalse(new JDBCMetricsDAO(jdbcClient, null).isUpsertSupported(model));
+    }
+
+    private List<Long> load(String entityId) throws Exception {
+        return jdbcClient.executeQuery(
+            "SELECT summation, count, value_ FROM " + TableHelper.getTable(model, TIME_BUCKET) + " WHERE id = ?",
+            resultSet -> {
+                resultSet.next();
+                return List.of(resultSet.getLong(1), resultSet.getLong(2), resultSet.getLong(3));
+            }, TableHelper.generateId(model, avg(entityId, 1, 1).id().build())
+        );
+    }
+
+    private static AvgMetrics avg(String entityId, long summation, long count) {
+        final var metrics = new AvgMetrics();
+        metrics.setEntityId(entityId);
+        metrics.setTimeBucket(TIME_BUCKET);
+        metrics.combine(summation, count);
+        metrics.calculate();
+        return metrics;
+    }
+
+    private static Model model(Class<?> streamClass) {
+        final var columns = new ArrayList<ModelColumn>();
+        for (final var name : List.of("entity_id", "summation", "count", "value", "time_bucket")) {
+            final var column = mock(Column.class);
+            when(column.name()).thenReturn(name);
+            final var columnName = new ColumnName(column);
+            // Same as MySQLTableInstaller.
+            columnName.overrideName("value", "value_");
+            final var type = "entity_id".equals(name) ? String.class : long.class;
+            columns.add(new ModelColumn(columnName, type, type, false, false, false, 512,
+                                        new SQLDatabaseExtension(), null, null));
+        }
+        return new Model(
+            "test_avg", columns, 1, DownSampling.Minute, false, streamClass, true, new SQLDatabaseModelExtension(),
+            new BanyanDBModelExtension(), new ElasticSearchModelExtension());
+    }
+
+    public static class AvgMetrics extends LongAvgMetrics {
+        @Setter
+        @Getter
+        private String entityId;
+
+        @Override
+        protected StorageID id0() {
+            return new StorageID().append(Metrics.TIME_BUCKET, getTimeBucket()).append("entity_id", entityId);
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override
+        public void deserialize(final RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        public static class Builder implements StorageBuilder<AvgMetrics> {
+            @Override
+            public AvgMetrics storage2Entity(final Convert2Entity converter) {
+                return null;
+            }
+
+            @Override
+            public void entity2Storage(final AvgMetrics storageData, final Convert2Storage converter) {
+                converter.accept("entity_id", storageData.getEntityId());
+                converter.accept("summation", storageData.getSummation());
+                converter.accept("count", storageData.getCount());
+                converter.accept("value", storageData.getValue());
+                converter.accept("time_bucket", storageData.getTimeBucket());
+            }
+        }
+    }
+}